@@ -0,0 +1,128 @@
+package com.lcsc.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.config.JacksonConfig;
+import com.lcsc.entity.Product;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试夹具
+ * 夹具为按立创 query/list、query/param/group 接口响应结构构造的样本（每页25个产品，与爬虫请求的 pageSize 一致），
+ * 覆盖多阶梯价、多参数、多候选图片、缺失PDF/主图为"null"等分支
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public final class BenchmarkFixtures {
+
+    public static final String QUERY_LIST = "fixtures/query-list.json";
+    public static final String PARAM_GROUP = "fixtures/param-group.json";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 与应用相同配置的 ObjectMapper
+     */
+    public static ObjectMapper objectMapper() {
+        return new JacksonConfig().objectMapper();
+    }
+
+    /**
+     * 读取类路径下的夹具文件
+     */
+    public static String read(String resource) {
+        return new String(readBytes(resource), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取夹具原始字节（与HTTP响应体一致，供按字节流解析的方法使用）
+     */
+    public static byte[] readBytes(String resource) {
+        try (InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("夹具不存在: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 为字段注入的服务设置依赖（不启动Spring上下文）
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        ReflectionTestUtils.setField(target, fieldName, value);
+    }
+
+    /**
+     * 将 query/list 夹具中的产品映射为入库后的产品实体，供导出基准使用
+     */
+    public static List<Product> products(ObjectMapper objectMapper) {
+        try {
+            JsonNode dataList = objectMapper.readTree(read(QUERY_LIST)).path("result").path("dataList");
+            List<Product> products = new ArrayList<>(dataList.size());
+            for (JsonNode node : dataList) {
+                products.add(toProduct(node));
+            }
+            return products;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Product toProduct(JsonNode node) {
+        Product product = new Product();
+        product.setProductCode(node.path("productCode").asText());
+        product.setModel(node.path("productModel").asText());
+        product.setBrand(node.path("brandNameEn").asText().replace("&", " "));
+        String encap = node.path("encapStandard").asText();
+        product.setPackageName("-".equals(encap) ? null : encap);
+        String intro = node.path("productIntroEn").asText();
+        product.setBriefDescription(intro.length() > 60 ? intro.substring(0, 60) : intro);
+        product.setTotalStockQuantity(node.path("stockNumber").asInt());
+        product.setCategoryLevel1Id(node.path("parentCatalogId").asInt());
+        product.setCategoryLevel1Name(node.path("parentCatalogName").asText());
+        product.setCategoryLevel2Id(node.path("catalogId").asInt());
+        product.setCategoryLevel2Name(node.path("catalogName").asText());
+        product.setProductImageUrlBig(node.path("productImageUrlBig").asText(null));
+        product.setImageName(product.getProductCode() + "_front.jpg");
+        if (!node.path("pdfUrl").isNull()) {
+            product.setPdfUrl(node.path("pdfUrl").asText());
+        }
+
+        JsonNode prices = node.path("productPriceList");
+        for (int i = 0; i < prices.size() && i < 6; i++) {
+            Integer quantity = prices.get(i).path("ladder").asInt();
+            BigDecimal price = new BigDecimal(prices.get(i).path("productPrice").asText());
+            switch (i) {
+                case 0 -> { product.setLadderPrice1Quantity(quantity); product.setLadderPrice1Price(price); }
+                case 1 -> { product.setLadderPrice2Quantity(quantity); product.setLadderPrice2Price(price); }
+                case 2 -> { product.setLadderPrice3Quantity(quantity); product.setLadderPrice3Price(price); }
+                case 3 -> { product.setLadderPrice4Quantity(quantity); product.setLadderPrice4Price(price); }
+                case 4 -> { product.setLadderPrice5Quantity(quantity); product.setLadderPrice5Price(price); }
+                default -> { product.setLadderPrice6Quantity(quantity); product.setLadderPrice6Price(price); }
+            }
+        }
+
+        StringBuilder parameters = new StringBuilder();
+        for (JsonNode param : node.path("paramVOList")) {
+            if (parameters.length() > 0) {
+                parameters.append(' ');
+            }
+            parameters.append(param.path("paramName").asText()).append(':').append(param.path("paramValue").asText());
+        }
+        product.setParametersText(parameters.toString());
+        return product;
+    }
+}
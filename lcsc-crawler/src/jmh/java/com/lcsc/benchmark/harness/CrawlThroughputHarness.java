@@ -0,0 +1,262 @@
+package com.lcsc.benchmark.harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lcsc.LcscApplication;
+import com.lcsc.benchmark.simulator.LcscApiSimulator;
+import com.lcsc.mapper.ProductMapper;
+import com.lcsc.service.crawler.monitoring.CrawlerMeters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全量爬取吞吐压测
+ * 启动本地立创API模拟器和完整的Spring应用（API地址指向模拟器、限速间隔归零），
+ * 依次调用 /sync-categories 和 /start-full，轮询 /status 直到队列清空，输出：
+ * <ul>
+ *   <li>产品数与 products/s</li>
+ *   <li>每个产品的API调用次数（模拟器侧含重试与429，应用侧取 crawler.api.request 计时器）</li>
+ *   <li>每个产品的数据库语句数（MyBatis预编译语句，按SELECT/INSERT/UPDATE/DELETE分类）</li>
+ *   <li>429次数、超时次数、完成耗时</li>
+ * </ul>
+ * 数据库和Redis使用 docker-compose 中的实例，但默认写入独立的 lcsc_bench 库和 Redis 15 号库，
+ * 每次运行前由建表脚本 DROP/CREATE 并清空Redis库，不影响开发数据。
+ * <p>
+ * 运行: mvn -P benchmark test-compile exec:exec@crawl-harness -Dharness.args="--sim.products=20000"
+ * <br>
+ * 参数: --sim.* 交给模拟器（见 {@link LcscApiSimulator.Options}），--harness.timeout-minutes 控制最长等待，
+ * 其余 --key=value 作为Spring属性覆盖默认值（如 --crawler.page-delay-ms=500 还原线上节奏）
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class CrawlThroughputHarness {
+
+    private static final String API_PREFIX = "/api/v3/crawler";
+    private static final Path OUTPUT_DIR = Paths.get("target", "jmh", "harness");
+    private static final long POLL_INTERVAL_MS = 250;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = new CrawlThroughputHarness().run(args);
+        System.exit(exitCode);
+    }
+
+    int run(String[] args) throws Exception {
+        long timeoutMinutes = 60;
+        List<String> springArgs = new ArrayList<>();
+        Map<String, String> overrides = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--sim.")) {
+                continue;
+            }
+            if (arg.startsWith("--harness.timeout-minutes=")) {
+                timeoutMinutes = Long.parseLong(arg.substring(arg.indexOf('=') + 1));
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                overrides.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                springArgs.add(arg);
+            }
+        }
+
+        Files.createDirectories(OUTPUT_DIR);
+        try (LcscApiSimulator simulator = new LcscApiSimulator(LcscApiSimulator.Options.fromArgs(args))) {
+            simulator.start();
+            System.out.println("模拟器: " + simulator.getApiBaseUrl() + "，合成产品数: "
+                    + simulator.getCatalog().getTotalProducts());
+
+            Map<String, String> properties = defaultProperties(simulator);
+            properties.putAll(overrides);
+            properties.forEach((key, value) -> springArgs.add("--" + key + "=" + value));
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                    LcscApplication.class, HarnessConfiguration.class).run(springArgs.toArray(new String[0]))) {
+                flushRedis(context);
+                String appUrl = "http://127.0.0.1:"
+                        + ((WebServerApplicationContext) context).getWebServer().getPort() + API_PREFIX;
+
+                JsonNode sync = post(appUrl + "/sync-categories");
+                if (sync.path("code").asInt() != 200) {
+                    System.err.println("分类同步失败: " + sync);
+                    return 1;
+                }
+
+                StatementCountingInterceptor statements = context.getBean(StatementCountingInterceptor.class);
+                MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+                Map<String, Map<String, Long>> simulatorBefore = simulator.getStats();
+                long apiRequestsBefore = simulator.getApiRequestCount();
+                long appApiCallsBefore = appApiCalls(meterRegistry);
+                statements.reset();
+
+                long startNanos = System.nanoTime();
+                JsonNode start = post(appUrl + "/start-full");
+                if (start.path("code").asInt() != 200) {
+                    System.err.println("启动全量爬取失败: " + start);
+                    return 1;
+                }
+
+                JsonNode status = waitForDrain(appUrl, timeoutMinutes, startNanos);
+                double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+                long products = context.getBean(ProductMapper.class).selectCount(null);
+
+                Map<String, Object> report = report(simulator, simulatorBefore,
+                        simulator.getApiRequestCount() - apiRequestsBefore,
+                        appApiCalls(meterRegistry) - appApiCallsBefore,
+                        statements, status, products, seconds);
+                String json = objectMapper.writeValueAsString(report);
+                Path reportFile = OUTPUT_DIR.resolve("crawl-report-"
+                        + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+                Files.writeString(reportFile, json);
+                System.out.println(json);
+                System.out.println("报告已写入: " + reportFile.toAbsolutePath());
+                return status.path("timedOut").asBoolean() ? 2 : 0;
+            }
+        }
+    }
+
+    /**
+     * 压测默认属性（均可通过命令行 --key=value 覆盖）
+     */
+    private Map<String, String> defaultProperties(LcscApiSimulator simulator) {
+        String dataDir = OUTPUT_DIR.resolve("data").toAbsolutePath().toString();
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("crawler.api.base-url", simulator.getApiBaseUrl());
+        properties.put("crawler.rate-limit.min-interval-ms", "0");
+        properties.put("crawler.rate-limit.initial-interval-ms", "0");
+        properties.put("crawler.page-delay-ms", "0");
+        properties.put("crawler.storage.base-path", dataDir);
+        properties.put("crawler.product-result.path", dataDir + "/results");
+        properties.put("spring.datasource.url", "jdbc:mysql://localhost:13306/lcsc_bench?createDatabaseIfNotExist=true"
+                + "&useUnicode=true&characterEncoding=utf-8&useSSL=false&serverTimezone=Asia/Shanghai"
+                + "&allowPublicKeyRetrieval=true");
+        properties.put("spring.datasource.username", "root");
+        properties.put("spring.datasource.password", "lcsc123456");
+        properties.put("spring.sql.init.mode", "always");
+        properties.put("spring.redis.database", "15");
+        properties.put("mybatis-plus.configuration.log-impl", "org.apache.ibatis.logging.nologging.NoLoggingImpl");
+        properties.put("logging.level.root", "WARN");
+        return properties;
+    }
+
+    private void flushRedis(ConfigurableApplicationContext context) {
+        try (RedisConnection connection = context.getBean(RedisConnectionFactory.class).getConnection()) {
+            connection.serverCommands().flushDb();
+        }
+    }
+
+    /**
+     * 轮询 /status，直到首次出现 pending=0 且 processing=0，再等待Worker池退出
+     */
+    private JsonNode waitForDrain(String appUrl, long timeoutMinutes, long startNanos) throws Exception {
+        long deadline = startNanos + Duration.ofMinutes(timeoutMinutes).toNanos();
+        long lastPrint = 0;
+        boolean drained = false;
+        JsonNode data = objectMapper.createObjectNode();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MS);
+            data = get(appUrl + "/status").path("data");
+            JsonNode queue = data.path("queueStatus");
+            if (!drained && queue.path("total").asInt() > 0
+                    && queue.path("pending").asInt() == 0 && queue.path("processing").asInt() == 0) {
+                drained = true;
+            }
+            if (drained && !data.path("isRunning").asBoolean()) {
+                return data;
+            }
+            if (System.nanoTime() - lastPrint > Duration.ofSeconds(10).toNanos()) {
+                lastPrint = System.nanoTime();
+                System.out.printf("进度: 已入库=%d, 队列=%s%n", data.path("totalProductsInDb").asLong(), queue);
+            }
+        }
+        System.err.println("等待超时（" + timeoutMinutes + " 分钟），以当前进度出报告");
+        ((ObjectNode) data).put("timedOut", true);
+        return data;
+    }
+
+    private Map<String, Object> report(LcscApiSimulator simulator, Map<String, Map<String, Long>> before,
+                                       long simulatorApiRequests, long appApiCalls,
+                                       StatementCountingInterceptor statements, JsonNode status,
+                                       long products, double seconds) {
+        long rateLimited = 0;
+        long timeouts = 0;
+        Map<String, Map<String, Long>> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Long>> entry : simulator.getStats().entrySet()) {
+            Map<String, Long> delta = new LinkedHashMap<>();
+            entry.getValue().forEach((key, value) ->
+                    delta.put(key, value - before.getOrDefault(entry.getKey(), Map.of()).getOrDefault(key, 0L)));
+            endpoints.put(entry.getKey(), delta);
+            rateLimited += delta.get("rateLimited");
+            timeouts += delta.get("timeouts");
+        }
+        long statementTotal = statements.getTotal();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("products", products);
+        report.put("syntheticProducts", simulator.getCatalog().getTotalProducts());
+        report.put("completionSeconds", round(seconds));
+        report.put("productsPerSecond", round(products / Math.max(seconds, 0.001)));
+        report.put("apiCallsPerProduct", round(simulatorApiRequests / (double) Math.max(products, 1)));
+        report.put("appApiCallsPerProduct", round(appApiCalls / (double) Math.max(products, 1)));
+        report.put("dbStatementsPerProduct", round(statementTotal / (double) Math.max(products, 1)));
+        report.put("apiRequests", simulatorApiRequests);
+        report.put("appApiCalls", appApiCalls);
+        report.put("rateLimited429", rateLimited);
+        report.put("timeouts", timeouts);
+        report.put("dbStatements", statements.snapshot());
+        report.put("queueStatus", objectMapper.convertValue(status.path("queueStatus"), Map.class));
+        report.put("timedOut", status.path("timedOut").asBoolean(false));
+        report.put("endpoints", endpoints);
+        report.put("simulator", simulator.getOptions().toMap());
+        return report;
+    }
+
+    private static long appApiCalls(MeterRegistry meterRegistry) {
+        long count = 0;
+        for (Timer timer : meterRegistry.find(CrawlerMeters.API_TIMER).timers()) {
+            count += timer.count();
+        }
+        return count;
+    }
+
+    private JsonNode post(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMinutes(10))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return objectMapper.readTree(httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body());
+    }
+
+    private JsonNode get(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+        return objectMapper.readTree(httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.lcsc.benchmark.harness;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 压测专用配置，仅存在于 benchmark profile 的类路径上
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Configuration
+public class HarnessConfiguration {
+
+    /**
+     * 注册为Bean后由MyBatis-Plus自动配置加入拦截器链
+     */
+    @Bean
+    public StatementCountingInterceptor statementCountingInterceptor() {
+        return new StatementCountingInterceptor();
+    }
+}
@@ -0,0 +1,76 @@
+package com.lcsc.benchmark.harness;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MyBatis语句计数插件
+ * prepare 按SQL首个关键字（SELECT/INSERT/UPDATE/DELETE）计数，即发往数据库的预编译语句数；
+ * BatchExecutor 下同一SQL只 prepare 一次，追加到批次的行数另计为 batchedRows
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Intercepts({
+    @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}),
+    @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class StatementCountingInterceptor implements Interceptor {
+
+    private final Map<String, LongAdder> prepared = new ConcurrentHashMap<>();
+    private final LongAdder batchedRows = new LongAdder();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if ("batch".equals(invocation.getMethod().getName())) {
+            batchedRows.increment();
+        } else {
+            StatementHandler handler = (StatementHandler) invocation.getTarget();
+            prepared.computeIfAbsent(verb(handler.getBoundSql().getSql()), k -> new LongAdder()).increment();
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 清零（开始计时前调用，排除分类同步阶段的语句）
+     */
+    public void reset() {
+        prepared.clear();
+        batchedRows.reset();
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (LongAdder adder : prepared.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        prepared.forEach((verb, adder) -> snapshot.put(verb, adder.sum()));
+        snapshot.put("batchedRows", batchedRows.sum());
+        return snapshot;
+    }
+
+    private static String verb(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "OTHER" : trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+}
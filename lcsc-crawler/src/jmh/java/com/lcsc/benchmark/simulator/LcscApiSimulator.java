@@ -0,0 +1,642 @@
+package com.lcsc.benchmark.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lcsc.benchmark.simulator.SyntheticCatalog.Category;
+import com.lcsc.service.crawler.LcscApiEndpoints;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 立创API本地模拟器
+ * 提供 catalog/list、query/param/group、query/list 三个端点以及图片/PDF下载地址，数据来自 {@link SyntheticCatalog}。
+ * <ul>
+ *   <li>分页上限：与线上一致，totalRow 最多返回5000，超过5000条的页返回空列表</li>
+ *   <li>延迟注入：每个请求固定延迟 + 抖动</li>
+ *   <li>错误注入：按比例返回429，或挂起超过客户端读超时后再返回（模拟超时）</li>
+ *   <li>压缩：请求声明 Accept-Encoding: gzip 时按gzip返回，bytes 统计的是实际传输字节</li>
+ * </ul>
+ * 延迟抖动和错误注入由请求序号哈希决定，同一配置下错误总数稳定。
+ * 单独启动: java -cp ... com.lcsc.benchmark.simulator.LcscApiSimulator --sim.port=18090 --sim.products=30000
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class LcscApiSimulator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LcscApiSimulator.class);
+
+    /**
+     * 立创API单个筛选条件最多可翻到的记录数
+     */
+    public static final int PAGINATION_CAP = 5000;
+
+    public static final String ENDPOINT_CATALOG_LIST = "catalog_list";
+    public static final String ENDPOINT_PARAM_GROUP = "query_param_group";
+    public static final String ENDPOINT_QUERY_LIST = "query_list";
+    public static final String ENDPOINT_IMAGE = "image";
+    public static final String ENDPOINT_PDF = "pdf";
+
+    private static final String API_PREFIX = "/ftps/wm/product";
+    private static final String[] IMAGE_KINDS = {"front", "blank", "package", "back"};
+    private static final int BRAND_ID_BASE = 1000;
+
+    private final Options options;
+    private final SyntheticCatalog catalog;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, int[]> matchCache = new ConcurrentHashMap<>();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong requestSequence = new AtomicLong();
+    private final byte[] imageBody;
+    private final byte[] pdfBody;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+
+    public LcscApiSimulator(Options options) {
+        this.options = options;
+        this.catalog = new SyntheticCatalog(options.products, options.level1Count, options.level2PerLevel1,
+                options.level3Every, options.seed);
+        this.imageBody = filler(options.imageBytes, (byte) 0xD8);
+        this.pdfBody = filler(options.pdfBytes, (byte) 0x25);
+        for (String endpoint : List.of(ENDPOINT_CATALOG_LIST, ENDPOINT_PARAM_GROUP, ENDPOINT_QUERY_LIST,
+                ENDPOINT_IMAGE, ENDPOINT_PDF)) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.fromArgs(args);
+        LcscApiSimulator simulator = new LcscApiSimulator(options);
+        simulator.start();
+        System.out.println("LCSC API 模拟器已启动: " + simulator.getApiBaseUrl()
+                + " (产品数=" + simulator.getCatalog().getTotalProducts()
+                + ", 叶子分类=" + simulator.getCatalog().getLeaves().size() + ")");
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::close));
+        Thread.currentThread().join();
+    }
+
+    /**
+     * 启动HTTP服务（端口为0时随机分配）
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 256);
+        executor = Executors.newFixedThreadPool(options.threads, r -> {
+            Thread thread = new Thread(r, "lcsc-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(API_PREFIX + LcscApiEndpoints.Paths.CATALOG_LIST,
+                exchange -> handleApi(exchange, ENDPOINT_CATALOG_LIST));
+        server.createContext(API_PREFIX + LcscApiEndpoints.Paths.QUERY_PARAM_GROUP,
+                exchange -> handleApi(exchange, ENDPOINT_PARAM_GROUP));
+        server.createContext(API_PREFIX + LcscApiEndpoints.Paths.QUERY_LIST,
+                exchange -> handleApi(exchange, ENDPOINT_QUERY_LIST));
+        server.createContext("/images/", exchange -> handleAsset(exchange, ENDPOINT_IMAGE, "image/jpeg", imageBody));
+        server.createContext("/datasheet/", exchange -> handleAsset(exchange, ENDPOINT_PDF, "application/pdf", pdfBody));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        log.info("LCSC API 模拟器已启动: {}", baseUrl);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 供爬虫 crawler.api.base-url 使用的地址
+     */
+    public String getApiBaseUrl() {
+        return baseUrl + API_PREFIX;
+    }
+
+    public SyntheticCatalog getCatalog() {
+        return catalog;
+    }
+
+    public Options getOptions() {
+        return options;
+    }
+
+    /**
+     * 各端点请求统计（requests / rateLimited / timeouts / bytes）
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> snapshot = new LinkedHashMap<>();
+        stats.forEach((endpoint, s) -> snapshot.put(endpoint, s.toMap()));
+        return snapshot;
+    }
+
+    /**
+     * 三个API端点的请求总数（含被注入错误的请求）
+     */
+    public long getApiRequestCount() {
+        return stats.get(ENDPOINT_CATALOG_LIST).requests.get()
+                + stats.get(ENDPOINT_PARAM_GROUP).requests.get()
+                + stats.get(ENDPOINT_QUERY_LIST).requests.get();
+    }
+
+    // ==================== 请求处理 ====================
+
+    private void handleApi(HttpExchange exchange, String endpoint) throws IOException {
+        EndpointStats endpointStats = stats.get(endpoint);
+        endpointStats.requests.incrementAndGet();
+        try (exchange) {
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            long sequence = requestSequence.incrementAndGet();
+            long hash = mix(options.seed ^ sequence);
+
+            sleep(options.latencyMs + (options.jitterMs > 0 ? Long.remainderUnsigned(hash, options.jitterMs + 1) : 0));
+
+            double roll = (hash >>> 11) * 0x1.0p-53;
+            if (roll < options.rate429) {
+                endpointStats.rateLimited.incrementAndGet();
+                send(exchange, 429, "application/json", "{\"code\":429,\"msg\":\"Too Many Requests\"}".getBytes());
+                return;
+            }
+            if (roll < options.rate429 + options.timeoutRate) {
+                endpointStats.timeouts.incrementAndGet();
+                sleep(options.timeoutMs);
+                send(exchange, 504, "application/json", "{\"code\":504,\"msg\":\"Gateway Timeout\"}".getBytes());
+                return;
+            }
+
+            JsonNode request = requestBody.length > 0 ? objectMapper.readTree(requestBody) : objectMapper.createObjectNode();
+            ObjectNode result = switch (endpoint) {
+                case ENDPOINT_CATALOG_LIST -> catalogList();
+                case ENDPOINT_PARAM_GROUP -> paramGroup(Filter.from(request));
+                default -> queryList(Filter.from(request), request.path("currentPage").asInt(1),
+                        request.path("pageSize").asInt(LcscApiEndpoints.Config.DEFAULT_PAGE_SIZE));
+            };
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("code", 200);
+            response.putNull("msg");
+            response.set("result", result);
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (options.gzip && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            endpointStats.bytes.addAndGet(body.length);
+            send(exchange, 200, "application/json;charset=UTF-8", body);
+        } catch (Exception e) {
+            log.warn("模拟器处理请求失败: endpoint={}, error={}", endpoint, e.getMessage());
+        }
+    }
+
+    private void handleAsset(HttpExchange exchange, String endpoint, String contentType, byte[] body) throws IOException {
+        EndpointStats endpointStats = stats.get(endpoint);
+        endpointStats.requests.incrementAndGet();
+        try (exchange) {
+            sleep(options.assetLatencyMs);
+            endpointStats.bytes.addAndGet(body.length);
+            send(exchange, 200, contentType, body);
+        }
+    }
+
+    private ObjectNode catalogList() {
+        ObjectNode result = objectMapper.createObjectNode();
+        ArrayNode catalogList = result.putArray("catalogList");
+        for (Category level1 : catalog.getLevel1()) {
+            catalogList.add(catalogNode(level1));
+        }
+        ArrayNode brandList = result.putArray("brandList");
+        for (int i = 0; i < SyntheticCatalog.BRANDS.length; i++) {
+            ObjectNode brand = brandList.addObject();
+            brand.put("brandId", String.valueOf(BRAND_ID_BASE + i));
+            brand.put("brandName", SyntheticCatalog.BRANDS[i]);
+            brand.put("productNum", 0);
+        }
+        return result;
+    }
+
+    private ObjectNode catalogNode(Category category) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("catalogId", category.id);
+        if (category.parent == null) {
+            node.putNull("parentId");
+        } else {
+            node.put("parentId", category.parent.id);
+        }
+        node.put("catalogName", category.name);
+        node.put("catalogNameEn", category.name);
+        node.put("productNum", category.productCount);
+        ArrayNode children = node.putArray("childCatelogs");
+        for (Category child : category.children) {
+            children.add(catalogNode(child));
+        }
+        return node;
+    }
+
+    /**
+     * 返回当前筛选条件下可继续拆分的维度及各取值的产品数
+     */
+    private ObjectNode paramGroup(Filter filter) {
+        int[] brandCounts = new int[SyntheticCatalog.BRANDS.length];
+        int[] packageCounts = new int[SyntheticCatalog.PACKAGES.length];
+        int[][] paramCounts = new int[SyntheticCatalog.PARAM_NAMES.length][];
+        for (int p = 0; p < paramCounts.length; p++) {
+            paramCounts[p] = new int[SyntheticCatalog.PARAM_VALUES[p].length];
+        }
+        for (Category leaf : leavesOf(filter)) {
+            for (int index : matches(leaf, filter)) {
+                long hash = catalog.hash(leaf, index);
+                brandCounts[catalog.brandIndex(leaf, hash)]++;
+                packageCounts[catalog.packageIndex(hash)]++;
+                for (int p = 0; p < paramCounts.length; p++) {
+                    paramCounts[p][catalog.paramIndex(p, hash)]++;
+                }
+            }
+        }
+
+        ObjectNode result = objectMapper.createObjectNode();
+        ArrayNode manufacturers = result.putArray("Manufacturer");
+        for (int i = 0; i < brandCounts.length; i++) {
+            if (brandCounts[i] > 0) {
+                ObjectNode brand = manufacturers.addObject();
+                brand.put("brandId", BRAND_ID_BASE + i);
+                brand.put("brandName", SyntheticCatalog.BRANDS[i]);
+                brand.put("productNum", brandCounts[i]);
+            }
+        }
+        ArrayNode packages = result.putArray("Package");
+        for (int i = 0; i < packageCounts.length; i++) {
+            if (packageCounts[i] > 0) {
+                ObjectNode pkg = packages.addObject();
+                pkg.put("paramValue", SyntheticCatalog.PACKAGES[i]);
+                pkg.put("productNum", packageCounts[i]);
+            }
+        }
+        for (int p = 0; p < paramCounts.length; p++) {
+            ArrayNode values = result.putArray(SyntheticCatalog.PARAM_NAMES[p]);
+            for (int v = 0; v < paramCounts[p].length; v++) {
+                if (paramCounts[p][v] > 0) {
+                    ObjectNode value = values.addObject();
+                    value.put("paramValue", SyntheticCatalog.PARAM_VALUES[p][v]);
+                    value.put("productNum", paramCounts[p][v]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private ObjectNode queryList(Filter filter, int currentPage, int pageSize) {
+        List<Category> leaves = leavesOf(filter);
+        int total = 0;
+        List<int[]> matched = new ArrayList<>(leaves.size());
+        for (Category leaf : leaves) {
+            int[] indexes = matches(leaf, filter);
+            matched.add(indexes);
+            total += indexes.length;
+        }
+
+        int visible = Math.min(total, PAGINATION_CAP);
+        int size = Math.max(1, pageSize);
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("currPage", currentPage);
+        result.put("pageRow", size);
+        result.put("totalPage", (visible + size - 1) / size);
+        result.put("totalRow", visible);
+        ArrayNode dataList = result.putArray("dataList");
+
+        int from = (Math.max(1, currentPage) - 1) * size;
+        int to = Math.min(from + size, visible);
+        int offset = 0;
+        for (int l = 0; l < leaves.size() && from < to; l++) {
+            int[] indexes = matched.get(l);
+            for (int i = Math.max(0, from - offset); i < indexes.length && offset + i < to; i++) {
+                dataList.add(product(leaves.get(l), indexes[i]));
+            }
+            offset += indexes.length;
+        }
+        return result;
+    }
+
+    private ObjectNode product(Category leaf, int index) {
+        long hash = catalog.hash(leaf, index);
+        String code = catalog.productCode(leaf, index);
+        int brand = catalog.brandIndex(leaf, hash);
+        String encap = SyntheticCatalog.PACKAGES[catalog.packageIndex(hash)];
+        String resistance = SyntheticCatalog.PARAM_VALUES[0][catalog.paramIndex(0, hash)];
+        String tolerance = SyntheticCatalog.PARAM_VALUES[1][catalog.paramIndex(1, hash)];
+
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("productId", 300000 + leaf.leafOrdinal * 100000 + index);
+        node.put("productCode", code);
+        node.put("productModel", "SYN" + encap.replace("-", "") + "-" + code.substring(1));
+        node.put("productWeight", 0.000012);
+        node.put("foreignWeight", 0.000012);
+        node.put("weight", 1);
+        node.put("isForeignOnsale", true);
+        node.put("minBuyNumber", 10);
+        node.put("maxBuyNumber", -1);
+        node.put("minPacketUnit", "盘");
+        node.put("productUnit", "个");
+        node.put("productArrange", "编带");
+        node.put("minPacketNumber", 5000);
+        node.put("brandId", BRAND_ID_BASE + brand);
+        node.put("brandNameEn", SyntheticCatalog.BRANDS[brand]);
+        node.put("catalogId", leaf.id);
+        node.put("catalogName", leaf.name);
+        node.put("parentCatalogId", leaf.parent != null ? leaf.parent.id : leaf.id);
+        node.put("parentCatalogName", leaf.parent != null ? leaf.parent.name : leaf.name);
+        node.put("encapStandard", encap);
+        node.put("productIntroEn", resistance + " " + tolerance + " " + encap
+                + " synthetic surface mount component generated by the local LCSC simulator");
+        node.putNull("productDescEn");
+        node.put("stockNumber", catalog.inStock(hash) ? (int) Long.remainderUnsigned(hash >>> 20, 2_000_000) : 0);
+        node.put("productCycle", "normal");
+        node.put("isHasBattery", false);
+        node.put("isForbid", false);
+        node.put("isDiscount", false);
+        node.put("isHot", false);
+        node.put("isEnvironment", true);
+        node.put("isPreSale", false);
+
+        ArrayNode prices = node.putArray("productPriceList");
+        int ladders = 3 + (int) Long.remainderUnsigned(hash >>> 44, 4);
+        double base = 0.002 + Long.remainderUnsigned(hash >>> 30, 45000) / 10000.0;
+        int[] quantities = {10, 100, 500, 1000, 5000, 10000};
+        for (int i = 0; i < ladders; i++) {
+            double price = Math.round(base * (1 - 0.08 * i) * 10000) / 10000.0;
+            ObjectNode ladder = prices.addObject();
+            ladder.put("ladder", quantities[i]);
+            ladder.put("productPrice", String.format("%.4f", price));
+            ladder.put("currencyPrice", price);
+            ladder.put("currencySymbol", "￥");
+            ladder.put("usdPrice", Math.round(price / 7.1 * 100000) / 100000.0);
+        }
+
+        ArrayNode images = node.putArray("productImages");
+        int imageCount = 1 + (int) Long.remainderUnsigned(hash >>> 50, IMAGE_KINDS.length);
+        for (int i = 0; i < imageCount; i++) {
+            images.add(baseUrl + "/images/lcsc/900x900/" + code + "_" + IMAGE_KINDS[(i + index) % IMAGE_KINDS.length] + ".jpg");
+        }
+        node.put("productImageUrl", images.get(0).asText());
+        node.put("productImageUrlBig", images.get(0).asText());
+        if (((hash >>> 56) & 7) != 0) {
+            node.put("pdfUrl", baseUrl + "/datasheet/lcsc_datasheet_" + code + ".pdf");
+        } else {
+            node.putNull("pdfUrl");
+        }
+
+        ArrayNode params = node.putArray("paramVOList");
+        for (int p = 0; p < SyntheticCatalog.PARAM_NAMES.length; p++) {
+            String value = SyntheticCatalog.PARAM_VALUES[p][catalog.paramIndex(p, hash)];
+            ObjectNode param = params.addObject();
+            param.put("paramCode", "param_" + (10953 + p) + "_n");
+            param.put("paramName", SyntheticCatalog.PARAM_NAMES_CN[p]);
+            param.put("paramNameEn", SyntheticCatalog.PARAM_NAMES[p]);
+            param.put("paramValue", value);
+            param.put("paramValueEn", value);
+        }
+        ObjectNode temperature = params.addObject();
+        temperature.put("paramCode", "param_10957_n");
+        temperature.put("paramName", "工作温度");
+        temperature.put("paramNameEn", "Operating Temperature");
+        temperature.put("paramValue", "-55℃~+155℃");
+        temperature.put("paramValueEn", "-55℃~+155℃");
+        return node;
+    }
+
+    // ==================== 筛选 ====================
+
+    private List<Category> leavesOf(Filter filter) {
+        List<Category> leaves = new ArrayList<>();
+        if (filter.catalogIds.isEmpty()) {
+            return catalog.getLeaves();
+        }
+        for (Integer catalogId : filter.catalogIds) {
+            Category category = catalog.get(catalogId);
+            if (category != null) {
+                leaves.addAll(catalog.leavesUnder(category));
+            }
+        }
+        return leaves;
+    }
+
+    /**
+     * 叶子分类中满足筛选条件的产品序号（按筛选条件缓存）
+     */
+    private int[] matches(Category leaf, Filter filter) {
+        return matchCache.computeIfAbsent(leaf.id + "|" + filter.key(), k -> {
+            int[] buffer = new int[leaf.productCount];
+            int size = 0;
+            for (int index = 0; index < leaf.productCount; index++) {
+                if (filter.accepts(catalog, leaf, catalog.hash(leaf, index))) {
+                    buffer[size++] = index;
+                }
+            }
+            return Arrays.copyOf(buffer, size);
+        });
+    }
+
+    /**
+     * 请求体中的筛选条件
+     */
+    private static final class Filter {
+        private final Set<Integer> catalogIds = new HashSet<>();
+        private final Set<Integer> brandIds = new HashSet<>();
+        private final Set<String> packages = new HashSet<>();
+        private final Map<Integer, Set<String>> params = new LinkedHashMap<>();
+        private boolean stockOnly;
+
+        static Filter from(JsonNode request) {
+            Filter filter = new Filter();
+            request.path("catalogIdList").forEach(id -> filter.catalogIds.add(id.asInt()));
+            request.path("brandIdList").forEach(id -> filter.brandIds.add(id.asInt()));
+            request.path("encapValueList").forEach(value -> filter.packages.add(value.asText()));
+            request.path("paramNameValueMap").fields().forEachRemaining(entry -> {
+                int param = Arrays.asList(SyntheticCatalog.PARAM_NAMES).indexOf(entry.getKey());
+                if (param >= 0) {
+                    Set<String> values = new HashSet<>();
+                    entry.getValue().forEach(value -> values.add(value.asText()));
+                    filter.params.put(param, values);
+                }
+            });
+            filter.stockOnly = request.path("isStock").asBoolean(false);
+            return filter;
+        }
+
+        boolean accepts(SyntheticCatalog catalog, Category leaf, long hash) {
+            if (!brandIds.isEmpty() && !brandIds.contains(BRAND_ID_BASE + catalog.brandIndex(leaf, hash))) {
+                return false;
+            }
+            if (!packages.isEmpty() && !packages.contains(SyntheticCatalog.PACKAGES[catalog.packageIndex(hash)])) {
+                return false;
+            }
+            for (Map.Entry<Integer, Set<String>> entry : params.entrySet()) {
+                int param = entry.getKey();
+                if (!entry.getValue().contains(SyntheticCatalog.PARAM_VALUES[param][catalog.paramIndex(param, hash)])) {
+                    return false;
+                }
+            }
+            return !stockOnly || catalog.inStock(hash);
+        }
+
+        String key() {
+            return brandIds + "|" + packages + "|" + params + "|" + stockOnly;
+        }
+    }
+
+    // ==================== 工具方法 ====================
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(body);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] filler(int size, byte marker) {
+        byte[] body = new byte[Math.max(0, size)];
+        Arrays.fill(body, marker);
+        return body;
+    }
+
+    /**
+     * 单个端点的请求统计
+     */
+    private static final class EndpointStats {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong rateLimited = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            map.put("requests", requests.get());
+            map.put("rateLimited", rateLimited.get());
+            map.put("timeouts", timeouts.get());
+            map.put("bytes", bytes.get());
+            return map;
+        }
+    }
+
+    /**
+     * 模拟器配置，命令行形式 --sim.xxx=value
+     */
+    public static class Options {
+        int port = 0;
+        int threads = 64;
+        int products = 30000;
+        int level1Count = 4;
+        int level2PerLevel1 = 6;
+        int level3Every = 4;
+        long seed = 20261018L;
+        long latencyMs = 80;
+        long jitterMs = 40;
+        long assetLatencyMs = 20;
+        double rate429 = 0.01;
+        double timeoutRate = 0.0;
+        long timeoutMs = 35000;
+        int imageBytes = 24 * 1024;
+        int pdfBytes = 160 * 1024;
+        boolean gzip = true;
+
+        public static Options fromArgs(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--sim.") || !arg.contains("=")) {
+                    continue;
+                }
+                String key = arg.substring("--sim.".length(), arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (key) {
+                    case "port" -> options.port = Integer.parseInt(value);
+                    case "threads" -> options.threads = Integer.parseInt(value);
+                    case "products" -> options.products = Integer.parseInt(value);
+                    case "level1" -> options.level1Count = Integer.parseInt(value);
+                    case "level2-per-level1" -> options.level2PerLevel1 = Integer.parseInt(value);
+                    case "level3-every" -> options.level3Every = Integer.parseInt(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "latency-ms" -> options.latencyMs = Long.parseLong(value);
+                    case "jitter-ms" -> options.jitterMs = Long.parseLong(value);
+                    case "asset-latency-ms" -> options.assetLatencyMs = Long.parseLong(value);
+                    case "rate-429" -> options.rate429 = Double.parseDouble(value);
+                    case "timeout-rate" -> options.timeoutRate = Double.parseDouble(value);
+                    case "timeout-ms" -> options.timeoutMs = Long.parseLong(value);
+                    case "image-bytes" -> options.imageBytes = Integer.parseInt(value);
+                    case "pdf-bytes" -> options.pdfBytes = Integer.parseInt(value);
+                    case "gzip" -> options.gzip = Boolean.parseBoolean(value);
+                    default -> throw new IllegalArgumentException("未知的模拟器参数: " + arg);
+                }
+            }
+            return options;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("products", products);
+            map.put("level1", level1Count);
+            map.put("level2PerLevel1", level2PerLevel1);
+            map.put("level3Every", level3Every);
+            map.put("seed", seed);
+            map.put("latencyMs", latencyMs);
+            map.put("jitterMs", jitterMs);
+            map.put("assetLatencyMs", assetLatencyMs);
+            map.put("rate429", rate429);
+            map.put("timeoutRate", timeoutRate);
+            map.put("timeoutMs", timeoutMs);
+            map.put("gzip", gzip);
+            return map;
+        }
+    }
+}
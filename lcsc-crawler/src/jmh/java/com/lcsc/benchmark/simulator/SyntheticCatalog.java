@@ -0,0 +1,213 @@
+package com.lcsc.benchmark.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 合成产品目录
+ * 按种子确定性生成一二三级分类树，产品总数按 1/rank 的长尾分布分配到叶子分类，
+ * 头部分类会超过5000条以触发爬虫的品牌/封装/参数拆分。
+ * 产品不落地存储，品牌、封装、参数、库存等属性由 (叶子序号, 产品序号) 哈希得出，同一配置下每次运行完全一致
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class SyntheticCatalog {
+
+    static final String[] BRANDS = {
+            "UNI-ROYAL(Uniroyal Elec)", "YAGEO", "FH(Guangdong Fenghua Advanced Tech)", "Samsung Electro-Mechanics",
+            "Murata Electronics", "TI(Texas Instruments)", "ST(STMicroelectronics)", "Diodes Incorporated",
+            "AVX & KYOCERA", "ROHM Semicon", "Vishay Intertech", "KEMET", "TDK", "Panasonic", "Nexperia", "onsemi"
+    };
+    static final String[] PACKAGES = {"0201", "0402", "0603", "0805", "1206", "SOT-23", "SOT-23-5", "SOIC-8",
+            "TSSOP-16", "QFN-32", "LQFP-48", "DIP-8"};
+    static final String[] PARAM_NAMES = {"Resistance", "Tolerance", "Power"};
+    static final String[][] PARAM_VALUES = {
+            {"10Ω", "100Ω", "1kΩ", "4.7kΩ", "10kΩ", "47kΩ", "100kΩ", "1MΩ"},
+            {"±0.5%", "±1%", "±5%"},
+            {"31.25mW", "62.5mW", "100mW", "250mW"}
+    };
+    static final String[] PARAM_NAMES_CN = {"阻值", "精度", "功率"};
+
+    private final long seed;
+    private final List<Category> level1 = new ArrayList<>();
+    private final List<Category> leaves = new ArrayList<>();
+    private final Map<Integer, Category> byId = new LinkedHashMap<>();
+
+    /**
+     * @param totalProducts 产品总数
+     * @param level1Count   一级分类数
+     * @param level2PerL1   每个一级分类下的二级分类数
+     * @param level3Every   每隔多少个二级分类挂3个三级分类（0=不生成三级分类）
+     * @param seed          随机种子
+     */
+    public SyntheticCatalog(int totalProducts, int level1Count, int level2PerL1, int level3Every, long seed) {
+        this.seed = seed;
+        int nextId = 100;
+        int level2Ordinal = 0;
+        for (int i = 0; i < level1Count; i++) {
+            Category l1 = new Category(nextId++, null, "Synthetic Group " + (i + 1));
+            level1.add(l1);
+            for (int j = 0; j < level2PerL1; j++) {
+                Category l2 = new Category(nextId++, l1, l1.name + " / Family " + (j + 1));
+                l1.children.add(l2);
+                if (level3Every > 0 && level2Ordinal % level3Every == level3Every - 1) {
+                    for (int k = 0; k < 3; k++) {
+                        Category l3 = new Category(nextId++, l2, l2.name + " / Series " + (k + 1));
+                        l2.children.add(l3);
+                        leaves.add(l3);
+                    }
+                } else {
+                    leaves.add(l2);
+                }
+                level2Ordinal++;
+            }
+        }
+
+        // 长尾分布：第 r 个叶子分到 1/(r+1) 的权重，叶子顺序按种子打乱
+        double harmonic = 0;
+        for (int r = 0; r < leaves.size(); r++) {
+            harmonic += 1.0 / (r + 1);
+        }
+        List<Category> shuffled = new ArrayList<>(leaves);
+        Collections.shuffle(shuffled, new java.util.Random(seed));
+        int assigned = 0;
+        for (int r = 0; r < shuffled.size(); r++) {
+            int count = r == shuffled.size() - 1
+                    ? totalProducts - assigned
+                    : (int) Math.round(totalProducts / harmonic / (r + 1));
+            count = Math.max(0, Math.min(count, totalProducts - assigned));
+            shuffled.get(r).productCount = count;
+            assigned += count;
+        }
+        for (int ordinal = 0; ordinal < leaves.size(); ordinal++) {
+            leaves.get(ordinal).leafOrdinal = ordinal;
+        }
+        for (Category l1 : level1) {
+            index(l1);
+        }
+    }
+
+    private int index(Category category) {
+        byId.put(category.id, category);
+        if (!category.children.isEmpty()) {
+            int sum = 0;
+            for (Category child : category.children) {
+                sum += index(child);
+            }
+            category.productCount = sum;
+        }
+        return category.productCount;
+    }
+
+    public List<Category> getLevel1() {
+        return level1;
+    }
+
+    public List<Category> getLeaves() {
+        return leaves;
+    }
+
+    public Category get(int catalogId) {
+        return byId.get(catalogId);
+    }
+
+    public int getTotalProducts() {
+        int total = 0;
+        for (Category leaf : leaves) {
+            total += leaf.productCount;
+        }
+        return total;
+    }
+
+    /**
+     * 叶子分类（或其祖先）下的全部叶子
+     */
+    public List<Category> leavesUnder(Category category) {
+        if (category.children.isEmpty()) {
+            return List.of(category);
+        }
+        List<Category> result = new ArrayList<>();
+        for (Category child : category.children) {
+            result.addAll(leavesUnder(child));
+        }
+        return result;
+    }
+
+    /**
+     * 产品属性哈希（SplitMix64）
+     */
+    long hash(Category leaf, int index) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) leaf.leafOrdinal << 32) | index);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    int brandIndex(Category leaf, long hash) {
+        // 每个叶子只使用部分品牌，品牌数随叶子变化
+        int brandsInLeaf = 6 + leaf.leafOrdinal % (BRANDS.length - 5);
+        return (int) Long.remainderUnsigned(hash, brandsInLeaf);
+    }
+
+    int packageIndex(long hash) {
+        return (int) Long.remainderUnsigned(hash >>> 8, PACKAGES.length);
+    }
+
+    int paramIndex(int param, long hash) {
+        return (int) Long.remainderUnsigned(hash >>> (16 + param * 6), PARAM_VALUES[param].length);
+    }
+
+    boolean inStock(long hash) {
+        return ((hash >>> 40) & 3) != 0;
+    }
+
+    String productCode(Category leaf, int index) {
+        return "C" + (1_000_000L * (leaf.leafOrdinal + 1) + index);
+    }
+
+    /**
+     * 合成分类节点
+     */
+    public static class Category {
+        final int id;
+        final Category parent;
+        final String name;
+        final List<Category> children = new ArrayList<>();
+        int productCount;
+        int leafOrdinal = -1;
+
+        Category(int id, Category parent, String name) {
+            this.id = id;
+            this.parent = parent;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getProductCount() {
+            return productCount;
+        }
+
+        public List<Category> getChildren() {
+            return children;
+        }
+
+        Category level1() {
+            Category current = this;
+            while (current.parent != null) {
+                current = current.parent;
+            }
+            return current;
+        }
+    }
+}
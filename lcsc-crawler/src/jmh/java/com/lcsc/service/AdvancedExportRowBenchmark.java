@@ -0,0 +1,141 @@
+package com.lcsc.service;
+
+import com.lcsc.benchmark.BenchmarkFixtures;
+import com.lcsc.dto.ExportTaskItem;
+import com.lcsc.entity.Product;
+import com.lcsc.entity.Shop;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 淘宝导入表行构建基准
+ * 分别测量字段渲染（标题、价格、SKU、图片）、CSV行拼接和Excel行写入，吞吐按单行计
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdvancedExportRowBenchmark {
+
+    private static final int PAGE_SIZE = 25;
+    private static final int SHOP_ID = 3;
+    private static final int MAX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private AdvancedExportService exportService;
+    private List<Product> products;
+    private List<ExportTaskItem> tasks;
+    private Shop shop;
+    private Map<String, Map<Integer, String>> imageLinkMap;
+    private List<AdvancedExportService.TaobaoRowFields> renderedRows;
+
+    private SXSSFWorkbook workbook;
+    private Sheet sheet;
+    private int rowIndex;
+
+    @Setup
+    public void setUp() {
+        exportService = new AdvancedExportService();
+        BenchmarkFixtures.inject(exportService, "categoryDictionaryService", new CategoryDictionaryService());
+        products = BenchmarkFixtures.products(BenchmarkFixtures.objectMapper());
+
+        shop = new Shop();
+        shop.setId(SHOP_ID);
+        shop.setShopName("基准店铺");
+        shop.setSellerCategoryId("1789335426");
+        shop.setShippingTemplateId("25561846180");
+
+        List<BigDecimal> discounts = List.of(new BigDecimal("1.35"), new BigDecimal("1.30"), new BigDecimal("1.25"),
+                new BigDecimal("1.20"), new BigDecimal("1.15"), new BigDecimal("1.10"));
+        tasks = new ArrayList<>(products.size());
+        imageLinkMap = new HashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            ExportTaskItem task = new ExportTaskItem();
+            task.setProductCode(product.getProductCode());
+            task.setShopId(SHOP_ID);
+            task.setDiscounts(discounts);
+            tasks.add(task);
+            // 一半产品配置了自定义图片链接，另一半回退到立创原图
+            if (i % 2 == 0) {
+                imageLinkMap.put(product.getImageName(),
+                        Map.of(SHOP_ID, "https://img.alicdn.com/imgextra/i1/" + product.getProductCode() + ".jpg"));
+            }
+        }
+
+        renderedRows = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            renderedRows.add(exportService.renderFields(products.get(i), shop, tasks.get(i), imageLinkMap));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void openWorkbook() {
+        workbook = new SXSSFWorkbook(200);
+        sheet = workbook.createSheet("宝贝");
+        rowIndex = 3;
+    }
+
+    @TearDown(Level.Iteration)
+    public void disposeWorkbook() {
+        // 只测行写入，不输出工作簿，直接删除临时文件
+        workbook.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void renderFields(Blackhole blackhole) {
+        for (int i = 0; i < products.size(); i++) {
+            blackhole.consume(exportService.renderFields(products.get(i), shop, tasks.get(i), imageLinkMap));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public StringBuilder appendCsvRow() {
+        StringBuilder csv = new StringBuilder(PAGE_SIZE * 2048);
+        for (AdvancedExportService.TaobaoRowFields fields : renderedRows) {
+            exportService.appendProductRow(csv, fields);
+        }
+        return csv;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void createExcelRow() {
+        // SXSSF 只在内存中保留窗口内的行，其余刷到临时文件；写满一个工作表后换新表
+        if (rowIndex + PAGE_SIZE > MAX_SHEET_ROWS) {
+            sheet = workbook.createSheet();
+            rowIndex = 3;
+        }
+        for (AdvancedExportService.TaobaoRowFields fields : renderedRows) {
+            exportService.createProductRow(sheet, rowIndex++, fields);
+        }
+    }
+}
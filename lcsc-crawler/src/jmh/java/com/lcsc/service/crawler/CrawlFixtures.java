@@ -0,0 +1,41 @@
+package com.lcsc.service.crawler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.benchmark.BenchmarkFixtures;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 爬取链路夹具：经 LcscApiService 解析后的产品数据，与工作池实际收到的结构一致
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public final class CrawlFixtures {
+
+    private CrawlFixtures() {
+    }
+
+    /**
+     * 解析 query/list 夹具，返回 dataList 中的产品数据
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Map<String, Object>> parsedProducts(ObjectMapper objectMapper) {
+        LcscApiService apiService = new LcscApiService(objectMapper, null, null, null, null, null,
+                new ProductResultFileWriter(objectMapper), null);
+        Map<String, Object> result = apiService.parseQueryListResponse(
+                new ByteArrayInputStream(BenchmarkFixtures.readBytes(BenchmarkFixtures.QUERY_LIST)));
+        return (List<Map<String, Object>>) result.get("dataList");
+    }
+
+    /**
+     * 不入队的下载服务，避免基准运行期间下载队列持续增长
+     */
+    public static class NoopFileDownloadService extends FileDownloadService {
+        @Override
+        public void submitDownloadTask(String url, String localPath, String type) {
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.lcsc.service.crawler;
+
+import com.lcsc.benchmark.BenchmarkFixtures;
+import com.lcsc.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产品CSV导出行格式化基准，吞吐按单行计
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataExportCsvBenchmark {
+
+    private static final int PAGE_SIZE = 25;
+
+    private DataExportService dataExportService;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        dataExportService = new DataExportService();
+        products = BenchmarkFixtures.products(BenchmarkFixtures.objectMapper());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void formatProductToCsv(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(dataExportService.formatProductToCsv(product));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.lcsc.service.crawler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.benchmark.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 立创API响应解析基准
+ * 覆盖 query/list 整页解析、单个产品解析和 query/param/group 解析。
+ * 结果文件写入器未初始化目录，saveResultToFile 直接返回，不计入磁盘IO
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LcscApiParseBenchmark {
+
+    private LcscApiService apiService;
+    private byte[] queryListResponse;
+    private byte[] paramGroupResponse;
+    private JsonNode productNode;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        apiService = new LcscApiService(objectMapper, null, null, null, null, null,
+                new ProductResultFileWriter(objectMapper), null);
+        queryListResponse = BenchmarkFixtures.readBytes(BenchmarkFixtures.QUERY_LIST);
+        paramGroupResponse = BenchmarkFixtures.readBytes(BenchmarkFixtures.PARAM_GROUP);
+        productNode = objectMapper.readTree(queryListResponse).path("result").path("dataList").get(0);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseQueryListResponse() {
+        return apiService.parseQueryListResponse(new ByteArrayInputStream(queryListResponse));
+    }
+
+    @Benchmark
+    public Map<String, Object> parseProductData() {
+        return apiService.parseProductData(productNode);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseQueryParamGroupResponse() {
+        return apiService.parseQueryParamGroupResponse(new ByteArrayInputStream(paramGroupResponse));
+    }
+}
@@ -0,0 +1,69 @@
+package com.lcsc.service.crawler.v3;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.benchmark.BenchmarkFixtures;
+import com.lcsc.entity.Product;
+import com.lcsc.service.crawler.CrawlFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产品转换基准（阶梯价、参数文本、图片优选、PDF路径）
+ * 每次调用转换一整页（25个产品），吞吐按单个产品计
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertToProductBenchmark {
+
+    private static final int PAGE_SIZE = 25;
+
+    private CategoryCrawlerWorkerPool workerPool;
+    private List<Map<String, Object>> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        workerPool = new CategoryCrawlerWorkerPool();
+        BenchmarkFixtures.inject(workerPool, "objectMapper", objectMapper);
+        BenchmarkFixtures.inject(workerPool, "fileDownloadService", new CrawlFixtures.NoopFileDownloadService());
+        BenchmarkFixtures.inject(workerPool, "storageBasePath", "/data/lcsc");
+        BenchmarkFixtures.inject(workerPool, "imageDirName", "images");
+        BenchmarkFixtures.inject(workerPool, "pdfDirName", "pdfs");
+        BenchmarkFixtures.inject(workerPool, "enablePdfDownload", true);
+        page = CrawlFixtures.parsedProducts(objectMapper);
+        if (page.size() != PAGE_SIZE) {
+            throw new IllegalStateException("夹具产品数应为 " + PAGE_SIZE + "，实际 " + page.size());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void convertToProduct(Blackhole blackhole) {
+        for (Map<String, Object> productData : page) {
+            Product product = workerPool.convertToProduct(productData, 312, 308, null,
+                    "Resistors", null, "Chip Resistor - Surface Mount");
+            blackhole.consume(product);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +29,52 @@ public class DatabaseInitializationConfig implements ApplicationListener<Applica
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * products表查询所需的索引（索引名 -> 索引定义）
+     * 旧库不会重新执行建表脚本，启动时按需补齐
+     */
+    private static final Map<String, String> PRODUCT_INDEXES = new LinkedHashMap<>();
+
+    static {
+        PRODUCT_INDEXES.put("idx_last_crawled_id", "INDEX `idx_last_crawled_id` (`last_crawled_at`,`id`)");
+        PRODUCT_INDEXES.put("idx_cat1_crawled_id", "INDEX `idx_cat1_crawled_id` (`category_level1_id`,`last_crawled_at`,`id`)");
+        PRODUCT_INDEXES.put("idx_cat2_crawled_id", "INDEX `idx_cat2_crawled_id` (`category_level2_id`,`last_crawled_at`,`id`)");
+        PRODUCT_INDEXES.put("idx_brand", "INDEX `idx_brand` (`brand`)");
+        PRODUCT_INDEXES.put("idx_model", "INDEX `idx_model` (`model`)");
+        PRODUCT_INDEXES.put("idx_package_name", "INDEX `idx_package_name` (`package_name`)");
+        PRODUCT_INDEXES.put("ft_product_search",
+            "FULLTEXT INDEX `ft_product_search` (`model`,`brand`,`package_name`,`parameters_text`) WITH PARSER ngram");
+    }
+
+    /**
+     * 后续新增的表（表名 -> 建表语句），旧库启动时按需创建
+     */
+    private static final Map<String, String> ADDED_TABLES = new LinkedHashMap<>();
+
+    static {
+        ADDED_TABLES.put("product_param_values",
+            "CREATE TABLE IF NOT EXISTS `product_param_values` (" +
+            "  `product_id` int NOT NULL COMMENT '产品ID'," +
+            "  `param_name` varchar(100) NOT NULL COMMENT '参数英文名（paramNameEn）'," +
+            "  `numeric_value` double NOT NULL COMMENT '换算为基本单位后的数值'," +
+            "  `unit` varchar(20) DEFAULT NULL COMMENT '基本单位（如Ω、F、V、Hz）'," +
+            "  PRIMARY KEY (`product_id`,`param_name`)," +
+            "  KEY `idx_param_value` (`param_name`,`numeric_value`)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='产品数值参数表'");
+        ADDED_TABLES.put("storage_product_assets",
+            "CREATE TABLE IF NOT EXISTS `storage_product_assets` (" +
+            "  `product_code` varchar(50) NOT NULL COMMENT '产品编号'," +
+            "  `image_count` int NOT NULL DEFAULT '0' COMMENT '图片文件数'," +
+            "  `pdf_count` int NOT NULL DEFAULT '0' COMMENT 'PDF文件数'," +
+            "  `image_bytes` bigint NOT NULL DEFAULT '0' COMMENT '图片总字节数'," +
+            "  `pdf_bytes` bigint NOT NULL DEFAULT '0' COMMENT 'PDF总字节数'," +
+            "  `last_modified` datetime DEFAULT NULL COMMENT '最近文件修改时间'," +
+            "  `indexed_at` datetime NOT NULL COMMENT '最近写入索引时间'," +
+            "  PRIMARY KEY (`product_code`)," +
+            "  KEY `idx_last_modified` (`last_modified`,`product_code`)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='产品存储资源索引表'");
+    }
+
     @Override
     public void onApplicationEvent(ApplicationReadyEvent event) {
         System.out.println("=================================");
@@ -62,6 +109,12 @@ public class DatabaseInitializationConfig implements ApplicationListener<Applica
 
                 // 验证category_level1_id字段数据
                 validateCategoryLevel1IdData();
+
+                // 补齐新增表及products表分页/搜索索引
+                ensureAddedTables(tables);
+                if (tables.contains("products")) {
+                    ensureProductIndexes();
+                }
             }
 
         } catch (Exception e) {
@@ -132,6 +185,45 @@ public class DatabaseInitializationConfig implements ApplicationListener<Applica
         }
     }
 
+    private void ensureAddedTables(List<String> existingTables) {
+        for (Map.Entry<String, String> table : ADDED_TABLES.entrySet()) {
+            if (existingTables.contains(table.getKey())) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute(table.getValue());
+                System.out.println("  + " + table.getKey() + " - 已创建");
+            } catch (Exception e) {
+                System.out.println("  ✗ " + table.getKey() + " - 创建失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private void ensureProductIndexes() {
+        try {
+            System.out.println("products表索引检查:");
+            List<String> existing = jdbcTemplate.queryForList(
+                "SELECT DISTINCT INDEX_NAME FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products'", String.class);
+
+            for (Map.Entry<String, String> index : PRODUCT_INDEXES.entrySet()) {
+                if (existing.contains(index.getKey())) {
+                    System.out.println("  ✓ " + index.getKey() + " - 存在");
+                    continue;
+                }
+                try {
+                    jdbcTemplate.execute("ALTER TABLE `products` ADD " + index.getValue());
+                    System.out.println("  + " + index.getKey() + " - 已创建");
+                } catch (Exception e) {
+                    System.out.println("  ✗ " + index.getKey() + " - 创建失败: " + e.getMessage());
+                }
+            }
+            System.out.println();
+        } catch (Exception e) {
+            System.err.println("检查products表索引时出错: " + e.getMessage());
+        }
+    }
+
     private void validateCategoryLevel1IdData() {
         try {
             System.out.println("验证category_level1_id字段数据:");
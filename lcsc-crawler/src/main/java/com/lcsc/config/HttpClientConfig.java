@@ -1,6 +1,7 @@
 package com.lcsc.config;
 
 import com.lcsc.service.crawler.network.DynamicRateLimiter;
+import io.netty.channel.ChannelOption;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
@@ -20,7 +21,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.ProxyProvider;
 
 import javax.net.ssl.SSLContext;
 import java.time.Duration;
@@ -58,6 +63,9 @@ public class HttpClientConfig {
     @Value("${lcsc.crawler.http.validate-after-inactivity:30000}")
     private int validateAfterInactivity;
     
+    @Value("${lcsc.crawler.http.max-in-memory-size:16777216}")
+    private int maxInMemorySize;
+    
     @Value("${lcsc.crawler.proxy.enabled:false}")
     private boolean proxyEnabled;
     
@@ -172,6 +180,51 @@ public class HttpClientConfig {
         return restTemplate;
     }
     
+    /**
+     * 非阻塞客户端连接池（lcsc.crawler.http.client-mode=reactive 时由 LcscApiService 使用）
+     * Reactor Netty 按目标地址分别建池，上限对应 max-connections-per-route；
+     * 空闲连接保持 keep-alive-timeout 后回收，获取连接超时沿用 connection-request-timeout
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider lcscConnectionProvider() {
+        return ConnectionProvider.builder("lcsc-api")
+            .maxConnections(maxConnectionsPerRoute)
+            .pendingAcquireTimeout(Duration.ofMillis(connectionRequestTimeout))
+            .pendingAcquireMaxCount(-1)
+            .maxIdleTime(Duration.ofMillis(keepAliveTimeout))
+            .evictInBackground(Duration.ofMillis(validateAfterInactivity))
+            .build();
+    }
+    
+    /**
+     * 配置基于 Reactor Netty 的 WebClient
+     * 连接池复用、HTTP keep-alive、响应压缩（gzip/deflate 由 Netty 解码），少量事件循环线程承载所有并发请求；
+     * 频率控制和重试由 DynamicRateLimiter / SmartRetryHandler 的非阻塞方法在调用链上完成
+     */
+    @Bean
+    public WebClient lcscWebClient(ConnectionProvider lcscConnectionProvider) {
+        reactor.netty.http.client.HttpClient nettyClient = reactor.netty.http.client.HttpClient
+            .create(lcscConnectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .keepAlive(true)
+            .compress(true)
+            .responseTimeout(Duration.ofMillis(readTimeout));
+        
+        if (proxyEnabled) {
+            nettyClient = nettyClient.proxy(proxy -> proxy
+                .type(ProxyProvider.Proxy.HTTP)
+                .host(proxyHost)
+                .port(proxyPort));
+        }
+        
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(nettyClient))
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemorySize))
+            .build();
+    }
+    
     /**
      * 浏览器请求头拦截器
      */
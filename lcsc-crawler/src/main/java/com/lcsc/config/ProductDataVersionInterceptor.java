@@ -0,0 +1,60 @@
+package com.lcsc.config;
+
+import com.lcsc.mapper.ProductMapper;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 产品数据修改计数插件
+ * 拦截 ProductMapper 上的全部 INSERT/UPDATE/DELETE（含 IService 的 save/updateById/removeByIds 等和自定义语句），
+ * 语句执行前后各累加一次本进程修改计数，作为导出结果缓存判断产品数据是否变化的依据。
+ * 执行前累加保证写入期间开始的导出不会以旧版本号缓存新数据，执行后累加保证写入完成后版本号一定变化。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class ProductDataVersionInterceptor implements Interceptor {
+
+    private static final String PRODUCT_STATEMENT_PREFIX = ProductMapper.class.getName() + ".";
+
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (!statement.getId().startsWith(PRODUCT_STATEMENT_PREFIX)) {
+            return invocation.proceed();
+        }
+        modificationCount.incrementAndGet();
+        try {
+            return invocation.proceed();
+        } finally {
+            modificationCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 本进程内的产品数据修改计数
+     */
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * 标记产品数据已变化（不经过 ProductMapper 的批量变化，如爬取任务完成）
+     */
+    public void markModified() {
+        modificationCount.incrementAndGet();
+    }
+}
@@ -4,10 +4,9 @@ import com.lcsc.common.Result;
 import com.lcsc.dto.AdvancedExportRequest;
 import com.lcsc.dto.ExportTaskItem;
 import com.lcsc.service.AdvancedExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -57,66 +56,50 @@ public class AdvancedExportController {
 
     /**
      * 导出任务列表为淘宝Excel格式
-     * @param tasks 任务列表
-     * @return Excel文件字节流
+     * @param tasksRaw 任务列表
+     * @param response 直接写入的HTTP响应
      */
     @PostMapping("/export-taobao-excel")
-    public ResponseEntity<byte[]> exportTaobaoExcel(@RequestBody List<Map<String, Object>> tasksRaw) {
-        try {
-            // 手动转换任务列表
-            List<ExportTaskItem> tasks = tasksRaw.stream().map(taskMap -> {
-                ExportTaskItem task = new ExportTaskItem();
-                if (taskMap.containsKey("productCode")) {
-                    task.setProductCode((String) taskMap.get("productCode"));
-                }
-                if (taskMap.containsKey("model")) {
-                    task.setModel((String) taskMap.get("model"));
-                }
-                if (taskMap.containsKey("brand")) {
-                    task.setBrand((String) taskMap.get("brand"));
-                }
-                if (taskMap.containsKey("shopId")) {
-                    task.setShopId(((Number) taskMap.get("shopId")).intValue());
-                }
-                if (taskMap.containsKey("shopName")) {
-                    task.setShopName((String) taskMap.get("shopName"));
-                }
-                if (taskMap.containsKey("discounts")) {
-                    @SuppressWarnings("unchecked")
-                    List<Number> discountNumbers = (List<Number>) taskMap.get("discounts");
-                    List<BigDecimal> discounts = discountNumbers.stream()
-                            .map(n -> new BigDecimal(n.toString()))
-                            .collect(Collectors.toList());
-                    task.setDiscounts(discounts);
-                }
-                if (taskMap.containsKey("addedAt")) {
-                    task.setAddedAt(((Number) taskMap.get("addedAt")).longValue());
-                }
-                return task;
-            }).collect(Collectors.toList());
-
-            // 生成淘宝Excel
-            byte[] excelBytes = advancedExportService.generateTaobaoExcel(tasks);
-
-            // 生成文件名
-            String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = dateStr + ".xlsx";
-            String encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8);
-
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.set(HttpHeaders.CONTENT_DISPOSITION,
-                    "attachment; filename=\"" + encodedFilename + "\"; filename*=UTF-8''" + encodedFilename);
-            headers.setContentLength(excelBytes.length);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelBytes);
-
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public void exportTaobaoExcel(@RequestBody List<Map<String, Object>> tasksRaw,
+                                  HttpServletResponse response) throws IOException {
+        // 手动转换任务列表
+        List<ExportTaskItem> tasks = parseTaskList(tasksRaw);
+
+        // 生成文件名
+        String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String filename = dateStr + ".xlsx";
+        String encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8);
+
+        // 设置响应头（流式输出，不设置Content-Length）
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + encodedFilename + "\"; filename*=UTF-8''" + encodedFilename);
+
+        // 生成淘宝Excel，直接写入响应流
+        advancedExportService.generateTaobaoExcel(tasks, response.getOutputStream());
+    }
+
+    /**
+     * 导出任务列表为淘宝CSV格式
+     * @param tasksRaw 任务列表
+     * @param response 直接写入的HTTP响应
+     */
+    @PostMapping("/export-taobao-csv")
+    public void exportTaobaoCsv(@RequestBody List<Map<String, Object>> tasksRaw,
+                                HttpServletResponse response) throws IOException {
+        List<ExportTaskItem> tasks = parseTaskList(tasksRaw);
+
+        String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String filename = dateStr + ".csv";
+        String encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8);
+
+        // 设置响应头（流式输出，不设置Content-Length）
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + encodedFilename + "\"; filename*=UTF-8''" + encodedFilename);
+
+        // 生成淘宝CSV，直接写入响应流
+        advancedExportService.generateTaobaoCsv(tasks, response.getOutputStream());
     }
 
     // ==================== 辅助方法 ====================
@@ -131,7 +114,14 @@ public class AdvancedExportController {
         }
 
         List<Map<String, Object>> taskMaps = (List<Map<String, Object>>) requestBody.get("currentTasks");
+        return parseTaskList(taskMaps);
+    }
 
+    /**
+     * 将前端提交的任务Map列表转换为ExportTaskItem列表
+     */
+    @SuppressWarnings("unchecked")
+    private List<ExportTaskItem> parseTaskList(List<Map<String, Object>> taskMaps) {
         return taskMaps.stream().map(taskMap -> {
             ExportTaskItem task = new ExportTaskItem();
 
@@ -5,6 +5,7 @@ import com.lcsc.common.Result;
 import com.lcsc.entity.CategoryLevel1Code;
 import com.lcsc.entity.CategoryLevel2Code;
 import com.lcsc.entity.CategoryLevel3Code;
+import com.lcsc.service.CategoryDictionaryService;
 import com.lcsc.service.CategoryLevel1CodeService;
 import com.lcsc.service.CategoryLevel2CodeService;
 import com.lcsc.service.CategoryLevel3CodeService;
@@ -34,6 +35,9 @@ public class CategoryController {
     @Autowired
     private CategoryLevel3CodeService categoryLevel3CodeService;
 
+    @Autowired
+    private CategoryDictionaryService categoryDictionaryService;
+
     // ========== 一级分类 API ==========
 
     // 分页查询一级分类
@@ -71,6 +75,7 @@ public class CategoryController {
         try {
             boolean success = categoryLevel1CodeService.saveOrUpdateCategory(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("一级分类添加成功");
             } else {
                 return Result.error("一级分类添加失败");
@@ -87,6 +92,7 @@ public class CategoryController {
         try {
             boolean success = categoryLevel1CodeService.saveOrUpdateCategory(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("一级分类更新成功");
             } else {
                 return Result.error("一级分类更新失败");
@@ -119,6 +125,7 @@ public class CategoryController {
 
             boolean success = categoryLevel1CodeService.updateById(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("自定义名称更新成功");
             } else {
                 return Result.error("自定义名称更新失败");
@@ -139,6 +146,7 @@ public class CategoryController {
         
         boolean success = categoryLevel1CodeService.deleteCategoryById(id);
         if (success) {
+            categoryDictionaryService.refresh();
             return Result.success("一级分类删除成功");
         } else {
             return Result.error("一级分类删除失败");
@@ -159,6 +167,7 @@ public class CategoryController {
         List<Integer> intIds = ids.stream().map(Long::intValue).toList();
         boolean success = categoryLevel1CodeService.deleteCategoryBatch(intIds);
         if (success) {
+            categoryDictionaryService.refresh();
             return Result.success("批量删除成功，共删除" + ids.size() + "条记录");
         } else {
             return Result.error("批量删除失败");
@@ -209,6 +218,7 @@ public class CategoryController {
         try {
             boolean success = categoryLevel2CodeService.saveOrUpdateCategory(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("二级分类添加成功");
             } else {
                 return Result.error("二级分类添加失败");
@@ -225,6 +235,7 @@ public class CategoryController {
         try {
             boolean success = categoryLevel2CodeService.saveOrUpdateCategory(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("二级分类更新成功");
             } else {
                 return Result.error("二级分类更新失败");
@@ -257,6 +268,7 @@ public class CategoryController {
 
             boolean success = categoryLevel2CodeService.updateById(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("自定义名称更新成功");
             } else {
                 return Result.error("自定义名称更新失败");
@@ -271,6 +283,7 @@ public class CategoryController {
     public Result<String> deleteCategoryLevel2(@PathVariable Integer id) {
         boolean success = categoryLevel2CodeService.deleteCategoryById(id);
         if (success) {
+            categoryDictionaryService.refresh();
             return Result.success("二级分类删除成功");
         } else {
             return Result.error("二级分类删除失败");
@@ -283,6 +296,7 @@ public class CategoryController {
         List<Integer> intIds = ids.stream().map(Long::intValue).toList();
         boolean success = categoryLevel2CodeService.deleteCategoryBatch(intIds);
         if (success) {
+            categoryDictionaryService.refresh();
             return Result.success("批量删除成功，共删除" + ids.size() + "条记录");
         } else {
             return Result.error("批量删除失败");
@@ -349,6 +363,7 @@ public class CategoryController {
         try {
             boolean success = categoryLevel3CodeService.saveOrUpdate(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("三级分类添加成功");
             } else {
                 return Result.error("三级分类添加失败");
@@ -365,6 +380,7 @@ public class CategoryController {
         try {
             boolean success = categoryLevel3CodeService.saveOrUpdate(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("三级分类更新成功");
             } else {
                 return Result.error("三级分类更新失败");
@@ -397,6 +413,7 @@ public class CategoryController {
 
             boolean success = categoryLevel3CodeService.updateById(category);
             if (success) {
+                categoryDictionaryService.refresh();
                 return Result.success("自定义名称更新成功");
             } else {
                 return Result.error("自定义名称更新失败");
@@ -411,6 +428,7 @@ public class CategoryController {
     public Result<String> deleteCategoryLevel3(@PathVariable Integer id) {
         boolean success = categoryLevel3CodeService.deleteCategoryById(id);
         if (success) {
+            categoryDictionaryService.refresh();
             return Result.success("三级分类删除成功");
         } else {
             return Result.error("三级分类删除失败");
@@ -423,6 +441,7 @@ public class CategoryController {
         List<Integer> intIds = ids.stream().map(Long::intValue).toList();
         boolean success = categoryLevel3CodeService.deleteCategoryBatch(intIds);
         if (success) {
+            categoryDictionaryService.refresh();
             return Result.success("批量删除成功，共删除" + ids.size() + "条记录");
         } else {
             return Result.error("批量删除失败");
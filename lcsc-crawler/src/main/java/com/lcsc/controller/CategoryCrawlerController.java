@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -146,19 +147,24 @@ public class CategoryCrawlerController {
     public CompletableFuture<Result<CategoryCrawlResult>> patchAllFromProducts() {
         logger.info("收到提取所有产品分类的补丁请求");
         
-        return categoryExtractorService.extractAllCategories()
-            .thenCompose(categoryPairs -> {
+        return categoryExtractorService.extractAllCategoryCounts()
+            .thenCompose(extraction -> {
+                List<CategoryPair> categoryPairs = new ArrayList<>(extraction.getPairs().keySet());
                 if (categoryPairs.isEmpty()) {
                     logger.info("没有从产品数据中提取到任何分类信息");
                     CategoryCrawlResult result = new CategoryCrawlResult();
                     result.setSuccess(true);
+                    result.setScannedProducts(extraction.getScannedProducts());
                     result.setErrorMessage("没有找到可提取的分类信息");
                     return CompletableFuture.completedFuture(Result.success("没有可处理的分类", result));
                 }
                 
-                logger.info("从所有产品数据中提取到 {} 个唯一分类组合，开始批量补丁处理", categoryPairs.size());
+                logger.info("从 {} 个产品中提取到 {} 个唯一分类组合，开始批量补丁处理",
+                    extraction.getScannedProducts(), categoryPairs.size());
                 return categoryCrawlerService.patchProcessCategories(categoryPairs)
                     .thenApply(crawlResult -> {
+                        crawlResult.setScannedProducts(extraction.getScannedProducts());
+                        crawlResult.setPairCounts(extraction.toNamedCounts());
                         if (crawlResult.isSuccess()) {
                             return Result.<CategoryCrawlResult>success("批量补丁处理完成", crawlResult);
                         } else {
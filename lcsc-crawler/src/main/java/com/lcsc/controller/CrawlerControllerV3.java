@@ -19,15 +19,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.lcsc.common.Result;
 import com.lcsc.config.CrawlerConfig;
 import com.lcsc.entity.CategoryLevel2Code;
-import com.lcsc.entity.Product;
+import com.lcsc.service.ProductService;
+import com.lcsc.service.crawler.StorageIndexService;
+import com.lcsc.service.crawler.monitoring.TaskPhaseTracer;
 import com.lcsc.service.crawler.v3.CategoryCrawlerWorkerPool;
 import com.lcsc.service.crawler.v3.CategorySyncService;
+import com.lcsc.service.crawler.v3.CrawlerProgressAggregator;
 import com.lcsc.service.crawler.v3.CrawlerTaskQueueService;
 
 /**
@@ -59,9 +62,21 @@ public class CrawlerControllerV3 {
     @Autowired
     private com.lcsc.mapper.ProductMapper productMapper;
 
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StorageIndexService storageIndexService;
+
     @Autowired
     private CrawlerConfig crawlerConfig;
 
+    @Autowired
+    private CrawlerProgressAggregator progressAggregator;
+
+    @Autowired
+    private TaskPhaseTracer phaseTracer;
+
     @Value("${crawler.storage.base-path:#{systemProperties['user.dir']}/data}")
     private String storageBasePath;
 
@@ -97,6 +112,16 @@ public class CrawlerControllerV3 {
         }
     }
 
+    /**
+     * 获取进度快照（与WebSocket订阅快照一致，附带聚合统计）
+     */
+    @GetMapping("/progress")
+    public Result<Map<String, Object>> getProgressSnapshot() {
+        Map<String, Object> snapshot = new HashMap<>(progressAggregator.snapshot());
+        snapshot.put("stats", progressAggregator.getStats());
+        return Result.success(snapshot);
+    }
+
     /**
      * 第一步：爬取分类信息
      * 从API获取所有分类并同步到数据库（覆盖模式）
@@ -330,7 +355,7 @@ public class CrawlerControllerV3 {
     }
 
     /**
-     * 获取任务详情
+     * 获取任务详情（任务结束后包含 phaseBreakdown 阶段耗时分解）
      */
     @GetMapping("/task/{taskId}")
     public Result<Map<Object, Object>> getTaskDetails(@PathVariable String taskId) {
@@ -349,6 +374,19 @@ public class CrawlerControllerV3 {
         }
     }
 
+    /**
+     * 最慢任务排行（按总耗时倒序，含各阶段耗时分解）
+     */
+    @GetMapping("/tasks/slowest")
+    public Result<List<Object>> getSlowestTasks(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            return Result.success(phaseTracer.getSlowestTasks(Math.min(limit, 200)));
+        } catch (Exception e) {
+            log.error("获取最慢任务排行失败", e);
+            return Result.error("获取失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取分类统计信息
      */
@@ -441,29 +479,12 @@ public class CrawlerControllerV3 {
             log.debug("获取所有分类及爬取状态");
 
             List<CategoryLevel2Code> categories = syncService.getAllLevel2Categories();
+            // 各分类产品数由一条分组查询得到（短时缓存），不再逐个分类COUNT
+            Map<Integer, Long> productCounts = productService.getProductCountsByCategoryLevel2();
 
-            // 获取每个分类下的产品数量，并过滤掉未爬取过的分类
+            // 过滤掉未爬取过的分类
             List<Map<String, Object>> result = categories.stream()
-                .map(cat -> {
-                    Long productCount = productMapper.selectCount(
-                        new QueryWrapper<Product>()
-                            .eq("category_level2_id", cat.getId())
-                    );
-
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("id", cat.getId());
-                    item.put("categoryLevel1Id", cat.getCategoryLevel1Id());
-                    item.put("categoryLevel2Name", cat.getCategoryLevel2Name());
-                    // 转换为小写状态，以匹配前端期望的格式
-                    String crawlStatus = cat.getCrawlStatus() != null ? cat.getCrawlStatus().toLowerCase() : "pending";
-                    item.put("crawlStatus", crawlStatus);
-                    item.put("crawlProgress", cat.getCrawlProgress() != null ? cat.getCrawlProgress() : 0);
-                    item.put("lastCrawlTime", cat.getLastCrawlTime());
-                    item.put("totalProducts", productCount != null ? productCount : 0);
-                    item.put("errorMessage", cat.getErrorMessage());
-
-                    return item;
-                })
+                .map(cat -> toCategoryStatusItem(cat, productCounts))
                 // 只返回已经爬取过的分类（有爬取状态、有产品或有最后爬取时间）
                 .filter(item -> {
                     String status = (String) item.get("crawlStatus");
@@ -498,29 +519,11 @@ public class CrawlerControllerV3 {
             log.debug("获取所有分类列表");
 
             List<CategoryLevel2Code> categories = syncService.getAllLevel2Categories();
+            Map<Integer, Long> productCounts = productService.getProductCountsByCategoryLevel2();
 
             // 返回所有分类，包括未爬取的
             List<Map<String, Object>> result = categories.stream()
-                .map(cat -> {
-                    Long productCount = productMapper.selectCount(
-                        new QueryWrapper<Product>()
-                            .eq("category_level2_id", cat.getId())
-                    );
-
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("id", cat.getId());
-                    item.put("categoryLevel1Id", cat.getCategoryLevel1Id());
-                    item.put("categoryLevel2Name", cat.getCategoryLevel2Name());
-                    // 转换为小写状态，以匹配前端期望的格式
-                    String crawlStatus = cat.getCrawlStatus() != null ? cat.getCrawlStatus().toLowerCase() : "pending";
-                    item.put("crawlStatus", crawlStatus);
-                    item.put("crawlProgress", cat.getCrawlProgress() != null ? cat.getCrawlProgress() : 0);
-                    item.put("lastCrawlTime", cat.getLastCrawlTime());
-                    item.put("totalProducts", productCount != null ? productCount : 0);
-                    item.put("errorMessage", cat.getErrorMessage());
-
-                    return item;
-                })
+                .map(cat -> toCategoryStatusItem(cat, productCounts))
                 .collect(Collectors.toList());
 
             return Result.success(result);
@@ -531,6 +534,24 @@ public class CrawlerControllerV3 {
         }
     }
 
+    /**
+     * 分类状态项
+     */
+    private Map<String, Object> toCategoryStatusItem(CategoryLevel2Code cat, Map<Integer, Long> productCounts) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", cat.getId());
+        item.put("categoryLevel1Id", cat.getCategoryLevel1Id());
+        item.put("categoryLevel2Name", cat.getCategoryLevel2Name());
+        // 转换为小写状态，以匹配前端期望的格式
+        String crawlStatus = cat.getCrawlStatus() != null ? cat.getCrawlStatus().toLowerCase() : "pending";
+        item.put("crawlStatus", crawlStatus);
+        item.put("crawlProgress", cat.getCrawlProgress() != null ? cat.getCrawlProgress() : 0);
+        item.put("lastCrawlTime", cat.getLastCrawlTime());
+        item.put("totalProducts", productCounts.getOrDefault(cat.getId(), 0L));
+        item.put("errorMessage", cat.getErrorMessage());
+        return item;
+    }
+
     /**
      * 获取存储路径信息
      * 返回图片、PDF等文件的存储路径及统计信息
@@ -545,20 +566,17 @@ public class CrawlerControllerV3 {
             String dataPath = Paths.get(basePath, crawlerConfig.getStorage().getDataDir()).toString();
             String exportPath = Paths.get(basePath, crawlerConfig.getStorage().getExportDir()).toString();
 
-            // 统计文件数量
             File imageDir = new File(imagePath);
             File pdfDir = new File(pdfPath);
             File dataDir = new File(dataPath);
             File exportDir = new File(exportPath);
 
-            int imageCount = imageDir.exists() && imageDir.isDirectory() ?
-                (imageDir.listFiles() != null ? imageDir.listFiles().length : 0) : 0;
-            int pdfCount = pdfDir.exists() && pdfDir.isDirectory() ?
-                (pdfDir.listFiles() != null ? pdfDir.listFiles().length : 0) : 0;
-
-            // 计算目录大小（简化版本）
-            long imageSize = getDirectorySize(imageDir);
-            long pdfSize = getDirectorySize(pdfDir);
+            // 文件数和大小读取存储用量索引（由下载服务增量维护、后台定期校准），不遍历目录
+            Map<String, Object> usage = storageIndexService.getUsage();
+            long imageCount = (Long) usage.get("imageFiles");
+            long pdfCount = (Long) usage.get("pdfFiles");
+            long imageSize = (Long) usage.get("imageBytes");
+            long pdfSize = (Long) usage.get("pdfBytes");
 
             Map<String, Object> storageInfo = new HashMap<>();
             storageInfo.put("basePath", basePath);
@@ -590,6 +608,10 @@ public class CrawlerControllerV3 {
                     "exists", exportDir.exists()
                 )
             ));
+            storageInfo.put("index", Map.of(
+                "reconciledAt", String.valueOf(usage.get("reconciledAt")),
+                "reconciling", usage.get("reconciling")
+            ));
             storageInfo.put("saveImages", crawlerConfig.getSaveImages());
             storageInfo.put("config", Map.of(
                 "storageBasePath", storageBasePath,
@@ -608,25 +630,13 @@ public class CrawlerControllerV3 {
     }
 
     /**
-     * 递归计算目录大小
+     * 立即校准存储用量索引（后台低优先级扫描存储目录）
      */
-    private long getDirectorySize(File directory) {
-        if (!directory.exists() || !directory.isDirectory()) {
-            return 0;
-        }
-
-        long size = 0;
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile()) {
-                    size += file.length();
-                } else if (file.isDirectory()) {
-                    size += getDirectorySize(file);
-                }
-            }
-        }
-        return size;
+    @PostMapping("/storage/reconcile")
+    public Result<Map<String, Object>> reconcileStorageIndex() {
+        boolean submitted = storageIndexService.requestReconcile();
+        return Result.success(submitted ? "已提交存储索引校准" : "存储索引校准正在执行",
+            Map.of("submitted", submitted));
     }
 
     /**
@@ -7,9 +7,12 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import com.lcsc.service.crawler.v3.CrawlerProgressAggregator;
+
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -29,6 +32,9 @@ public class CrawlerWebSocketController {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private CrawlerProgressAggregator progressAggregator;
+
     /**
      * 处理客户端连接消息
      */
@@ -45,6 +51,15 @@ public class CrawlerWebSocketController {
             .build();
     }
 
+    /**
+     * 订阅进度快照
+     * 客户端订阅 /app/crawler/progress 时直接返回全量快照，之后按 seq 应用 /topic/crawler/progress 的增量帧
+     */
+    @SubscribeMapping("/crawler/progress")
+    public Map<String, Object> handleProgressSubscription() {
+        return progressAggregator.snapshot();
+    }
+
     /**
      * 处理客户端订阅特定任务
      */
@@ -212,31 +212,50 @@ public class ImageLinkController {
     }
 
     /**
-     * 导入Excel文件
+     * 导入Excel/CSV文件
+     * 文件按行流式解析，每1000行一个分块写入并提交
      *
-     * @param file Excel文件
+     * @param file     Excel或CSV文件
+     * @param importId 导入ID（可选，用于查询导入进度）
      * @return 导入结果（成功数、失败数、错误列表）
      */
     @PostMapping("/import")
-    public Result<ImageLinkImportResult> importFromExcel(@RequestParam("file") MultipartFile file) {
+    public Result<ImageLinkImportResult> importFromExcel(@RequestParam("file") MultipartFile file,
+                                                         @RequestParam(required = false) String importId) {
         // 验证文件
         if (file.isEmpty()) {
             return Result.error("文件不能为空");
         }
 
         String filename = file.getOriginalFilename();
-        if (filename == null || (!filename.endsWith(".xlsx") && !filename.endsWith(".xls"))) {
-            return Result.error("文件格式错误，只支持.xlsx或.xls格式");
+        String lowerName = filename != null ? filename.toLowerCase() : "";
+        if (!lowerName.endsWith(".xlsx") && !lowerName.endsWith(".xls") && !lowerName.endsWith(".csv")) {
+            return Result.error("文件格式错误，只支持.xlsx、.xls或.csv格式");
         }
 
         try {
-            ImageLinkImportResult result = imageLinkImportService.importFromExcel(file);
+            ImageLinkImportResult result = imageLinkImportService.importFromExcel(file, importId);
             return Result.success(result);
         } catch (Exception e) {
             return Result.error("导入失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 查询导入进度
+     *
+     * @param importId 导入时传入的导入ID
+     * @return 已处理行数、成功数、失败数、已提交分块数
+     */
+    @GetMapping("/import/progress/{importId}")
+    public Result<Map<String, Object>> getImportProgress(@PathVariable String importId) {
+        Map<String, Object> progress = imageLinkImportService.getImportProgress(importId);
+        if (progress == null) {
+            return Result.error("导入记录不存在: " + importId);
+        }
+        return Result.success(progress);
+    }
+
     /**
      * 下载Excel导入模板
      *
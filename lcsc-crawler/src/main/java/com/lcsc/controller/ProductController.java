@@ -2,8 +2,16 @@ package com.lcsc.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.lcsc.common.Result;
+import com.lcsc.dto.ExportJob;
+import com.lcsc.dto.ProductCursorPage;
+import com.lcsc.dto.ProductExportQuery;
 import com.lcsc.entity.Product;
+import com.lcsc.entity.StorageProductAsset;
+import com.lcsc.service.ProductSearchService;
 import com.lcsc.service.ProductService;
+import com.lcsc.service.crawler.ExportJobService;
+import com.lcsc.service.crawler.StorageIndexService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
@@ -17,14 +25,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * 产品管理控制器
@@ -43,71 +52,51 @@ public class ProductController {
     @Autowired
     private com.lcsc.service.crawler.DataExportService dataExportService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private StorageIndexService storageIndexService;
+
     @Value("${crawler.storage.base-path}")
     private String storageBasePath;
 
     // --- 全新的资源浏览器 API ---
 
+    /**
+     * 产品资源文件夹分页（按最近修改时间倒序）
+     * 读取下载服务维护的存储索引，不遍历目录
+     */
     @GetMapping("/resources/folders")
     public Result<Map<String, Object>> getResourceFolders(
             @RequestParam(defaultValue = "1") int current,
             @RequestParam(defaultValue = "20") int size
     ) {
         try {
-            Path basePath = Paths.get(storageBasePath);
-            if (!Files.exists(basePath) || !Files.isDirectory(basePath)) {
-                return Result.page(new ArrayList<>(), 0L, (long)current, (long)size);
-            }
-
-            List<Map<String, Object>> folderInfoList;
-            try (Stream<Path> stream = Files.list(basePath)) {
-                folderInfoList = stream
-                    .filter(Files::isDirectory)
-                    .map(productDir -> {
-                        String productCode = productDir.getFileName().toString();
-                        Map<String, Object> info = new HashMap<>();
-                        info.put("productCode", productCode);
-                        try {
-                            info.put("imageCount", countFiles(productDir.resolve("images")));
-                            info.put("pdfCount", countFiles(productDir.resolve("pdfs")));
-                            info.put("lastModified", Files.getLastModifiedTime(productDir).toMillis());
-                        } catch (IOException e) {
-                            info.put("imageCount", 0);
-                            info.put("pdfCount", 0);
-                            info.put("lastModified", 0);
-                        }
-                        return info;
-                    })
-                    .sorted(Comparator.comparing(m -> (long)m.get("lastModified"), Comparator.reverseOrder()))
-                    .collect(Collectors.toList());
-            }
-
-            long total = folderInfoList.size();
-            int fromIndex = (current - 1) * size;
-            int toIndex = (int)Math.min(fromIndex + size, total);
-
-            if (fromIndex >= total) {
-                return Result.page(new ArrayList<>(), total, (long)current, (long)size);
+            long total = storageIndexService.getIndexedProductCount();
+            List<Map<String, Object>> folders = new ArrayList<>();
+            if ((long) (current - 1) * size < total) {
+                for (StorageProductAsset asset : storageIndexService.getRecentAssets(current, size)) {
+                    Map<String, Object> info = new HashMap<>();
+                    info.put("productCode", asset.getProductCode());
+                    info.put("imageCount", asset.getImageCount());
+                    info.put("pdfCount", asset.getPdfCount());
+                    info.put("sizeBytes", asset.getImageBytes() + asset.getPdfBytes());
+                    info.put("lastModified", asset.getLastModified() != null
+                        ? asset.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0);
+                    folders.add(info);
+                }
             }
+            return Result.page(folders, total, (long) current, (long) size);
 
-            List<Map<String, Object>> paginatedList = folderInfoList.subList(fromIndex, toIndex);
-
-            return Result.page(paginatedList, total, (long)current, (long)size);
-
-        } catch (IOException e) {
+        } catch (Exception e) {
             return Result.error("获取资源文件夹失败: " + e.getMessage());
         }
     }
 
-    private long countFiles(Path directory) throws IOException {
-        if (!Files.exists(directory) || !Files.isDirectory(directory)) {
-            return 0;
-        }
-        try (Stream<Path> stream = Files.list(directory)) {
-            return stream.filter(Files::isRegularFile).count();
-        }
-    }
-
 
     // --- 产品管理 API ---
 
@@ -122,14 +111,79 @@ public class ProductController {
             @RequestParam(required = false) Integer categoryLevel1Id,
             @RequestParam(required = false) Integer categoryLevel2Id,
             @RequestParam(required = false) Integer categoryLevel3Id,
-            @RequestParam(required = false) Boolean hasStock
+            @RequestParam(required = false) Boolean hasStock,
+            @RequestParam(required = false) String cursor
     ) {
+        // 携带cursor参数（首页传空串）时使用游标分页，响应中返回nextCursor用于翻页
+        if (cursor != null) {
+            ProductCursorPage cursorPage = productService.getProductPageByCursor(cursor, size, productCode, brand,
+                                                            model, packageName, categoryLevel1Id,
+                                                            categoryLevel2Id, categoryLevel3Id, hasStock);
+            Map<String, Object> data = new HashMap<>();
+            data.put("records", cursorPage.getRecords());
+            data.put("total", cursorPage.getTotal());
+            data.put("totalApproximate", cursorPage.isTotalApproximate());
+            data.put("size", size.longValue());
+            data.put("nextCursor", cursorPage.getNextCursor());
+            data.put("hasMore", cursorPage.isHasMore());
+            return Result.success("查询成功", data);
+        }
+
         IPage<Product> result = productService.getProductPage(current, size, productCode, brand,
                                                             model, packageName, categoryLevel1Id,
                                                             categoryLevel2Id, categoryLevel3Id, hasStock);
         return Result.page(result.getRecords(), result.getTotal(), current.longValue(), size.longValue());
     }
 
+    /**
+     * 参数检索：型号/品牌/封装/参数分词匹配 + 数值参数范围过滤 + 分面统计
+     * range 示例：range=Resistance:1k:10k&range=Tolerance::1
+     */
+    @GetMapping("/products/search")
+    public Result<Map<String, Object>> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String packageName,
+            @RequestParam(required = false) Integer categoryLevel1Id,
+            @RequestParam(required = false) Integer categoryLevel2Id,
+            @RequestParam(required = false) Boolean hasStock,
+            @RequestParam(required = false) List<String> range,
+            @RequestParam(defaultValue = "1") Integer current,
+            @RequestParam(defaultValue = "20") Integer size
+    ) {
+        Map<String, Object> result = productSearchService.search(q, brand, packageName, categoryLevel1Id,
+                                                                 categoryLevel2Id, hasStock, range, current, size);
+        return Result.success("查询成功", result);
+    }
+
+    /**
+     * 可用于范围过滤的数值参数列表
+     */
+    @GetMapping("/products/search/parameters")
+    public Result<List<Map<String, Object>>> getSearchParameters(@RequestParam(defaultValue = "100") Integer limit) {
+        return Result.success(productSearchService.listRangeParameters(limit));
+    }
+
+    /**
+     * 提交重建数值参数表的后台任务
+     */
+    @PostMapping("/products/search/rebuild")
+    public Result<Map<String, Object>> rebuildSearchIndex() {
+        return Result.success("数值参数表重建任务已提交", productSearchService.startRebuildParamIndex());
+    }
+
+    /**
+     * 查询重建数值参数表任务状态（不传jobId时返回最近一次任务）
+     */
+    @GetMapping("/products/search/rebuild")
+    public Result<Map<String, Object>> getRebuildStatus(@RequestParam(required = false) String jobId) {
+        Map<String, Object> status = productSearchService.getRebuildStatus(jobId);
+        if (status == null) {
+            return Result.notFound("重建任务不存在");
+        }
+        return Result.success(status);
+    }
+
     @GetMapping("/products/{id}")
     public Result<Product> getProductById(@PathVariable Long id) {
         Product product = productService.getById(id);
@@ -215,10 +269,10 @@ public class ProductController {
         try {
             Map<String, Object> resources = new HashMap<>();
             List<Map<String, Object>> allFiles = new ArrayList<>();
-            Path productPath = Paths.get(storageBasePath, productCode);
 
-            addFilesToList(allFiles, productPath.resolve("images"), "image");
-            addFilesToList(allFiles, productPath.resolve("pdfs"), "pdf");
+            // 与资源索引相同的目录布局（平铺目录 + 旧版产品子目录）
+            addFilesToList(allFiles, productCode, "image");
+            addFilesToList(allFiles, productCode, "pdf");
 
             Map<String, List<Map<String, Object>>> groupedFiles = allFiles.stream()
                 .collect(Collectors.groupingBy(file -> (String) file.get("category")));
@@ -235,26 +289,21 @@ public class ProductController {
         }
     }
 
-    private void addFilesToList(List<Map<String, Object>> allFiles, Path directory, String category) throws IOException {
-        if (!Files.exists(directory) || !Files.isDirectory(directory)) {
-            return;
-        }
-        try (Stream<Path> stream = Files.list(directory)) {
-            stream.filter(Files::isRegularFile).forEach(file -> {
-                try {
-                    String filename = file.getFileName().toString();
-                    Map<String, Object> fileInfo = new HashMap<>();
-                    fileInfo.put("filename", filename);
-                    fileInfo.put("size", Files.size(file));
-                    fileInfo.put("lastModified", Files.getLastModifiedTime(file).toMillis());
-                    fileInfo.put("url", "/api/resources/" + file.getParent().getParent().getFileName().toString() + "/" + category + "/" + filename);
-                    fileInfo.put("category", category);
-                    fileInfo.put("type", category.equals("image") ? "image" : "datasheet");
-                    allFiles.add(fileInfo);
-                } catch (IOException e) {
-                    // Ignore individual file errors
-                }
-            });
+    private void addFilesToList(List<Map<String, Object>> allFiles, String productCode, String category) throws IOException {
+        for (Path file : storageIndexService.listProductFiles(productCode, category)) {
+            try {
+                String filename = file.getFileName().toString();
+                Map<String, Object> fileInfo = new HashMap<>();
+                fileInfo.put("filename", filename);
+                fileInfo.put("size", Files.size(file));
+                fileInfo.put("lastModified", Files.getLastModifiedTime(file).toMillis());
+                fileInfo.put("url", "/api/resources/" + productCode + "/" + category + "/" + filename);
+                fileInfo.put("category", category);
+                fileInfo.put("type", category.equals("image") ? "image" : "datasheet");
+                allFiles.add(fileInfo);
+            } catch (IOException e) {
+                // Ignore individual file errors
+            }
         }
     }
 
@@ -265,10 +314,10 @@ public class ProductController {
                 return ResponseEntity.badRequest().build();
             }
 
-            // 将单数形式转换为复数形式，匹配实际目录结构
-            String directoryType = type.equals("image") ? "images" : "pdfs";
-            Path filePath = Paths.get(storageBasePath, productCode, directoryType, filename);
-            if (!Files.exists(filePath)) {
+            // 按平铺布局查找，找不到时回退旧版产品子目录
+            String fileType = type.equals("image") ? StorageIndexService.TYPE_IMAGE : StorageIndexService.TYPE_PDF;
+            Path filePath = storageIndexService.resolveProductFile(productCode, fileType, filename);
+            if (filePath == null) {
                 return ResponseEntity.notFound().build();
             }
 
@@ -293,18 +342,7 @@ public class ProductController {
      */
     @GetMapping("/products/export/excel/all")
     public CompletableFuture<Result<Map<String, Object>>> exportAllProductsToExcel() {
-        return dataExportService.exportAllProductsToExcel()
-            .thenApply(result -> {
-                if (result.isSuccess()) {
-                    Map<String, Object> data = new HashMap<>();
-                    data.put("filename", Paths.get(result.getFilePath()).getFileName().toString());
-                    data.put("recordCount", result.getRecordCount());
-                    data.put("message", result.getMessage());
-                    return Result.success(data);
-                } else {
-                    return Result.error(result.getMessage());
-                }
-            });
+        return awaitExport(exportJobService.submit(new ProductExportQuery()));
     }
 
     /**
@@ -313,28 +351,24 @@ public class ProductController {
     @PostMapping("/products/export/excel")
     public CompletableFuture<Result<Map<String, Object>>> exportProductsToExcel(
             @RequestBody Map<String, Object> params) {
+        ProductExportQuery query = parseExportQuery(params);
+        query.setFormat("excel");
+        return awaitExport(exportJobService.submit(query));
+    }
 
-        Integer categoryLevel1Id = params.get("categoryLevel1Id") != null ?
-                                    Integer.valueOf(params.get("categoryLevel1Id").toString()) : null;
-        Integer categoryLevel2Id = params.get("categoryLevel2Id") != null ?
-                                    Integer.valueOf(params.get("categoryLevel2Id").toString()) : null;
-        String brand = (String) params.get("brand");
-        String productCode = (String) params.get("productCode");
-        String model = (String) params.get("model");
-        Boolean hasStock = params.get("hasStock") != null ? Boolean.valueOf(params.get("hasStock").toString()) : null;
+    /**
+     * 根据搜索条件导出产品Excel，直接流式写入HTTP响应（不生成服务器文件）
+     */
+    @PostMapping("/products/export/excel/stream")
+    public void streamProductsToExcel(@RequestBody Map<String, Object> params,
+                                      HttpServletResponse response) throws IOException {
+        ProductExportQuery query = parseExportQuery(params);
 
-        return dataExportService.exportProductsToExcel(categoryLevel1Id, categoryLevel2Id, brand, productCode, model, hasStock)
-            .thenApply(result -> {
-                if (result.isSuccess()) {
-                    Map<String, Object> data = new HashMap<>();
-                    data.put("filename", Paths.get(result.getFilePath()).getFileName().toString());
-                    data.put("recordCount", result.getRecordCount());
-                    data.put("message", result.getMessage());
-                    return Result.success(data);
-                } else {
-                    return Result.error(result.getMessage());
-                }
-            });
+        String filename = "products_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+
+        dataExportService.writeProductsToExcel(query, response.getOutputStream());
     }
 
     /**
@@ -343,28 +377,63 @@ public class ProductController {
     @PostMapping("/products/export/csv")
     public CompletableFuture<Result<Map<String, Object>>> exportProductsToCSV(
             @RequestBody Map<String, Object> params) {
+        ProductExportQuery query = parseExportQuery(params);
+        query.setFormat("csv");
+        return awaitExport(exportJobService.submit(query));
+    }
 
-        Integer categoryLevel1Id = params.get("categoryLevel1Id") != null ?
-                                    Integer.valueOf(params.get("categoryLevel1Id").toString()) : null;
-        Integer categoryLevel2Id = params.get("categoryLevel2Id") != null ?
-                                    Integer.valueOf(params.get("categoryLevel2Id").toString()) : null;
-        String brand = (String) params.get("brand");
-        String productCode = (String) params.get("productCode");
-        String model = (String) params.get("model");
-        Boolean hasStock = params.get("hasStock") != null ? Boolean.valueOf(params.get("hasStock").toString()) : null;
+    /**
+     * 导出产品列式快照（Arrow IPC文件，ZSTD压缩，供分析侧全量导入）
+     * 阶梯数量/价格为数值列，参数为键值map列；参数同 /products/export/excel，完成后通过下载接口获取
+     */
+    @PostMapping("/products/export/snapshot")
+    public CompletableFuture<Result<Map<String, Object>>> exportProductsSnapshot(
+            @RequestBody(required = false) Map<String, Object> params) {
+        ProductExportQuery query = parseExportQuery(params != null ? params : Map.of());
+        query.setFormat("arrow");
+        return awaitExport(exportJobService.submit(query));
+    }
 
-        return dataExportService.exportProductsToCSV(categoryLevel1Id, categoryLevel2Id, brand, productCode, model, hasStock)
-            .thenApply(result -> {
-                if (result.isSuccess()) {
-                    Map<String, Object> data = new HashMap<>();
-                    data.put("filename", Paths.get(result.getFilePath()).getFileName().toString());
-                    data.put("recordCount", result.getRecordCount());
-                    data.put("message", result.getMessage());
-                    return Result.success(data);
-                } else {
-                    return Result.error(result.getMessage());
-                }
-            });
+    // --- 后台导出任务 API ---
+
+    /**
+     * 提交后台导出任务，立即返回任务ID；进度可轮询或订阅 /topic/export/jobs/{jobId}
+     * 参数同 /products/export/excel，另支持 format(excel/csv/arrow) 与 categoryIds
+     */
+    @PostMapping("/products/export/jobs")
+    public Result<ExportJob> submitExportJob(@RequestBody Map<String, Object> params) {
+        return Result.success(exportJobService.submit(parseExportQuery(params)));
+    }
+
+    /**
+     * 导出任务列表
+     */
+    @GetMapping("/products/export/jobs")
+    public Result<List<ExportJob>> listExportJobs() {
+        return Result.success(exportJobService.listJobs());
+    }
+
+    /**
+     * 查询导出任务状态与进度
+     */
+    @GetMapping("/products/export/jobs/{jobId}")
+    public Result<ExportJob> getExportJob(@PathVariable String jobId) {
+        ExportJob job = exportJobService.getJob(jobId);
+        if (job == null) {
+            return Result.notFound("导出任务不存在");
+        }
+        return Result.success(job);
+    }
+
+    /**
+     * 取消导出任务
+     */
+    @DeleteMapping("/products/export/jobs/{jobId}")
+    public Result<String> cancelExportJob(@PathVariable String jobId) {
+        if (exportJobService.cancel(jobId)) {
+            return Result.success("已取消导出任务");
+        }
+        return Result.error("导出任务不存在或已结束");
     }
 
     /**
@@ -408,22 +477,29 @@ public class ProductController {
     public CompletableFuture<Result<Map<String, Object>>> exportProductsByCategories(
             @RequestBody Map<String, Object> params) {
 
-        List<Integer> categoryIds = (List<Integer>) params.get("categoryIds");
-        String format = (String) params.getOrDefault("format", "excel");
-
-        if (categoryIds == null || categoryIds.isEmpty()) {
+        ProductExportQuery query = parseExportQuery(params);
+        if (query.getCategoryIds() == null || query.getCategoryIds().isEmpty()) {
             return CompletableFuture.completedFuture(
                 Result.error("分类ID列表不能为空")
             );
         }
 
-        return dataExportService.exportProductsByCategories(categoryIds, format)
+        return awaitExport(exportJobService.submit(query));
+    }
+
+    /**
+     * 等待导出任务完成，并转换为兼容旧接口的返回结构
+     */
+    private CompletableFuture<Result<Map<String, Object>>> awaitExport(ExportJob job) {
+        return exportJobService.getResult(job.getJobId())
             .thenApply(result -> {
                 if (result.isSuccess()) {
                     Map<String, Object> data = new HashMap<>();
+                    data.put("jobId", job.getJobId());
                     data.put("filename", Paths.get(result.getFilePath()).getFileName().toString());
                     data.put("recordCount", result.getRecordCount());
                     data.put("message", result.getMessage());
+                    data.put("cacheHit", job.isCacheHit());
                     return Result.success(data);
                 } else {
                     return Result.error(result.getMessage());
@@ -431,6 +507,31 @@ public class ProductController {
             });
     }
 
+    /**
+     * 解析导出条件
+     */
+    @SuppressWarnings("unchecked")
+    private ProductExportQuery parseExportQuery(Map<String, Object> params) {
+        ProductExportQuery query = new ProductExportQuery();
+        if (params.get("format") != null) {
+            query.setFormat(params.get("format").toString());
+        }
+        query.setCategoryLevel1Id(params.get("categoryLevel1Id") != null ?
+                                    Integer.valueOf(params.get("categoryLevel1Id").toString()) : null);
+        query.setCategoryLevel2Id(params.get("categoryLevel2Id") != null ?
+                                    Integer.valueOf(params.get("categoryLevel2Id").toString()) : null);
+        query.setBrand((String) params.get("brand"));
+        query.setProductCode((String) params.get("productCode"));
+        query.setModel((String) params.get("model"));
+        query.setHasStock(params.get("hasStock") != null ? Boolean.valueOf(params.get("hasStock").toString()) : null);
+        if (params.get("categoryIds") instanceof List) {
+            query.setCategoryIds(((List<Object>) params.get("categoryIds")).stream()
+                    .map(id -> Integer.valueOf(id.toString()))
+                    .collect(Collectors.toList()));
+        }
+        return query;
+    }
+
     /**
      * 获取所有品牌列表
      */
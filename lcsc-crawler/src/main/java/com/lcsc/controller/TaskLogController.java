@@ -37,17 +37,19 @@ public class TaskLogController {
 
     /**
      * 分页查询任务日志 - 从Redis获取
+     * 传入上一页返回的nextCursor作为before可继续向后翻页
      */
     @GetMapping("/page")
     public Result<Map<String, Object>> getTaskLogsPage(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String taskId,
-            @RequestParam(required = false) String level) {
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String before) {
         try {
-            logger.debug("从Redis分页查询任务日志: page={}, size={}, taskId={}, level={}", page, size, taskId, level);
+            logger.debug("从Redis分页查询任务日志: page={}, size={}, taskId={}, level={}, before={}", page, size, taskId, level, before);
             
-            Map<String, Object> result = redisTaskLogService.getTaskLogsPage(page, size, taskId, level);
+            Map<String, Object> result = redisTaskLogService.getTaskLogsPage(page, size, taskId, level, before);
             
             return Result.success(result);
         } catch (Exception e) {
@@ -203,6 +205,14 @@ public class TaskLogController {
         }
     }
 
+    /**
+     * 获取异步日志管道统计（缓冲区水位、抽样/丢弃数、批量写入与推送限速情况）
+     */
+    @GetMapping("/pipeline-stats")
+    public Result<Map<String, Object>> getPipelineStats() {
+        return Result.success(taskLogService.getPipelineStats());
+    }
+
     /**
      * 从数据库分页查询任务日志 (用于实时更新)
      */
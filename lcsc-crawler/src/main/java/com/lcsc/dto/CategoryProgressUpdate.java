@@ -0,0 +1,88 @@
+package com.lcsc.dto;
+
+/**
+ * 分类爬取进度更新DTO
+ * 只包含进度相关列，用于批量局部UPDATE（不读取、不回写整行）
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class CategoryProgressUpdate {
+
+    /**
+     * 分类ID（二级或三级分类表主键）
+     */
+    private Integer id;
+
+    /**
+     * 当前页
+     */
+    private Integer currentPage;
+
+    /**
+     * 已爬取产品数
+     */
+    private Integer crawledProducts;
+
+    /**
+     * 产品总数
+     */
+    private Integer totalProducts;
+
+    /**
+     * 爬取进度 0-100
+     */
+    private Integer crawlProgress;
+
+    public CategoryProgressUpdate() {
+    }
+
+    public CategoryProgressUpdate(Integer id, Integer currentPage, Integer crawledProducts,
+                                  Integer totalProducts, Integer crawlProgress) {
+        this.id = id;
+        this.currentPage = currentPage;
+        this.crawledProducts = crawledProducts;
+        this.totalProducts = totalProducts;
+        this.crawlProgress = crawlProgress;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getCurrentPage() {
+        return currentPage;
+    }
+
+    public void setCurrentPage(Integer currentPage) {
+        this.currentPage = currentPage;
+    }
+
+    public Integer getCrawledProducts() {
+        return crawledProducts;
+    }
+
+    public void setCrawledProducts(Integer crawledProducts) {
+        this.crawledProducts = crawledProducts;
+    }
+
+    public Integer getTotalProducts() {
+        return totalProducts;
+    }
+
+    public void setTotalProducts(Integer totalProducts) {
+        this.totalProducts = totalProducts;
+    }
+
+    public Integer getCrawlProgress() {
+        return crawlProgress;
+    }
+
+    public void setCrawlProgress(Integer crawlProgress) {
+        this.crawlProgress = crawlProgress;
+    }
+}
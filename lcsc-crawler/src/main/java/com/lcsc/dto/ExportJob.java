@@ -0,0 +1,173 @@
+package com.lcsc.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 后台导出任务状态DTO
+ * 由导出线程更新、接口线程读取，字段均为volatile
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class ExportJob {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    /**
+     * 任务ID
+     */
+    private volatile String jobId;
+
+    /**
+     * 导出格式：excel / csv / arrow
+     */
+    private volatile String format;
+
+    /**
+     * 任务状态
+     */
+    private volatile String status;
+
+    /**
+     * 已导出行数
+     */
+    private volatile long exportedRows;
+
+    /**
+     * 预计总行数
+     */
+    private volatile long totalRows;
+
+    /**
+     * 导出文件名（完成后可通过 /products/export/download/{filename} 下载）
+     */
+    private volatile String filename;
+
+    /**
+     * 结果说明或错误信息
+     */
+    private volatile String message;
+
+    /**
+     * 是否直接复用了缓存的导出结果
+     */
+    private volatile boolean cacheHit;
+
+    private volatile LocalDateTime createdAt;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * 导出进度百分比（0-100）
+     */
+    public int getProgress() {
+        if (STATUS_COMPLETED.equals(status)) {
+            return 100;
+        }
+        if (totalRows <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, exportedRows * 100 / totalRows);
+    }
+
+    /**
+     * 是否已结束（完成/失败/取消）
+     */
+    public boolean isFinished() {
+        return STATUS_COMPLETED.equals(status) || STATUS_FAILED.equals(status) || STATUS_CANCELLED.equals(status);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getExportedRows() {
+        return exportedRows;
+    }
+
+    public void setExportedRows(long exportedRows) {
+        this.exportedRows = exportedRows;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
+    public void setCacheHit(boolean cacheHit) {
+        this.cacheHit = cacheHit;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -22,6 +22,16 @@ public class ImageLinkImportResult {
      */
     private List<ImageLinkImportError> errors;
 
+    /**
+     * 已处理的数据行数（不含标题行）
+     */
+    private int processedRows;
+
+    /**
+     * 错误过多时只保留前若干条明细
+     */
+    private boolean errorsTruncated;
+
     public ImageLinkImportResult() {
         this.errors = new ArrayList<>();
     }
@@ -56,6 +66,22 @@ public class ImageLinkImportResult {
         this.errors = errors;
     }
 
+    public int getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(int processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
     /**
      * 添加一个错误记录
      */
@@ -0,0 +1,91 @@
+package com.lcsc.dto;
+
+import com.lcsc.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 产品游标分页结果DTO
+ * 基于 (last_crawled_at, id) 的键集分页，翻页耗时与页深无关
+ */
+public class ProductCursorPage {
+
+    /**
+     * 当前页记录
+     */
+    private List<Product> records;
+
+    /**
+     * 下一页游标（没有更多数据时为null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 总记录数（缓存/估算值）
+     */
+    private long total;
+
+    /**
+     * total 是否为估算值
+     */
+    private boolean totalApproximate;
+
+    public ProductCursorPage() {
+        this.records = new ArrayList<>();
+    }
+
+    public ProductCursorPage(List<Product> records, String nextCursor, boolean hasMore,
+                             long total, boolean totalApproximate) {
+        this.records = records != null ? records : new ArrayList<>();
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.total = total;
+        this.totalApproximate = totalApproximate;
+    }
+
+    public List<Product> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<Product> records) {
+        this.records = records;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+
+    public void setTotalApproximate(boolean totalApproximate) {
+        this.totalApproximate = totalApproximate;
+    }
+}
@@ -0,0 +1,138 @@
+package com.lcsc.dto;
+
+import java.util.List;
+
+/**
+ * 产品导出条件DTO
+ * 同时用于同步导出接口和后台导出任务
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class ProductExportQuery {
+
+    /**
+     * 导出格式：excel / csv / arrow（列式快照）
+     */
+    private String format = "excel";
+
+    /**
+     * 一级分类ID
+     */
+    private Integer categoryLevel1Id;
+
+    /**
+     * 二级分类ID
+     */
+    private Integer categoryLevel2Id;
+
+    /**
+     * 二级分类ID列表（按分类批量导出）
+     */
+    private List<Integer> categoryIds;
+
+    /**
+     * 品牌（模糊匹配）
+     */
+    private String brand;
+
+    /**
+     * 产品编号（模糊匹配）
+     */
+    private String productCode;
+
+    /**
+     * 型号（模糊匹配）
+     */
+    private String model;
+
+    /**
+     * 是否有库存
+     */
+    private Boolean hasStock;
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public Integer getCategoryLevel1Id() {
+        return categoryLevel1Id;
+    }
+
+    public void setCategoryLevel1Id(Integer categoryLevel1Id) {
+        this.categoryLevel1Id = categoryLevel1Id;
+    }
+
+    public Integer getCategoryLevel2Id() {
+        return categoryLevel2Id;
+    }
+
+    public void setCategoryLevel2Id(Integer categoryLevel2Id) {
+        this.categoryLevel2Id = categoryLevel2Id;
+    }
+
+    public List<Integer> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public void setCategoryIds(List<Integer> categoryIds) {
+        this.categoryIds = categoryIds;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public void setProductCode(String productCode) {
+        this.productCode = productCode;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public Boolean getHasStock() {
+        return hasStock;
+    }
+
+    public void setHasStock(Boolean hasStock) {
+        this.hasStock = hasStock;
+    }
+
+    /**
+     * 是否导出为CSV
+     */
+    public boolean isCsv() {
+        return "csv".equalsIgnoreCase(format);
+    }
+
+    /**
+     * 是否导出为列式快照（Arrow IPC文件）
+     */
+    public boolean isArrow() {
+        return "arrow".equalsIgnoreCase(format);
+    }
+
+    /**
+     * 规范化后的导出格式，未识别的格式按excel处理
+     */
+    public String getNormalizedFormat() {
+        return isCsv() ? "csv" : isArrow() ? "arrow" : "excel";
+    }
+}
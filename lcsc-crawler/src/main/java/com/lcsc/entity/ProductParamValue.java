@@ -0,0 +1,76 @@
+package com.lcsc.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+
+/**
+ * 产品数值参数实体类
+ * 由产品详细参数解析得到，用于参数检索的数值范围过滤
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@TableName("product_param_values")
+public class ProductParamValue {
+
+    /**
+     * 产品ID
+     */
+    private Integer productId;
+
+    /**
+     * 参数英文名（paramNameEn）
+     */
+    private String paramName;
+
+    /**
+     * 换算为基本单位后的数值（如 10kΩ -> 10000）
+     */
+    private Double numericValue;
+
+    /**
+     * 基本单位（如 Ω、F、V、Hz、%）
+     */
+    private String unit;
+
+    public ProductParamValue() {
+    }
+
+    public ProductParamValue(Integer productId, String paramName, Double numericValue, String unit) {
+        this.productId = productId;
+        this.paramName = paramName;
+        this.numericValue = numericValue;
+        this.unit = unit;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public void setParamName(String paramName) {
+        this.paramName = paramName;
+    }
+
+    public Double getNumericValue() {
+        return numericValue;
+    }
+
+    public void setNumericValue(Double numericValue) {
+        this.numericValue = numericValue;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+}
@@ -0,0 +1,109 @@
+package com.lcsc.entity;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.LocalDateTime;
+
+/**
+ * 产品存储资源索引实体类
+ * 每个产品一行，记录本地已下载的图片/PDF数量和字节数，由下载服务增量维护、后台扫描校准
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@TableName("storage_product_assets")
+public class StorageProductAsset {
+
+    /**
+     * 产品编号
+     */
+    @TableId
+    private String productCode;
+
+    /**
+     * 图片文件数
+     */
+    private Integer imageCount;
+
+    /**
+     * PDF文件数
+     */
+    private Integer pdfCount;
+
+    /**
+     * 图片总字节数
+     */
+    private Long imageBytes;
+
+    /**
+     * PDF总字节数
+     */
+    private Long pdfBytes;
+
+    /**
+     * 最近一个文件的修改时间
+     */
+    private LocalDateTime lastModified;
+
+    /**
+     * 最近一次写入索引的时间（增量更新或扫描校准）
+     */
+    private LocalDateTime indexedAt;
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public void setProductCode(String productCode) {
+        this.productCode = productCode;
+    }
+
+    public Integer getImageCount() {
+        return imageCount;
+    }
+
+    public void setImageCount(Integer imageCount) {
+        this.imageCount = imageCount;
+    }
+
+    public Integer getPdfCount() {
+        return pdfCount;
+    }
+
+    public void setPdfCount(Integer pdfCount) {
+        this.pdfCount = pdfCount;
+    }
+
+    public Long getImageBytes() {
+        return imageBytes;
+    }
+
+    public void setImageBytes(Long imageBytes) {
+        this.imageBytes = imageBytes;
+    }
+
+    public Long getPdfBytes() {
+        return pdfBytes;
+    }
+
+    public void setPdfBytes(Long pdfBytes) {
+        this.pdfBytes = pdfBytes;
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(LocalDateTime lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public LocalDateTime getIndexedAt() {
+        return indexedAt;
+    }
+
+    public void setIndexedAt(LocalDateTime indexedAt) {
+        this.indexedAt = indexedAt;
+    }
+}
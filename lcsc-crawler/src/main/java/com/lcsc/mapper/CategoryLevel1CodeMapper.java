@@ -2,7 +2,12 @@ package com.lcsc.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lcsc.entity.CategoryLevel1Code;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 /**
  * 一级分类分类码 Mapper 接口
@@ -13,4 +18,26 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface CategoryLevel1CodeMapper extends BaseMapper<CategoryLevel1Code> {
 
+    /**
+     * 分类同步：批量新增（单条多行INSERT）
+     */
+    @Insert("<script>" +
+            "INSERT INTO category_level1_codes (category_level1_name, source_name, is_customized, catalog_id, created_at, updated_at) VALUES " +
+            "<foreach collection='list' item='c' separator=','>" +
+            "(#{c.categoryLevel1Name}, #{c.sourceName}, 0, #{c.catalogId}, NOW(), NOW())" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<CategoryLevel1Code> categories);
+
+    /**
+     * 分类同步：批量更新名称（单条UPDATE）
+     */
+    @Update("<script>" +
+            "UPDATE category_level1_codes SET " +
+            "category_level1_name = CASE id <foreach collection='list' item='c'>WHEN #{c.id} THEN #{c.categoryLevel1Name} </foreach>END, " +
+            "source_name = CASE id <foreach collection='list' item='c'>WHEN #{c.id} THEN #{c.sourceName} </foreach>END, " +
+            "updated_at = NOW() " +
+            "WHERE id IN <foreach collection='list' item='c' open='(' separator=',' close=')'>#{c.id}</foreach>" +
+            "</script>")
+    int updateSyncBatch(@Param("list") List<CategoryLevel1Code> categories);
 }
@@ -1,8 +1,14 @@
 package com.lcsc.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lcsc.dto.CategoryProgressUpdate;
 import com.lcsc.entity.CategoryLevel3Code;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 /**
  * 三级分类 Mapper 接口
@@ -13,4 +19,41 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface CategoryLevel3CodeMapper extends BaseMapper<CategoryLevel3Code> {
 
+    /**
+     * 批量局部更新爬取进度（单条UPDATE，只写进度列）
+     */
+    @Update("<script>" +
+            "UPDATE category_level3_codes SET " +
+            "current_page = CASE id <foreach collection='list' item='u'>WHEN #{u.id} THEN #{u.currentPage} </foreach>END, " +
+            "crawled_products = CASE id <foreach collection='list' item='u'>WHEN #{u.id} THEN #{u.crawledProducts} </foreach>END, " +
+            "total_products = CASE id <foreach collection='list' item='u'>WHEN #{u.id} THEN #{u.totalProducts} </foreach>END, " +
+            "crawl_progress = CASE id <foreach collection='list' item='u'>WHEN #{u.id} THEN #{u.crawlProgress} </foreach>END " +
+            "WHERE id IN <foreach collection='list' item='u' open='(' separator=',' close=')'>#{u.id}</foreach>" +
+            "</script>")
+    int updateProgressBatch(@Param("list") List<CategoryProgressUpdate> updates);
+
+    /**
+     * 分类同步：批量新增（单条多行INSERT）
+     */
+    @Insert("<script>" +
+            "INSERT INTO category_level3_codes (category_level3_name, source_name, is_customized, catalog_id, category_level1_id, category_level2_id, crawl_status, crawl_progress, created_at, updated_at) VALUES " +
+            "<foreach collection='list' item='c' separator=','>" +
+            "(#{c.categoryLevel3Name}, #{c.sourceName}, 0, #{c.catalogId}, #{c.categoryLevel1Id}, #{c.categoryLevel2Id}, 'NOT_STARTED', 0, NOW(), NOW())" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<CategoryLevel3Code> categories);
+
+    /**
+     * 分类同步：批量更新名称及所属分类（单条UPDATE）
+     */
+    @Update("<script>" +
+            "UPDATE category_level3_codes SET " +
+            "category_level3_name = CASE id <foreach collection='list' item='c'>WHEN #{c.id} THEN #{c.categoryLevel3Name} </foreach>END, " +
+            "source_name = CASE id <foreach collection='list' item='c'>WHEN #{c.id} THEN #{c.sourceName} </foreach>END, " +
+            "category_level1_id = CASE id <foreach collection='list' item='c'>WHEN #{c.id} THEN #{c.categoryLevel1Id} </foreach>END, " +
+            "category_level2_id = CASE id <foreach collection='list' item='c'>WHEN #{c.id} THEN #{c.categoryLevel2Id} </foreach>END, " +
+            "updated_at = NOW() " +
+            "WHERE id IN <foreach collection='list' item='c' open='(' separator=',' close=')'>#{c.id}</foreach>" +
+            "</script>")
+    int updateSyncBatch(@Param("list") List<CategoryLevel3Code> categories);
 }
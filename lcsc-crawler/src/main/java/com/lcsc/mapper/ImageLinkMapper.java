@@ -2,7 +2,11 @@ package com.lcsc.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lcsc.entity.ImageLink;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 图片链接 Mapper 接口
@@ -13,4 +17,15 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface ImageLinkMapper extends BaseMapper<ImageLink> {
 
+    /**
+     * 批量写入图片链接（单条多行INSERT，按 unique_image_shop 唯一键覆盖链接）
+     */
+    @Insert("<script>" +
+            "INSERT INTO image_links (image_name, shop_id, image_link) VALUES " +
+            "<foreach collection='links' item='l' separator=','>" +
+            "(#{l.imageName}, #{l.shopId}, #{l.imageLink})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE image_link = VALUES(image_link)" +
+            "</script>")
+    int upsertBatch(@Param("links") List<ImageLink> links);
 }
@@ -1,10 +1,21 @@
 package com.lcsc.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.lcsc.entity.Product;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 产品信息 Mapper 接口
@@ -23,4 +34,74 @@ public interface ProductMapper extends BaseMapper<Product> {
     @Delete("DELETE FROM products WHERE category_level2_id = #{catalogId}")
     int deleteByCatalogId(@Param("catalogId") Integer catalogId);
 
+    /**
+     * 按条件流式读取产品（MySQL流式结果集，逐行回调，不在内存中累积整个结果）
+     * 回调期间独占数据库连接，处理逻辑应尽量轻量
+     * @param wrapper 查询条件
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT * FROM products ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(Product.class)
+    void streamByWrapper(@Param(Constants.WRAPPER) Wrapper<Product> wrapper, ResultHandler<Product> handler);
+
+    /**
+     * 读取InnoDB统计信息中的products估算行数（无需全表COUNT）
+     * @return 估算行数，统计信息不可用时为null
+     */
+    @Select("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products'")
+    Long selectApproximateRowCount();
+
+    /**
+     * 最近一次爬取时间（MAX 由 idx_last_crawled_id 索引直接给出）
+     */
+    @Select("SELECT MAX(last_crawled_at) FROM products")
+    LocalDateTime selectMaxLastCrawledAt();
+
+    /**
+     * 去重排序的品牌列表（走 idx_brand 索引，不读取整行）
+     */
+    @Select("SELECT DISTINCT brand FROM products WHERE brand IS NOT NULL AND brand <> '' ORDER BY brand")
+    List<String> selectDistinctBrands();
+
+    /**
+     * 产品总数、有库存产品数、品牌数（单次扫描）
+     */
+    @Select("SELECT COUNT(*) AS totalProducts, " +
+            "COALESCE(SUM(total_stock_quantity > 0), 0) AS productsWithStock, " +
+            "COUNT(DISTINCT NULLIF(brand, '')) AS totalBrands " +
+            "FROM products")
+    Map<String, Object> selectProductSummary();
+
+    /**
+     * 按一级分类分组的产品数
+     */
+    @Select("SELECT p.category_level1_id AS categoryId, c.category_level1_name AS categoryName, COUNT(*) AS productCount " +
+            "FROM products p LEFT JOIN category_level1_codes c ON c.id = p.category_level1_id " +
+            "GROUP BY p.category_level1_id, c.category_level1_name " +
+            "ORDER BY productCount DESC")
+    List<Map<String, Object>> selectCountByCategoryLevel1();
+
+    /**
+     * 分类提取：按主键游标读取一页（只取提取所需的列）
+     */
+    @Select("SELECT id, product_code, brand, model, brief_description FROM products " +
+            "WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Product> selectForCategoryExtraction(@Param("afterId") int afterId, @Param("limit") int limit);
+
+    /**
+     * 按二级分类分组的产品数（走 idx_category_level2 索引，单次扫描）
+     */
+    @Select("SELECT category_level2_id AS categoryId, COUNT(*) AS productCount FROM products " +
+            "WHERE category_level2_id IS NOT NULL GROUP BY category_level2_id")
+    List<Map<String, Object>> selectCountByCategoryLevel2();
+
+    /**
+     * 产品数最多的品牌
+     */
+    @Select("SELECT brand, COUNT(*) AS productCount FROM products " +
+            "WHERE brand IS NOT NULL AND brand <> '' " +
+            "GROUP BY brand ORDER BY productCount DESC LIMIT #{limit}")
+    List<Map<String, Object>> selectTopBrands(@Param("limit") int limit);
+
 }
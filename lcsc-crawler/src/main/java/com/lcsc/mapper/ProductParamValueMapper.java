@@ -0,0 +1,58 @@
+package com.lcsc.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lcsc.entity.ProductParamValue;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产品数值参数 Mapper 接口
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Mapper
+public interface ProductParamValueMapper extends BaseMapper<ProductParamValue> {
+
+    /**
+     * 删除产品的全部数值参数
+     */
+    @Delete("DELETE FROM product_param_values WHERE product_id = #{productId}")
+    int deleteByProductId(@Param("productId") Integer productId);
+
+    /**
+     * 批量删除一批产品的数值参数
+     */
+    @Delete("<script>" +
+            "DELETE FROM product_param_values WHERE product_id IN " +
+            "<foreach collection='productIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteByProductIds(@Param("productIds") List<Integer> productIds);
+
+    /**
+     * 批量写入数值参数（单条多行INSERT）
+     */
+    @Insert("<script>" +
+            "INSERT INTO product_param_values (product_id, param_name, numeric_value, unit) VALUES " +
+            "<foreach collection='values' item='v' separator=','>" +
+            "(#{v.productId}, #{v.paramName}, #{v.numericValue}, #{v.unit})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE numeric_value = VALUES(numeric_value), unit = VALUES(unit)" +
+            "</script>")
+    int insertBatch(@Param("values") List<ProductParamValue> values);
+
+    /**
+     * 列出可用于范围过滤的参数名及其取值范围
+     */
+    @Select("SELECT param_name AS paramName, unit, COUNT(*) AS productCount, " +
+            "MIN(numeric_value) AS minValue, MAX(numeric_value) AS maxValue " +
+            "FROM product_param_values GROUP BY param_name, unit " +
+            "ORDER BY productCount DESC LIMIT #{limit}")
+    List<Map<String, Object>> selectParamSummary(@Param("limit") int limit);
+}
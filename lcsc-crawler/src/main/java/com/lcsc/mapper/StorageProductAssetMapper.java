@@ -0,0 +1,64 @@
+package com.lcsc.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lcsc.entity.StorageProductAsset;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 产品存储资源索引 Mapper 接口
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Mapper
+public interface StorageProductAssetMapper extends BaseMapper<StorageProductAsset> {
+
+    /**
+     * 下载完成后累加计数（产品不存在则新建）
+     */
+    @Insert("INSERT INTO storage_product_assets " +
+            "(product_code, image_count, pdf_count, image_bytes, pdf_bytes, last_modified, indexed_at) " +
+            "VALUES (#{productCode}, #{imageDelta}, #{pdfDelta}, #{imageBytes}, #{pdfBytes}, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE image_count = image_count + VALUES(image_count), " +
+            "pdf_count = pdf_count + VALUES(pdf_count), image_bytes = image_bytes + VALUES(image_bytes), " +
+            "pdf_bytes = pdf_bytes + VALUES(pdf_bytes), last_modified = NOW(), indexed_at = NOW()")
+    int increment(@Param("productCode") String productCode, @Param("imageDelta") int imageDelta,
+                  @Param("pdfDelta") int pdfDelta, @Param("imageBytes") long imageBytes,
+                  @Param("pdfBytes") long pdfBytes);
+
+    /**
+     * 扫描校准：按扫描结果覆盖写入（单条多行INSERT）
+     */
+    @Insert("<script>" +
+            "INSERT INTO storage_product_assets " +
+            "(product_code, image_count, pdf_count, image_bytes, pdf_bytes, last_modified, indexed_at) VALUES " +
+            "<foreach collection='assets' item='a' separator=','>" +
+            "(#{a.productCode}, #{a.imageCount}, #{a.pdfCount}, #{a.imageBytes}, #{a.pdfBytes}, #{a.lastModified}, #{a.indexedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE image_count = VALUES(image_count), pdf_count = VALUES(pdf_count), " +
+            "image_bytes = VALUES(image_bytes), pdf_bytes = VALUES(pdf_bytes), " +
+            "last_modified = VALUES(last_modified), indexed_at = VALUES(indexed_at)" +
+            "</script>")
+    int replaceBatch(@Param("assets") List<StorageProductAsset> assets);
+
+    /**
+     * 删除扫描开始后未再出现的产品（文件已被删除）
+     */
+    @Delete("DELETE FROM storage_product_assets WHERE indexed_at < #{scanStartedAt}")
+    int deleteIndexedBefore(@Param("scanStartedAt") LocalDateTime scanStartedAt);
+
+    /**
+     * 按最近修改时间倒序分页（走 idx_last_modified 索引）
+     */
+    @Select("SELECT product_code, image_count, pdf_count, image_bytes, pdf_bytes, last_modified, indexed_at " +
+            "FROM storage_product_assets ORDER BY last_modified DESC, product_code " +
+            "LIMIT #{offset}, #{size}")
+    List<StorageProductAsset> selectRecentPage(@Param("offset") long offset, @Param("size") int size);
+}
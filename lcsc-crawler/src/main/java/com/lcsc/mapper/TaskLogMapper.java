@@ -2,7 +2,9 @@ package com.lcsc.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lcsc.entity.TaskLog;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
@@ -20,6 +22,22 @@ import java.util.Map;
 @Mapper
 public interface TaskLogMapper extends BaseMapper<TaskLog> {
 
+    /**
+     * 多行INSERT批量写入日志（由异步日志管道调用），回填自增ID
+     */
+    @Insert("<script>" +
+            "INSERT INTO task_logs (task_id, parent_task_id, task_type, level, step, message, progress, " +
+            "duration_ms, start_time, end_time, extra_data, metadata, error_code, retry_count, sequence_order, create_time) VALUES " +
+            "<foreach collection='list' item='log' separator=','>" +
+            "(#{log.taskId}, #{log.parentTaskId}, IFNULL(#{log.taskType}, 'UNKNOWN'), IFNULL(#{log.level}, 'INFO'), " +
+            "IFNULL(#{log.step}, 'UNKNOWN'), IFNULL(#{log.message}, ''), #{log.progress}, #{log.durationMs}, " +
+            "#{log.startTime}, #{log.endTime}, #{log.extraData}, #{log.metadata}, #{log.errorCode}, " +
+            "IFNULL(#{log.retryCount}, 0), IFNULL(#{log.sequenceOrder}, 0), #{log.createTime})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insertBatch(List<TaskLog> logs);
+
     /**
      * 根据任务ID查询日志，按步骤顺序和时间排序
      */
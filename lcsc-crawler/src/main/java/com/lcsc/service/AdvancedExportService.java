@@ -7,13 +7,17 @@ import com.lcsc.entity.*;
 import com.lcsc.mapper.ImageLinkMapper;
 import com.lcsc.mapper.ProductMapper;
 import com.lcsc.mapper.ShopMapper;
+import com.lcsc.service.crawler.ExportRenderPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
@@ -21,7 +25,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 /**
  * 高级导出服务 - 淘宝CSV格式
@@ -33,6 +37,8 @@ public class AdvancedExportService {
 
     // CSV固定值
     private static final String FIXED_CID = "50018871";  // 宝贝类目ID（固定值）
+    private static final int EXCEL_ROW_ACCESS_WINDOW = 200;  // SXSSF内存行窗口
+    private static final int PRODUCT_CHUNK_SIZE = 1000;  // 每批查询的产品编号数量
     private static final String OPTION_CODE_PREFIX = "1627207:-100";  // 选项编号前缀
 
     @Autowired
@@ -44,6 +50,12 @@ public class AdvancedExportService {
     @Autowired
     private ImageLinkMapper imageLinkMapper;
 
+    @Autowired
+    private CategoryDictionaryService categoryDictionaryService;
+
+    @Autowired
+    private ExportRenderPool exportRenderPool;
+
     /**
      * 添加产品到任务列表
      * @param request 筛选条件
@@ -96,110 +108,106 @@ public class AdvancedExportService {
     }
 
     /**
-     * 生成淘宝CSV文件
+     * 生成淘宝CSV文件，逐行写入输出流
+     * 产品按 PRODUCT_CHUNK_SIZE 分批查询，内存占用与任务列表大小无关
      * @param tasks 任务列表
-     * @return CSV文件字节数组
+     * @param out 输出流（如HTTP响应）
      */
-    public byte[] generateTaobaoCsv(List<ExportTaskItem> tasks) throws IOException {
+    public void generateTaobaoCsv(List<ExportTaskItem> tasks, OutputStream out) throws IOException {
         log.info("开始生成淘宝CSV文件, 任务数量: {}", tasks.size());
 
-        // 1. 查询所有产品详情
-        Set<String> productCodes = tasks.stream()
-                .map(ExportTaskItem::getProductCode)
-                .collect(Collectors.toSet());
-
-        List<Product> products = productMapper.selectList(
-                new LambdaQueryWrapper<Product>()
-                        .in(Product::getProductCode, productCodes)
-        );
-
-        Map<String, Product> productMap = products.stream()
-                .collect(Collectors.toMap(Product::getProductCode, p -> p));
-
-        // 2. 查询所有图片链接
-        Map<String, Map<Integer, String>> imageLinkMap = loadImageLinks();
-
-        // 3. 查询所有店铺信息
-        Set<Integer> shopIds = tasks.stream()
-                .map(ExportTaskItem::getShopId)
-                .collect(Collectors.toSet());
-
-        List<Shop> shops = shopMapper.selectBatchIds(shopIds);
-        Map<Integer, Shop> shopMap = shops.stream()
-                .collect(Collectors.toMap(Shop::getId, s -> s));
-
-        // 4. 构建CSV内容
-        StringBuilder csv = new StringBuilder();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        StringBuilder header = new StringBuilder(2048);
 
         // CSV头部（第1-3行）
-        appendCsvHeader(csv);
-
-        // 产品数据行
-        for (ExportTaskItem task : tasks) {
-            Product product = productMap.get(task.getProductCode());
-            if (product == null) {
-                log.warn("产品不存在: {}", task.getProductCode());
-                continue;
-            }
-
-            Shop shop = shopMap.get(task.getShopId());
-            if (shop == null) {
-                log.warn("店铺不存在: {}", task.getShopId());
-                continue;
-            }
-
-            appendProductRow(csv, product, shop, task, imageLinkMap);
-        }
-
-        log.info("淘宝CSV文件生成完成");
-        return csv.toString().getBytes(StandardCharsets.UTF_8);
+        appendCsvHeader(header);
+        writer.append(header);
+
+        // 产品数据行：在渲染线程池拼接整行，按任务顺序写出
+        int rowCount = forEachTaskRow(tasks, (product, shop, task, imageLinkMap) -> {
+            StringBuilder line = new StringBuilder(2048);
+            appendProductRow(line, renderFields(product, shop, task, imageLinkMap));
+            return line.toString();
+        }, writer::write);
+
+        writer.flush();
+        log.info("淘宝CSV文件生成完成, 共 {} 行", rowCount);
     }
 
     /**
-     * 生成淘宝Excel文件
+     * 生成淘宝Excel文件，直接写入输出流
+     * 使用SXSSF滑动窗口，内存中只保留最近 EXCEL_ROW_ACCESS_WINDOW 行；产品按 PRODUCT_CHUNK_SIZE 分批查询
      * @param tasks 任务列表
-     * @return Excel文件字节数组
+     * @param out 输出流（如HTTP响应）
      */
-    public byte[] generateTaobaoExcel(List<ExportTaskItem> tasks) throws IOException {
+    public void generateTaobaoExcel(List<ExportTaskItem> tasks, OutputStream out) throws IOException {
         log.info("开始生成淘宝Excel文件, 任务数量: {}", tasks.size());
 
-        // 1. 查询所有产品详情
-        Set<String> productCodes = tasks.stream()
-                .map(ExportTaskItem::getProductCode)
-                .collect(Collectors.toSet());
-
-        List<Product> products = productMapper.selectList(
-                new LambdaQueryWrapper<Product>()
-                        .in(Product::getProductCode, productCodes)
-        );
-
-        Map<String, Product> productMap = products.stream()
-                .collect(Collectors.toMap(Product::getProductCode, p -> p));
-
-        // 2. 查询所有图片链接
-        Map<String, Map<Integer, String>> imageLinkMap = loadImageLinks();
-
-        // 3. 查询所有店铺信息
-        Set<Integer> shopIds = tasks.stream()
-                .map(ExportTaskItem::getShopId)
-                .collect(Collectors.toSet());
-
-        List<Shop> shops = shopMapper.selectBatchIds(shopIds);
-        Map<Integer, Shop> shopMap = shops.stream()
-                .collect(Collectors.toMap(Shop::getId, s -> s));
-
-        // 4. 创建Excel工作簿
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet("淘宝导入");
 
             // 创建表头（第1-3行）
             createExcelHeader(sheet);
 
             // 创建产品数据行（从第4行开始，rowIndex=3）
-            int rowIndex = 3;
-            for (ExportTaskItem task : tasks) {
+            // 字段在渲染线程池计算，单元格由当前线程按任务顺序写入（SXSSF非线程安全）
+            int[] rowIndex = {3};
+            int rowCount = forEachTaskRow(tasks, this::renderFields,
+                    fields -> createProductRow(sheet, rowIndex[0]++, fields));
+
+            workbook.write(out);
+            out.flush();
+            log.info("淘宝Excel文件生成完成, 共 {} 行", rowCount);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * 按任务顺序分批解析产品、店铺和图片链接，并行渲染后按顺序逐行输出
+     * 每批只查询本批的产品编号，以及本批实际引用到的图片名称和店铺的图片链接；
+     * 渲染在 ExportRenderPool 中并行执行，输出回调在当前线程按任务顺序调用
+     *
+     * @return 实际输出的行数
+     */
+    private <R> int forEachTaskRow(List<ExportTaskItem> tasks, TaskRowRenderer<R> renderer,
+                                   ExportRenderPool.RowSink<R> sink) throws IOException {
+        // 店铺数量很少，一次性加载
+        Set<Integer> shopIds = tasks.stream()
+                .map(ExportTaskItem::getShopId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Shop> shopMap = shopIds.isEmpty() ? Collections.emptyMap() :
+                shopMapper.selectBatchIds(shopIds).stream()
+                        .collect(Collectors.toMap(Shop::getId, s -> s));
+
+        int rowCount = 0;
+        for (int start = 0; start < tasks.size(); start += PRODUCT_CHUNK_SIZE) {
+            List<ExportTaskItem> chunk = tasks.subList(start, Math.min(start + PRODUCT_CHUNK_SIZE, tasks.size()));
+
+            // 1. 查询本批产品详情
+            Set<String> productCodes = chunk.stream()
+                    .map(ExportTaskItem::getProductCode)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<String, Product> productMap = productCodes.isEmpty() ? Collections.emptyMap() :
+                    productMapper.selectList(new LambdaQueryWrapper<Product>()
+                                    .in(Product::getProductCode, productCodes))
+                            .stream()
+                            .collect(Collectors.toMap(Product::getProductCode, p -> p, (a, b) -> a));
+
+            // 同一产品可能被多个任务引用，渲染前在当前线程补齐分类名称，渲染线程只读
+            categoryDictionaryService.fillMissing(productMap.values());
+
+            // 2. 查询本批引用到的图片链接
+            Map<String, Map<Integer, String>> imageLinkMap = loadImageLinks(productMap.values(), chunk);
+
+            // 3. 过滤无效任务
+            List<ExportTaskItem> validTasks = new ArrayList<>(chunk.size());
+            for (ExportTaskItem task : chunk) {
                 Product product = productMap.get(task.getProductCode());
                 if (product == null) {
                     log.warn("产品不存在: {}", task.getProductCode());
@@ -212,13 +220,67 @@ public class AdvancedExportService {
                     continue;
                 }
 
-                createProductRow(sheet, rowIndex++, product, shop, task, imageLinkMap);
+                validTasks.add(task);
             }
 
-            workbook.write(outputStream);
-            log.info("淘宝Excel文件生成完成");
-            return outputStream.toByteArray();
+            // 4. 并行渲染，按任务顺序输出
+            List<R> rendered = exportRenderPool.renderAll(validTasks, task -> renderer.render(
+                    productMap.get(task.getProductCode()), shopMap.get(task.getShopId()), task, imageLinkMap));
+            for (R row : rendered) {
+                sink.accept(row);
+            }
+            rowCount += rendered.size();
         }
+        return rowCount;
+    }
+
+    /**
+     * 单行渲染函数（在渲染线程执行，不能访问输出流或工作簿）
+     */
+    @FunctionalInterface
+    private interface TaskRowRenderer<R> {
+        R render(Product product, Shop shop, ExportTaskItem task, Map<String, Map<Integer, String>> imageLinkMap);
+    }
+
+    /**
+     * 计算一行淘宝导入数据中依赖产品、店铺和折扣的字段
+     * 只读取产品，冗余分类名称需由调用方在提交渲染前补齐
+     */
+    TaobaoRowFields renderFields(Product product, Shop shop, ExportTaskItem task,
+                                 Map<String, Map<Integer, String>> imageLinkMap) {
+        TaobaoRowFields fields = new TaobaoRowFields();
+        int ladderCount = getLadderCount(product);
+        fields.title = buildTitle(product);
+        fields.sellerCids = shop.getSellerCategoryId() != null && !shop.getSellerCategoryId().isEmpty()
+                ? shop.getSellerCategoryId()
+                : String.valueOf(shop.getId());
+        fields.price = calculatePrice(product, task.getDiscounts());
+        fields.num = (ladderCount + 2) * 1000000;
+        fields.description = buildDescription(product);
+        fields.cateProps = buildCateProps(ladderCount);
+        fields.postageId = shop.getShippingTemplateId() != null ? shop.getShippingTemplateId() : "";
+        fields.picture = buildPicture(product, shop.getId(), imageLinkMap);
+        fields.skuProps = buildSkuProps(product, task.getDiscounts(), ladderCount);
+        fields.outerId = product.getBrand() != null ? product.getBrand().replace("&", " ") : "";
+        fields.inputCustomCpv = buildPropAlias(product, ladderCount);
+        return fields;
+    }
+
+    /**
+     * 预先计算的单行字段，Excel与CSV共用
+     */
+    static class TaobaoRowFields {
+        private String title;
+        private String sellerCids;
+        private BigDecimal price;
+        private int num;
+        private String description;
+        private String cateProps;
+        private String postageId;
+        private String picture;
+        private String skuProps;
+        private String outerId;
+        private String inputCustomCpv;
     }
 
     /**
@@ -248,22 +310,18 @@ public class AdvancedExportService {
     /**
      * 创建产品数据行
      */
-    private void createProductRow(Sheet sheet, int rowIndex, Product product, Shop shop,
-                                   ExportTaskItem task, Map<String, Map<Integer, String>> imageLinkMap) {
+    void createProductRow(Sheet sheet, int rowIndex, TaobaoRowFields fields) {
         Row row = sheet.createRow(rowIndex);
         int col = 0;
 
         // 0. title: 型号、封装 三级分类、二级分类、一级分类
-        row.createCell(col++).setCellValue(buildTitle(product));
+        row.createCell(col++).setCellValue(fields.title);
 
         // 1. cid: 固定值
         row.createCell(col++).setCellValue(FIXED_CID);
 
         // 2. seller_cids: 店铺分类码（优先使用sellerCategoryId，fallback到shop.getId()）
-        String sellerCids = shop.getSellerCategoryId() != null && !shop.getSellerCategoryId().isEmpty()
-                ? shop.getSellerCategoryId()
-                : String.valueOf(shop.getId());
-        row.createCell(col++).setCellValue(sellerCids + ";");
+        row.createCell(col++).setCellValue(fields.sellerCids + ";");
 
         // 3. stuff_status: 新旧程度（默认值0）
         row.createCell(col++).setCellValue(0);
@@ -272,16 +330,13 @@ public class AdvancedExportService {
         col += 3;
 
         // 7. price: 最高阶价格*折扣
-        BigDecimal price = calculatePrice(product, task.getDiscounts());
-        row.createCell(col++).setCellValue(price.doubleValue());
+        row.createCell(col++).setCellValue(fields.price.doubleValue());
 
         // 8. auction_increment: 空
         col++;
 
         // 9. num: (阶梯级数+2)*1000000
-        int ladderCount = getLadderCount(product);
-        int num = (ladderCount + 2) * 1000000;
-        row.createCell(col++).setCellValue(num);
+        row.createCell(col++).setCellValue(fields.num);
 
         // 10-11. valid_thru, freight_payer: 空
         col += 2;
@@ -308,32 +363,31 @@ public class AdvancedExportService {
         col += 2;
 
         // 20. description: <p>参数名:参数值</p>格式
-        row.createCell(col++).setCellValue(buildDescription(product));
+        row.createCell(col++).setCellValue(fields.description);
 
         // 21. cateProps: 选项编号组合
-        row.createCell(col++).setCellValue(buildCateProps(ladderCount));
+        row.createCell(col++).setCellValue(fields.cateProps);
 
         // 22. postage_id: 店铺运费模板ID
-        row.createCell(col++).setCellValue(shop.getShippingTemplateId() != null ? shop.getShippingTemplateId() : "");
+        row.createCell(col++).setCellValue(fields.postageId);
 
         // 23-27. has_discount~auction_point: 空
         col += 5;
 
         // 28. picture: :1:0:|+图片链接
-        row.createCell(col++).setCellValue(buildPicture(product, shop.getId(), imageLinkMap));
+        row.createCell(col++).setCellValue(fields.picture);
 
         // 29. video: 空
         col++;
 
         // 30. skuProps: 价格:1000000::选项编号组合
-        row.createCell(col++).setCellValue(buildSkuProps(product, task.getDiscounts(), ladderCount));
+        row.createCell(col++).setCellValue(fields.skuProps);
 
         // 31-32. inputPids, inputValues: 空（2个字段）
         col += 2;
 
         // 33. outer_id: 品牌（&替换为空格）
-        String outerId = product.getBrand() != null ? product.getBrand().replace("&", " ") : "";
-        row.createCell(col++).setCellValue(outerId);
+        row.createCell(col++).setCellValue(fields.outerId);
 
         // 34. propAlias: 销售属性别名（空）
         col++;
@@ -354,7 +408,7 @@ public class AdvancedExportService {
         col += 10;
 
         // 59. input_custom_cpv: 自定义属性值（选项编号:买X-Y个选这个）
-        row.createCell(col++).setCellValue(buildPropAlias(product, ladderCount));
+        row.createCell(col++).setCellValue(fields.inputCustomCpv);
 
         // 60-62. qualification~o2o_bind_service: 空（3个字段）
         col += 3;
@@ -421,10 +475,27 @@ public class AdvancedExportService {
     }
 
     /**
-     * 加载所有图片链接（image_name -> shop_id -> image_link）
+     * 加载指定产品和店铺范围内的图片链接
+     * 只按本批产品的图片名称和本批任务的店铺查询（命中 unique_image_shop 索引），不再整表加载
+     * @return imageName -> (shopId -> imageLink)
      */
-    private Map<String, Map<Integer, String>> loadImageLinks() {
-        List<ImageLink> links = imageLinkMapper.selectList(null);
+    private Map<String, Map<Integer, String>> loadImageLinks(Collection<Product> products, List<ExportTaskItem> tasks) {
+        Set<String> imageNames = products.stream()
+                .map(Product::getImageName)
+                .filter(name -> name != null && !name.isEmpty())
+                .collect(Collectors.toSet());
+        Set<Integer> shopIds = tasks.stream()
+                .map(ExportTaskItem::getShopId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (imageNames.isEmpty() || shopIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<ImageLink> links = imageLinkMapper.selectList(new LambdaQueryWrapper<ImageLink>()
+                .select(ImageLink::getImageName, ImageLink::getShopId, ImageLink::getImageLink)
+                .in(ImageLink::getImageName, imageNames)
+                .in(ImageLink::getShopId, shopIds));
         Map<String, Map<Integer, String>> map = new HashMap<>();
 
         for (ImageLink link : links) {
@@ -454,20 +525,15 @@ public class AdvancedExportService {
     /**
      * 追加产品数据行
      */
-    private void appendProductRow(StringBuilder csv, Product product, Shop shop, ExportTaskItem task,
-                                   Map<String, Map<Integer, String>> imageLinkMap) {
+    void appendProductRow(StringBuilder csv, TaobaoRowFields fields) {
         // 0. title: 型号、封装 三级分类、二级分类、一级分类
-        String title = buildTitle(product);
-        csv.append(escapeCsv(title)).append(",");
+        csv.append(escapeCsv(fields.title)).append(",");
 
         // 1. cid: 固定值
         csv.append(FIXED_CID).append(",");
 
         // 2. seller_cids: 店铺分类码（优先使用sellerCategoryId，fallback到shop.getId()）
-        String sellerCids = shop.getSellerCategoryId() != null && !shop.getSellerCategoryId().isEmpty()
-                ? shop.getSellerCategoryId()
-                : String.valueOf(shop.getId());
-        csv.append(sellerCids).append(";,");
+        csv.append(fields.sellerCids).append(";,");
 
         // 3. stuff_status: 新旧程度（默认值0）
         csv.append("0,");
@@ -476,16 +542,13 @@ public class AdvancedExportService {
         csv.append(",,,");
 
         // 7. price: 最高阶价格*折扣，向上取整2位小数
-        BigDecimal price = calculatePrice(product, task.getDiscounts());
-        csv.append(price.toString()).append(",");
+        csv.append(fields.price.toString()).append(",");
 
         // 8. auction_increment: 空
         csv.append(",");
 
         // 9. num: (阶梯级数+2)*1000000
-        int ladderCount = getLadderCount(product);
-        int num = (ladderCount + 2) * 1000000;
-        csv.append(num).append(",");
+        csv.append(fields.num).append(",");
 
         // 10-19. valid_thru~list_time
         // 10. valid_thru: 空
@@ -501,36 +564,31 @@ public class AdvancedExportService {
         csv.append(",,0,0,,1,,0,,");
 
         // 20. description: <p>参数名:参数值</p>格式
-        String description = buildDescription(product);
-        csv.append(escapeCsv(description)).append(",");
+        csv.append(escapeCsv(fields.description)).append(",");
 
         // 21. cateProps: 选项编号组合
-        String cateProps = buildCateProps(ladderCount);
-        csv.append(cateProps).append(",");
+        csv.append(fields.cateProps).append(",");
 
         // 22. postage_id: 店铺运费模板ID
-        csv.append(shop.getShippingTemplateId() != null ? shop.getShippingTemplateId() : "").append(",");
+        csv.append(fields.postageId).append(",");
 
         // 23-27. has_discount~auction_point: 空
         csv.append(",,,,,");
 
         // 28. picture: :1:0:|+图片链接
-        String picture = buildPicture(product, shop.getId(), imageLinkMap);
-        csv.append(picture).append(",");
+        csv.append(fields.picture).append(",");
 
         // 29. video: 空
         csv.append(",");
 
         // 30. skuProps: 价格:1000000::选项编号组合
-        String skuProps = buildSkuProps(product, task.getDiscounts(), ladderCount);
-        csv.append(skuProps).append(",");
+        csv.append(fields.skuProps).append(",");
 
         // 31-32. inputPids, inputValues: 空（2个字段）
         csv.append(",,");
 
         // 33. outer_id: 品牌（&替换为空格）
-        String outerId = product.getBrand() != null ? product.getBrand().replace("&", " ") : "";
-        csv.append(escapeCsv(outerId)).append(",");
+        csv.append(escapeCsv(fields.outerId)).append(",");
 
         // 34. propAlias: 销售属性别名（空）
         csv.append(",");
@@ -551,8 +609,7 @@ public class AdvancedExportService {
         csv.append(",,,,,,,,,,");
 
         // 59. input_custom_cpv: 自定义属性值（选项编号:买X-Y个选这个）
-        String inputCustomCpv = buildPropAlias(product, ladderCount);
-        csv.append(escapeCsv(inputCustomCpv)).append(",");
+        csv.append(escapeCsv(fields.inputCustomCpv)).append(",");
 
         // 60-62. qualification~o2o_bind_service: 空（3个字段）
         csv.append(",,,");
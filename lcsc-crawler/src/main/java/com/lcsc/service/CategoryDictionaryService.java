@@ -0,0 +1,313 @@
+package com.lcsc.service;
+
+import com.lcsc.entity.CategoryLevel1Code;
+import com.lcsc.entity.CategoryLevel2Code;
+import com.lcsc.entity.CategoryLevel3Code;
+import com.lcsc.entity.Product;
+import com.lcsc.mapper.CategoryLevel1CodeMapper;
+import com.lcsc.mapper.CategoryLevel2CodeMapper;
+import com.lcsc.mapper.CategoryLevel3CodeMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分类字典服务
+ * 启动时把三级分类整表加载到内存，产品列表/导出等热路径按ID取名称时不再访问数据库。
+ * 分类同步或手工维护分类后调用 {@link #refresh()} 整体替换快照；
+ * 快照中不存在的ID按需回源加载一次并写回快照（读穿透），不存在的ID会被记住，避免反复回源。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Service
+public class CategoryDictionaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryDictionaryService.class);
+
+    @Autowired
+    private CategoryLevel1CodeMapper level1Mapper;
+
+    @Autowired
+    private CategoryLevel2CodeMapper level2Mapper;
+
+    @Autowired
+    private CategoryLevel3CodeMapper level3Mapper;
+
+    /**
+     * 当前字典快照，刷新时整体替换
+     */
+    private volatile Snapshot snapshot = new Snapshot();
+
+    /**
+     * 字典版本，每次刷新递增
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // 数据库尚未就绪时不阻断启动，首次查询时按需回源
+            log.warn("分类字典初始化失败，将在访问时按需加载: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库重新加载全部分类，构建新快照后原子替换
+     */
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        Snapshot next = new Snapshot();
+
+        List<CategoryLevel1Code> l1List = level1Mapper.selectList(null);
+        for (CategoryLevel1Code l1 : l1List) {
+            next.putLevel1(l1);
+        }
+        List<CategoryLevel2Code> l2List = level2Mapper.selectList(null);
+        for (CategoryLevel2Code l2 : l2List) {
+            next.putLevel2(l2);
+        }
+        List<CategoryLevel3Code> l3List = level3Mapper.selectList(null);
+        for (CategoryLevel3Code l3 : l3List) {
+            next.putLevel3(l3);
+        }
+
+        snapshot = next;
+        version.incrementAndGet();
+        log.info("分类字典已刷新: L1={}, L2={}, L3={}, 耗时={}ms",
+                next.level1Names.size(), next.level2Names.size(), next.level3Names.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 当前字典版本（分类名称变化后递增）
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 获取一级分类名称
+     */
+    public String getLevel1Name(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        String name = current.level1Names.get(id);
+        if (name != null || current.missingLevel1.contains(id)) {
+            return name;
+        }
+        CategoryLevel1Code l1 = level1Mapper.selectById(id);
+        if (l1 == null || l1.getCategoryLevel1Name() == null) {
+            current.missingLevel1.add(id);
+            return null;
+        }
+        current.putLevel1(l1);
+        return l1.getCategoryLevel1Name();
+    }
+
+    /**
+     * 获取二级分类名称
+     */
+    public String getLevel2Name(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        String name = current.level2Names.get(id);
+        if (name != null || current.missingLevel2.contains(id)) {
+            return name;
+        }
+        CategoryLevel2Code l2 = level2Mapper.selectById(id);
+        if (l2 == null || l2.getCategoryLevel2Name() == null) {
+            current.missingLevel2.add(id);
+            return null;
+        }
+        current.putLevel2(l2);
+        return l2.getCategoryLevel2Name();
+    }
+
+    /**
+     * 获取三级分类名称
+     */
+    public String getLevel3Name(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        String name = current.level3Names.get(id);
+        if (name != null || current.missingLevel3.contains(id)) {
+            return name;
+        }
+        CategoryLevel3Code l3 = level3Mapper.selectById(id);
+        if (l3 == null || l3.getCategoryLevel3Name() == null) {
+            current.missingLevel3.add(id);
+            return null;
+        }
+        current.putLevel3(l3);
+        return l3.getCategoryLevel3Name();
+    }
+
+    /**
+     * 按名称查找一级分类ID（仅查内存，未命中返回null）
+     */
+    public Integer findLevel1IdByName(String name) {
+        return name == null ? null : snapshot.level1NameToId.get(name);
+    }
+
+    /**
+     * 按名称+一级分类ID查找二级分类ID（仅查内存，未命中返回null）
+     */
+    public Integer findLevel2IdByName(String name, Integer level1Id) {
+        return name == null || level1Id == null ? null : snapshot.level2NameToId.get(level2Key(name, level1Id));
+    }
+
+    /**
+     * 登记新建或回源查到的一级分类，使后续查询命中内存
+     */
+    public void registerLevel1(CategoryLevel1Code l1) {
+        snapshot.putLevel1(l1);
+    }
+
+    /**
+     * 登记新建或回源查到的二级分类，使后续查询命中内存
+     */
+    public void registerLevel2(CategoryLevel2Code l2) {
+        snapshot.putLevel2(l2);
+    }
+
+    /**
+     * 为产品填充分类名称（覆盖已有值）
+     */
+    public void enrich(Product product) {
+        if (product == null) {
+            return;
+        }
+        if (product.getCategoryLevel1Id() != null) {
+            product.setCategoryLevel1Name(getLevel1Name(product.getCategoryLevel1Id()));
+        }
+        if (product.getCategoryLevel2Id() != null) {
+            product.setCategoryLevel2Name(getLevel2Name(product.getCategoryLevel2Id()));
+        }
+        if (product.getCategoryLevel3Id() != null) {
+            product.setCategoryLevel3Name(getLevel3Name(product.getCategoryLevel3Id()));
+        }
+    }
+
+    /**
+     * 为产品列表填充分类名称（覆盖已有值）
+     */
+    public void enrich(Collection<Product> products) {
+        if (products == null) {
+            return;
+        }
+        for (Product product : products) {
+            enrich(product);
+        }
+    }
+
+    /**
+     * 仅为分类名称为空的字段补齐名称，保留产品表中已有的冗余名称
+     */
+    public void fillMissing(Product product) {
+        if (product == null) {
+            return;
+        }
+        if (isEmpty(product.getCategoryLevel1Name()) && product.getCategoryLevel1Id() != null) {
+            product.setCategoryLevel1Name(getLevel1Name(product.getCategoryLevel1Id()));
+        }
+        if (isEmpty(product.getCategoryLevel2Name()) && product.getCategoryLevel2Id() != null) {
+            product.setCategoryLevel2Name(getLevel2Name(product.getCategoryLevel2Id()));
+        }
+        if (isEmpty(product.getCategoryLevel3Name()) && product.getCategoryLevel3Id() != null) {
+            product.setCategoryLevel3Name(getLevel3Name(product.getCategoryLevel3Id()));
+        }
+    }
+
+    /**
+     * 批量补齐为空的分类名称
+     */
+    public void fillMissing(Collection<Product> products) {
+        if (products == null) {
+            return;
+        }
+        for (Product product : products) {
+            fillMissing(product);
+        }
+    }
+
+    /**
+     * 字典规模统计
+     */
+    public Map<String, Integer> getStats() {
+        Snapshot current = snapshot;
+        return Map.of(
+                "level1", current.level1Names.size(),
+                "level2", current.level2Names.size(),
+                "level3", current.level3Names.size()
+        );
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static String level2Key(String name, Integer level1Id) {
+        return name + "|" + level1Id;
+    }
+
+    /**
+     * 字典快照
+     * 刷新时新建实例整体替换；读穿透结果写入当前实例
+     */
+    private static class Snapshot {
+        private final Map<Integer, String> level1Names = new ConcurrentHashMap<>();
+        private final Map<Integer, String> level2Names = new ConcurrentHashMap<>();
+        private final Map<Integer, String> level3Names = new ConcurrentHashMap<>();
+        private final Map<String, Integer> level1NameToId = new ConcurrentHashMap<>();
+        private final Map<String, Integer> level2NameToId = new ConcurrentHashMap<>();
+        private final Set<Integer> missingLevel1 = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> missingLevel2 = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> missingLevel3 = ConcurrentHashMap.newKeySet();
+
+        void putLevel1(CategoryLevel1Code l1) {
+            if (l1 == null || l1.getId() == null || l1.getCategoryLevel1Name() == null) {
+                return;
+            }
+            level1Names.put(l1.getId(), l1.getCategoryLevel1Name());
+            level1NameToId.putIfAbsent(l1.getCategoryLevel1Name(), l1.getId());
+            missingLevel1.remove(l1.getId());
+        }
+
+        void putLevel2(CategoryLevel2Code l2) {
+            if (l2 == null || l2.getId() == null || l2.getCategoryLevel2Name() == null) {
+                return;
+            }
+            level2Names.put(l2.getId(), l2.getCategoryLevel2Name());
+            if (l2.getCategoryLevel1Id() != null) {
+                level2NameToId.putIfAbsent(level2Key(l2.getCategoryLevel2Name(), l2.getCategoryLevel1Id()), l2.getId());
+            }
+            missingLevel2.remove(l2.getId());
+        }
+
+        void putLevel3(CategoryLevel3Code l3) {
+            if (l3 == null || l3.getId() == null || l3.getCategoryLevel3Name() == null) {
+                return;
+            }
+            level3Names.put(l3.getId(), l3.getCategoryLevel3Name());
+            missingLevel3.remove(l3.getId());
+        }
+    }
+}
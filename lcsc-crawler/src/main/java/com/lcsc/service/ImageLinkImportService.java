@@ -5,35 +5,90 @@ import com.lcsc.dto.ImageLinkImportResult;
 import com.lcsc.dto.ImageLinkImportRow;
 import com.lcsc.entity.ImageLink;
 import com.lcsc.entity.Shop;
+import com.lcsc.mapper.ImageLinkMapper;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 图片链接Excel导入服务
+ * 流式读取上传文件（.xlsx 使用POI事件/SAX接口逐行解析，.csv 逐条读取，.xls 行数上限65536仍按工作簿读取），
+ * 边读边校验；有效行每满一个分块就解析店铺并执行一条多行 INSERT ... ON DUPLICATE KEY UPDATE（unique_image_shop），
+ * 每个分块单独提交事务，不再长时间锁表。进度按分块更新，可通过导入ID查询。
  */
 @Service
 public class ImageLinkImportService {
 
     private static final Logger log = LoggerFactory.getLogger(ImageLinkImportService.class);
 
+    /**
+     * 每个分块的行数（一条INSERT、一个事务）
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * 最多返回的错误明细条数，超出只计数
+     */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    /**
+     * 已结束的导入进度保留时长（分钟）
+     */
+    private static final int PROGRESS_RETENTION_MINUTES = 60;
+
+    /**
+     * 与 image_links 表列长度一致（image_name varchar(100)、image_link varchar(1000)）
+     */
+    private static final int MAX_IMAGE_NAME_LENGTH = 100;
+    private static final int MAX_IMAGE_LINK_LENGTH = 1000;
+
     @Autowired
     private ShopService shopService;
 
     @Autowired
-    private ImageLinkService imageLinkService;
+    private ImageLinkMapper imageLinkMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 导入ID -> 进度
+     */
+    private final Map<String, ImportProgress> progressById = new ConcurrentHashMap<>();
 
     /**
      * 导入Excel文件
@@ -41,51 +96,380 @@ public class ImageLinkImportService {
      * @param file Excel文件
      * @return 导入结果
      */
-    @Transactional(rollbackFor = Exception.class)
     public ImageLinkImportResult importFromExcel(MultipartFile file) {
+        return importFromExcel(file, null);
+    }
+
+    /**
+     * 导入Excel/CSV文件
+     *
+     * @param file     上传文件（.xlsx/.xls/.csv）
+     * @param importId 导入ID（可选，用于查询分块进度）
+     * @return 导入结果
+     */
+    public ImageLinkImportResult importFromExcel(MultipartFile file, String importId) {
         ImageLinkImportResult result = new ImageLinkImportResult();
-        List<ImageLinkImportRow> validRows = new ArrayList<>();
+        ImportProgress progress = new ImportProgress(file.getOriginalFilename());
+        pruneProgress();
+        if (importId != null && !importId.isBlank()) {
+            progressById.put(importId, progress);
+        }
 
-        try (InputStream inputStream = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(inputStream)) {
+        ChunkWriter writer = new ChunkWriter(result, progress);
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        Path tempFile = null;
 
-            Sheet sheet = workbook.getSheetAt(0);
+        try {
+            if (filename.endsWith(".csv")) {
+                try (InputStream inputStream = file.getInputStream()) {
+                    readCsv(inputStream, writer);
+                }
+            } else if (filename.endsWith(".xls")) {
+                try (InputStream inputStream = file.getInputStream()) {
+                    readXls(inputStream, writer);
+                }
+            } else {
+                // OPCPackage按文件打开时按需读取zip条目，不会把整个上传内容读入内存
+                tempFile = Files.createTempFile("image-link-import-", ".xlsx");
+                file.transferTo(tempFile);
+                readXlsx(tempFile, writer);
+            }
+            writer.flush();
+            progress.finish("COMPLETED");
+
+        } catch (Exception e) {
+            log.error("解析Excel文件失败", e);
+            // 已提交的分块保持有效，未提交的当前分块计为失败
+            writer.discardPending("解析中断");
+            ImageLinkImportError error = new ImageLinkImportError(0);
+            error.addError("解析Excel文件失败: " + e.getMessage());
+            result.addError(error);
+            progress.finish("FAILED");
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("删除导入临时文件失败: {}", tempFile);
+                }
+            }
+        }
+
+        log.info("图片链接导入完成: file={}, rows={}, success={}, failure={}, chunks={}",
+            file.getOriginalFilename(), result.getProcessedRows(), result.getSuccessCount(),
+            result.getFailureCount(), progress.chunks);
+        return result;
+    }
+
+    /**
+     * 查询导入进度
+     */
+    public Map<String, Object> getImportProgress(String importId) {
+        ImportProgress progress = progressById.get(importId);
+        return progress != null ? progress.toMap() : null;
+    }
 
-            // 跳过标题行，从第二行开始处理
-            int totalRows = sheet.getPhysicalNumberOfRows();
-            for (int i = 1; i < totalRows; i++) {
+    /**
+     * 流式读取.xlsx第一个工作表
+     */
+    private void readXlsx(Path path, ChunkWriter writer) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings,
+                    new RowCollector(writer), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    /**
+     * 逐条读取CSV（首行为标题，列顺序与模板一致）
+     */
+    private void readCsv(InputStream inputStream, ChunkWriter writer) throws IOException {
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+             CSVParser parser = CSVParser.parse(reader, CSVFormat.DEFAULT)) {
+            for (CSVRecord record : parser) {
+                if (record.getRecordNumber() == 1) {
+                    continue;
+                }
+                ImageLinkImportRow row = new ImageLinkImportRow();
+                row.setRowNumber((int) record.getRecordNumber());
+                row.setShopName(csvValue(record, 0));
+                row.setProductCode(csvValue(record, 1));
+                row.setImageName(csvValue(record, 2));
+                row.setImageLink(csvValue(record, 3));
+                if (!isBlankRow(row)) {
+                    writer.accept(row);
+                }
+            }
+        }
+    }
+
+    private String csvValue(CSVRecord record, int index) {
+        if (index >= record.size()) {
+            return null;
+        }
+        return normalize(record.get(index));
+    }
+
+    /**
+     * 读取.xls（HSSF格式最多65536行，仍按工作簿读取）
+     */
+    private void readXls(InputStream inputStream, ChunkWriter writer) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(inputStream)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
                 Row row = sheet.getRow(i);
                 if (row == null) {
                     continue;
                 }
-
-                // 解析行数据
                 ImageLinkImportRow importRow = parseRow(row, i);
+                if (!isBlankRow(importRow)) {
+                    writer.accept(importRow);
+                }
+            }
+        }
+    }
 
-                // 验证行数据
-                ImageLinkImportError error = validateRow(importRow);
-                if (error.hasErrors()) {
-                    result.addError(error);
-                    result.setFailureCount(result.getFailureCount() + 1);
-                } else {
-                    validRows.add(importRow);
+    /**
+     * SAX行收集器：按列号组装导入行，跳过标题行
+     */
+    private class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final ChunkWriter writer;
+        private ImageLinkImportRow current;
+        private int nextColumn;
+
+        RowCollector(ChunkWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            current = rowNum == 0 ? null : new ImageLinkImportRow();
+            if (current != null) {
+                current.setRowNumber(rowNum + 1);
+            }
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (current != null && !isBlankRow(current)) {
+                writer.accept(current);
+            }
+            current = null;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (current == null) {
+                return;
+            }
+            String value = normalize(formattedValue);
+            switch (column) {
+                case 0 -> current.setShopName(value);
+                case 1 -> current.setProductCode(value);
+                case 2 -> current.setImageName(value);
+                case 3 -> current.setImageLink(value);
+                default -> { }
+            }
+        }
+    }
+
+    private boolean isBlankRow(ImageLinkImportRow row) {
+        return isBlank(row.getShopName()) && isBlank(row.getProductCode())
+            && isBlank(row.getImageName()) && isBlank(row.getImageLink());
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.replace("\uFEFF", "").trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * 分块写入器：校验、缓存有效行，满一个分块即写入并提交
+     */
+    private class ChunkWriter {
+
+        private final ImageLinkImportResult result;
+        private final ImportProgress progress;
+        private final List<ImageLinkImportRow> pending = new ArrayList<>(CHUNK_SIZE);
+
+        /**
+         * 店铺名称 -> 店铺ID（不存在的店铺记为null）
+         */
+        private final Map<String, Integer> shopIds = new HashMap<>();
+
+        ChunkWriter(ImageLinkImportResult result, ImportProgress progress) {
+            this.result = result;
+            this.progress = progress;
+        }
+
+        void accept(ImageLinkImportRow row) {
+            result.setProcessedRows(result.getProcessedRows() + 1);
+            progress.processedRows = result.getProcessedRows();
+
+            ImageLinkImportError error = validateRow(row);
+            if (error.hasErrors()) {
+                fail(error);
+                return;
+            }
+            pending.add(row);
+            if (pending.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<ImageLink> links = new ArrayList<>(pending.size());
+            List<Integer> rowNumbers = new ArrayList<>(pending.size());
+            for (ImageLinkImportRow row : pending) {
+                Integer shopId = resolveShopId(row.getShopName());
+                if (shopId == null) {
+                    ImageLinkImportError error = new ImageLinkImportError(row.getRowNumber());
+                    error.addError("店铺不存在: " + row.getShopName());
+                    fail(error);
+                    continue;
                 }
+                ImageLink imageLink = new ImageLink();
+                imageLink.setImageName(row.getImageName());
+                imageLink.setShopId(shopId);
+                imageLink.setImageLink(row.getImageLink());
+                links.add(imageLink);
+                rowNumbers.add(row.getRowNumber());
             }
 
-            // 批量保存有效数据
-            if (!validRows.isEmpty()) {
-                int successCount = saveBatch(validRows, result);
-                result.setSuccessCount(successCount);
+            int firstRow = pending.get(0).getRowNumber();
+            pending.clear();
+            if (!links.isEmpty()) {
+                try {
+                    // 每个分块单独提交
+                    transactionTemplate.executeWithoutResult(status -> imageLinkMapper.upsertBatch(links));
+                    result.setSuccessCount(result.getSuccessCount() + links.size());
+                } catch (Exception e) {
+                    // 分块整体写入失败时逐行重试，只拒绝真正有问题的行
+                    log.warn("写入图片链接分块失败，改为逐行写入: 起始行={}, 行数={}, err={}",
+                        firstRow, links.size(), e.getMessage());
+                    writeRowByRow(links, rowNumbers);
+                }
             }
 
-        } catch (IOException e) {
-            log.error("解析Excel文件失败", e);
-            ImageLinkImportError error = new ImageLinkImportError(0);
-            error.addError("解析Excel文件失败: " + e.getMessage());
-            result.addError(error);
+            progress.chunks++;
+            progress.successCount = result.getSuccessCount();
+            progress.failureCount = result.getFailureCount();
+            log.info("图片链接导入进度: 已处理 {} 行, 成功 {}, 失败 {}, 分块 {}",
+                result.getProcessedRows(), result.getSuccessCount(), result.getFailureCount(), progress.chunks);
         }
 
-        return result;
+        private void writeRowByRow(List<ImageLink> links, List<Integer> rowNumbers) {
+            for (int i = 0; i < links.size(); i++) {
+                List<ImageLink> single = List.of(links.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> imageLinkMapper.upsertBatch(single));
+                    result.setSuccessCount(result.getSuccessCount() + 1);
+                } catch (Exception e) {
+                    ImageLinkImportError error = new ImageLinkImportError(rowNumbers.get(i));
+                    error.addError("写入失败: " + e.getMessage());
+                    fail(error);
+                }
+            }
+        }
+
+        void discardPending(String reason) {
+            for (ImageLinkImportRow row : pending) {
+                ImageLinkImportError error = new ImageLinkImportError(row.getRowNumber());
+                error.addError(reason);
+                fail(error);
+            }
+            pending.clear();
+        }
+
+        private Integer resolveShopId(String shopName) {
+            if (shopIds.containsKey(shopName)) {
+                return shopIds.get(shopName);
+            }
+            Shop shop = shopService.getByShopName(shopName);
+            Integer shopId = shop != null ? shop.getId() : null;
+            shopIds.put(shopName, shopId);
+            return shopId;
+        }
+
+        private void fail(ImageLinkImportError error) {
+            addError(error);
+            result.setFailureCount(result.getFailureCount() + 1);
+            progress.failureCount = result.getFailureCount();
+        }
+
+        private void addError(ImageLinkImportError error) {
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.addError(error);
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    /**
+     * 导入进度
+     */
+    private static class ImportProgress {
+        private final String fileName;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+        private volatile String status = "RUNNING";
+        private volatile int processedRows;
+        private volatile int successCount;
+        private volatile int failureCount;
+        private volatile int chunks;
+
+        ImportProgress(String fileName) {
+            this.fileName = fileName;
+        }
+
+        void finish(String finalStatus) {
+            status = finalStatus;
+            finishedAt = LocalDateTime.now();
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("fileName", fileName);
+            map.put("status", status);
+            map.put("processedRows", processedRows);
+            map.put("successCount", successCount);
+            map.put("failureCount", failureCount);
+            map.put("chunks", chunks);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            return map;
+        }
+    }
+
+    private void pruneProgress() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(PROGRESS_RETENTION_MINUTES);
+        progressById.values().removeIf(p -> p.finishedAt != null && p.finishedAt.isBefore(cutoff));
     }
 
     /**
@@ -174,6 +558,8 @@ public class ImageLinkImportService {
         // 2. 验证图片名称（必填）
         if (row.getImageName() == null || row.getImageName().isBlank()) {
             error.addError("图片名称不能为空");
+        } else if (row.getImageName().length() > MAX_IMAGE_NAME_LENGTH) {
+            error.addError("图片名称不能超过" + MAX_IMAGE_NAME_LENGTH + "个字符");
         }
 
         // 3. 验证图片链接（必填）
@@ -181,6 +567,8 @@ public class ImageLinkImportService {
             error.addError("图片链接不能为空");
         } else if (!isValidUrl(row.getImageLink())) {
             error.addError("图片链接格式不正确");
+        } else if (row.getImageLink().length() > MAX_IMAGE_LINK_LENGTH) {
+            error.addError("图片链接不能超过" + MAX_IMAGE_LINK_LENGTH + "个字符");
         }
 
         return error;
@@ -196,77 +584,6 @@ public class ImageLinkImportService {
         return url.startsWith("http://") || url.startsWith("https://");
     }
 
-    /**
-     * 批量保存数据
-     */
-    private int saveBatch(List<ImageLinkImportRow> rows, ImageLinkImportResult result) {
-        int successCount = 0;
-
-        // 缓存店铺信息，避免重复查询
-        Map<String, Shop> shopCache = new HashMap<>();
-
-        List<ImageLink> imageLinksToSave = new ArrayList<>();
-
-        for (ImageLinkImportRow row : rows) {
-            try {
-                // 1. 查找店铺ID
-                Shop shop = shopCache.get(row.getShopName());
-                if (shop == null) {
-                    shop = shopService.getByShopName(row.getShopName());
-                    if (shop == null) {
-                        ImageLinkImportError error = new ImageLinkImportError(row.getRowNumber());
-                        error.addError("店铺不存在: " + row.getShopName());
-                        result.addError(error);
-                        result.setFailureCount(result.getFailureCount() + 1);
-                        continue;
-                    }
-                    shopCache.put(row.getShopName(), shop);
-                }
-
-                // 2. 构建ImageLink对象
-                ImageLink imageLink = new ImageLink();
-                imageLink.setImageName(row.getImageName());
-                imageLink.setShopId(shop.getId());
-                imageLink.setImageLink(row.getImageLink());
-
-                imageLinksToSave.add(imageLink);
-
-            } catch (Exception e) {
-                log.error("处理第{}行数据失败", row.getRowNumber(), e);
-                ImageLinkImportError error = new ImageLinkImportError(row.getRowNumber());
-                error.addError("处理失败: " + e.getMessage());
-                result.addError(error);
-                result.setFailureCount(result.getFailureCount() + 1);
-            }
-        }
-
-        // 3. 批量保存
-        if (!imageLinksToSave.isEmpty()) {
-            try {
-                // 使用UPSERT模式保存，如果已存在则更新
-                for (ImageLink imageLink : imageLinksToSave) {
-                    ImageLink existing = imageLinkService.getByImageNameAndShopId(
-                        imageLink.getImageName(),
-                        imageLink.getShopId()
-                    );
-
-                    if (existing != null) {
-                        // 更新现有记录
-                        imageLink.setId(existing.getId());
-                    }
-
-                    imageLinkService.saveOrUpdate(imageLink);
-                    successCount++;
-                }
-            } catch (Exception e) {
-                log.error("批量保存图片链接失败", e);
-                throw new RuntimeException("批量保存失败: " + e.getMessage());
-            }
-        }
-
-        return successCount;
-    }
-
     /**
      * 生成导入模板
      */
@@ -0,0 +1,504 @@
+package com.lcsc.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.entity.Product;
+import com.lcsc.entity.ProductParamValue;
+import com.lcsc.mapper.ProductMapper;
+import com.lcsc.mapper.ProductParamValueMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 产品参数检索服务
+ * 基于 MySQL FULLTEXT(ngram) 索引 ft_product_search 做型号/品牌/封装/参数文本的分词匹配，
+ * 基于 product_param_values 表做数值参数范围过滤，并提供品牌/封装/分类分面统计。
+ * 全文索引由InnoDB随产品写入自动维护，数值参数表由 {@link #indexProduct} 在入库时增量维护。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    /**
+     * 全文匹配表达式（列顺序必须与 ft_product_search 索引一致）
+     */
+    private static final String MATCH_EXPR = "MATCH(model, brand, package_name, parameters_text) AGAINST ({0} IN BOOLEAN MODE)";
+
+    /**
+     * 每个分面返回的最大取值数
+     */
+    private static final int FACET_LIMIT = 30;
+
+    /**
+     * 单页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * 重建数值参数表时每批读取的产品数
+     */
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    /**
+     * 重建时单条多行INSERT的最大行数
+     */
+    private static final int REBUILD_INSERT_CHUNK = 2000;
+
+    /**
+     * 参数值中的数值+单位，如 "10kΩ"、"±5%"、"2.731kHz"、"-40℃"
+     */
+    private static final Pattern NUMERIC_VALUE_PATTERN =
+            Pattern.compile("^[±+]?(-?\\d+(?:\\.\\d+)?)\\s*([pnuµμmkKMG]?)([^\\s~,;/]*)");
+
+    /**
+     * 分面维度 -> 列名
+     */
+    private static final Map<String, String> FACET_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        FACET_COLUMNS.put("brand", "brand");
+        FACET_COLUMNS.put("packageName", "package_name");
+        FACET_COLUMNS.put("categoryLevel2", "category_level2_id");
+    }
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductParamValueMapper productParamValueMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 最近一次（或正在执行的）重建任务
+     */
+    private final AtomicReference<RebuildJob> rebuildJob = new AtomicReference<>();
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "param-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 参数检索
+     *
+     * @param keyword 关键字（空格分隔的多个词均需命中）
+     * @param ranges  数值范围过滤，格式 "参数英文名:最小值:最大值"，最小/最大值可留空
+     * @return records/total/current/size/facets
+     */
+    public Map<String, Object> search(String keyword, String brand, String packageName,
+                                      Integer categoryLevel1Id, Integer categoryLevel2Id, Boolean hasStock,
+                                      List<String> ranges, int current, int size) {
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.booleanQuery = toBooleanQuery(keyword);
+        criteria.brand = trimToNull(brand);
+        criteria.packageName = trimToNull(packageName);
+        criteria.categoryLevel1Id = categoryLevel1Id;
+        criteria.categoryLevel2Id = categoryLevel2Id;
+        criteria.hasStock = hasStock;
+        criteria.ranges = parseRanges(ranges);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        QueryWrapper<Product> wrapper = buildWrapper(criteria, null);
+        if (criteria.booleanQuery == null) {
+            wrapper.orderByDesc("last_crawled_at", "id");
+        }
+        IPage<Product> page = productMapper.selectPage(new Page<>(Math.max(current, 1), pageSize), wrapper);
+
+        Map<String, Object> facets = new LinkedHashMap<>();
+        for (Map.Entry<String, String> facet : FACET_COLUMNS.entrySet()) {
+            facets.put(facet.getKey(), countFacet(criteria, facet.getKey(), facet.getValue()));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("records", page.getRecords());
+        result.put("total", page.getTotal());
+        result.put("current", page.getCurrent());
+        result.put("size", page.getSize());
+        result.put("facets", facets);
+        return result;
+    }
+
+    /**
+     * 可用于范围过滤的数值参数列表
+     */
+    public List<Map<String, Object>> listRangeParameters(int limit) {
+        return productParamValueMapper.selectParamSummary(Math.max(1, Math.min(limit, 500)));
+    }
+
+    /**
+     * 增量维护产品的数值参数
+     * 由产品入库路径调用；详细参数未变化时跳过，避免无谓写入
+     *
+     * @param product            已保存（带ID）的产品
+     * @param previousParameters 入库前的详细参数JSON（新产品为null）
+     */
+    public void indexProduct(Product product, String previousParameters) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        String parameters = product.getDetailedParameters();
+        if (Objects.equals(parameters, previousParameters)) {
+            return;
+        }
+        try {
+            if (parameters == null) {
+                // 详细参数被清空：删除旧的数值参数
+                productParamValueMapper.deleteByProductId(product.getId());
+                return;
+            }
+            List<ProductParamValue> values = parseNumericParameters(product.getId(), parameters);
+            if (previousParameters != null) {
+                productParamValueMapper.deleteByProductId(product.getId());
+            }
+            if (!values.isEmpty()) {
+                productParamValueMapper.insertBatch(values);
+            }
+        } catch (Exception e) {
+            logger.warn("维护产品数值参数失败: productCode={}, err={}", product.getProductCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * 提交全量重建数值参数表的后台任务（按id分批，只读取id与详细参数列，每批一次批量删除+批量写入）
+     * 用于功能上线前已入库的产品，以及参数解析规则调整后的回填；已有重建在执行时直接返回该任务
+     *
+     * @return 任务状态
+     */
+    public Map<String, Object> startRebuildParamIndex() {
+        while (true) {
+            RebuildJob current = rebuildJob.get();
+            if (current != null && current.isRunning()) {
+                return current.toMap();
+            }
+            RebuildJob job = new RebuildJob();
+            if (rebuildJob.compareAndSet(current, job)) {
+                rebuildExecutor.execute(() -> runRebuild(job));
+                return job.toMap();
+            }
+        }
+    }
+
+    /**
+     * 查询重建任务状态
+     *
+     * @param jobId 任务ID，为空时返回最近一次任务
+     * @return 任务状态，不存在时返回null
+     */
+    public Map<String, Object> getRebuildStatus(String jobId) {
+        RebuildJob job = rebuildJob.get();
+        if (job == null || (jobId != null && !jobId.equals(job.jobId))) {
+            return null;
+        }
+        return job.toMap();
+    }
+
+    private void runRebuild(RebuildJob job) {
+        try {
+            Integer lastId = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                QueryWrapper<Product> wrapper = new QueryWrapper<>();
+                wrapper.select("id", "product_code", "detailed_parameters")
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("LIMIT " + REBUILD_BATCH_SIZE);
+                List<Product> batch = productMapper.selectList(wrapper);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                rebuildBatch(batch);
+                job.processed.addAndGet(batch.size());
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            job.finish(RebuildJob.STATUS_COMPLETED, null);
+            logger.info("数值参数表重建完成，共处理 {} 个产品", job.processed.get());
+        } catch (Exception e) {
+            job.finish(RebuildJob.STATUS_FAILED, e.getMessage());
+            logger.error("数值参数表重建失败: 已处理 {} 个产品", job.processed.get(), e);
+        }
+    }
+
+    private void rebuildBatch(List<Product> batch) {
+        List<Integer> productIds = new ArrayList<>(batch.size());
+        List<ProductParamValue> values = new ArrayList<>();
+        for (Product product : batch) {
+            productIds.add(product.getId());
+            if (product.getDetailedParameters() == null) {
+                continue;
+            }
+            try {
+                values.addAll(parseNumericParameters(product.getId(), product.getDetailedParameters()));
+            } catch (Exception e) {
+                logger.warn("解析产品数值参数失败: productCode={}, err={}", product.getProductCode(), e.getMessage());
+            }
+        }
+        productParamValueMapper.deleteByProductIds(productIds);
+        for (int from = 0; from < values.size(); from += REBUILD_INSERT_CHUNK) {
+            productParamValueMapper.insertBatch(values.subList(from, Math.min(values.size(), from + REBUILD_INSERT_CHUNK)));
+        }
+    }
+
+    // ========== 私有辅助方法 ==========
+
+    /**
+     * 构建检索条件；skipFacet 指定的分面维度不加过滤，用于多选分面计数
+     */
+    private QueryWrapper<Product> buildWrapper(SearchCriteria criteria, String skipFacet) {
+        QueryWrapper<Product> wrapper = new QueryWrapper<>();
+        if (criteria.booleanQuery != null) {
+            wrapper.apply(MATCH_EXPR, criteria.booleanQuery);
+        }
+        if (criteria.brand != null && !"brand".equals(skipFacet)) {
+            wrapper.eq("brand", criteria.brand);
+        }
+        if (criteria.packageName != null && !"packageName".equals(skipFacet)) {
+            wrapper.eq("package_name", criteria.packageName);
+        }
+        if (criteria.categoryLevel1Id != null) {
+            wrapper.eq("category_level1_id", criteria.categoryLevel1Id);
+        }
+        if (criteria.categoryLevel2Id != null && !"categoryLevel2".equals(skipFacet)) {
+            wrapper.eq("category_level2_id", criteria.categoryLevel2Id);
+        }
+        if (criteria.hasStock != null) {
+            if (criteria.hasStock) {
+                wrapper.gt("total_stock_quantity", 0);
+            } else {
+                wrapper.le("total_stock_quantity", 0);
+            }
+        }
+        for (RangeFilter range : criteria.ranges) {
+            wrapper.apply("EXISTS (SELECT 1 FROM product_param_values v WHERE v.product_id = products.id " +
+                            "AND v.param_name = {0} AND v.numeric_value >= {1} AND v.numeric_value <= {2})",
+                    range.paramName, range.min, range.max);
+        }
+        return wrapper;
+    }
+
+    private List<Map<String, Object>> countFacet(SearchCriteria criteria, String facet, String column) {
+        QueryWrapper<Product> wrapper = buildWrapper(criteria, facet);
+        wrapper.select(column + " AS value", "COUNT(*) AS count")
+                .isNotNull(column)
+                .groupBy(column)
+                .orderByDesc("count")
+                .last("LIMIT " + FACET_LIMIT);
+        return productMapper.selectMaps(wrapper);
+    }
+
+    /**
+     * 将用户关键字转换为 BOOLEAN MODE 查询：每个词作为必须命中的短语（ngram分词后按短语匹配）
+     */
+    private String toBooleanQuery(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String term : keyword.trim().split("\\s+")) {
+            String cleaned = term.replace("\"", "").replaceAll("[+\\-<>()~*@]", " ").trim();
+            if (cleaned.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append("+\"").append(cleaned).append('"');
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    private List<RangeFilter> parseRanges(List<String> ranges) {
+        List<RangeFilter> result = new ArrayList<>();
+        if (ranges == null) {
+            return result;
+        }
+        for (String range : ranges) {
+            if (range == null || range.isBlank()) {
+                continue;
+            }
+            int maxSep = range.lastIndexOf(':');
+            int minSep = maxSep > 0 ? range.lastIndexOf(':', maxSep - 1) : -1;
+            if (minSep <= 0) {
+                throw new IllegalArgumentException("范围过滤格式应为 参数名:最小值:最大值，实际: " + range);
+            }
+            String paramName = range.substring(0, minSep).trim();
+            double min = parseBound(range.substring(minSep + 1, maxSep), -Double.MAX_VALUE);
+            double max = parseBound(range.substring(maxSep + 1), Double.MAX_VALUE);
+            result.add(new RangeFilter(paramName, min, max));
+        }
+        return result;
+    }
+
+    /**
+     * 解析范围边界，支持SI前缀（如 "10k"、"100n"），留空时取默认值
+     */
+    private double parseBound(String text, double defaultValue) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return defaultValue;
+        }
+        ParsedValue parsed = parseNumericValue(trimmed);
+        if (parsed == null) {
+            throw new IllegalArgumentException("无法解析的数值: " + text);
+        }
+        return parsed.value();
+    }
+
+    /**
+     * 从详细参数JSON（paramNameEn -> {nameEn,nameCn,valueEn,valueCn}）中提取可数值化的参数
+     */
+    private List<ProductParamValue> parseNumericParameters(Integer productId, String detailedParameters) throws Exception {
+        List<ProductParamValue> values = new ArrayList<>();
+        Map<String, Map<String, String>> params = objectMapper.readValue(detailedParameters,
+                new TypeReference<Map<String, Map<String, String>>>() {});
+        for (Map.Entry<String, Map<String, String>> entry : params.entrySet()) {
+            String name = entry.getKey();
+            Map<String, String> info = entry.getValue();
+            if (name == null || name.length() > 100 || info == null) {
+                continue;
+            }
+            String raw = info.get("valueEn");
+            if (raw == null || raw.isBlank()) {
+                raw = info.get("valueCn");
+            }
+            ParsedValue parsed = parseNumericValue(raw);
+            if (parsed != null) {
+                values.add(new ProductParamValue(productId, name, parsed.value(), parsed.unit()));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 解析带SI前缀的数值，如 "10kΩ" -> 10000 Ω，"100nF" -> 1.0E-7 F，"±5%" -> 5 %
+     */
+    static ParsedValue parseNumericValue(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        Matcher matcher = NUMERIC_VALUE_PATTERN.matcher(raw.trim());
+        if (!matcher.find()) {
+            return null;
+        }
+        double value;
+        try {
+            value = Double.parseDouble(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String prefix = matcher.group(2);
+        String unit = matcher.group(3);
+        if (!prefix.isEmpty() && unit.isEmpty() && "m".equals(prefix)) {
+            // 单独的 m 视为单位（米），不是毫
+            unit = prefix;
+            prefix = "";
+        }
+        value *= siMultiplier(prefix);
+        if (unit.length() > 20) {
+            unit = unit.substring(0, 20);
+        }
+        return new ParsedValue(value, unit.isEmpty() ? null : unit);
+    }
+
+    private static double siMultiplier(String prefix) {
+        switch (prefix) {
+            case "p": return 1e-12;
+            case "n": return 1e-9;
+            case "u":
+            case "µ":
+            case "μ": return 1e-6;
+            case "m": return 1e-3;
+            case "k":
+            case "K": return 1e3;
+            case "M": return 1e6;
+            case "G": return 1e9;
+            default: return 1;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static class SearchCriteria {
+        private String booleanQuery;
+        private String brand;
+        private String packageName;
+        private Integer categoryLevel1Id;
+        private Integer categoryLevel2Id;
+        private Boolean hasStock;
+        private List<RangeFilter> ranges;
+    }
+
+    /**
+     * 数值参数表重建任务
+     */
+    private static class RebuildJob {
+        static final String STATUS_RUNNING = "RUNNING";
+        static final String STATUS_COMPLETED = "COMPLETED";
+        static final String STATUS_FAILED = "FAILED";
+
+        private final String jobId = UUID.randomUUID().toString();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger processed = new AtomicInteger();
+        private volatile String status = STATUS_RUNNING;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        boolean isRunning() {
+            return STATUS_RUNNING.equals(status);
+        }
+
+        void finish(String finalStatus, String finalMessage) {
+            this.message = finalMessage;
+            this.finishedAt = LocalDateTime.now();
+            this.status = finalStatus;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", jobId);
+            map.put("status", status);
+            map.put("processed", processed.get());
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("message", message);
+            return map;
+        }
+    }
+
+    private record RangeFilter(String paramName, double min, double max) {}
+
+    record ParsedValue(double value, String unit) {}
+}
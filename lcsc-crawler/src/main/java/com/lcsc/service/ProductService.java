@@ -4,20 +4,22 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.lcsc.entity.CategoryLevel1Code;
-import com.lcsc.entity.CategoryLevel2Code;
-import com.lcsc.entity.CategoryLevel3Code;
+import com.lcsc.config.ProductDataVersionInterceptor;
+import com.lcsc.dto.ProductCursorPage;
 import com.lcsc.entity.Product;
 import com.lcsc.mapper.ProductMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 产品服务层
@@ -29,13 +31,57 @@ import java.util.stream.Collectors;
 public class ProductService extends ServiceImpl<ProductMapper, Product> {
 
     @Autowired
-    private CategoryLevel1CodeService categoryLevel1CodeService;
+    private CategoryDictionaryService categoryDictionaryService;
 
     @Autowired
-    private CategoryLevel2CodeService categoryLevel2CodeService;
+    private ProductSearchService productSearchService;
 
+    /**
+     * 游标分页总数缓存有效期（毫秒）
+     */
+    private static final long CURSOR_COUNT_CACHE_TTL_MS = 60_000L;
+
+    /**
+     * 游标分页单页最大条数
+     */
+    private static final int CURSOR_PAGE_MAX_SIZE = 500;
+
+    /**
+     * 游标分页总数缓存最大条目数（键来自用户输入的过滤条件，必须有上限）
+     */
+    private static final int CURSOR_COUNT_CACHE_MAX_ENTRIES = 1000;
+
+    /**
+     * 游标分页总数缓存：规范化过滤条件 -> 计数
+     */
+    private final Map<String, CachedValue<Long>> cursorCountCache = new ConcurrentHashMap<>();
+
+    /**
+     * 品牌列表/统计信息缓存有效期（毫秒），爬取任务完成时会主动失效
+     */
+    private static final long AGGREGATE_CACHE_TTL_MS = 10 * 60_000L;
+
+    /**
+     * 统计信息中返回的热门品牌数
+     */
+    private static final int TOP_BRAND_LIMIT = 10;
+
+    private volatile CachedValue<List<String>> brandsCache;
+
+    private volatile CachedValue<Map<String, Object>> statisticsCache;
+
+    /**
+     * 二级分类产品数缓存有效期（毫秒），爬取期间前端轮询分类状态，只需短时缓存
+     */
+    private static final long CATEGORY_COUNT_CACHE_TTL_MS = 15_000L;
+
+    private volatile CachedValue<Map<Integer, Long>> categoryLevel2CountCache;
+
+    /**
+     * 产品写入计数（所有经过 ProductMapper 的写操作都会累加），用于导出结果缓存判断数据是否变化
+     */
     @Autowired
-    private CategoryLevel3CodeService categoryLevel3CodeService;
+    private ProductDataVersionInterceptor productDataVersion;
 
     /**
      * 分页查询产品
@@ -86,6 +132,64 @@ public class ProductService extends ServiceImpl<ProductMapper, Product> {
         return result;
     }
 
+    /**
+     * 游标（键集）分页查询产品
+     * 按 (last_crawled_at DESC, id DESC) 排序，使用 idx_last_crawled_id 等复合索引定位，
+     * 文本条件使用前缀匹配以命中索引，总数使用缓存/估算值，翻页耗时与页深无关。
+     * last_crawled_at 为NULL的产品排在最后，游标中以空时间戳表示进入该区段。
+     *
+     * @param cursor 上一页返回的 nextCursor，首页传null或空串
+     */
+    public ProductCursorPage getProductPageByCursor(String cursor, int size, String productCode, String brand,
+                                                    String model, String packageName, Integer categoryLevel1Id,
+                                                    Integer categoryLevel2Id, Integer categoryLevel3Id, Boolean hasStock) {
+        int pageSize = Math.max(1, Math.min(size, CURSOR_PAGE_MAX_SIZE));
+        ProductCursor position = ProductCursor.decode(cursor);
+
+        List<Product> rows = new ArrayList<>(pageSize + 1);
+        if (position == null || position.lastCrawledAt != null) {
+            // 第一段：last_crawled_at非空，行构造器比较可直接走 (last_crawled_at, id) 索引范围扫描
+            LambdaQueryWrapper<Product> wrapper = buildCursorFilter(productCode, brand, model, packageName,
+                    categoryLevel1Id, categoryLevel2Id, categoryLevel3Id, hasStock);
+            wrapper.isNotNull(Product::getLastCrawledAt);
+            if (position != null) {
+                wrapper.apply("(last_crawled_at, id) < ({0}, {1})", position.lastCrawledAt, position.id);
+            }
+            wrapper.orderByDesc(Product::getLastCrawledAt).orderByDesc(Product::getId);
+            wrapper.last("LIMIT " + (pageSize + 1));
+            rows.addAll(list(wrapper));
+        }
+        if (rows.size() <= pageSize) {
+            // 第二段：从未爬取过时间的产品，按id倒序
+            LambdaQueryWrapper<Product> wrapper = buildCursorFilter(productCode, brand, model, packageName,
+                    categoryLevel1Id, categoryLevel2Id, categoryLevel3Id, hasStock);
+            wrapper.isNull(Product::getLastCrawledAt);
+            if (position != null && position.lastCrawledAt == null) {
+                wrapper.lt(Product::getId, position.id);
+            }
+            wrapper.orderByDesc(Product::getId);
+            wrapper.last("LIMIT " + (pageSize + 1 - rows.size()));
+            rows.addAll(list(wrapper));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> records = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = records.get(records.size() - 1);
+            nextCursor = new ProductCursor(last.getLastCrawledAt(), last.getId()).encode();
+        }
+
+        enrichCategoryNames(records);
+
+        boolean unfiltered = isBlank(productCode) && isBlank(brand) && isBlank(model) && isBlank(packageName)
+                && categoryLevel1Id == null && categoryLevel2Id == null && categoryLevel3Id == null && hasStock == null;
+        long total = getCursorTotal(unfiltered, productCode, brand, model, packageName,
+                categoryLevel1Id, categoryLevel2Id, categoryLevel3Id, hasStock);
+
+        return new ProductCursorPage(records, nextCursor, hasMore, total, unfiltered);
+    }
+
     /**
      * 分页查询产品（向后兼容方法）
      */
@@ -109,10 +213,17 @@ public class ProductService extends ServiceImpl<ProductMapper, Product> {
      */
     public boolean saveOrUpdateProduct(Product product) {
         Product existingProduct = getByProductCode(product.getProductCode());
+        String previousParameters = null;
         if (existingProduct != null) {
             product.setId(existingProduct.getId());
+            previousParameters = existingProduct.getDetailedParameters();
+        }
+        boolean saved = saveOrUpdate(product);
+        if (saved) {
+            // 全文索引由InnoDB自动维护，这里只需增量维护数值参数表
+            productSearchService.indexProduct(product, previousParameters);
         }
-        return saveOrUpdate(product);
+        return saved;
     }
 
     /**
@@ -137,117 +248,265 @@ public class ProductService extends ServiceImpl<ProductMapper, Product> {
 
     /**
      * 获取产品统计信息
+     * 由聚合SQL计算，结果缓存在内存中，爬取任务完成时失效
      */
     public Map<String, Object> getProductStatistics() {
+        long now = System.currentTimeMillis();
+        CachedValue<Map<String, Object>> cached = statisticsCache;
+        if (cached != null && cached.isValid(now)) {
+            return new HashMap<>(cached.value);
+        }
+
         Map<String, Object> statistics = new HashMap<>();
-        
-        // 总产品数
-        long totalProducts = count();
+        Map<String, Object> summary = baseMapper.selectProductSummary();
+
+        long totalProducts = toLong(summary != null ? summary.get("totalProducts") : null);
+        long productsWithStock = toLong(summary != null ? summary.get("productsWithStock") : null);
         statistics.put("totalProducts", totalProducts);
-        
-        // 有库存的产品数
-        LambdaQueryWrapper<Product> hasStockWrapper = new LambdaQueryWrapper<>();
-        hasStockWrapper.gt(Product::getTotalStockQuantity, 0);
-        long productsWithStock = count(hasStockWrapper);
         statistics.put("productsWithStock", productsWithStock);
-        
-        // 无库存的产品数
-        long productsWithoutStock = totalProducts - productsWithStock;
-        statistics.put("productsWithoutStock", productsWithoutStock);
-        
-        // 品牌数量
-        // 注意：这需要数据库支持 DISTINCT COUNT，简化实现
-        statistics.put("totalBrands", 0); // 暂时设为0，需要复杂查询
-        
+        statistics.put("productsWithoutStock", totalProducts - productsWithStock);
+        statistics.put("totalBrands", toLong(summary != null ? summary.get("totalBrands") : null));
+
+        // 分组统计
+        statistics.put("categoryDistribution", baseMapper.selectCountByCategoryLevel1());
+        statistics.put("topBrands", baseMapper.selectTopBrands(TOP_BRAND_LIMIT));
+
+        statisticsCache = new CachedValue<>(Collections.unmodifiableMap(statistics), now + AGGREGATE_CACHE_TTL_MS);
         return statistics;
     }
 
-    // ========== 私有辅助方法 ==========
     /**
-     * 为产品列表填充分类名称字段，避免前端根据ID再次查询
+     * 各二级分类下的产品数
+     * 一条 GROUP BY 查询得到全部分类的计数，短时缓存；没有产品的分类不在结果中
      */
-    private void enrichCategoryNames(List<Product> products) {
-        if (products == null || products.isEmpty()) {
-            return;
-        }
-
-        // 批量收集ID，避免N+1查询
-        Set<Integer> level1Ids = products.stream()
-                .map(Product::getCategoryLevel1Id)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-        Set<Integer> level2Ids = products.stream()
-                .map(Product::getCategoryLevel2Id)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-        Set<Integer> level3Ids = products.stream()
-                .map(Product::getCategoryLevel3Id)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        Map<Integer, String> level1NameMap = level1Ids.isEmpty() ? new HashMap<>() :
-                categoryLevel1CodeService.listByIds(level1Ids).stream()
-                        .collect(Collectors.toMap(CategoryLevel1Code::getId, CategoryLevel1Code::getCategoryLevel1Name));
-
-        Map<Integer, String> level2NameMap = level2Ids.isEmpty() ? new HashMap<>() :
-                categoryLevel2CodeService.listByIds(level2Ids).stream()
-                        .collect(Collectors.toMap(CategoryLevel2Code::getId, CategoryLevel2Code::getCategoryLevel2Name));
-
-        Map<Integer, String> level3NameMap = level3Ids.isEmpty() ? new HashMap<>() :
-                categoryLevel3CodeService.listByIds(level3Ids).stream()
-                        .collect(Collectors.toMap(CategoryLevel3Code::getId, CategoryLevel3Code::getCategoryLevel3Name));
-
-        for (Product p : products) {
-            if (p == null) continue;
-            if (p.getCategoryLevel1Id() != null) {
-                p.setCategoryLevel1Name(level1NameMap.get(p.getCategoryLevel1Id()));
-            }
-            if (p.getCategoryLevel2Id() != null) {
-                p.setCategoryLevel2Name(level2NameMap.get(p.getCategoryLevel2Id()));
-            }
-            if (p.getCategoryLevel3Id() != null) {
-                p.setCategoryLevel3Name(level3NameMap.get(p.getCategoryLevel3Id()));
+    public Map<Integer, Long> getProductCountsByCategoryLevel2() {
+        long now = System.currentTimeMillis();
+        CachedValue<Map<Integer, Long>> cached = categoryLevel2CountCache;
+        if (cached != null && cached.isValid(now)) {
+            return cached.value;
+        }
+
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Map<String, Object> row : baseMapper.selectCountByCategoryLevel2()) {
+            Object categoryId = row.get("categoryId");
+            if (categoryId instanceof Number) {
+                counts.put(((Number) categoryId).intValue(), toLong(row.get("productCount")));
             }
         }
+
+        Map<Integer, Long> value = Collections.unmodifiableMap(counts);
+        categoryLevel2CountCache = new CachedValue<>(value, now + CATEGORY_COUNT_CACHE_TTL_MS);
+        return value;
     }
 
     /**
-     * 为单个产品填充分类名称
+     * 使品牌列表、统计信息、分类产品数及分页总数缓存失效
+     * 在爬取任务完成（产品数据发生批量变化）时调用
      */
-    private void enrichCategoryNames(Product product) {
-        if (product == null) {
-            return;
+    public void invalidateAggregateCache() {
+        brandsCache = null;
+        statisticsCache = null;
+        categoryLevel2CountCache = null;
+        cursorCountCache.clear();
+        productDataVersion.markModified();
+    }
+
+    /**
+     * 产品数据版本
+     * 由本进程产品写入计数和最近爬取时间（走 idx_last_crawled_id 索引）组成，任一变化即视为数据已变；
+     * 写入计数覆盖增删改，最近爬取时间覆盖其他进程的爬取写入
+     */
+    public String getDataVersion() {
+        LocalDateTime lastCrawledAt = baseMapper.selectMaxLastCrawledAt();
+        return productDataVersion.getModificationCount() + "@" + (lastCrawledAt != null ? lastCrawledAt : "-");
+    }
+
+    // ========== 私有辅助方法 ==========
+
+    /**
+     * 构建游标分页的过滤条件（文本条件使用前缀匹配）
+     */
+    private LambdaQueryWrapper<Product> buildCursorFilter(String productCode, String brand, String model,
+                                                          String packageName, Integer categoryLevel1Id,
+                                                          Integer categoryLevel2Id, Integer categoryLevel3Id,
+                                                          Boolean hasStock) {
+        LambdaQueryWrapper<Product> wrapper = new LambdaQueryWrapper<>();
+        if (!isBlank(productCode)) {
+            wrapper.likeRight(Product::getProductCode, escapeLike(productCode.trim()));
         }
-        if (product.getCategoryLevel1Id() != null) {
-            CategoryLevel1Code l1 = categoryLevel1CodeService.getById(product.getCategoryLevel1Id());
-            if (l1 != null) {
-                product.setCategoryLevel1Name(l1.getCategoryLevel1Name());
+        if (!isBlank(brand)) {
+            wrapper.likeRight(Product::getBrand, escapeLike(brand.trim()));
+        }
+        if (!isBlank(model)) {
+            wrapper.likeRight(Product::getModel, escapeLike(model.trim()));
+        }
+        if (!isBlank(packageName)) {
+            wrapper.likeRight(Product::getPackageName, escapeLike(packageName.trim()));
+        }
+        if (categoryLevel1Id != null) {
+            wrapper.eq(Product::getCategoryLevel1Id, categoryLevel1Id);
+        }
+        if (categoryLevel2Id != null) {
+            wrapper.eq(Product::getCategoryLevel2Id, categoryLevel2Id);
+        }
+        if (categoryLevel3Id != null) {
+            wrapper.eq(Product::getCategoryLevel3Id, categoryLevel3Id);
+        }
+        if (hasStock != null) {
+            if (hasStock) {
+                wrapper.gt(Product::getTotalStockQuantity, 0);
+            } else {
+                wrapper.le(Product::getTotalStockQuantity, 0);
             }
         }
-        if (product.getCategoryLevel2Id() != null) {
-            CategoryLevel2Code l2 = categoryLevel2CodeService.getById(product.getCategoryLevel2Id());
-            if (l2 != null) {
-                product.setCategoryLevel2Name(l2.getCategoryLevel2Name());
+        return wrapper;
+    }
+
+    /**
+     * 获取游标分页的总数
+     * 无过滤条件时读取InnoDB统计信息估算值，有过滤条件时执行COUNT并按条件缓存一段时间
+     */
+    private long getCursorTotal(boolean unfiltered, String productCode, String brand, String model,
+                                String packageName, Integer categoryLevel1Id, Integer categoryLevel2Id,
+                                Integer categoryLevel3Id, Boolean hasStock) {
+        String key = unfiltered ? "*" : String.join("|",
+                normalize(productCode), normalize(brand), normalize(model), normalize(packageName),
+                String.valueOf(categoryLevel1Id), String.valueOf(categoryLevel2Id),
+                String.valueOf(categoryLevel3Id), String.valueOf(hasStock));
+
+        long now = System.currentTimeMillis();
+        CachedValue<Long> cached = cursorCountCache.get(key);
+        if (cached != null && cached.isValid(now)) {
+            return cached.value;
+        }
+
+        long value;
+        if (unfiltered) {
+            Long approximate = baseMapper.selectApproximateRowCount();
+            value = approximate != null ? approximate : count();
+        } else {
+            value = count(buildCursorFilter(productCode, brand, model, packageName,
+                    categoryLevel1Id, categoryLevel2Id, categoryLevel3Id, hasStock));
+        }
+        if (cursorCountCache.size() >= CURSOR_COUNT_CACHE_MAX_ENTRIES) {
+            purgeCursorCountCache(now);
+        }
+        cursorCountCache.put(key, new CachedValue<>(value, now + CURSOR_COUNT_CACHE_TTL_MS));
+        return value;
+    }
+
+    /**
+     * 清除过期的总数缓存；全部未过期仍超出上限时整体清空（只是多算几次COUNT）
+     */
+    private void purgeCursorCountCache(long now) {
+        cursorCountCache.entrySet().removeIf(entry -> !entry.getValue().isValid(now));
+        if (cursorCountCache.size() >= CURSOR_COUNT_CACHE_MAX_ENTRIES) {
+            cursorCountCache.clear();
+        }
+    }
+
+    /**
+     * 转义LIKE通配符，使用户输入按字面前缀匹配（MySQL默认转义符为反斜杠）
+     */
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                escaped.append('\\');
             }
+            escaped.append(c);
         }
-        if (product.getCategoryLevel3Id() != null) {
-            CategoryLevel3Code l3 = categoryLevel3CodeService.getById(product.getCategoryLevel3Id());
-            if (l3 != null) {
-                product.setCategoryLevel3Name(l3.getCategoryLevel3Name());
+        return escaped.toString();
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String normalize(String value) {
+        return isBlank(value) ? "" : value.trim();
+    }
+
+    /**
+     * 带过期时间的缓存值
+     */
+    private static class CachedValue<T> {
+        private final T value;
+        private final long expireAt;
+
+        CachedValue(T value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        boolean isValid(long now) {
+            return expireAt > now;
+        }
+    }
+
+    /**
+     * 游标位置：(last_crawled_at, id)，编码为URL安全的Base64字符串
+     */
+    private static class ProductCursor {
+        private final LocalDateTime lastCrawledAt;
+        private final Integer id;
+
+        ProductCursor(LocalDateTime lastCrawledAt, Integer id) {
+            this.lastCrawledAt = lastCrawledAt;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = (lastCrawledAt != null ? lastCrawledAt.toString() : "") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ProductCursor decode(String cursor) {
+            if (cursor == null || cursor.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+                int sep = raw.lastIndexOf('|');
+                String time = raw.substring(0, sep);
+                Integer id = Integer.valueOf(raw.substring(sep + 1));
+                return new ProductCursor(time.isEmpty() ? null : LocalDateTime.parse(time), id);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无效的分页游标: " + cursor);
             }
         }
     }
+    /**
+     * 为产品列表填充分类名称字段，避免前端根据ID再次查询
+     * 名称来自内存分类字典，不产生数据库查询
+     */
+    private void enrichCategoryNames(List<Product> products) {
+        categoryDictionaryService.enrich(products);
+    }
+
+    /**
+     * 为单个产品填充分类名称
+     */
+    private void enrichCategoryNames(Product product) {
+        categoryDictionaryService.enrich(product);
+    }
 
     /**
      * 获取所有品牌列表（去重排序）
      */
     public List<String> getAllBrands() {
-        List<Product> products = baseMapper.selectList(null);
-        return products.stream()
-                .map(Product::getBrand)
-                .filter(brand -> brand != null && !brand.isEmpty())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        long now = System.currentTimeMillis();
+        CachedValue<List<String>> cached = brandsCache;
+        if (cached != null && cached.isValid(now)) {
+            return cached.value;
+        }
+        List<String> brands = Collections.unmodifiableList(baseMapper.selectDistinctBrands());
+        brandsCache = new CachedValue<>(brands, now + AGGREGATE_CACHE_TTL_MS);
+        return brands;
     }
 }
@@ -1,26 +1,37 @@
 package com.lcsc.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lcsc.entity.TaskLog;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 /**
  * 基于Redis的任务日志服务
- * 使用Redis存储任务日志，自动过期清理
- * 
+ * 每个任务一条Redis Stream（task_logs:stream:{taskId}），另有一条限长的全局Stream（task_logs:stream:all）；
+ * 写入使用 XADD MAXLEN ~ 近似裁剪，按任务查询直接按ID范围读取对应Stream，无需扫描其他任务的日志。
+ * 日志ID取自Stream记录ID，不会冲突；活跃任务记录在 task_logs:active 有序集合中（分值为最后写入时间）。
+ *
  * @author lcsc-crawler
  * @since 2025-09-07
  */
@@ -30,20 +41,49 @@ public class RedisTaskLogService {
     private static final Logger logger = LoggerFactory.getLogger(RedisTaskLogService.class);
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private StringRedisTemplate stringRedisTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    // Redis键前缀
-    private static final String LOG_KEY_PREFIX = "task_logs:";
-    private static final String ACTIVE_TASKS_KEY = "active_tasks";
-    
-    // 默认过期时间（1小时）
+    // Redis键
+    private static final String TASK_STREAM_PREFIX = "task_logs:stream:";
+    private static final String GLOBAL_STREAM_KEY = TASK_STREAM_PREFIX + "all";
+    private static final String ACTIVE_TASKS_KEY = "task_logs:active";
+
+    // 任务Stream过期时间（1小时无写入后过期，每次写入都在同一管道中续期）
     private static final long DEFAULT_EXPIRE_HOURS = 1;
-    
-    // 任务序列号管理
-    private final Map<String, AtomicInteger> taskSequenceCounters = new ConcurrentHashMap<>();
+
+    // 分页读取时每次XREVRANGE的条数，以及带级别过滤时最多扫描的条数
+    private static final int SCAN_BATCH = 200;
+    private static final int MAX_SCAN = 10000;
+
+    // Stream字段名（短字段名以减少每条日志的内存）
+    private static final String F_TASK_ID = "t";
+    private static final String F_PARENT = "p";
+    private static final String F_TYPE = "ty";
+    private static final String F_LEVEL = "l";
+    private static final String F_STEP = "s";
+    private static final String F_MESSAGE = "m";
+    private static final String F_PROGRESS = "pg";
+    private static final String F_SEQUENCE = "q";
+    private static final String F_METADATA = "md";
+    private static final String F_ERROR_CODE = "e";
+
+    /**
+     * 单个任务Stream的近似最大长度
+     */
+    @Value("${crawler.task-log.redis.task-stream-max-len:5000}")
+    private long taskStreamMaxLen;
+
+    /**
+     * 全局Stream的近似最大长度
+     */
+    @Value("${crawler.task-log.redis.global-stream-max-len:20000}")
+    private long globalStreamMaxLen;
+
+    // 任务序列号管理（任务Stream过期后由 pruneExpiredTasks 移除）
+    private final Map<String, TaskSequence> taskSequenceCounters = new ConcurrentHashMap<>();
 
     /**
      * 记录任务日志到Redis
@@ -54,6 +94,7 @@ public class RedisTaskLogService {
 
     /**
      * 详细的任务日志记录方法
+     * 任务Stream、全局Stream和活跃任务集合在一次管道往返中写入
      */
     public void logTaskWithDetails(String taskId, String parentTaskId, String taskType,
                                    String level, String step, String message, Integer progress,
@@ -61,47 +102,40 @@ public class RedisTaskLogService {
         try {
             // 获取序列号
             int sequenceOrder = getNextSequence(taskId);
-            
-            // 创建日志对象
-            TaskLog taskLog = new TaskLog();
-            taskLog.setTaskId(taskId);
-            taskLog.setParentTaskId(parentTaskId);
-            taskLog.setTaskType(taskType != null ? taskType : "UNKNOWN");
-            taskLog.setLevel(level);
-            taskLog.setStep(step);
-            taskLog.setMessage(message);
-            taskLog.setProgress(progress);
-            taskLog.setSequenceOrder(sequenceOrder);
-            taskLog.setCreateTime(LocalDateTime.now());
-            taskLog.setErrorCode(errorCode);
-            
-            // 设置元数据
+
+            Map<String, String> fields = new LinkedHashMap<>();
+            putIfNotNull(fields, F_PARENT, parentTaskId);
+            putIfNotNull(fields, F_TYPE, taskType);
+            putIfNotNull(fields, F_LEVEL, level);
+            putIfNotNull(fields, F_STEP, step);
+            putIfNotNull(fields, F_MESSAGE, message);
+            putIfNotNull(fields, F_PROGRESS, progress);
+            fields.put(F_SEQUENCE, String.valueOf(sequenceOrder));
+            putIfNotNull(fields, F_ERROR_CODE, errorCode);
             if (metadata != null) {
-                String metadataJson = objectMapper.writeValueAsString(metadata);
-                taskLog.setMetadata(metadataJson);
+                fields.put(F_METADATA, objectMapper.writeValueAsString(metadata));
             }
-            
-            // 生成唯一ID
-            String logId = taskId + ":" + sequenceOrder + ":" + System.currentTimeMillis();
-            taskLog.setId((long)(logId.hashCode() & 0x7fffffff)); // 转为正数Long类型
-            
-            // 存储到Redis
-            String logKey = LOG_KEY_PREFIX + logId;
-            redisTemplate.opsForValue().set(logKey, taskLog, DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
-            
-            // 添加到有序集合中（按时间排序）
-            String timeBasedKey = LOG_KEY_PREFIX + "timeline";
-            double score = System.currentTimeMillis();
-            redisTemplate.opsForZSet().add(timeBasedKey, logKey, score);
-            // 设置时间线的过期时间
-            redisTemplate.expire(timeBasedKey, DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
-            
-            // 更新活跃任务状态
-            updateActiveTask(taskId, taskLog);
-            
-            logger.debug("任务日志已存储到Redis: taskId={}, step={}, sequence={}, key={}", 
-                        taskId, step, sequenceOrder, logKey);
-            
+
+            // 全局Stream额外记录任务ID
+            Map<String, String> globalFields = new LinkedHashMap<>(fields);
+            globalFields.put(F_TASK_ID, taskId);
+
+            String taskStreamKey = TASK_STREAM_PREFIX + taskId;
+            long now = System.currentTimeMillis();
+
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.xAdd(StreamRecords.string(fields).withStreamKey(taskStreamKey),
+                        XAddOptions.maxlen(taskStreamMaxLen).approximateTrimming(true));
+                redis.xAdd(StreamRecords.string(globalFields).withStreamKey(GLOBAL_STREAM_KEY),
+                        XAddOptions.maxlen(globalStreamMaxLen).approximateTrimming(true));
+                redis.expire(taskStreamKey, TimeUnit.HOURS.toSeconds(DEFAULT_EXPIRE_HOURS));
+                redis.zAdd(ACTIVE_TASKS_KEY, now, taskId);
+                return null;
+            });
+
+            logger.debug("任务日志已存储到Redis: taskId={}, step={}, sequence={}", taskId, step, sequenceOrder);
+
         } catch (Exception e) {
             logger.error("存储任务日志到Redis失败: taskId={}, message={}", taskId, message, e);
         }
@@ -111,73 +145,94 @@ public class RedisTaskLogService {
      * 获取任务的下一个序列号
      */
     private int getNextSequence(String taskId) {
-        return taskSequenceCounters.computeIfAbsent(taskId, k -> new AtomicInteger(0)).incrementAndGet();
+        TaskSequence sequence = taskSequenceCounters.computeIfAbsent(taskId, k -> new TaskSequence());
+        sequence.lastWriteMillis = System.currentTimeMillis();
+        return sequence.counter.incrementAndGet();
     }
 
     /**
-     * 更新活跃任务状态
+     * 清理任务Stream已过期的任务
+     * 任务Stream在最后一次写入 DEFAULT_EXPIRE_HOURS 后由Redis自动删除，
+     * 这里同步移除活跃任务集合中的对应成员和本地序列号计数器，避免二者随任务数无限增长
      */
-    private void updateActiveTask(String taskId, TaskLog taskLog) {
+    @Scheduled(fixedDelayString = "${crawler.task-log.redis.expired-task-prune-interval-ms:300000}")
+    public void pruneExpiredTasks() {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(DEFAULT_EXPIRE_HOURS);
+        taskSequenceCounters.entrySet().removeIf(entry -> entry.getValue().lastWriteMillis < expiredBefore);
         try {
-            String activeTaskKey = ACTIVE_TASKS_KEY + ":" + taskId;
-            redisTemplate.opsForValue().set(activeTaskKey, taskLog, DEFAULT_EXPIRE_HOURS, TimeUnit.HOURS);
+            Long removed = stringRedisTemplate.opsForZSet()
+                    .removeRangeByScore(ACTIVE_TASKS_KEY, Double.NEGATIVE_INFINITY, expiredBefore);
+            if (removed != null && removed > 0) {
+                logger.debug("已移除 {} 个日志Stream已过期的活跃任务", removed);
+            }
         } catch (Exception e) {
-            logger.error("更新活跃任务状态失败: taskId={}", taskId, e);
+            logger.warn("清理过期活跃任务失败: {}", e.getMessage());
         }
     }
 
     /**
-     * 分页获取任务日志
+     * 分页获取任务日志（按时间倒序）
      */
     public Map<String, Object> getTaskLogsPage(int page, int size, String taskId, String level) {
+        return getTaskLogsPage(page, size, taskId, level, null);
+    }
+
+    /**
+     * 分页获取任务日志（按时间倒序）
+     * 指定taskId时只读取该任务的Stream；传入before（上一页返回的nextCursor）时从该位置继续读取，
+     * 不再按页码跳过前面的记录
+     *
+     * @param before 游标（Stream记录ID，不含），为空时按页码定位
+     */
+    public Map<String, Object> getTaskLogsPage(int page, int size, String taskId, String level, String before) {
         try {
-            String timeBasedKey = LOG_KEY_PREFIX + "timeline";
-            
-            // 计算分页参数
-            long start = (long) (page - 1) * size;
-            long end = start + size - 1;
-            
-            // 从有序集合中获取最新的日志键（按时间倒序）
-            Set<Object> logKeys = redisTemplate.opsForZSet().reverseRange(timeBasedKey, start, end);
-            if (logKeys == null || logKeys.isEmpty()) {
-                return createEmptyPageResult(page, size);
+            boolean byTask = taskId != null && !taskId.isEmpty();
+            String streamKey = byTask ? TASK_STREAM_PREFIX + taskId : GLOBAL_STREAM_KEY;
+            boolean filterLevel = level != null && !level.isEmpty();
+
+            long skip = before == null || before.isEmpty() ? (long) (Math.max(page, 1) - 1) * size : 0;
+            List<TaskLog> records = new ArrayList<>(size);
+            String upper = before == null || before.isEmpty() ? null : before;
+            String lastId = null;
+            int scanned = 0;
+
+            while (records.size() < size && scanned < MAX_SCAN) {
+                Range<String> range = upper == null ? Range.unbounded()
+                        : Range.of(Range.Bound.unbounded(), Range.Bound.exclusive(upper));
+                List<MapRecord<String, Object, Object>> batch = stringRedisTemplate.opsForStream()
+                        .reverseRange(streamKey, range, Limit.limit().count(SCAN_BATCH));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                for (MapRecord<String, Object, Object> record : batch) {
+                    scanned++;
+                    upper = record.getId().getValue();
+                    TaskLog log = toTaskLog(record, byTask ? taskId : null);
+                    if (filterLevel && !level.equals(log.getLevel())) {
+                        continue;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+                    records.add(log);
+                    lastId = upper;
+                    if (records.size() >= size) {
+                        break;
+                    }
+                }
+                if (batch.size() < SCAN_BATCH) {
+                    break;
+                }
             }
-            
-            // 批量获取日志详情
-            List<String> logKeysList = logKeys.stream()
-                    .map(Object::toString)
-                    .collect(Collectors.toList());
-            List<Object> logs = redisTemplate.opsForValue().multiGet(logKeysList);
-            
-            // 过滤和转换日志
-            logger.debug("获取到 {} 个日志对象，其中非空的有 {} 个", 
-                    logs.size(), logs.stream().mapToInt(obj -> obj != null ? 1 : 0).sum());
-            
-            List<TaskLog> filteredLogs = logs.stream()
-                    .filter(Objects::nonNull)
-                    .peek(obj -> logger.debug("日志对象类型: {}", obj.getClass().getName()))
-                    .map(obj -> {
-                        try {
-                            if (obj instanceof LinkedHashMap) {
-                                // 手动转换LinkedHashMap到TaskLog
-                                return convertMapToTaskLog((LinkedHashMap<String, Object>) obj);
-                            } else {
-                                return (TaskLog) obj;
-                            }
-                        } catch (Exception e) {
-                            logger.error("日志对象转换失败: {} -> {}", obj.getClass(), e.getMessage());
-                            return null;
-                        }
-                    })
-                    .filter(Objects::nonNull)
-                    .filter(log -> filterLog(log, taskId, level))
-                    .collect(Collectors.toList());
-            
-            // 获取总数（估算）
-            Long total = redisTemplate.opsForZSet().count(timeBasedKey, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
-            
-            return createPageResult(filteredLogs, page, size, total != null ? total.intValue() : 0);
-            
+
+            // 总数取Stream长度（带级别过滤时为上限）
+            Long total = stringRedisTemplate.opsForStream().size(streamKey);
+
+            Map<String, Object> result = createPageResult(records, page, size, total != null ? total.intValue() : 0);
+            result.put("nextCursor", records.size() >= size ? lastId : null);
+            return result;
+
         } catch (Exception e) {
             logger.error("从Redis获取任务日志失败", e);
             return createEmptyPageResult(page, size);
@@ -185,42 +240,27 @@ public class RedisTaskLogService {
     }
 
     /**
-     * 过滤日志条件
-     */
-    private boolean filterLog(TaskLog log, String taskId, String level) {
-        if (taskId != null && !taskId.isEmpty() && !taskId.equals(log.getTaskId())) {
-            return false;
-        }
-        if (level != null && !level.isEmpty() && !level.equals(log.getLevel())) {
-            return false;
-        }
-        return true;
-    }
-
-    /**
-     * 获取活跃任务状态
+     * 获取活跃任务状态（最近1小时有日志的任务及其最新一条日志）
      */
     public Map<String, TaskLog> getActiveTasksStatus() {
         try {
             Map<String, TaskLog> activeTasks = new HashMap<>();
-            
-            // 扫描所有活跃任务键
-            Set<String> keys = redisTemplate.keys(ACTIVE_TASKS_KEY + ":*");
-            if (keys != null && !keys.isEmpty()) {
-                List<Object> values = redisTemplate.opsForValue().multiGet(keys);
-                
-                for (int i = 0; i < keys.size() && i < values.size(); i++) {
-                    Object value = values.get(i);
-                    if (value instanceof TaskLog) {
-                        TaskLog taskLog = (TaskLog) value;
-                        String taskId = taskLog.getTaskId();
-                        activeTasks.put(taskId, taskLog);
-                    }
+            long since = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(DEFAULT_EXPIRE_HOURS);
+
+            Set<String> taskIds = stringRedisTemplate.opsForZSet()
+                    .rangeByScore(ACTIVE_TASKS_KEY, since, Double.POSITIVE_INFINITY);
+            if (taskIds == null || taskIds.isEmpty()) {
+                return activeTasks;
+            }
+
+            for (String taskId : taskIds) {
+                List<TaskLog> latest = getLatestTaskLogs(taskId, 1);
+                if (!latest.isEmpty()) {
+                    activeTasks.put(taskId, latest.get(0));
                 }
             }
-            
             return activeTasks;
-            
+
         } catch (Exception e) {
             logger.error("获取活跃任务状态失败", e);
             return new HashMap<>();
@@ -228,31 +268,22 @@ public class RedisTaskLogService {
     }
 
     /**
-     * 获取指定任务的最新日志
+     * 获取指定任务的最新日志（按时间倒序）
      */
     public List<TaskLog> getLatestTaskLogs(String taskId, int limit) {
         try {
-            String timeBasedKey = LOG_KEY_PREFIX + "timeline";
-            
-            // 获取最新的日志键
-            Set<Object> logKeys = redisTemplate.opsForZSet().reverseRange(timeBasedKey, 0, limit - 1);
-            if (logKeys == null || logKeys.isEmpty()) {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                    .reverseRange(TASK_STREAM_PREFIX + taskId, Range.unbounded(), Limit.limit().count(limit));
+            if (records == null || records.isEmpty()) {
                 return new ArrayList<>();
             }
-            
-            // 批量获取日志详情并过滤
-            List<Object> logKeysList = new ArrayList<>(logKeys);
-            List<Object> logs = redisTemplate.opsForValue().multiGet(logKeysList.stream()
-                    .map(Object::toString)
-                    .collect(Collectors.toList()));
-            
-            return logs.stream()
-                    .filter(Objects::nonNull)
-                    .map(obj -> (TaskLog) obj)
-                    .filter(log -> taskId.equals(log.getTaskId()))
-                    .limit(limit)
-                    .collect(Collectors.toList());
-            
+
+            List<TaskLog> logs = new ArrayList<>(records.size());
+            for (MapRecord<String, Object, Object> record : records) {
+                logs.add(toTaskLog(record, taskId));
+            }
+            return logs;
+
         } catch (Exception e) {
             logger.error("获取任务最新日志失败: taskId={}", taskId, e);
             return new ArrayList<>();
@@ -276,37 +307,46 @@ public class RedisTaskLogService {
     }
 
     /**
-     * 清理过期日志（手动清理，Redis会自动过期）
+     * 清理过期日志
+     * 任务Stream会自动过期、全局Stream按长度裁剪，这里额外删除超过保留期的任务Stream和全局Stream中的旧记录
      */
     public int cleanExpiredLogs(int daysToKeep) {
         try {
-            String timeBasedKey = LOG_KEY_PREFIX + "timeline";
-            
-            // 计算过期时间点
             long expiredBefore = System.currentTimeMillis() - (daysToKeep * 24L * 60 * 60 * 1000);
-            
-            // 获取过期的日志键
-            Set<Object> expiredKeys = redisTemplate.opsForZSet().rangeByScore(timeBasedKey, 
-                    Double.NEGATIVE_INFINITY, expiredBefore);
-            
             int deletedCount = 0;
-            if (expiredKeys != null && !expiredKeys.isEmpty()) {
-                // 删除过期的日志数据
-                List<String> keysToDelete = expiredKeys.stream()
-                    .map(Object::toString)
-                    .collect(Collectors.toList());
-                redisTemplate.delete(keysToDelete);
-                
-                // 从时间线中删除过期的键
-                redisTemplate.opsForZSet().removeRangeByScore(timeBasedKey, 
-                        Double.NEGATIVE_INFINITY, expiredBefore);
-                
-                deletedCount = expiredKeys.size();
+
+            // 删除保留期内没有新日志的任务Stream
+            Set<String> expiredTasks = stringRedisTemplate.opsForZSet()
+                    .rangeByScore(ACTIVE_TASKS_KEY, Double.NEGATIVE_INFINITY, expiredBefore);
+            if (expiredTasks != null && !expiredTasks.isEmpty()) {
+                for (String taskId : expiredTasks) {
+                    Long size = stringRedisTemplate.opsForStream().size(TASK_STREAM_PREFIX + taskId);
+                    deletedCount += size != null ? size.intValue() : 0;
+                    stringRedisTemplate.delete(TASK_STREAM_PREFIX + taskId);
+                    taskSequenceCounters.remove(taskId);
+                }
+                stringRedisTemplate.opsForZSet().removeRangeByScore(ACTIVE_TASKS_KEY, Double.NEGATIVE_INFINITY, expiredBefore);
             }
-            
+
+            // 删除全局Stream中早于保留期的记录（记录ID前缀即写入时间）
+            Range<String> expiredRange = Range.of(Range.Bound.unbounded(), Range.Bound.exclusive(expiredBefore + "-0"));
+            while (true) {
+                List<MapRecord<String, Object, Object>> batch = stringRedisTemplate.opsForStream()
+                        .range(GLOBAL_STREAM_KEY, expiredRange, Limit.limit().count(SCAN_BATCH));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                RecordId[] ids = batch.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+                Long removed = stringRedisTemplate.opsForStream().delete(GLOBAL_STREAM_KEY, ids);
+                deletedCount += removed != null ? removed.intValue() : 0;
+                if (batch.size() < SCAN_BATCH) {
+                    break;
+                }
+            }
+
             logger.info("清理过期日志完成，删除了 {} 条记录", deletedCount);
             return deletedCount;
-            
+
         } catch (Exception e) {
             logger.error("清理过期日志失败", e);
             return 0;
@@ -343,7 +383,7 @@ public class RedisTaskLogService {
      * 记录任务开始日志
      */
     public void logTaskStart(String taskId, String taskType, Map<String, Object> details) {
-        logTaskWithDetails(taskId, null, taskType, "INFO", "INIT", 
+        logTaskWithDetails(taskId, null, taskType, "INFO", "INIT",
             "任务开始执行 - 类型: " + taskType, 0, details, null);
     }
 
@@ -353,7 +393,7 @@ public class RedisTaskLogService {
     public void logTaskCompleted(String taskId, Object result) {
         Map<String, Object> resultData = new HashMap<>();
         resultData.put("result", result);
-        logTaskWithDetails(taskId, null, null, "SUCCESS", "COMPLETED", 
+        logTaskWithDetails(taskId, null, null, "SUCCESS", "COMPLETED",
             "任务执行完成", 100, resultData, null);
     }
 
@@ -363,64 +403,52 @@ public class RedisTaskLogService {
     public void logTaskFailed(String taskId, String errorMessage) {
         Map<String, Object> errorData = new HashMap<>();
         errorData.put("error", errorMessage);
-        logTaskWithDetails(taskId, null, null, "ERROR", "FAILED", 
+        logTaskWithDetails(taskId, null, null, "ERROR", "FAILED",
             "任务执行失败: " + errorMessage, null, errorData, "TASK_FAILED");
     }
 
+    private static void putIfNotNull(Map<String, String> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value.toString());
+        }
+    }
+
     /**
-     * 将LinkedHashMap转换为TaskLog对象
+     * 将Stream记录转换为TaskLog
+     * ID由记录ID（毫秒时间戳-序号）换算，创建时间取自记录ID中的时间戳
      */
-    @SuppressWarnings("unchecked")
-    private TaskLog convertMapToTaskLog(LinkedHashMap<String, Object> map) {
-        try {
-            TaskLog taskLog = new TaskLog();
-            
-            // 基础字段
-            if (map.get("id") != null) {
-                taskLog.setId(((Number) map.get("id")).longValue());
-            }
-            taskLog.setTaskId((String) map.get("taskId"));
-            taskLog.setParentTaskId((String) map.get("parentTaskId"));
-            taskLog.setTaskType((String) map.get("taskType"));
-            taskLog.setLevel((String) map.get("level"));
-            taskLog.setStep((String) map.get("step"));
-            taskLog.setMessage((String) map.get("message"));
-            
-            if (map.get("progress") != null) {
-                taskLog.setProgress(((Number) map.get("progress")).intValue());
-            }
-            if (map.get("sequenceOrder") != null) {
-                taskLog.setSequenceOrder(((Number) map.get("sequenceOrder")).intValue());
-            }
-            
-            taskLog.setExtraData((String) map.get("extraData"));
-            taskLog.setMetadata((String) map.get("metadata"));
-            taskLog.setErrorCode((String) map.get("errorCode"));
-            
-            // 处理createTime - Redis中可能存储为数组格式
-            Object createTimeObj = map.get("createTime");
-            if (createTimeObj instanceof List) {
-                List<Integer> timeArray = (List<Integer>) createTimeObj;
-                if (timeArray.size() >= 6) {
-                    LocalDateTime createTime = LocalDateTime.of(
-                        timeArray.get(0), // year
-                        timeArray.get(1), // month
-                        timeArray.get(2), // day
-                        timeArray.get(3), // hour
-                        timeArray.get(4), // minute
-                        timeArray.get(5), // second
-                        timeArray.size() > 6 ? timeArray.get(6) : 0 // nano
-                    );
-                    taskLog.setCreateTime(createTime);
-                }
-            } else if (createTimeObj instanceof String) {
-                taskLog.setCreateTime(LocalDateTime.parse((String) createTimeObj));
-            }
-            
-            return taskLog;
-        } catch (Exception e) {
-            logger.error("转换LinkedHashMap到TaskLog失败", e);
-            return null;
+    private TaskLog toTaskLog(MapRecord<String, Object, Object> record, String taskId) {
+        Map<Object, Object> fields = record.getValue();
+        RecordId recordId = record.getId();
+        long timestamp = recordId.getTimestamp();
+
+        TaskLog taskLog = new TaskLog();
+        taskLog.setId(timestamp * 1000 + recordId.getSequence());
+        taskLog.setTaskId(taskId != null ? taskId : (String) fields.get(F_TASK_ID));
+        taskLog.setParentTaskId((String) fields.get(F_PARENT));
+        taskLog.setTaskType((String) fields.getOrDefault(F_TYPE, "UNKNOWN"));
+        taskLog.setLevel((String) fields.get(F_LEVEL));
+        taskLog.setStep((String) fields.get(F_STEP));
+        taskLog.setMessage((String) fields.get(F_MESSAGE));
+        taskLog.setMetadata((String) fields.get(F_METADATA));
+        taskLog.setErrorCode((String) fields.get(F_ERROR_CODE));
+        Object progress = fields.get(F_PROGRESS);
+        if (progress != null) {
+            taskLog.setProgress(Integer.valueOf(progress.toString()));
+        }
+        Object sequence = fields.get(F_SEQUENCE);
+        if (sequence != null) {
+            taskLog.setSequenceOrder(Integer.valueOf(sequence.toString()));
         }
+        taskLog.setCreateTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()));
+        return taskLog;
+    }
+
+    /**
+     * 单个任务的序列号及本进程最后写入时间
+     */
+    private static class TaskSequence {
+        private final AtomicInteger counter = new AtomicInteger(0);
+        private volatile long lastWriteMillis;
     }
-}
\ No newline at end of file
+}
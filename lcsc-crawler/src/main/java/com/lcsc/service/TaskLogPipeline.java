@@ -0,0 +1,514 @@
+package com.lcsc.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.controller.CrawlerWebSocketController.CrawlerMessage;
+import com.lcsc.entity.TaskLog;
+import com.lcsc.mapper.TaskLogMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 任务日志异步写入管道
+ * 记录日志的线程只把日志放入无锁环形缓冲区后立即返回，不等待任何数据库或WebSocket I/O；
+ * 单个后台线程批量取出日志，序列化元数据、多行INSERT入库，再按主题限速推送WebSocket：
+ * 日志行主题超出每秒上限的部分不再实时推送（已入库，可分页查询），
+ * 进度/状态/流程主题只保留最新一条，在下一个时间窗口补发。
+ * 缓冲区水位超过 3/4 时对 INFO 日志抽样，写满时丢弃，均有计数。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+public class TaskLogPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskLogPipeline.class);
+
+    /**
+     * 限速窗口长度
+     */
+    private static final long WINDOW_MS = 1000;
+
+    /**
+     * 主题状态闲置多久后清理
+     */
+    private static final long TOPIC_IDLE_MS = 60_000;
+
+    @Autowired
+    private TaskLogMapper taskLogMapper;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 环形缓冲区容量（向上取整为2的幂）
+     */
+    @Value("${crawler.task-log.buffer-size:8192}")
+    private int bufferSize;
+
+    /**
+     * 每次多行INSERT的最大条数
+     */
+    @Value("${crawler.task-log.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 缓冲区为空时后台线程的等待间隔
+     */
+    @Value("${crawler.task-log.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    /**
+     * 每个主题每秒最多推送的消息数
+     */
+    @Value("${crawler.task-log.max-pushes-per-second:10}")
+    private int maxPushesPerSecond;
+
+    /**
+     * 高水位时INFO日志的抽样比例（每N条保留1条，0或1表示不抽样）
+     */
+    @Value("${crawler.task-log.sample-rate:10}")
+    private int sampleRate;
+
+    private LogRingBuffer<PendingLog> buffer;
+    private Thread drainer;
+    private volatile boolean running;
+
+    // 以下状态只由后台线程访问
+    private final Map<String, TopicState> topics = new HashMap<>();
+    private final Set<String> dirtyFlows = new LinkedHashSet<>();
+    private long lastTopicPrune;
+
+    // 统计计数
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong persistFailures = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong pushesSent = new AtomicLong();
+    private final AtomicLong pushesSuppressed = new AtomicLong();
+    private final AtomicLong pushesCoalesced = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        buffer = new LogRingBuffer<>(bufferSize);
+        running = true;
+        drainer = new Thread(this::drainLoop, "TaskLogDrainer");
+        drainer.setDaemon(true);
+        drainer.start();
+        logger.info("任务日志异步管道已启动: bufferSize={}, batchSize={}, maxPushesPerSecond={}",
+                buffer.capacity(), batchSize, maxPushesPerSecond);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 提交一条日志（不阻塞）
+     *
+     * @param taskLog   日志记录
+     * @param metadata  元数据对象（在后台线程序列化到metadata列，可为null）
+     * @param extraData 额外数据对象（在后台线程序列化到extra_data列，可为null）
+     * @return 是否已接收（被抽样或丢弃时返回false）
+     */
+    public boolean submit(TaskLog taskLog, Object metadata, Object extraData) {
+        if (taskLog.getCreateTime() == null) {
+            taskLog.setCreateTime(LocalDateTime.now());
+        }
+        submitted.incrementAndGet();
+
+        // 高水位时只抽样保留普通INFO日志，错误/成功等关键日志不抽样
+        if (TaskLog.LogLevel.INFO.getCode().equals(taskLog.getLevel())
+                && sampleRate > 1
+                && buffer.size() > buffer.capacity() * 3 / 4
+                && sampleCounter.incrementAndGet() % sampleRate != 0) {
+            sampledOut.incrementAndGet();
+            return false;
+        }
+        if (!buffer.offer(new PendingLog(taskLog, metadata, extraData))) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 当前缓冲区中待写入的日志数
+     */
+    public int getBufferSize() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /**
+     * 管道运行统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bufferCapacity", buffer.capacity());
+        stats.put("bufferSize", buffer.size());
+        stats.put("submitted", submitted.get());
+        stats.put("sampledOut", sampledOut.get());
+        stats.put("dropped", dropped.get());
+        stats.put("persisted", persisted.get());
+        stats.put("persistFailures", persistFailures.get());
+        stats.put("batches", batches.get());
+        stats.put("pushesSent", pushesSent.get());
+        stats.put("pushesSuppressed", pushesSuppressed.get());
+        stats.put("pushesCoalesced", pushesCoalesced.get());
+        return stats;
+    }
+
+    // ==================== 后台线程 ====================
+
+    private void drainLoop() {
+        List<TaskLog> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            try {
+                batch.clear();
+                PendingLog pending;
+                while (batch.size() < batchSize && (pending = buffer.poll()) != null) {
+                    batch.add(pending.toTaskLog(objectMapper));
+                }
+
+                if (!batch.isEmpty()) {
+                    persist(batch);
+                    for (TaskLog taskLog : batch) {
+                        push(taskLog);
+                    }
+                }
+                flushPending();
+
+                if (batch.size() < batchSize && running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                }
+            } catch (Exception e) {
+                logger.error("任务日志管道处理异常", e);
+            }
+        }
+        logger.info("任务日志异步管道已停止: {}", getStats());
+    }
+
+    private void persist(List<TaskLog> batch) {
+        try {
+            taskLogMapper.insertBatch(batch);
+            persisted.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (Exception e) {
+            persistFailures.addAndGet(batch.size());
+            logger.error("批量写入任务日志失败: {} 条, {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 按原有主题推送一条日志
+     */
+    private void push(TaskLog taskLog) {
+        String taskId = taskLog.getTaskId();
+        String executionStatus = determineExecutionStatus(taskLog);
+        Map<String, Object> logData = toLogData(taskLog, executionStatus);
+        LocalDateTime now = LocalDateTime.now();
+
+        // 进度、状态：只保留最新一条
+        if (taskLog.getProgress() != null) {
+            send("/topic/crawler/task/" + taskId + "/progress", CrawlerMessage.builder()
+                    .type("progress").taskId(taskId).progress(taskLog.getProgress())
+                    .currentStep(taskLog.getStep())
+                    .message(String.format("进度更新: %d%% - %s", taskLog.getProgress(), taskLog.getStep()))
+                    .timestamp(now).data(logData).build(), true);
+        }
+        CrawlerMessage status = CrawlerMessage.builder()
+                .type("task_status").taskId(taskId).status(executionStatus).message(taskLog.getMessage())
+                .timestamp(now).data(logData).build();
+        send("/topic/crawler/task/" + taskId, status, true);
+        send("/topic/crawler/status", status, true);
+
+        // 错误：与日志行同样限速
+        if (TaskLog.LogLevel.ERROR.getCode().equals(taskLog.getLevel())) {
+            CrawlerMessage error = CrawlerMessage.builder()
+                    .type("error").taskId(taskId).errorCode(taskLog.getErrorCode()).message(taskLog.getMessage())
+                    .timestamp(now).data(logData).build();
+            send("/topic/crawler/task/" + taskId + "/errors", error, false);
+            send("/topic/crawler/errors", error, false);
+        }
+
+        // 日志行（前端按 TaskLogMessage 解析原始日志数据）：超出速率上限的不再实时推送
+        send("/topic/crawler/task-logs", logData, false);
+        send("/topic/crawler/task/" + taskId + "/logs", logData, false);
+
+        // 步骤完成或失败时刷新任务流程，同一任务在一个周期内只查询一次
+        if (TaskLog.LogLevel.SUCCESS.getCode().equals(taskLog.getLevel())
+                || TaskLog.LogLevel.ERROR.getCode().equals(taskLog.getLevel())) {
+            dirtyFlows.add(taskId);
+        }
+    }
+
+    /**
+     * 限速发送：窗口内未超限直接发送；超限时状态类消息暂存最新一条，日志类消息计入抑制数
+     */
+    private void send(String topic, Object payload, boolean latestWins) {
+        TopicState state = topics.computeIfAbsent(topic, t -> new TopicState());
+        long now = System.currentTimeMillis();
+        state.lastActive = now;
+        if (state.tryAcquire(now, maxPushesPerSecond)) {
+            if (state.pending != null) {
+                pushesCoalesced.incrementAndGet();
+                state.pending = null;
+            }
+            doSend(topic, payload);
+        } else if (latestWins) {
+            if (state.pending != null) {
+                pushesCoalesced.incrementAndGet();
+            }
+            state.pending = payload;
+        } else {
+            pushesSuppressed.incrementAndGet();
+        }
+    }
+
+    /**
+     * 补发暂存的最新状态，并刷新有变化的任务流程
+     */
+    private void flushPending() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, TopicState> entry : topics.entrySet()) {
+            TopicState state = entry.getValue();
+            if (state.pending != null && state.tryAcquire(now, maxPushesPerSecond)) {
+                doSend(entry.getKey(), state.pending);
+                state.pending = null;
+            }
+        }
+
+        if (!dirtyFlows.isEmpty()) {
+            Iterator<String> iterator = dirtyFlows.iterator();
+            while (iterator.hasNext()) {
+                String taskId = iterator.next();
+                TopicState flowState = topics.computeIfAbsent("/topic/crawler/task/" + taskId + "/flow",
+                        t -> new TopicState());
+                flowState.lastActive = now;
+                if (now - flowState.lastFlowQuery < WINDOW_MS) {
+                    continue;
+                }
+                flowState.lastFlowQuery = now;
+                iterator.remove();
+                pushTaskFlowUpdate(taskId);
+            }
+        }
+
+        if (now - lastTopicPrune > TOPIC_IDLE_MS) {
+            topics.values().removeIf(state -> state.pending == null && now - state.lastActive > TOPIC_IDLE_MS);
+            lastTopicPrune = now;
+        }
+    }
+
+    private void pushTaskFlowUpdate(String taskId) {
+        try {
+            List<TaskLog> taskFlow = taskLogMapper.selectTaskFlow(taskId);
+            Map<String, Object> flowData = new HashMap<>();
+            flowData.put("taskId", taskId);
+            flowData.put("flow", taskFlow);
+            flowData.put("timestamp", System.currentTimeMillis());
+
+            doSend("/topic/crawler/task/" + taskId + "/flow", flowData);
+            send("/topic/crawler/task-flow", flowData, true);
+        } catch (Exception e) {
+            logger.error("推送任务流程更新失败: taskId={}", taskId, e);
+        }
+    }
+
+    private void doSend(String topic, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(topic, payload);
+            pushesSent.incrementAndGet();
+        } catch (Exception e) {
+            logger.debug("推送任务日志失败: topic={}, {}", topic, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toLogData(TaskLog taskLog, String executionStatus) {
+        Map<String, Object> logData = new HashMap<>();
+        logData.put("id", taskLog.getId());
+        logData.put("taskId", taskLog.getTaskId());
+        logData.put("parentTaskId", taskLog.getParentTaskId());
+        logData.put("taskType", taskLog.getTaskType());
+        logData.put("level", taskLog.getLevel());
+        logData.put("step", taskLog.getStep());
+        logData.put("message", taskLog.getMessage());
+        logData.put("progress", taskLog.getProgress());
+        logData.put("durationMs", taskLog.getDurationMs());
+        logData.put("startTime", taskLog.getStartTime());
+        logData.put("endTime", taskLog.getEndTime());
+        logData.put("metadata", taskLog.getMetadata());
+        logData.put("errorCode", taskLog.getErrorCode());
+        logData.put("retryCount", taskLog.getRetryCount());
+        logData.put("sequenceOrder", taskLog.getSequenceOrder());
+        logData.put("createTime", taskLog.getCreateTime());
+        logData.put("executionStatus", executionStatus);
+        return logData;
+    }
+
+    /**
+     * 确定执行状态
+     */
+    private String determineExecutionStatus(TaskLog taskLog) {
+        if ("ERROR".equals(taskLog.getLevel())) {
+            return "FAILED";
+        } else if ("SUCCESS".equals(taskLog.getLevel()) && "COMPLETED".equals(taskLog.getStep())) {
+            return "COMPLETED";
+        } else if (taskLog.getEndTime() == null) {
+            return "RUNNING";
+        } else {
+            return "IN_PROGRESS";
+        }
+    }
+
+    // ==================== 内部类型 ====================
+
+    /**
+     * 待写入的日志及其未序列化的附加数据
+     */
+    private static class PendingLog {
+        private final TaskLog taskLog;
+        private final Object metadata;
+        private final Object extraData;
+
+        PendingLog(TaskLog taskLog, Object metadata, Object extraData) {
+            this.taskLog = taskLog;
+            this.metadata = metadata;
+            this.extraData = extraData;
+        }
+
+        TaskLog toTaskLog(ObjectMapper objectMapper) {
+            try {
+                if (metadata != null) {
+                    taskLog.setMetadata(objectMapper.writeValueAsString(metadata));
+                }
+                if (extraData != null) {
+                    taskLog.setExtraData(objectMapper.writeValueAsString(extraData));
+                }
+            } catch (Exception e) {
+                logger.warn("序列化任务日志附加数据失败: taskId={}, {}", taskLog.getTaskId(), e.getMessage());
+            }
+            return taskLog;
+        }
+    }
+
+    /**
+     * 单个推送主题的限速状态
+     */
+    private static class TopicState {
+        private long windowStart;
+        private int sentInWindow;
+        private Object pending;
+        private long lastActive;
+        private long lastFlowQuery;
+
+        boolean tryAcquire(long now, int limit) {
+            if (now - windowStart >= WINDOW_MS) {
+                windowStart = now;
+                sentInWindow = 0;
+            }
+            if (sentInWindow < limit) {
+                sentInWindow++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 有界无锁环形缓冲区（多生产者、单消费者）
+     * 每个槽位带序号：生产者CAS推进写位置后写入元素并发布序号，消费者按序号判断槽位是否可读
+     */
+    static final class LogRingBuffer<E> {
+        private final int capacity;
+        private final int mask;
+        private final AtomicReferenceArray<E> slots;
+        private final AtomicLongArray sequences;
+        private final AtomicLong enqueuePosition = new AtomicLong();
+        private volatile long dequeuePosition;
+
+        LogRingBuffer(int requestedCapacity) {
+            int size = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+            this.capacity = size;
+            this.mask = size - 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        /**
+         * 写入元素，缓冲区已满时立即返回false
+         */
+        boolean offer(E element) {
+            long position = enqueuePosition.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long diff = sequences.get(index) - position;
+                if (diff == 0) {
+                    if (enqueuePosition.compareAndSet(position, position + 1)) {
+                        slots.set(index, element);
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                    position = enqueuePosition.get();
+                } else if (diff < 0) {
+                    return false;
+                } else {
+                    position = enqueuePosition.get();
+                }
+            }
+        }
+
+        /**
+         * 取出元素（仅限单个消费者线程调用），为空时返回null
+         */
+        E poll() {
+            long position = dequeuePosition;
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                return null;
+            }
+            E element = slots.get(index);
+            slots.set(index, null);
+            sequences.set(index, position + capacity);
+            dequeuePosition = position + 1;
+            return element;
+        }
+
+        int size() {
+            return (int) Math.max(0, enqueuePosition.get() - dequeuePosition);
+        }
+
+        int capacity() {
+            return capacity;
+        }
+    }
+}
@@ -6,13 +6,9 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.lcsc.entity.TaskLog;
 import com.lcsc.mapper.TaskLogMapper;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import com.lcsc.controller.CrawlerWebSocketController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +21,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 任务日志服务类
  * 提供任务日志记录、查询和实时推送功能
  * 支持层级任务、性能监控和可视化功能
+ * 日志写入与WebSocket推送由 {@link TaskLogPipeline} 异步批量完成，记录日志的线程不等待I/O
  * 
  * @author lcsc-crawler
  * @since 2024-01-01
@@ -35,13 +32,7 @@ public class TaskLogService extends ServiceImpl<TaskLogMapper, TaskLog> {
     private static final Logger logger = LoggerFactory.getLogger(TaskLogService.class);
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-
-    @Autowired
-    private CrawlerWebSocketController webSocketController;
-
-    @Autowired
-    private ObjectMapper objectMapper;
+    private TaskLogPipeline taskLogPipeline;
 
     // 任务序列号管理
     private final Map<String, AtomicInteger> taskSequenceCounters = new ConcurrentHashMap<>();
@@ -74,17 +65,8 @@ public class TaskLogService extends ServiceImpl<TaskLogMapper, TaskLog> {
                 taskLog.setErrorCode(errorCode);
             }
             
-            // 设置元数据
-            if (metadata != null) {
-                String metadataJson = objectMapper.writeValueAsString(metadata);
-                taskLog.setMetadata(metadataJson);
-            }
-            
-            // 保存到数据库
-            this.save(taskLog);
-            
-            // 实时推送给前端
-            pushLogToClient(taskLog);
+            // 异步入库并推送给前端（元数据在后台线程序列化）
+            taskLogPipeline.submit(taskLog, metadata, null);
             
             logger.debug("任务日志已记录: taskId={}, step={}, sequence={}, message={}", 
                         taskId, step, sequenceOrder, message);
@@ -114,8 +96,7 @@ public class TaskLogService extends ServiceImpl<TaskLogMapper, TaskLog> {
             // 记录步骤开始时间
             recordStepStartTime(taskId, step);
             
-            this.save(taskLog);
-            pushLogToClient(taskLog);
+            taskLogPipeline.submit(taskLog, null, null);
             
             logger.debug("开始任务步骤: taskId={}, step={}, sequence={}", taskId, step, sequenceOrder);
             return taskLog;
@@ -144,12 +125,7 @@ public class TaskLogService extends ServiceImpl<TaskLogMapper, TaskLog> {
             taskLog.setEndTime(endTime);
             taskLog.setSequenceOrder(sequenceOrder);
             
-            if (result != null) {
-                taskLog.setMetadata(objectMapper.writeValueAsString(result));
-            }
-            
-            this.save(taskLog);
-            pushLogToClient(taskLog);
+            taskLogPipeline.submit(taskLog, result, null);
             
             logger.debug("完成任务步骤: taskId={}, step={}, duration={}ms", 
                         taskId, step, taskLog.getDurationMs());
@@ -179,16 +155,15 @@ public class TaskLogService extends ServiceImpl<TaskLogMapper, TaskLog> {
             taskLog.setSequenceOrder(sequenceOrder);
             
             // 添加异常详情到元数据
+            Map<String, Object> errorDetails = null;
             if (exception != null) {
-                Map<String, Object> errorDetails = new HashMap<>();
+                String stackTrace = Arrays.toString(exception.getStackTrace());
+                errorDetails = new HashMap<>();
                 errorDetails.put("exceptionType", exception.getClass().getSimpleName());
-                errorDetails.put("stackTrace", Arrays.toString(exception.getStackTrace()).substring(0, 
-                    Math.min(1000, Arrays.toString(exception.getStackTrace()).length()))); // 限制长度
-                taskLog.setMetadata(objectMapper.writeValueAsString(errorDetails));
+                errorDetails.put("stackTrace", stackTrace.substring(0, Math.min(1000, stackTrace.length()))); // 限制长度
             }
             
-            this.save(taskLog);
-            pushLogToClient(taskLog);
+            taskLogPipeline.submit(taskLog, errorDetails, null);
             
             logger.error("任务步骤失败: taskId={}, step={}, error={}, duration={}ms", 
                         taskId, step, errorCode, taskLog.getDurationMs());
@@ -212,127 +187,16 @@ public class TaskLogService extends ServiceImpl<TaskLogMapper, TaskLog> {
         try {
             TaskLog taskLog = new TaskLog(taskId, level, step, message, progress);
             
-            // 序列化额外数据
-            if (extraData != null) {
-                String extraDataJson = objectMapper.writeValueAsString(extraData);
-                taskLog.setExtraData(extraDataJson);
-            }
-            
-            this.save(taskLog);
-            pushLogToClient(taskLog);
+            // 额外数据在后台线程序列化
+            taskLogPipeline.submit(taskLog, null, extraData);
             
             logger.debug("任务日志已记录(含额外数据): taskId={}, level={}, message={}", taskId, level, message);
             
-        } catch (JsonProcessingException e) {
-            logger.error("序列化额外数据失败: taskId={}, message={}", taskId, message, e);
         } catch (Exception e) {
             logger.error("记录任务日志失败: taskId={}, message={}", taskId, message, e);
         }
     }
 
-    /**
-     * 推送日志到WebSocket客户端
-     */
-    private void pushLogToClient(TaskLog taskLog) {
-        try {
-            // 创建推送数据
-            Map<String, Object> logData = new HashMap<>();
-            logData.put("id", taskLog.getId());
-            logData.put("taskId", taskLog.getTaskId());
-            logData.put("parentTaskId", taskLog.getParentTaskId());
-            logData.put("taskType", taskLog.getTaskType());
-            logData.put("level", taskLog.getLevel());
-            logData.put("step", taskLog.getStep());
-            logData.put("message", taskLog.getMessage());
-            logData.put("progress", taskLog.getProgress());
-            logData.put("durationMs", taskLog.getDurationMs());
-            logData.put("startTime", taskLog.getStartTime());
-            logData.put("endTime", taskLog.getEndTime());
-            logData.put("metadata", taskLog.getMetadata());
-            logData.put("errorCode", taskLog.getErrorCode());
-            logData.put("retryCount", taskLog.getRetryCount());
-            logData.put("sequenceOrder", taskLog.getSequenceOrder());
-            logData.put("createTime", taskLog.getCreateTime());
-            
-            // 添加执行状态
-            String executionStatus = determineExecutionStatus(taskLog);
-            logData.put("executionStatus", executionStatus);
-
-            // 使用WebSocket控制器进行推送
-            if (webSocketController != null) {
-                // 推送实时日志
-                webSocketController.broadcastLog(taskLog.getTaskId(), taskLog.getLevel(), 
-                    taskLog.getMessage(), logData);
-                
-                // 推送进度更新
-                if (taskLog.getProgress() != null) {
-                    webSocketController.broadcastProgress(taskLog.getTaskId(), taskLog.getProgress(), 
-                        taskLog.getStep(), logData);
-                }
-                
-                // 推送任务状态更新
-                webSocketController.broadcastTaskStatus(taskLog.getTaskId(), executionStatus, 
-                    taskLog.getMessage(), logData);
-                
-                // 如果是错误日志，单独推送错误信息
-                if ("ERROR".equals(taskLog.getLevel())) {
-                    webSocketController.broadcastError(taskLog.getTaskId(), taskLog.getErrorCode(), 
-                        taskLog.getMessage(), logData);
-                }
-            }
-            
-            // 直接推送到消息代理（备用方案）
-            messagingTemplate.convertAndSend("/topic/crawler/task-logs", logData);
-            messagingTemplate.convertAndSend("/topic/crawler/task/" + taskLog.getTaskId() + "/logs", logData);
-            
-            // 如果是步骤完成或失败，推送任务流程更新
-            if ("SUCCESS".equals(taskLog.getLevel()) || "ERROR".equals(taskLog.getLevel())) {
-                pushTaskFlowUpdate(taskLog.getTaskId());
-            }
-            
-            logger.debug("TaskLog推送到WebSocket: taskId={}, step={}, sequence={}, status={}", 
-                taskLog.getTaskId(), taskLog.getStep(), taskLog.getSequenceOrder(), executionStatus);
-            
-        } catch (Exception e) {
-            logger.error("推送任务日志失败: taskId={}", taskLog.getTaskId(), e);
-        }
-    }
-
-    /**
-     * 推送任务流程更新
-     */
-    private void pushTaskFlowUpdate(String taskId) {
-        try {
-            List<TaskLog> taskFlow = baseMapper.selectTaskFlow(taskId);
-            Map<String, Object> flowData = new HashMap<>();
-            flowData.put("taskId", taskId);
-            flowData.put("flow", taskFlow);
-            flowData.put("timestamp", System.currentTimeMillis());
-            
-            // 推送任务流程更新
-            messagingTemplate.convertAndSend("/topic/crawler/task/" + taskId + "/flow", flowData);
-            messagingTemplate.convertAndSend("/topic/crawler/task-flow", flowData);
-            
-        } catch (Exception e) {
-            logger.error("推送任务流程更新失败: taskId={}", taskId, e);
-        }
-    }
-
-    /**
-     * 确定执行状态
-     */
-    private String determineExecutionStatus(TaskLog taskLog) {
-        if ("ERROR".equals(taskLog.getLevel())) {
-            return "FAILED";
-        } else if ("SUCCESS".equals(taskLog.getLevel()) && "COMPLETED".equals(taskLog.getStep())) {
-            return "COMPLETED";
-        } else if (taskLog.getEndTime() == null) {
-            return "RUNNING";
-        } else {
-            return "IN_PROGRESS";
-        }
-    }
-
     /**
      * 获取下一个序列号
      */
@@ -552,6 +416,13 @@ public class TaskLogService extends ServiceImpl<TaskLogMapper, TaskLog> {
         return baseMapper.selectTaskTrends();
     }
 
+    /**
+     * 获取异步日志管道统计（缓冲区水位、抽样/丢弃数、推送抑制数等）
+     */
+    public Map<String, Object> getPipelineStats() {
+        return taskLogPipeline.getStats();
+    }
+
     /**
      * 创建任务执行上下文
      */
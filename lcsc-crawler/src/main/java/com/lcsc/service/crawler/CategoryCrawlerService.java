@@ -416,6 +416,19 @@ public class CategoryCrawlerService {
         public String getLevel2Name() { return level2Name; }
         public void setLevel2Name(String level2Name) { this.level2Name = level2Name; }
         
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CategoryPair)) return false;
+            CategoryPair that = (CategoryPair) o;
+            return Objects.equals(level1Name, that.level1Name) && Objects.equals(level2Name, that.level2Name);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(level1Name, level2Name);
+        }
+        
         @Override
         public String toString() {
             return String.format("CategoryPair{L1:'%s', L2:'%s'}", level1Name, level2Name);
@@ -437,6 +450,8 @@ public class CategoryCrawlerService {
         private final AtomicInteger skipped = new AtomicInteger(0);
         private long startTime = System.currentTimeMillis();
         private long endTime;
+        private long scannedProducts = 0;
+        private Map<String, Long> pairCounts;
         
         public void incrementCreatedLevel1() { createdLevel1.incrementAndGet(); }
         public void incrementCreatedLevel2() { createdLevel2.incrementAndGet(); }
@@ -466,6 +481,12 @@ public class CategoryCrawlerService {
         public int getFailed() { return failed.get(); }
         public int getSkipped() { return skipped.get(); }
         
+        public long getScannedProducts() { return scannedProducts; }
+        public void setScannedProducts(long scannedProducts) { this.scannedProducts = scannedProducts; }
+        
+        public Map<String, Long> getPairCounts() { return pairCounts; }
+        public void setPairCounts(Map<String, Long> pairCounts) { this.pairCounts = pairCounts; }
+        
         public long getDurationMs() { 
             return endTime > 0 ? endTime - startTime : System.currentTimeMillis() - startTime;
         }
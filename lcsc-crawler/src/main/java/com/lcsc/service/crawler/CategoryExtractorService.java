@@ -1,8 +1,10 @@
 package com.lcsc.service.crawler;
 
 import com.lcsc.entity.Product;
+import com.lcsc.mapper.ProductMapper;
 import com.lcsc.service.ProductService;
 import com.lcsc.service.crawler.CategoryCrawlerService.CategoryPair;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,13 +12,20 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 分类提取服务
- * 从现有产品数据中提取分类信息，用于补丁式处理
+ * 从现有产品数据中提取分类信息，用于补丁式处理。
+ * 全量提取按主键游标分页读取产品（只取所需列），各批次并行提取，
+ * 描述关键字用预编译的 Aho–Corasick 自动机一次扫描匹配，结果按分类组合聚合计数。
  * 
  * @author lcsc-crawler
  * @since 2025-09-09
@@ -29,6 +38,30 @@ public class CategoryExtractorService {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductMapper productMapper;
+    
+    /**
+     * 全量提取时每批读取的产品数
+     */
+    private static final int EXTRACT_BATCH_SIZE = 2000;
+    
+    /**
+     * 并行提取线程数
+     */
+    private static final int EXTRACT_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+    
+    private final ExecutorService extractExecutor = Executors.newFixedThreadPool(EXTRACT_PARALLELISM, new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "category-extract-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
     // 常见的电子元器件分类模式
     private static final Map<String, List<String>> CATEGORY_PATTERNS = new HashMap<>();
     
@@ -46,6 +79,25 @@ public class CategoryExtractorService {
         CATEGORY_PATTERNS.put("传感器", Arrays.asList("sensor", "传感器", "温度传感器", "压力传感器", "光敏传感器"));
     }
     
+    /**
+     * 一级分类按 CATEGORY_PATTERNS 的遍历顺序排列，多个分类同时命中时取靠前的（与逐个分类匹配的结果一致）
+     */
+    private static final List<String> CATEGORY_ORDER = new ArrayList<>(CATEGORY_PATTERNS.keySet());
+    
+    /**
+     * 全部关键字构建的多模式匹配器，输出为命中的一级分类序号
+     */
+    private static final KeywordMatcher CATEGORY_MATCHER = new KeywordMatcher();
+    
+    static {
+        for (int i = 0; i < CATEGORY_ORDER.size(); i++) {
+            for (String keyword : CATEGORY_PATTERNS.get(CATEGORY_ORDER.get(i))) {
+                CATEGORY_MATCHER.add(keyword.toLowerCase(), i);
+            }
+        }
+        CATEGORY_MATCHER.build();
+    }
+    
     /**
      * 从产品数据中提取分类信息
      * 
@@ -68,20 +120,7 @@ public class CategoryExtractorService {
                 logger.info("获取到 {} 个产品数据", products.size());
                 
                 // 提取分类信息
-                Set<CategoryPair> categoryPairs = new HashSet<>();
-                
-                for (Product product : products) {
-                    try {
-                        CategoryPair pair = extractCategoryFromProduct(product);
-                        if (pair != null && pair.getLevel1Name() != null && pair.getLevel2Name() != null) {
-                            categoryPairs.add(pair);
-                        }
-                    } catch (Exception e) {
-                        logger.debug("从产品 {} 提取分类失败: {}", product.getProductCode(), e.getMessage());
-                    }
-                }
-                
-                List<CategoryPair> result = new ArrayList<>(categoryPairs);
+                List<CategoryPair> result = new ArrayList<>(extractBatch(products).keySet());
                 logger.info("从 {} 个产品中提取出 {} 个唯一分类组合", products.size(), result.size());
                 
                 return result;
@@ -137,26 +176,17 @@ public class CategoryExtractorService {
     
     /**
      * 从产品描述中提取分类
+     * 自动机一次扫描得到所有命中的一级分类，取优先级最高的一个
      */
     private CategoryPair extractFromDescription(String description) {
         String cleanDesc = description.toLowerCase();
-        
-        for (Map.Entry<String, List<String>> entry : CATEGORY_PATTERNS.entrySet()) {
-            String category = entry.getKey();
-            List<String> patterns = entry.getValue();
-            
-            for (String pattern : patterns) {
-                if (cleanDesc.contains(pattern.toLowerCase())) {
-                    // 找到匹配的一级分类，尝试确定二级分类
-                    String subCategory = determineSubCategory(category, cleanDesc);
-                    if (subCategory != null) {
-                        return new CategoryPair(category, subCategory);
-                    }
-                }
-            }
+        int category = CATEGORY_MATCHER.firstMatch(cleanDesc);
+        if (category < 0) {
+            return null;
         }
-        
-        return null;
+        String level1Category = CATEGORY_ORDER.get(category);
+        String subCategory = determineSubCategory(level1Category, cleanDesc);
+        return subCategory != null ? new CategoryPair(level1Category, subCategory) : null;
     }
     
     /**
@@ -264,17 +294,19 @@ public class CategoryExtractorService {
     }
     
     /**
-     * 获取产品批次数据
+     * 获取产品批次数据（按偏移量，单批补丁接口使用）
      */
     private List<Product> getProductBatch(int batchSize, int offset) {
         try {
             logger.info("正在获取产品数据，批次大小: {}, 偏移: {}", batchSize, offset);
             
-            // 使用MyBatis-Plus的分页查询功能
             com.baomidou.mybatisplus.extension.plugins.pagination.Page<Product> page = 
-                new com.baomidou.mybatisplus.extension.plugins.pagination.Page<>(offset / batchSize + 1, batchSize);
+                new com.baomidou.mybatisplus.extension.plugins.pagination.Page<>(offset / batchSize + 1, batchSize, false);
             
-            com.baomidou.mybatisplus.core.metadata.IPage<Product> pageResult = productService.page(page);
+            com.baomidou.mybatisplus.core.metadata.IPage<Product> pageResult = productService.page(page,
+                new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<Product>()
+                    .select("id", "product_code", "brand", "model", "brief_description")
+                    .orderByAsc("id"));
             List<Product> products = pageResult.getRecords();
             
             logger.info("成功获取到 {} 个产品数据", products.size());
@@ -286,6 +318,24 @@ public class CategoryExtractorService {
         }
     }
     
+    /**
+     * 提取一批产品的分类组合及命中次数
+     */
+    private Map<CategoryPair, Long> extractBatch(List<Product> products) {
+        Map<CategoryPair, Long> counts = new HashMap<>();
+        for (Product product : products) {
+            try {
+                CategoryPair pair = extractCategoryFromProduct(product);
+                if (pair != null && pair.getLevel1Name() != null && pair.getLevel2Name() != null) {
+                    counts.merge(pair, 1L, Long::sum);
+                }
+            } catch (Exception e) {
+                logger.debug("从产品 {} 提取分类失败: {}", product.getProductCode(), e.getMessage());
+            }
+        }
+        return counts;
+    }
+    
     /**
      * 获取所有需要处理的产品数量
      */
@@ -306,38 +356,176 @@ public class CategoryExtractorService {
      * 批量处理所有产品的分类提取
      */
     public CompletableFuture<List<CategoryPair>> extractAllCategories() {
+        return extractAllCategoryCounts().thenApply(counts -> new ArrayList<>(counts.getPairs().keySet()));
+    }
+    
+    /**
+     * 全量提取分类组合及各组合命中的产品数
+     * 读取线程按主键游标逐批读取，每批交给线程池并行提取，在途批次数受限以控制内存
+     */
+    public CompletableFuture<ExtractionResult> extractAllCategoryCounts() {
         return CompletableFuture.supplyAsync(() -> {
-            List<CategoryPair> allCategories = new ArrayList<>();
-            int batchSize = 1000;
-            int offset = 0;
+            long start = System.currentTimeMillis();
+            Map<CategoryPair, LongAdder> aggregated = new ConcurrentHashMap<>();
+            AtomicLong scanned = new AtomicLong();
+            Semaphore inFlight = new Semaphore(EXTRACT_PARALLELISM * 2);
+            List<CompletableFuture<Void>> pending = new ArrayList<>();
+            int batches = 0;
             
             try {
+                int afterId = 0;
                 while (true) {
-                    List<CategoryPair> batch = extractCategoriesFromProducts(batchSize, offset).get();
-                    if (batch.isEmpty()) {
+                    List<Product> products = productMapper.selectForCategoryExtraction(afterId, EXTRACT_BATCH_SIZE);
+                    if (products.isEmpty()) {
                         break;
                     }
+                    afterId = products.get(products.size() - 1).getId();
+                    batches++;
                     
-                    allCategories.addAll(batch);
-                    offset += batchSize;
-                    
-                    logger.info("已处理 {} 批次，累计提取 {} 个分类组合", offset / batchSize, allCategories.size());
+                    inFlight.acquire();
+                    pending.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            extractBatch(products).forEach((pair, count) ->
+                                aggregated.computeIfAbsent(pair, k -> new LongAdder()).add(count));
+                            scanned.addAndGet(products.size());
+                        } finally {
+                            inFlight.release();
+                        }
+                    }, extractExecutor));
+                    pending.removeIf(CompletableFuture::isDone);
                     
-                    // 避免过度占用资源
-                    Thread.sleep(100);
+                    if (batches % 50 == 0) {
+                        logger.info("已读取 {} 批次，已提取 {} 个产品，累计 {} 个分类组合",
+                            batches, scanned.get(), aggregated.size());
+                    }
+                    if (products.size() < EXTRACT_BATCH_SIZE) {
+                        break;
+                    }
                 }
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
                 
-                // 去重
-                Set<CategoryPair> uniqueCategories = new HashSet<>(allCategories);
-                List<CategoryPair> result = new ArrayList<>(uniqueCategories);
-                
-                logger.info("提取完成，总共 {} 个唯一分类组合", result.size());
-                return result;
-                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("批量提取分类被中断");
             } catch (Exception e) {
                 logger.error("批量提取分类时出错", e);
-                return allCategories;
             }
+            
+            // 按命中产品数倒序
+            Map<CategoryPair, Long> pairs = new LinkedHashMap<>();
+            aggregated.entrySet().stream()
+                .sorted((x, y) -> Long.compare(y.getValue().sum(), x.getValue().sum()))
+                .forEach(entry -> pairs.put(entry.getKey(), entry.getValue().sum()));
+            
+            logger.info("提取完成，扫描 {} 个产品（{} 批次），总共 {} 个唯一分类组合，耗时 {}ms",
+                scanned.get(), batches, pairs.size(), System.currentTimeMillis() - start);
+            return new ExtractionResult(pairs, scanned.get());
         });
     }
-}
\ No newline at end of file
+    
+    @PreDestroy
+    public void shutdown() {
+        extractExecutor.shutdownNow();
+    }
+    
+    /**
+     * 全量提取结果：分类组合 -> 命中产品数
+     */
+    public static class ExtractionResult {
+        private final Map<CategoryPair, Long> pairs;
+        private final long scannedProducts;
+        
+        public ExtractionResult(Map<CategoryPair, Long> pairs, long scannedProducts) {
+            this.pairs = pairs;
+            this.scannedProducts = scannedProducts;
+        }
+        
+        public Map<CategoryPair, Long> getPairs() { return pairs; }
+        public long getScannedProducts() { return scannedProducts; }
+        
+        /**
+         * 以 "一级分类/二级分类" 为键的计数
+         */
+        public Map<String, Long> toNamedCounts() {
+            Map<String, Long> named = new LinkedHashMap<>();
+            pairs.forEach((pair, count) -> named.put(pair.getLevel1Name() + "/" + pair.getLevel2Name(), count));
+            return named;
+        }
+    }
+    
+    /**
+     * 多关键字匹配器（Aho–Corasick）
+     * 构建后只读，可被多个线程同时使用；一次扫描文本即可得到所有命中的关键字
+     */
+    static final class KeywordMatcher {
+        
+        private static final class Node {
+            private final Map<Character, Node> next = new HashMap<>();
+            private Node fail;
+            /** 在此结束（含经失败链可达）的关键字所属的最小分类序号，-1 表示无 */
+            private int output = -1;
+        }
+        
+        private final Node root = new Node();
+        
+        void add(String keyword, int category) {
+            if (keyword.isEmpty()) {
+                return;
+            }
+            Node node = root;
+            for (int i = 0; i < keyword.length(); i++) {
+                node = node.next.computeIfAbsent(keyword.charAt(i), c -> new Node());
+            }
+            node.output = node.output < 0 ? category : Math.min(node.output, category);
+        }
+        
+        /**
+         * 按层构建失败指针，并把失败链上的输出合并到当前节点
+         */
+        void build() {
+            Deque<Node> queue = new ArrayDeque<>();
+            for (Node child : root.next.values()) {
+                child.fail = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                for (Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                    char c = entry.getKey();
+                    Node child = entry.getValue();
+                    Node fail = node.fail;
+                    while (fail != null && !fail.next.containsKey(c)) {
+                        fail = fail.fail;
+                    }
+                    child.fail = fail == null ? root : fail.next.get(c);
+                    if (child.fail.output >= 0) {
+                        child.output = child.output < 0 ? child.fail.output : Math.min(child.output, child.fail.output);
+                    }
+                    queue.add(child);
+                }
+            }
+        }
+        
+        /**
+         * 文本中命中的最小分类序号，无命中返回 -1
+         */
+        int firstMatch(String text) {
+            int best = -1;
+            Node node = root;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                while (node != root && !node.next.containsKey(c)) {
+                    node = node.fail;
+                }
+                node = node.next.getOrDefault(c, root);
+                if (node.output >= 0 && (best < 0 || node.output < best)) {
+                    best = node.output;
+                    if (best == 0) {
+                        break;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.lcsc.service.crawler;
 
 import com.lcsc.entity.CategoryLevel1Code;
 import com.lcsc.entity.CategoryLevel2Code;
+import com.lcsc.service.CategoryDictionaryService;
 import com.lcsc.service.CategoryLevel1CodeService;
 import com.lcsc.service.CategoryLevel2CodeService;
 import org.slf4j.Logger;
@@ -11,7 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
 
 /**
@@ -33,9 +33,9 @@ public class CategoryPersistenceService {
     @Autowired
     private CategoryLevel2CodeService categoryLevel2Service;
     
-    // 内存缓存，避免重复数据库查询
-    private final Map<String, Integer> level1NameToIdCache = new ConcurrentHashMap<>();
-    private final Map<String, Integer> level2NameToIdCache = new ConcurrentHashMap<>();
+    // 共享分类字典，名称->ID 查询命中内存，避免重复数据库查询
+    @Autowired
+    private CategoryDictionaryService categoryDictionaryService;
     
     /**
      * 获取或创建一级分类ID
@@ -67,7 +67,7 @@ public class CategoryPersistenceService {
         String cleanName = categoryLevel1Name.trim();
         
         // 首先检查缓存
-        Integer cachedId = level1NameToIdCache.get(cleanName);
+        Integer cachedId = categoryDictionaryService.findLevel1IdByName(cleanName);
         if (cachedId != null) {
             return cachedId;
         }
@@ -76,7 +76,7 @@ public class CategoryPersistenceService {
         CategoryLevel1Code existingCategory = categoryLevel1Service.getByName(cleanName);
         if (existingCategory != null) {
             // 更新缓存
-            level1NameToIdCache.put(cleanName, existingCategory.getId());
+            categoryDictionaryService.registerLevel1(existingCategory);
             logger.debug("找到已存在的一级分类: {} -> ID: {}", cleanName, existingCategory.getId());
             return existingCategory.getId();
         }
@@ -91,7 +91,7 @@ public class CategoryPersistenceService {
         boolean saved = categoryLevel1Service.save(newCategory);
         if (saved && newCategory.getId() != null) {
             // 更新缓存
-            level1NameToIdCache.put(cleanName, newCategory.getId());
+            categoryDictionaryService.registerLevel1(newCategory);
             logger.info("创建新的一级分类: {} -> ID: {}", cleanName, newCategory.getId());
             return newCategory.getId();
         } else {
@@ -135,10 +135,8 @@ public class CategoryPersistenceService {
         }
         
         String cleanName = categoryLevel2Name.trim();
-        String cacheKey = cleanName + "|" + categoryLevel1Id; // 组合键：名称+一级分类ID
-        
-        // 首先检查缓存
-        Integer cachedId = level2NameToIdCache.get(cacheKey);
+        // 首先检查缓存（组合键：名称+一级分类ID）
+        Integer cachedId = categoryDictionaryService.findLevel2IdByName(cleanName, categoryLevel1Id);
         if (cachedId != null) {
             return cachedId;
         }
@@ -147,7 +145,7 @@ public class CategoryPersistenceService {
         CategoryLevel2Code existingCategory = categoryLevel2Service.getByNameAndLevel1Id(cleanName, categoryLevel1Id);
         if (existingCategory != null) {
             // 更新缓存
-            level2NameToIdCache.put(cacheKey, existingCategory.getId());
+            categoryDictionaryService.registerLevel2(existingCategory);
             logger.debug("找到已存在的二级分类: {} (L1:{}) -> ID: {}", cleanName, categoryLevel1Id, existingCategory.getId());
             return existingCategory.getId();
         }
@@ -163,7 +161,7 @@ public class CategoryPersistenceService {
         boolean saved = categoryLevel2Service.save(newCategory);
         if (saved && newCategory.getId() != null) {
             // 更新缓存
-            level2NameToIdCache.put(cacheKey, newCategory.getId());
+            categoryDictionaryService.registerLevel2(newCategory);
             logger.info("创建新的二级分类: {} (L1:{}) -> ID: {}", cleanName, categoryLevel1Id, newCategory.getId());
             return newCategory.getId();
         } else {
@@ -201,12 +199,11 @@ public class CategoryPersistenceService {
     
     /**
      * 清空分类缓存
-     * 在需要刷新缓存时调用
+     * 在需要刷新缓存时调用，从数据库重新加载分类字典
      */
     public void clearCache() {
-        level1NameToIdCache.clear();
-        level2NameToIdCache.clear();
-        logger.info("分类缓存已清空");
+        categoryDictionaryService.refresh();
+        logger.info("分类缓存已重新加载");
     }
     
     /**
@@ -215,9 +212,10 @@ public class CategoryPersistenceService {
      * @return 缓存统计信息
      */
     public CacheStats getCacheStats() {
+        Map<String, Integer> stats = categoryDictionaryService.getStats();
         return new CacheStats(
-            level1NameToIdCache.size(),
-            level2NameToIdCache.size()
+            stats.get("level1"),
+            stats.get("level2")
         );
     }
     
@@ -1,15 +1,12 @@
 package com.lcsc.service.crawler;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.lcsc.entity.CategoryLevel1Code;
-import com.lcsc.entity.CategoryLevel2Code;
+import com.lcsc.dto.ProductExportQuery;
 import com.lcsc.entity.Product;
-import com.lcsc.service.CategoryLevel1CodeService;
-import com.lcsc.service.CategoryLevel2CodeService;
-import com.lcsc.service.ProductService;
+import com.lcsc.mapper.ProductMapper;
+import com.lcsc.service.CategoryDictionaryService;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -22,8 +19,7 @@ import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * 数据导出服务
@@ -35,9 +31,6 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class DataExportService {
 
-    @Autowired
-    private ProductService productService;
-
     @Value("${crawler.storage.export-dir:exports}")
     private String exportDir;
 
@@ -45,10 +38,40 @@ public class DataExportService {
     private String storageBasePath;
 
     @Autowired
-    private CategoryLevel1CodeService categoryLevel1CodeService;
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CategoryDictionaryService categoryDictionaryService;
 
     @Autowired
-    private CategoryLevel2CodeService categoryLevel2CodeService;
+    private ExportRenderPool exportRenderPool;
+
+    /**
+     * SXSSF 内存中保留的行数，超出部分刷到临时文件
+     */
+    private static final int ROW_ACCESS_WINDOW = 200;
+
+    /**
+     * 估算列宽时采样的数据行数
+     */
+    private static final int WIDTH_SAMPLE_ROWS = 500;
+
+    /**
+     * 最大列宽（1/256字符宽度）
+     */
+    private static final int MAX_COLUMN_WIDTH = 15000;
+
+    /**
+     * 进度回报间隔（行）
+     */
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /**
+     * 每个并行渲染批次的行数
+     */
+    private static final int RENDER_BATCH_SIZE = 500;
+
+    public static final String EXPORT_CANCELLED_MESSAGE = "导出已取消";
 
     // Excel列标题 - 优化后仅包含产品信息字段
     private static final String[] EXCEL_HEADERS = {
@@ -62,164 +85,185 @@ public class DataExportService {
     };
 
     /**
-     * 导出所有产品到Excel
+     * 按条件导出产品到导出目录（同步执行，由调用方决定运行线程）
+     *
+     * @param query    导出条件
+     * @param listener 进度监听（可为null），支持取消
      */
-    public CompletableFuture<ExportResult> exportAllProductsToExcel() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<Product> products = productService.list();
-                String fileName = generateFileName("all_products", "xlsx");
-                return exportProductsToExcel(products, fileName, "所有产品数据");
-            } catch (Exception e) {
-                return new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
+    public ExportResult export(ProductExportQuery query, ExportProgressListener listener) {
+        LambdaQueryWrapper<Product> wrapper = buildQueryWrapper(query);
+        boolean byCategories = query.getCategoryIds() != null && !query.getCategoryIds().isEmpty();
+        String extension = query.isCsv() ? "csv" : query.isArrow() ? "arrow" : "xlsx";
+
+        ExportResult result;
+        if (byCategories) {
+            String fileName = generateFileName("products_by_categories", extension);
+            if (query.isArrow()) {
+                result = exportProductsToSnapshot(wrapper, fileName, listener);
+            } else {
+                result = query.isCsv()
+                        ? exportProductsToCSVFile(wrapper, fileName, listener)
+                        : exportProductsToExcel(wrapper, fileName, "按分类导出", listener);
             }
-        });
+            if (result.isSuccess() && result.getRecordCount() == 0) {
+                deleteQuietly(Paths.get(result.getFilePath()));
+                return new ExportResult(false, "所选分类没有产品数据", null, 0);
+            }
+        } else if (query.isArrow()) {
+            result = exportProductsToSnapshot(wrapper, generateFileName("products_snapshot", extension), listener);
+        } else if (query.isCsv()) {
+            result = exportProductsToCSVFile(wrapper, generateFileName("products", extension), listener);
+        } else if (isUnfiltered(query)) {
+            result = exportProductsToExcel(wrapper, generateFileName("all_products", extension), "所有产品数据", listener);
+        } else {
+            String sheetName = buildSheetName(query.getCategoryLevel1Id(), query.getCategoryLevel2Id(), query.getBrand());
+            result = exportProductsToExcel(wrapper, generateFileName("filtered_products", extension), sheetName, listener);
+        }
+        return result;
     }
 
     /**
-     * 根据条件导出产品到Excel
-     */
-    public CompletableFuture<ExportResult> exportProductsToExcel(
-            Integer categoryLevel1Id,
-            Integer categoryLevel2Id,
-            String brand,
-            String productCode,
-            String model,
-            Boolean hasStock) {
-        
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // 构建查询条件
-                List<Product> products = getProductsByCondition(categoryLevel1Id, categoryLevel2Id, brand, productCode, model, hasStock);
-                
-                String fileName = generateFileName("filtered_products", "xlsx");
-                String sheetName = buildSheetName(categoryLevel1Id, categoryLevel2Id, brand);
-                
-                return exportProductsToExcel(products, fileName, sheetName);
-            } catch (Exception e) {
-                return new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
+     * 统计符合导出条件的产品数量（用于进度估算）
+     */
+    public long countProducts(ProductExportQuery query) {
+        if (isUnfiltered(query)) {
+            Long approximate = productMapper.selectApproximateRowCount();
+            if (approximate != null && approximate > 0) {
+                return approximate;
             }
-        });
+        }
+        LambdaQueryWrapper<Product> wrapper = buildQueryWrapper(query);
+        wrapper.getExpression().getOrderBy().clear();
+        return productMapper.selectCount(wrapper);
+    }
+
+    /**
+     * 根据条件将产品Excel直接写入输出流（如HTTP响应），不落盘
+     *
+     * @return 导出的记录数
+     */
+    public int writeProductsToExcel(ProductExportQuery query, OutputStream out) throws IOException {
+        LambdaQueryWrapper<Product> wrapper = buildQueryWrapper(query);
+        String sheetName = buildSheetName(query.getCategoryLevel1Id(), query.getCategoryLevel2Id(), query.getBrand());
+        return writeProductsExcel(wrapper, sheetName, out, null);
     }
 
     /**
-     * 导出产品数据到Excel
+     * 导出产品数据到Excel文件
      */
-    private ExportResult exportProductsToExcel(List<Product> products, String fileName, String sheetName) {
+    private ExportResult exportProductsToExcel(LambdaQueryWrapper<Product> wrapper, String fileName, String sheetName,
+                                               ExportProgressListener listener) {
+        Path filePath = null;
         try {
             // 创建导出目录（与下载接口路径保持一致）
             Path exportDirectory = resolveExportDir();
             Files.createDirectories(exportDirectory);
-            Path filePath = exportDirectory.resolve(fileName);
-
-            // 创建工作簿
-            try (Workbook workbook = new XSSFWorkbook()) {
-                Sheet sheet = workbook.createSheet(sheetName);
-
-                // 创建标题样式
-                CellStyle headerStyle = createHeaderStyle(workbook);
-                CellStyle dataStyle = createDataStyle(workbook);
-
-                // 创建标题行
-                Row headerRow = sheet.createRow(0);
-                for (int i = 0; i < EXCEL_HEADERS.length; i++) {
-                    Cell cell = headerRow.createCell(i);
-                    cell.setCellValue(EXCEL_HEADERS[i]);
-                    cell.setCellStyle(headerStyle);
-                }
-
-                // 填充数据
-                int rowNum = 1;
-                for (Product product : products) {
-                    Row row = sheet.createRow(rowNum++);
-                    fillProductRow(row, product, dataStyle);
-                }
-
-                // 自动调整列宽
-                for (int i = 0; i < EXCEL_HEADERS.length; i++) {
-                    sheet.autoSizeColumn(i);
-                    // 设置最大列宽
-                    if (sheet.getColumnWidth(i) > 15000) {
-                        sheet.setColumnWidth(i, 15000);
-                    }
-                }
+            filePath = exportDirectory.resolve(fileName);
 
-                // 写入文件
-                try (FileOutputStream fos = new FileOutputStream(filePath.toFile())) {
-                    workbook.write(fos);
-                }
+            int recordCount;
+            try (OutputStream fos = new BufferedOutputStream(Files.newOutputStream(filePath))) {
+                recordCount = writeProductsExcel(wrapper, sheetName, fos, listener);
             }
 
             long fileSize = Files.size(filePath);
-            System.out.println("Excel导出成功: " + fileName + " (" + formatFileSize(fileSize) + ")");
+            System.out.println("Excel导出成功: " + fileName + " (" + formatFileSize(fileSize) + ", " + recordCount + " 条)");
             
-            return new ExportResult(true, "导出成功", filePath.toString(), products.size());
+            return new ExportResult(true, "导出成功", filePath.toString(), recordCount);
 
         } catch (Exception e) {
+            deleteQuietly(filePath);
+            if (listener != null && listener.isCancelled()) {
+                return new ExportResult(false, EXPORT_CANCELLED_MESSAGE, null, 0);
+            }
             System.err.println("Excel导出失败: " + e.getMessage());
             return new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
         }
     }
 
     /**
-     * 导出产品数据到CSV
-     */
-    public CompletableFuture<ExportResult> exportProductsToCSV(
-            Integer categoryLevel1Id,
-            Integer categoryLevel2Id,
-            String brand,
-            String productCode,
-            String model,
-            Boolean hasStock) {
-        
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<Product> products = getProductsByCondition(categoryLevel1Id, categoryLevel2Id, brand, productCode, model, hasStock);
-                String fileName = generateFileName("products", "csv");
-                
-                // 创建导出目录
-                Path exportDirectory = resolveExportDir();
-                Files.createDirectories(exportDirectory);
-                Path filePath = exportDirectory.resolve(fileName);
-
-                // 写入CSV文件
-                try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
-                    // 写入BOM，确保Excel正确显示中文
-                    writer.write('\ufeff');
-                    
-                    // 写入标题行
-                    writer.write(String.join(",", EXCEL_HEADERS));
-                    writer.newLine();
-
-                    // 写入数据
-                    for (Product product : products) {
-                        writer.write(formatProductToCsv(product));
-                        writer.newLine();
-                    }
-                }
+     * 流式生成Excel
+     * 数据库侧逐行读取，SXSSF 只在内存中保留最近 ROW_ACCESS_WINDOW 行，其余行刷到临时文件；
+     * 列宽按前 WIDTH_SAMPLE_ROWS 行的内容长度估算，不再调用逐行扫描的 autoSizeColumn
+     *
+     * @return 导出的记录数
+     */
+    private int writeProductsExcel(LambdaQueryWrapper<Product> wrapper, String sheetName, OutputStream out,
+                                   ExportProgressListener listener) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet(sheetName);
+
+            // 创建标题样式
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle dataStyle = createDataStyle(workbook);
+
+            // 创建标题行
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < EXCEL_HEADERS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(EXCEL_HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
 
-                long fileSize = Files.size(filePath);
-                System.out.println("CSV导出成功: " + fileName + " (" + formatFileSize(fileSize) + ")");
-                
-                return new ExportResult(true, "导出成功", filePath.toString(), products.size());
+            // 填充数据
+            ColumnWidthSampler widthSampler = new ColumnWidthSampler(EXCEL_HEADERS, WIDTH_SAMPLE_ROWS);
+            // 行值在渲染线程池并行计算，单元格仍由当前线程按查询顺序写入（SXSSF非线程安全）
+            int[] rowNum = {1};
+            ExportRenderPool.Pipeline<Product, Object[]> pipeline = exportRenderPool.newPipeline(RENDER_BATCH_SIZE,
+                    this::buildRowValues, values -> {
+                        Row row = sheet.createRow(rowNum[0]++);
+                        fillRow(row, values, dataStyle);
+                        widthSampler.sample(row);
+                    });
+            streamProducts(wrapper, listener, pipeline::accept);
+            pipeline.finish();
+
+            // 按采样结果设置列宽
+            widthSampler.apply(sheet, MAX_COLUMN_WIDTH);
+
+            workbook.write(out);
+            out.flush();
+            return rowNum[0] - 1;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
-            } catch (Exception e) {
-                System.err.println("CSV导出失败: " + e.getMessage());
-                return new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
+    /**
+     * 流式读取产品，逐条补齐分类名称后交给消费者
+     * 每 PROGRESS_INTERVAL 行回报一次进度并检查是否已取消
+     */
+    private void streamProducts(LambdaQueryWrapper<Product> wrapper, ExportProgressListener listener,
+                                Consumer<Product> consumer) {
+        productMapper.streamByWrapper(wrapper, context -> {
+            Product product = context.getResultObject();
+            // 仅补齐产品表中为空的冗余名称，名称来自内存分类字典
+            categoryDictionaryService.fillMissing(product);
+            consumer.accept(product);
+
+            int count = context.getResultCount();
+            if (listener != null && count % PROGRESS_INTERVAL == 0) {
+                if (listener.isCancelled()) {
+                    throw new ExportCancelledException();
+                }
+                listener.onProgress(count);
             }
         });
+        if (listener != null && listener.isCancelled()) {
+            throw new ExportCancelledException();
+        }
     }
 
     /**
-     * 根据条件查询产品
+     * 根据导出条件构建查询
      */
-    private List<Product> getProductsByCondition(Integer categoryLevel1Id,
-                                                 Integer categoryLevel2Id,
-                                                 String brand,
-                                                 String productCode,
-                                                 String model,
-                                                 Boolean hasStock) {
+    private LambdaQueryWrapper<Product> buildQueryWrapper(ProductExportQuery query) {
         LambdaQueryWrapper<Product> wrapper = new LambdaQueryWrapper<>();
+        String productCode = query.getProductCode();
+        String brand = query.getBrand();
+        String model = query.getModel();
         if (productCode != null && !productCode.trim().isEmpty()) {
             wrapper.like(Product::getProductCode, productCode.trim());
         }
@@ -229,65 +273,88 @@ public class DataExportService {
         if (model != null && !model.trim().isEmpty()) {
             wrapper.like(Product::getModel, model.trim());
         }
-        if (categoryLevel1Id != null) {
-            wrapper.eq(Product::getCategoryLevel1Id, categoryLevel1Id);
+        if (query.getCategoryLevel1Id() != null) {
+            wrapper.eq(Product::getCategoryLevel1Id, query.getCategoryLevel1Id());
         }
-        if (categoryLevel2Id != null) {
-            wrapper.eq(Product::getCategoryLevel2Id, categoryLevel2Id);
+        if (query.getCategoryLevel2Id() != null) {
+            wrapper.eq(Product::getCategoryLevel2Id, query.getCategoryLevel2Id());
+        }
+        if (query.getCategoryIds() != null && !query.getCategoryIds().isEmpty()) {
+            wrapper.in(Product::getCategoryLevel2Id, query.getCategoryIds());
         }
-        if (hasStock != null) {
-            if (hasStock) {
+        if (query.getHasStock() != null) {
+            if (query.getHasStock()) {
                 wrapper.gt(Product::getTotalStockQuantity, 0);
             } else {
                 wrapper.le(Product::getTotalStockQuantity, 0);
             }
         }
         wrapper.orderByDesc(Product::getLastCrawledAt);
+        return wrapper;
+    }
 
-        List<Product> list = productService.list(wrapper);
-        enrichCategoryNames(list);
-        return list;
+    /**
+     * 是否没有任何筛选条件（全量导出）
+     */
+    private boolean isUnfiltered(ProductExportQuery query) {
+        return isBlank(query.getProductCode()) && isBlank(query.getBrand()) && isBlank(query.getModel())
+                && query.getCategoryLevel1Id() == null && query.getCategoryLevel2Id() == null
+                && (query.getCategoryIds() == null || query.getCategoryIds().isEmpty())
+                && query.getHasStock() == null;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
     }
 
     /**
-     * 填充产品数据到Excel行 - 仅包含产品信息字段
-     */
-    private void fillProductRow(Row row, Product product, CellStyle dataStyle) {
-        int cellIndex = 0;
-
-        // 基础信息（5列）
-        createCell(row, cellIndex++, product.getProductCode(), dataStyle);
-        createCell(row, cellIndex++, product.getModel(), dataStyle);
-        createCell(row, cellIndex++, product.getBrand(), dataStyle);
-        createCell(row, cellIndex++, product.getPackageName(), dataStyle);
-        createCell(row, cellIndex++, product.getBriefDescription(), dataStyle);
-
-        // 库存信息（1列）
-        createCell(row, cellIndex++, product.getTotalStockQuantity(), dataStyle);
-
-        // 分类信息（2列 - 仅名称，无ID）
-        createCell(row, cellIndex++, product.getCategoryLevel1Name(), dataStyle);
-        createCell(row, cellIndex++, product.getCategoryLevel2Name(), dataStyle);
-
-        // URL信息（2列 - 仅URL，无文件名）
-        createCell(row, cellIndex++, product.getProductImageUrlBig(), dataStyle);
-        createCell(row, cellIndex++, product.getPdfUrl(), dataStyle);
-
-        // 阶梯价格（10列）
-        createCell(row, cellIndex++, product.getLadderPrice1Quantity(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice1Price(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice2Quantity(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice2Price(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice3Quantity(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice3Price(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice4Quantity(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice4Price(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice5Quantity(), dataStyle);
-        createCell(row, cellIndex++, product.getLadderPrice5Price(), dataStyle);
-
-        // 额外参数（1列 - 最后一列，键值对换行格式）
-        String formattedParams = formatParametersTextWithLineBreaks(product.getParametersText());
-        createCell(row, cellIndex++, formattedParams, dataStyle);
+     * 计算产品在Excel中的一行取值 - 仅包含产品信息字段
+     * 在渲染线程执行，不能访问工作簿
+     */
+    private Object[] buildRowValues(Product product) {
+        return new Object[] {
+            // 基础信息（5列）
+            product.getProductCode(),
+            product.getModel(),
+            product.getBrand(),
+            product.getPackageName(),
+            product.getBriefDescription(),
+
+            // 库存信息（1列）
+            product.getTotalStockQuantity(),
+
+            // 分类信息（2列 - 仅名称，无ID）
+            product.getCategoryLevel1Name(),
+            product.getCategoryLevel2Name(),
+
+            // URL信息（2列 - 仅URL，无文件名）
+            product.getProductImageUrlBig(),
+            product.getPdfUrl(),
+
+            // 阶梯价格（10列）
+            product.getLadderPrice1Quantity(),
+            product.getLadderPrice1Price(),
+            product.getLadderPrice2Quantity(),
+            product.getLadderPrice2Price(),
+            product.getLadderPrice3Quantity(),
+            product.getLadderPrice3Price(),
+            product.getLadderPrice4Quantity(),
+            product.getLadderPrice4Price(),
+            product.getLadderPrice5Quantity(),
+            product.getLadderPrice5Price(),
+
+            // 额外参数（1列 - 最后一列，键值对换行格式）
+            formatParametersTextWithLineBreaks(product.getParametersText())
+        };
+    }
+
+    /**
+     * 把预先计算好的行值写入Excel行
+     */
+    private void fillRow(Row row, Object[] values, CellStyle dataStyle) {
+        for (int i = 0; i < values.length; i++) {
+            createCell(row, i, values[i], dataStyle);
+        }
     }
 
     /**
@@ -312,7 +379,7 @@ public class DataExportService {
     /**
      * 格式化产品数据为CSV行 - 仅包含产品信息字段
      */
-    private String formatProductToCsv(Product product) {
+    String formatProductToCsv(Product product) {
         return String.join(",",
             // 基础信息
             csvEscape(product.getProductCode()),
@@ -474,50 +541,19 @@ public class DataExportService {
     }
 
     /**
-     * 按分类ID列表导出产品
+     * 私有方法：CSV流式导出到文件
      */
-    public CompletableFuture<ExportResult> exportProductsByCategories(
-            List<Integer> categoryIds, String format) {
-
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // 查询指定分类的所有产品
-                QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
-                queryWrapper.in("category_level2_id", categoryIds);
-                List<Product> products = productService.list(queryWrapper);
-
-                if (products.isEmpty()) {
-                    return new ExportResult(false, "所选分类没有产品数据", null, 0);
-                }
-
-                String fileName = generateFileName("products_by_categories",
-                    format.equals("csv") ? "csv" : "xlsx");
-
-                if (format.equals("csv")) {
-                    // CSV导出逻辑
-                    return exportProductsToCSVFile(products, fileName);
-                } else {
-                    // Excel导出逻辑
-                    return exportProductsToExcel(products, fileName, "按分类导出");
-                }
-
-            } catch (Exception e) {
-                return new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
-            }
-        });
-    }
-
-    /**
-     * 私有方法：CSV导出到文件
-     */
-    private ExportResult exportProductsToCSVFile(List<Product> products, String fileName) {
+    private ExportResult exportProductsToCSVFile(LambdaQueryWrapper<Product> wrapper, String fileName,
+                                                 ExportProgressListener listener) {
+        Path filePath = null;
         try {
             // 创建导出目录
             Path exportDirectory = resolveExportDir();
             Files.createDirectories(exportDirectory);
-            Path filePath = exportDirectory.resolve(fileName);
+            filePath = exportDirectory.resolve(fileName);
 
             // 写入CSV文件
+            int[] recordCount = {0};
             try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
                 // 写入BOM，确保Excel正确显示中文
                 writer.write('\ufeff');
@@ -527,23 +563,85 @@ public class DataExportService {
                 writer.newLine();
 
                 // 写入数据
-                for (Product product : products) {
-                    writer.write(formatProductToCsv(product));
-                    writer.newLine();
-                }
+                // CSV行在渲染线程池并行拼接，按查询顺序写出
+                ExportRenderPool.Pipeline<Product, String> pipeline = exportRenderPool.newPipeline(RENDER_BATCH_SIZE,
+                        this::formatProductToCsv, line -> {
+                            writer.write(line);
+                            writer.newLine();
+                            recordCount[0]++;
+                        });
+                streamProducts(wrapper, listener, pipeline::accept);
+                pipeline.finish();
             }
 
             long fileSize = Files.size(filePath);
-            System.out.println("CSV导出成功: " + fileName + " (" + formatFileSize(fileSize) + ")");
+            System.out.println("CSV导出成功: " + fileName + " (" + formatFileSize(fileSize) + ", " + recordCount[0] + " 条)");
 
-            return new ExportResult(true, "导出成功", filePath.toString(), products.size());
+            return new ExportResult(true, "导出成功", filePath.toString(), recordCount[0]);
 
         } catch (Exception e) {
+            deleteQuietly(filePath);
+            if (listener != null && listener.isCancelled()) {
+                return new ExportResult(false, EXPORT_CANCELLED_MESSAGE, null, 0);
+            }
             System.err.println("CSV导出失败: " + e.getMessage());
             return new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
         }
     }
 
+    /**
+     * 导出列式快照（Arrow IPC文件，ZSTD压缩）
+     * 数据库侧流式读取，参数JSON在渲染线程池并行解析，列向量由当前线程按查询顺序写入
+     */
+    private ExportResult exportProductsToSnapshot(LambdaQueryWrapper<Product> wrapper, String fileName,
+                                                  ExportProgressListener listener) {
+        Path filePath = null;
+        try {
+            Path exportDirectory = resolveExportDir();
+            Files.createDirectories(exportDirectory);
+            filePath = exportDirectory.resolve(fileName);
+
+            int recordCount;
+            try (ProductSnapshotWriter writer = new ProductSnapshotWriter(filePath)) {
+                ExportRenderPool.Pipeline<Product, ProductSnapshotWriter.SnapshotRow> pipeline =
+                        exportRenderPool.newPipeline(RENDER_BATCH_SIZE, ProductSnapshotWriter::toRow, writer::write);
+                streamProducts(wrapper, listener, pipeline::accept);
+                pipeline.finish();
+                writer.finish();
+                recordCount = writer.getRowCount();
+            }
+
+            long fileSize = Files.size(filePath);
+            System.out.println("列式快照导出成功: " + fileName + " (" + formatFileSize(fileSize) + ", " + recordCount + " 条)");
+
+            return new ExportResult(true, "导出成功", filePath.toString(), recordCount);
+
+        } catch (Exception | LinkageError e) {
+            // Arrow内存模块初始化失败（如缺少 --add-opens）表现为 ExceptionInInitializerError/NoClassDefFoundError，
+            // 同样按导出失败处理；OutOfMemoryError 等其他Error继续向上抛出
+            deleteQuietly(filePath);
+            if (listener != null && listener.isCancelled()) {
+                return new ExportResult(false, EXPORT_CANCELLED_MESSAGE, null, 0);
+            }
+            System.err.println("列式快照导出失败: " + e.getMessage());
+            return new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
+        }
+    }
+
+    /**
+     * 删除导出失败残留的半成品文件
+     */
+    private void deleteQuietly(Path filePath) {
+        if (filePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException ignored) {
+            // 残留文件不影响导出结果
+        }
+    }
+
     // 统一导出位置：和下载接口一致，使用 storageBasePath 的父目录下的 exportDir 目录
     private Path resolveExportDir() {
         try {
@@ -556,26 +654,88 @@ public class DataExportService {
         }
     }
 
-    private void enrichCategoryNames(List<Product> products) {
-        if (products == null || products.isEmpty()) {
-            return;
+    /**
+     * 基于采样的列宽估算器
+     * 只统计前 sampleLimit 行，每个单元格取最长一行的显示宽度（CJK字符按2计）
+     */
+    private static class ColumnWidthSampler {
+        private final int[] maxWidths;
+        private final int sampleLimit;
+        private int sampledRows;
+
+        ColumnWidthSampler(String[] headers, int sampleLimit) {
+            this.maxWidths = new int[headers.length];
+            this.sampleLimit = sampleLimit;
+            for (int i = 0; i < headers.length; i++) {
+                maxWidths[i] = displayWidth(headers[i]);
+            }
         }
-        Set<Integer> l1Ids = products.stream().map(Product::getCategoryLevel1Id).filter(Objects::nonNull).collect(Collectors.toSet());
-        Set<Integer> l2Ids = products.stream().map(Product::getCategoryLevel2Id).filter(Objects::nonNull).collect(Collectors.toSet());
 
-        Map<Integer, String> l1Map = l1Ids.isEmpty() ? Collections.emptyMap() :
-                categoryLevel1CodeService.listByIds(l1Ids).stream().collect(Collectors.toMap(CategoryLevel1Code::getId, CategoryLevel1Code::getCategoryLevel1Name));
-        Map<Integer, String> l2Map = l2Ids.isEmpty() ? Collections.emptyMap() :
-                categoryLevel2CodeService.listByIds(l2Ids).stream().collect(Collectors.toMap(CategoryLevel2Code::getId, CategoryLevel2Code::getCategoryLevel2Name));
+        void sample(Row row) {
+            if (sampledRows >= sampleLimit) {
+                return;
+            }
+            sampledRows++;
+            for (Cell cell : row) {
+                int index = cell.getColumnIndex();
+                if (index >= maxWidths.length) {
+                    continue;
+                }
+                String text = cell.getCellType() == CellType.NUMERIC
+                        ? String.valueOf((long) cell.getNumericCellValue())
+                        : cell.getStringCellValue();
+                maxWidths[index] = Math.max(maxWidths[index], displayWidth(text));
+            }
+        }
 
-        for (Product p : products) {
-            if (p == null) continue;
-            if ((p.getCategoryLevel1Name() == null || p.getCategoryLevel1Name().isEmpty()) && p.getCategoryLevel1Id() != null) {
-                p.setCategoryLevel1Name(l1Map.get(p.getCategoryLevel1Id()));
+        void apply(Sheet sheet, int maxColumnWidth) {
+            for (int i = 0; i < maxWidths.length; i++) {
+                // 列宽单位为1/256字符宽度，额外留2个字符边距
+                sheet.setColumnWidth(i, Math.min((maxWidths[i] + 2) * 256, maxColumnWidth));
             }
-            if ((p.getCategoryLevel2Name() == null || p.getCategoryLevel2Name().isEmpty()) && p.getCategoryLevel2Id() != null) {
-                p.setCategoryLevel2Name(l2Map.get(p.getCategoryLevel2Id()));
+        }
+
+        private static int displayWidth(String text) {
+            if (text == null || text.isEmpty()) {
+                return 0;
+            }
+            int max = 0;
+            int current = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\n') {
+                    max = Math.max(max, current);
+                    current = 0;
+                } else {
+                    current += c < 0x2E80 ? 1 : 2;
+                }
             }
+            return Math.max(max, current);
+        }
+    }
+
+    /**
+     * 导出进度监听
+     */
+    public interface ExportProgressListener {
+
+        /**
+         * 已导出行数更新
+         */
+        void onProgress(int exportedRows);
+
+        /**
+         * 导出是否已被取消
+         */
+        boolean isCancelled();
+    }
+
+    /**
+     * 导出被取消时用于中断流式读取
+     */
+    public static class ExportCancelledException extends RuntimeException {
+        public ExportCancelledException() {
+            super(EXPORT_CANCELLED_MESSAGE);
         }
     }
 
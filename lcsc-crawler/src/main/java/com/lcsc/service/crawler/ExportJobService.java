@@ -0,0 +1,435 @@
+package com.lcsc.service.crawler;
+
+import com.lcsc.dto.ExportJob;
+import com.lcsc.dto.ProductExportQuery;
+import com.lcsc.service.CategoryDictionaryService;
+import com.lcsc.service.ProductService;
+import com.lcsc.service.crawler.DataExportService.ExportProgressListener;
+import com.lcsc.service.crawler.DataExportService.ExportResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 后台导出任务服务
+ * 导出在独立的有界线程池中执行，不再占用公共ForkJoinPool；
+ * 提供任务ID、进度查询、WebSocket进度推送、取消，以及按“规范化条件+数据版本”缓存导出结果
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final String TOPIC_JOBS = "/topic/export/jobs";
+
+    /**
+     * 同一任务两次进度推送的最小间隔（毫秒）
+     */
+    private static final long PROGRESS_PUSH_INTERVAL_MS = 500;
+
+    /**
+     * 内存中保留的已结束任务数
+     */
+    private static final int MAX_FINISHED_JOBS = 200;
+
+    /**
+     * 导出结果缓存的最大条目数（超出时移除最早缓存的结果）
+     */
+    private static final int MAX_CACHED_EXPORTS = 50;
+
+    @Autowired
+    private DataExportService dataExportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryDictionaryService categoryDictionaryService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${crawler.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${crawler.export.queue-capacity:20}")
+    private int queueCapacity;
+
+    private ThreadPoolTaskExecutor exportExecutor;
+
+    private final Map<String, JobHandle> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 导出结果缓存：规范化条件 -> 最近一次成功的导出
+     */
+    private final Map<String, CachedExport> resultCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        exportExecutor = new ThreadPoolTaskExecutor();
+        exportExecutor.setCorePoolSize(maxConcurrent);
+        exportExecutor.setMaxPoolSize(maxConcurrent);
+        exportExecutor.setQueueCapacity(queueCapacity);
+        exportExecutor.setThreadNamePrefix("ExportJob-");
+        exportExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        exportExecutor.initialize();
+        log.info("导出任务线程池已初始化: 并发={}, 队列={}", maxConcurrent, queueCapacity);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobs.values().forEach(handle -> handle.cancelled = true);
+        exportExecutor.shutdown();
+    }
+
+    /**
+     * 提交导出任务
+     * 相同条件且数据未变化时直接返回已完成的缓存结果；相同条件的任务正在执行时返回该任务
+     */
+    public ExportJob submit(ProductExportQuery query) {
+        String cacheKey = buildCacheKey(query);
+        String dataVersion = currentDataVersion();
+
+        // 1. 命中结果缓存
+        CachedExport cached = resultCache.get(cacheKey);
+        if (cached != null && cached.dataVersion.equals(dataVersion) && Files.exists(cached.filePath)) {
+            JobHandle handle = newHandle(query, cacheKey, dataVersion);
+            ExportJob job = handle.job;
+            job.setStatus(ExportJob.STATUS_COMPLETED);
+            job.setCacheHit(true);
+            job.setFilename(cached.filePath.getFileName().toString());
+            job.setExportedRows(cached.recordCount);
+            job.setTotalRows(cached.recordCount);
+            job.setMessage("数据未变化，复用已有导出结果");
+            job.setStartedAt(job.getCreatedAt());
+            job.setFinishedAt(job.getCreatedAt());
+            handle.result.complete(new ExportResult(true, job.getMessage(), cached.filePath.toString(), cached.recordCount));
+            purgeFinishedJobs();
+            jobs.put(job.getJobId(), handle);
+            log.info("导出命中缓存: jobId={}, file={}", job.getJobId(), job.getFilename());
+            return job;
+        }
+
+        // 2. 相同条件的任务仍在排队/执行
+        for (JobHandle running : jobs.values()) {
+            if (!running.job.isFinished() && !running.cancelled
+                    && running.cacheKey.equals(cacheKey) && running.dataVersion.equals(dataVersion)) {
+                return running.job;
+            }
+        }
+
+        // 3. 新建任务
+        purgeFinishedJobs();
+        JobHandle handle = newHandle(query, cacheKey, dataVersion);
+        jobs.put(handle.job.getJobId(), handle);
+        try {
+            handle.future = exportExecutor.submit(() -> runJob(handle, query));
+        } catch (TaskRejectedException e) {
+            jobs.remove(handle.job.getJobId());
+            throw new IllegalStateException("导出任务队列已满，请稍后再试");
+        }
+        publish(handle.job);
+        log.info("导出任务已提交: jobId={}, format={}", handle.job.getJobId(), handle.job.getFormat());
+        return handle.job;
+    }
+
+    /**
+     * 等待任务结果（供兼容的同步导出接口使用）
+     */
+    public CompletableFuture<ExportResult> getResult(String jobId) {
+        JobHandle handle = jobs.get(jobId);
+        if (handle == null) {
+            return CompletableFuture.completedFuture(new ExportResult(false, "导出任务不存在: " + jobId, null, 0));
+        }
+        return handle.result;
+    }
+
+    /**
+     * 查询任务状态
+     */
+    public ExportJob getJob(String jobId) {
+        JobHandle handle = jobs.get(jobId);
+        return handle != null ? handle.job : null;
+    }
+
+    /**
+     * 列出内存中的任务（最新的在前）
+     */
+    public List<ExportJob> listJobs() {
+        return jobs.values().stream()
+                .map(handle -> handle.job)
+                .sorted(Comparator.comparing(ExportJob::getCreatedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 取消任务
+     * 排队中的任务直接移出队列；执行中的任务在下一个进度检查点中断
+     *
+     * @return 是否已发出取消
+     */
+    public boolean cancel(String jobId) {
+        JobHandle handle = jobs.get(jobId);
+        if (handle == null || handle.job.isFinished()) {
+            return false;
+        }
+        handle.cancelled = true;
+        if (handle.started.compareAndSet(false, true)) {
+            // 尚未开始执行：抢占后工作线程不会再执行，直接结束
+            if (handle.future != null) {
+                handle.future.cancel(false);
+            }
+            finish(handle, ExportJob.STATUS_CANCELLED, DataExportService.EXPORT_CANCELLED_MESSAGE,
+                    new ExportResult(false, DataExportService.EXPORT_CANCELLED_MESSAGE, null, 0));
+        }
+        // 已在执行：仅置取消标记，由 runJob 在分批之间检查后自行结束为已取消
+        log.info("导出任务取消: jobId={}", jobId);
+        return true;
+    }
+
+    /**
+     * 执行导出
+     */
+    private void runJob(JobHandle handle, ProductExportQuery query) {
+        if (!handle.started.compareAndSet(false, true)) {
+            // 排队期间已被取消并结束
+            return;
+        }
+        ExportJob job = handle.job;
+        if (handle.cancelled) {
+            finish(handle, ExportJob.STATUS_CANCELLED, DataExportService.EXPORT_CANCELLED_MESSAGE,
+                    new ExportResult(false, DataExportService.EXPORT_CANCELLED_MESSAGE, null, 0));
+            return;
+        }
+
+        job.setStatus(ExportJob.STATUS_RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        try {
+            job.setTotalRows(dataExportService.countProducts(query));
+        } catch (Exception e) {
+            log.warn("统计导出行数失败，进度将无法估算: {}", e.getMessage());
+        }
+        publish(job);
+
+        ExportResult result;
+        try {
+            result = dataExportService.export(query, new ExportProgressListener() {
+                @Override
+                public void onProgress(int exportedRows) {
+                    job.setExportedRows(exportedRows);
+                    long now = System.currentTimeMillis();
+                    if (now - handle.lastPushAt >= PROGRESS_PUSH_INTERVAL_MS) {
+                        handle.lastPushAt = now;
+                        publish(job);
+                    }
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return handle.cancelled;
+                }
+            });
+        } catch (Exception e) {
+            log.error("导出任务执行异常: jobId={}", job.getJobId(), e);
+            result = new ExportResult(false, "导出失败: " + e.getMessage(), null, 0);
+        }
+
+        if (handle.cancelled) {
+            // 取消发生在最后一次检查之后时导出可能已成功，结果不再缓存也不交付
+            if (result.isSuccess()) {
+                deleteQuietly(Paths.get(result.getFilePath()));
+            }
+            finish(handle, ExportJob.STATUS_CANCELLED, DataExportService.EXPORT_CANCELLED_MESSAGE,
+                    new ExportResult(false, DataExportService.EXPORT_CANCELLED_MESSAGE, null, 0));
+        } else if (result.isSuccess()) {
+            Path filePath = Paths.get(result.getFilePath());
+            job.setFilename(filePath.getFileName().toString());
+            job.setExportedRows(result.getRecordCount());
+            cacheResult(handle.cacheKey, new CachedExport(handle.dataVersion, filePath, result.getRecordCount()));
+            finish(handle, ExportJob.STATUS_COMPLETED, result.getMessage(), result);
+        } else {
+            finish(handle, ExportJob.STATUS_FAILED, result.getMessage(), result);
+        }
+    }
+
+    private void finish(JobHandle handle, String status, String message, ExportResult result) {
+        ExportJob job = handle.job;
+        job.setStatus(status);
+        job.setMessage(message);
+        job.setFinishedAt(LocalDateTime.now());
+        handle.result.complete(result);
+        publish(job);
+        log.info("导出任务结束: jobId={}, status={}, rows={}", job.getJobId(), status, job.getExportedRows());
+    }
+
+    /**
+     * 删除已取消任务生成的导出文件
+     */
+    private void deleteQuietly(Path filePath) {
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            log.warn("删除已取消的导出文件失败: {}", filePath, e);
+        }
+    }
+
+    private JobHandle newHandle(ProductExportQuery query, String cacheKey, String dataVersion) {
+        ExportJob job = new ExportJob();
+        job.setJobId("EXPORT_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16));
+        job.setFormat(query.getNormalizedFormat());
+        job.setStatus(ExportJob.STATUS_QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+        return new JobHandle(job, cacheKey, dataVersion);
+    }
+
+    /**
+     * 推送任务状态：单任务主题 + 汇总主题
+     */
+    private void publish(ExportJob job) {
+        try {
+            messagingTemplate.convertAndSend(TOPIC_JOBS + "/" + job.getJobId(), job);
+            messagingTemplate.convertAndSend(TOPIC_JOBS, job);
+        } catch (Exception e) {
+            log.debug("推送导出进度失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 数据版本：产品数据版本 + 分类字典版本（分类名称会写入导出文件）
+     */
+    private String currentDataVersion() {
+        return productService.getDataVersion() + "#" + categoryDictionaryService.getVersion();
+    }
+
+    /**
+     * 规范化导出条件：去除首尾空白、忽略空值、分类ID排序去重
+     */
+    private String buildCacheKey(ProductExportQuery query) {
+        StringBuilder key = new StringBuilder(query.getNormalizedFormat());
+        appendKey(key, "l1", query.getCategoryLevel1Id());
+        appendKey(key, "l2", query.getCategoryLevel2Id());
+        appendKey(key, "brand", query.getBrand());
+        appendKey(key, "code", query.getProductCode());
+        appendKey(key, "model", query.getModel());
+        appendKey(key, "stock", query.getHasStock());
+        if (query.getCategoryIds() != null && !query.getCategoryIds().isEmpty()) {
+            appendKey(key, "cats", new TreeSet<>(query.getCategoryIds()).toString());
+        }
+        return key.toString();
+    }
+
+    private void appendKey(StringBuilder key, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString().trim();
+        if (!text.isEmpty()) {
+            key.append('|').append(name).append('=').append(text);
+        }
+    }
+
+    /**
+     * 超过保留上限时移除最早结束的任务
+     */
+    private void purgeFinishedJobs() {
+        List<JobHandle> finished = new ArrayList<>();
+        for (JobHandle handle : jobs.values()) {
+            if (handle.job.isFinished()) {
+                finished.add(handle);
+            }
+        }
+        if (finished.size() < MAX_FINISHED_JOBS) {
+            return;
+        }
+        finished.sort(Comparator.comparing(handle -> handle.job.getFinishedAt()));
+        for (int i = 0; i <= finished.size() - MAX_FINISHED_JOBS; i++) {
+            jobs.remove(finished.get(i).job.getJobId());
+        }
+    }
+
+    /**
+     * 写入结果缓存；超过上限时先移除文件已不存在的条目，再按缓存时间移除最早的条目
+     */
+    private void cacheResult(String cacheKey, CachedExport export) {
+        resultCache.put(cacheKey, export);
+        if (resultCache.size() <= MAX_CACHED_EXPORTS) {
+            return;
+        }
+        resultCache.entrySet().removeIf(entry -> !Files.exists(entry.getValue().filePath));
+        List<Map.Entry<String, CachedExport>> entries = new ArrayList<>(resultCache.entrySet());
+        if (entries.size() <= MAX_CACHED_EXPORTS) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().cachedAt));
+        for (int i = 0; i < entries.size() - MAX_CACHED_EXPORTS; i++) {
+            resultCache.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+    }
+
+    /**
+     * 任务运行时句柄（不对外暴露）
+     */
+    private static class JobHandle {
+        private final ExportJob job;
+        private final String cacheKey;
+        private final String dataVersion;
+        private final CompletableFuture<ExportResult> result = new CompletableFuture<>();
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+        /**
+         * 工作线程开始执行或排队期间被取消时置位，二者只有一方能成功
+         */
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile long lastPushAt;
+
+        JobHandle(ExportJob job, String cacheKey, String dataVersion) {
+            this.job = job;
+            this.cacheKey = cacheKey;
+            this.dataVersion = dataVersion;
+        }
+    }
+
+    /**
+     * 缓存的导出结果
+     */
+    private static class CachedExport {
+        private final String dataVersion;
+        private final Path filePath;
+        private final int recordCount;
+        private final long cachedAt = System.currentTimeMillis();
+
+        CachedExport(String dataVersion, Path filePath, int recordCount) {
+            this.dataVersion = dataVersion;
+            this.filePath = filePath;
+            this.recordCount = recordCount;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.lcsc.service.crawler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 导出行渲染线程池
+ * 参数解析、折扣价计算、字符串拼接等行渲染是CPU密集型工作，放到独立的ForkJoinPool并行执行；
+ * 输出仍由调用线程按输入顺序写出，保证文件行序与查询顺序一致
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+public class ExportRenderPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportRenderPool.class);
+
+    /**
+     * 少于该数量时直接在调用线程渲染，避免任务调度开销
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    /**
+     * 渲染并行度（0表示使用CPU核数）
+     */
+    @Value("${crawler.export.render-parallelism:0}")
+    private int configuredParallelism;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = configuredParallelism > 0 ? configuredParallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(parallelism, workerPool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(workerPool);
+            thread.setName("ExportRender-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        log.info("导出渲染线程池已初始化: 并行度={}", parallelism);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pool.shutdown();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 并行渲染一批元素，返回结果与输入顺序一致
+     */
+    public <T, R> List<R> renderAll(List<T> items, Function<T, R> renderer) {
+        if (items.size() < PARALLEL_THRESHOLD || pool.getParallelism() <= 1) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                results.add(renderer.apply(item));
+            }
+            return results;
+        }
+        return pool.submit(() -> items.parallelStream().map(renderer).collect(Collectors.toList())).join();
+    }
+
+    /**
+     * 创建有序渲染流水线
+     * 调用线程（如数据库流式读取线程）逐条投递，按批并行渲染，最多 2×并行度 个批次在途，
+     * 已完成的批次由调用线程按投递顺序交给 sink 写出
+     *
+     * @param batchSize 每批元素数
+     * @param renderer  渲染函数（在渲染线程执行，须线程安全）
+     * @param sink      输出函数（在调用线程按顺序执行）
+     */
+    public <T, R> Pipeline<T, R> newPipeline(int batchSize, Function<T, R> renderer, RowSink<R> sink) {
+        return new Pipeline<>(pool, batchSize, pool.getParallelism() * 2, renderer, sink);
+    }
+
+    /**
+     * 有序输出回调
+     */
+    @FunctionalInterface
+    public interface RowSink<R> {
+        void accept(R rendered) throws IOException;
+    }
+
+    /**
+     * 有序渲染流水线（非线程安全，只能由单个调用线程投递）
+     */
+    public static class Pipeline<T, R> {
+        private final ForkJoinPool pool;
+        private final int batchSize;
+        private final int maxInFlight;
+        private final Function<T, R> renderer;
+        private final RowSink<R> sink;
+        private final Deque<CompletableFuture<List<R>>> inFlight = new ArrayDeque<>();
+        private List<T> batch;
+
+        Pipeline(ForkJoinPool pool, int batchSize, int maxInFlight, Function<T, R> renderer, RowSink<R> sink) {
+            this.pool = pool;
+            this.batchSize = batchSize;
+            this.maxInFlight = Math.max(1, maxInFlight);
+            this.renderer = renderer;
+            this.sink = sink;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        /**
+         * 投递一个待渲染元素
+         */
+        public void accept(T item) {
+            batch.add(item);
+            if (batch.size() >= batchSize) {
+                submitBatch();
+            }
+        }
+
+        /**
+         * 渲染并写出所有剩余元素
+         */
+        public void finish() {
+            if (!batch.isEmpty()) {
+                submitBatch();
+            }
+            while (!inFlight.isEmpty()) {
+                drainHead();
+            }
+        }
+
+        private void submitBatch() {
+            List<T> current = batch;
+            batch = new ArrayList<>(batchSize);
+            inFlight.addLast(CompletableFuture.supplyAsync(() -> {
+                List<R> results = new ArrayList<>(current.size());
+                for (T item : current) {
+                    results.add(renderer.apply(item));
+                }
+                return results;
+            }, pool));
+            while (inFlight.size() > maxInFlight) {
+                drainHead();
+            }
+        }
+
+        private void drainHead() {
+            List<R> results = inFlight.removeFirst().join();
+            try {
+                for (R rendered : results) {
+                    sink.accept(rendered);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
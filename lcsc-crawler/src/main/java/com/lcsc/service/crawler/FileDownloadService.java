@@ -1,5 +1,6 @@
 package com.lcsc.service.crawler;
 
+import com.lcsc.service.crawler.monitoring.CrawlerMeters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
@@ -41,6 +42,12 @@ public class FileDownloadService implements InitializingBean, DisposableBean {
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private CrawlerMeters crawlerMeters;
+
+    @Autowired
+    private StorageIndexService storageIndexService;
+
     private final BlockingQueue<DownloadTask> downloadQueue = new LinkedBlockingQueue<>();
     private final AtomicInteger activeTaskCount = new AtomicInteger(0);
     private volatile boolean isRunning = false;
@@ -140,6 +147,7 @@ public class FileDownloadService implements InitializingBean, DisposableBean {
             return;
         }
 
+        long start = System.nanoTime();
         try {
             // 确保父目录存在
             Files.createDirectories(filePath.getParent());
@@ -154,8 +162,11 @@ public class FileDownloadService implements InitializingBean, DisposableBean {
             try (InputStream inputStream = connection.getInputStream()) {
                 Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
             }
+            crawlerMeters.recordStage(CrawlerMeters.STAGE_DOWNLOAD, System.nanoTime() - start);
 
             log.info("下载成功: {}", task.localPath());
+            // 更新存储用量索引
+            storageIndexService.recordFileAdded(task.localPath(), task.type(), Files.size(filePath));
             // 更新统计
             if ("image".equalsIgnoreCase(task.type())) {
                 redisTemplate.opsForValue().increment(STATS_COMPLETED_IMAGES);
@@ -99,6 +99,10 @@ public final class LcscApiEndpoints {
         public static final String ACCEPT = "application/json, text/plain, */*";
         public static final String ACCEPT_LANGUAGE = "zh-CN,zh;q=0.9,en;q=0.8";
         public static final String ACCEPT_ENCODING = "gzip, deflate, br, zstd";
+        /**
+         * 非阻塞客户端声明的压缩格式：gzip/deflate 由 Netty 解码，br 由 LcscApiService 用 org.brotli 解码
+         */
+        public static final String ACCEPT_ENCODING_POOLED = "gzip, deflate, br";
         public static final String CACHE_CONTROL = "no-cache";
         public static final String PRAGMA = "no-cache";
         public static final String X_REQUESTED_WITH = "XMLHttpRequest";
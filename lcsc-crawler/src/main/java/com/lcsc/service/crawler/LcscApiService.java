@@ -5,18 +5,30 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.brotli.dec.BrotliInputStream;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.lcsc.service.crawler.network.DynamicRateLimiter;
 import com.lcsc.service.crawler.error.SmartRetryHandler;
+import com.lcsc.service.crawler.monitoring.CrawlerMeters;
+import com.lcsc.service.crawler.monitoring.TaskPhaseTracer;
 import com.lcsc.config.HttpDebugConfig;
 
 /**
@@ -32,7 +44,14 @@ public class LcscApiService {
 
     private static final Logger log = LoggerFactory.getLogger(LcscApiService.class);
 
+    /**
+     * 客户端模式：blocking=RestTemplate（默认），reactive=WebClient/Reactor Netty 非阻塞调用
+     */
+    public static final String CLIENT_MODE_BLOCKING = "blocking";
+    public static final String CLIENT_MODE_REACTIVE = "reactive";
+
     private final RestTemplate restTemplate;
+    private final WebClient webClient;
     private final ObjectMapper objectMapper;
     private final ScheduledExecutorService executorService;
     private final DynamicRateLimiter rateLimiter;
@@ -42,19 +61,35 @@ public class LcscApiService {
     // 文件写入服务
     private final ProductResultFileWriter productResultFileWriter;
 
+    // 指标
+    private final CrawlerMeters crawlerMeters;
+
+    /**
+     * API基础地址（默认立创线上地址，压测时指向本地模拟器）
+     */
+    @Value("${crawler.api.base-url:" + LcscApiEndpoints.BASE_URL + "}")
+    private String apiBaseUrl = LcscApiEndpoints.BASE_URL;
+
+    @Value("${lcsc.crawler.http.client-mode:" + CLIENT_MODE_BLOCKING + "}")
+    private String clientMode = CLIENT_MODE_BLOCKING;
+
     @Autowired
     public LcscApiService(ObjectMapper objectMapper,
                          RestTemplate restTemplate,
+                         WebClient lcscWebClient,
                          DynamicRateLimiter rateLimiter,
                          SmartRetryHandler retryHandler,
                          HttpDebugConfig debugConfig,
-                         ProductResultFileWriter productResultFileWriter) {
+                         ProductResultFileWriter productResultFileWriter,
+                         CrawlerMeters crawlerMeters) {
         this.objectMapper = objectMapper;
         this.restTemplate = restTemplate;
+        this.webClient = lcscWebClient;
         this.rateLimiter = rateLimiter;
         this.retryHandler = retryHandler;
         this.debugConfig = debugConfig;
         this.productResultFileWriter = productResultFileWriter;
+        this.crawlerMeters = crawlerMeters;
         this.executorService = Executors.newScheduledThreadPool(5);
     }
 
@@ -65,11 +100,15 @@ public class LcscApiService {
      * POST /catalog/list
      */
     public CompletableFuture<Map<String, Object>> getCatalogList() {
+        if (isReactiveMode()) {
+            return postReactive("catalog_list", "CATALOG_LIST", LcscApiEndpoints.Paths.CATALOG_LIST,
+                "{}", this::parseCatalogListResponse, "获取分类目录");
+        }
         return retryHandler.executeWithSmartRetry(
             () -> {
                 if (debugConfig.isPrintApiCallDetails()) {
                     log.info("=== CATALOG LIST API CALL DEBUG ===");
-                    log.info("URL: {}", LcscApiEndpoints.Urls.CATALOG_LIST);
+                    log.info("URL: {}", apiBaseUrl + LcscApiEndpoints.Paths.CATALOG_LIST);
                     log.info("Method: POST");
                     log.info("Request Body: {}");
                     if (debugConfig.isPrintHeaders()) {
@@ -81,12 +120,12 @@ public class LcscApiService {
                 HttpHeaders headers = createHeaders();
                 HttpEntity<String> entity = new HttpEntity<>("{}", headers);
 
-                ResponseEntity<String> response = restTemplate.exchange(
-                    LcscApiEndpoints.Urls.CATALOG_LIST,
+                ResponseEntity<byte[]> response = crawlerMeters.timeApi("catalog_list", () -> restTemplate.exchange(
+                    apiBaseUrl + LcscApiEndpoints.Paths.CATALOG_LIST,
                     HttpMethod.POST,
                     entity,
-                    String.class
-                );
+                    byte[].class
+                ));
 
                 if (debugConfig.isPrintApiCallDetails()) {
                     log.info("=== API RESPONSE RECEIVED ===");
@@ -97,7 +136,7 @@ public class LcscApiService {
                     log.info("=== END API CALL DEBUG ===");
                 }
 
-                return parseCatalogListResponse(response.getBody());
+                return timeParse(() -> parseCatalogListResponse(openBody(response)));
             },
             "获取分类目录",
             SmartRetryHandler.createApiContext()
@@ -109,13 +148,17 @@ public class LcscApiService {
      * POST /query/param/group
      */
     public CompletableFuture<Map<String, Object>> getQueryParamGroup(Map<String, Object> filterParams) {
+        if (isReactiveMode()) {
+            return postReactive("query_param_group", "QUERY_PARAM_GROUP", LcscApiEndpoints.Paths.QUERY_PARAM_GROUP,
+                buildFilterParams(filterParams), this::parseQueryParamGroupResponse, "获取筛选条件");
+        }
         return retryHandler.executeWithSmartRetry(
             () -> {
                 // 构建请求体，设置默认值
                 Map<String, Object> requestBody = buildFilterParams(filterParams);
 
                 log.info("=== QUERY PARAM GROUP API CALL DEBUG ===");
-                log.info("URL: {}", LcscApiEndpoints.Urls.QUERY_PARAM_GROUP);
+                log.info("URL: {}", apiBaseUrl + LcscApiEndpoints.Paths.QUERY_PARAM_GROUP);
                 log.info("Method: POST");
                 log.info("Request Body: {}", requestBody);
                 log.info("=== START API CALL ===");
@@ -124,18 +167,18 @@ public class LcscApiService {
                 headers.setContentType(MediaType.APPLICATION_JSON);
                 HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-                ResponseEntity<String> response = restTemplate.exchange(
-                    LcscApiEndpoints.Urls.QUERY_PARAM_GROUP,
+                ResponseEntity<byte[]> response = crawlerMeters.timeApi("query_param_group", () -> restTemplate.exchange(
+                    apiBaseUrl + LcscApiEndpoints.Paths.QUERY_PARAM_GROUP,
                     HttpMethod.POST,
                     entity,
-                    String.class
-                );
+                    byte[].class
+                ));
 
                 log.info("=== API RESPONSE RECEIVED ===");
                 log.info("Status Code: {}", response.getStatusCode());
                 log.info("=== END API CALL DEBUG ===");
 
-                return parseQueryParamGroupResponse(response.getBody());
+                return timeParse(() -> parseQueryParamGroupResponse(openBody(response)));
             },
             "获取筛选条件",
             SmartRetryHandler.createApiContext()
@@ -147,21 +190,17 @@ public class LcscApiService {
      * POST /query/list
      */
     public CompletableFuture<Map<String, Object>> getQueryList(Map<String, Object> filterParams) {
+        if (isReactiveMode()) {
+            return postReactive("query_list", "QUERY_LIST", LcscApiEndpoints.Paths.QUERY_LIST,
+                buildQueryListBody(filterParams), this::parseQueryListResponse, "获取产品列表");
+        }
         return retryHandler.executeWithSmartRetry(
             () -> {
-                // 构建请求体，设置默认值
-                Map<String, Object> requestBody = buildFilterParams(filterParams);
-
-                // 确保包含分页信息
-                if (!requestBody.containsKey(LcscApiEndpoints.FilterParams.CURRENT_PAGE)) {
-                    requestBody.put(LcscApiEndpoints.FilterParams.CURRENT_PAGE, LcscApiEndpoints.Config.DEFAULT_CURRENT_PAGE);
-                }
-                if (!requestBody.containsKey(LcscApiEndpoints.FilterParams.PAGE_SIZE)) {
-                    requestBody.put(LcscApiEndpoints.FilterParams.PAGE_SIZE, LcscApiEndpoints.Config.DEFAULT_PAGE_SIZE);
-                }
+                // 构建请求体，设置默认值和分页信息
+                Map<String, Object> requestBody = buildQueryListBody(filterParams);
 
                 log.info("=== QUERY LIST API CALL DEBUG ===");
-                log.info("URL: {}", LcscApiEndpoints.Urls.QUERY_LIST);
+                log.info("URL: {}", apiBaseUrl + LcscApiEndpoints.Paths.QUERY_LIST);
                 log.info("Method: POST");
                 log.info("Request Body: {}", requestBody);
                 log.info("=== START API CALL ===");
@@ -170,27 +209,19 @@ public class LcscApiService {
                 headers.setContentType(MediaType.APPLICATION_JSON);
                 HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-                ResponseEntity<String> response = restTemplate.exchange(
-                    LcscApiEndpoints.Urls.QUERY_LIST,
+                ResponseEntity<byte[]> response = crawlerMeters.timeApi("query_list", () -> restTemplate.exchange(
+                    apiBaseUrl + LcscApiEndpoints.Paths.QUERY_LIST,
                     HttpMethod.POST,
                     entity,
-                    String.class
-                );
+                    byte[].class
+                ));
 
                 log.info("=== API RESPONSE RECEIVED ===");
                 log.info("Status Code: {}", response.getStatusCode());
-                String responseBody = response.getBody();
-                log.info("Response Body Length: {}", responseBody != null ? responseBody.length() : 0);
-                if (responseBody != null && responseBody.length() > 0) {
-                    log.info("Response Body (first 1000 chars): {}",
-                        responseBody.substring(0, Math.min(1000, responseBody.length())));
-                    if (responseBody.length() > 1000) {
-                        log.info("... (truncated, total length: {})", responseBody.length());
-                    }
-                }
+                log.info("Response Body Bytes: {}", response.getBody() != null ? response.getBody().length : 0);
                 log.info("=== END API CALL DEBUG ===");
 
-                return parseQueryListResponse(responseBody);
+                return timeParse(() -> parseQueryListResponse(openBody(response)));
             },
             "获取产品列表",
             SmartRetryHandler.createApiContext()
@@ -198,6 +229,110 @@ public class LcscApiService {
     }
     
 
+    /**
+     * 构建产品列表请求体，确保包含分页信息
+     */
+    private Map<String, Object> buildQueryListBody(Map<String, Object> filterParams) {
+        Map<String, Object> requestBody = buildFilterParams(filterParams);
+        if (!requestBody.containsKey(LcscApiEndpoints.FilterParams.CURRENT_PAGE)) {
+            requestBody.put(LcscApiEndpoints.FilterParams.CURRENT_PAGE, LcscApiEndpoints.Config.DEFAULT_CURRENT_PAGE);
+        }
+        if (!requestBody.containsKey(LcscApiEndpoints.FilterParams.PAGE_SIZE)) {
+            requestBody.put(LcscApiEndpoints.FilterParams.PAGE_SIZE, LcscApiEndpoints.Config.DEFAULT_PAGE_SIZE);
+        }
+        return requestBody;
+    }
+
+    private boolean isReactiveMode() {
+        return CLIENT_MODE_REACTIVE.equalsIgnoreCase(clientMode);
+    }
+
+    /**
+     * 非阻塞POST调用（client-mode=reactive）
+     * 限速等待、HTTP请求和重试退避都在 Reactor 调用链上完成，不占用线程；
+     * 解析切到 boundedElastic 执行，query/list 解析时会写结果文件，不能放在事件循环线程上
+     *
+     * @param metricEndpoint    指标中的端点名
+     * @param rateLimitEndpoint 频率控制的端点名（与 RestTemplate 拦截器一致）
+     * @param path              接口路径
+     * @param requestBody       请求体
+     * @param parser            响应解析（输入为解码后的字节流）
+     * @param operationName     操作名称（用于重试日志）
+     */
+    private <T> CompletableFuture<T> postReactive(String metricEndpoint,
+                                                  String rateLimitEndpoint,
+                                                  String path,
+                                                  Object requestBody,
+                                                  Function<InputStream, T> parser,
+                                                  String operationName) {
+        TaskPhaseTracer.TaskTrace trace = TaskPhaseTracer.current();
+        String url = apiBaseUrl + path;
+        log.debug("非阻塞调用: POST {} body={}", url, requestBody);
+
+        return retryHandler.executeWithSmartRetryReactive(
+            () -> {
+                Mono<ResponseEntity<byte[]>> request = webClient.post()
+                    .uri(url)
+                    .headers(headers -> {
+                        headers.addAll(createHeaders());
+                        headers.setContentType(MediaType.APPLICATION_JSON);
+                        headers.set(HttpHeaders.ACCEPT_ENCODING, LcscApiEndpoints.Headers.ACCEPT_ENCODING_POOLED);
+                    })
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .toEntity(byte[].class);
+
+                return rateLimiter.throttle(rateLimitEndpoint, crawlerMeters.timeApi(metricEndpoint, request, trace), trace)
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(response -> {
+                        TaskPhaseTracer.TaskTrace previous = TaskPhaseTracer.attach(trace);
+                        try {
+                            return timeParse(() -> parser.apply(openBody(response)));
+                        } finally {
+                            TaskPhaseTracer.detach(previous);
+                        }
+                    });
+            },
+            operationName,
+            SmartRetryHandler.createApiContext()
+        );
+    }
+
+    /**
+     * 打开响应体字节流供解析器直接读取（不转成String）
+     * gzip/deflate 已由HTTP客户端解码并去掉 Content-Encoding；仍标记为 br 的响应在此解码
+     */
+    private InputStream openBody(ResponseEntity<byte[]> response) {
+        byte[] body = response.getBody();
+        if (body == null || body.length == 0) {
+            throw new IllegalStateException("响应体为空");
+        }
+        InputStream in = new ByteArrayInputStream(body);
+        String contentEncoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && "br".equalsIgnoreCase(contentEncoding.trim())) {
+            try {
+                return new BrotliInputStream(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Brotli响应解码失败", e);
+            }
+        }
+        return in;
+    }
+
+    /**
+     * 对响应解析计时（crawler.stage{stage=parse}）
+     */
+    private <T> T timeParse(Supplier<T> parser) {
+        long start = System.nanoTime();
+        try {
+            return parser.get();
+        } finally {
+            long duration = System.nanoTime() - start;
+            crawlerMeters.recordStage(CrawlerMeters.STAGE_PARSE, duration);
+            TaskPhaseTracer.record(TaskPhaseTracer.Phase.PARSE, duration);
+        }
+    }
+
     /**
      * 创建HTTP请求头
      */
@@ -304,15 +439,8 @@ public class LcscApiService {
     /**
      * 解析新catalog/list接口响应数据
      */
-    private Map<String, Object> parseCatalogListResponse(String response) {
-        try {
-            log.debug("=== DEBUG: 原始响应内容 ===");
-            log.debug("Response length: " + (response != null ? response.length() : "null"));
-            if (response != null && response.length() > 0) {
-                log.debug("First 500 chars: " + response.substring(0, Math.min(500, response.length())));
-            }
-            log.debug("=== DEBUG: 开始解析JSON ===");
-            
+    private Map<String, Object> parseCatalogListResponse(InputStream response) {
+        try (response) {
             JsonNode jsonNode = objectMapper.readTree(response);
             log.debug("JSON root keys: " + jsonNode.fieldNames());
             
@@ -330,7 +458,7 @@ public class LcscApiService {
             
             if (catalogList != null && catalogList.isArray()) {
                 for (JsonNode catalog : catalogList) {
-                    log.debug("=== DEBUG: Processing catalog node: " + catalog.toString());
+                    log.debug("=== DEBUG: Processing catalog node: {}", catalog);
                     Map<String, Object> catalogMap = new HashMap<>();
                     catalogMap.put("catalogId", catalog.get("catalogId").asInt());
                     
@@ -418,8 +546,8 @@ public class LcscApiService {
     /**
      * 解析新query/param/group接口响应数据
      */
-    private Map<String, Object> parseQueryParamGroupResponse(String response) {
-        try {
+    Map<String, Object> parseQueryParamGroupResponse(InputStream response) {
+        try (response) {
             JsonNode jsonNode = objectMapper.readTree(response);
             JsonNode result = jsonNode.get("result");
             
@@ -463,10 +591,9 @@ public class LcscApiService {
     /**
      * 解析新query/list接口响应数据
      */
-    private Map<String, Object> parseQueryListResponse(String response) {
-        try {
+    Map<String, Object> parseQueryListResponse(InputStream response) {
+        try (response) {
             log.info("=== PARSING QUERY LIST RESPONSE ===");
-            log.info("Response length: {}", response != null ? response.length() : "null");
 
             JsonNode jsonNode = objectMapper.readTree(response);
             log.info("JSON root keys: {}", jsonNode.fieldNames());
@@ -516,73 +643,7 @@ public class LcscApiService {
             log.info("Total products parsed: {}", products.size());
             queryResult.put("dataList", products);
 
-            // 添加完整的原始响应用于调试和完整存储
-            queryResult.put("rawResponse", response);
-            queryResult.put("fullApiResult", result);
-
-            // 尝试从 result 节点获取原始JSON字符串（如果 result 是对象节点）
-            String rawJsonResponse = "";
-            if (result != null && !result.isNull()) {
-                try {
-                    rawJsonResponse = objectMapper.writeValueAsString(result);
-                    log.info("API响应的完整JSON数据长度: {}", rawJsonResponse != null ? rawJsonResponse.length() : 0);
-                } catch (Exception e) {
-                    log.error("将API响应转换为JSON字符串失败: {}", e.getMessage(), e);
-                    rawJsonResponse = response; // 使用原始响应作为备选
-                }
-            }
-
-            // 将每个产品信息单独保存到product-data.jsonl
-            JsonNode productDataList = result.get("dataList");
-            if (productDataList != null && productDataList.isArray()) {
-                log.info("开始保存 {} 个产品到 product-data.jsonl", productDataList.size());
-
-                for (int i = 0; i < productDataList.size(); i++) {
-                    JsonNode product = productDataList.get(i);
-                    try {
-                        // 为每个产品创建包含category信息的完整数据
-                        com.fasterxml.jackson.databind.node.ObjectNode productData = objectMapper.createObjectNode();
-
-                        // 复制所有产品字段
-                        Iterator<String> fieldNames = product.fieldNames();
-                        while (fieldNames.hasNext()) {
-                            String fieldName = fieldNames.next();
-                            productData.put(fieldName, product.get(fieldName));
-                        }
-
-                        // 添加分类信息
-                        Integer cat1Id = extractCatalogIdFromResult(result);
-                        Integer cat2Id = null; // 这里可以根据需要从请求参数中提取
-                        Integer currentPage = currPage != null ? currPage.asInt() : null;
-
-                        if (cat1Id != null) {
-                            productData.put("categoryLevel1Id", cat1Id);
-                        }
-                        if (cat2Id != null) {
-                            productData.put("categoryLevel2Id", cat2Id);
-                        }
-                        if (currentPage != null) {
-                            productData.put("currentPage", currentPage);
-                        }
-                        productData.put("fetchedAt", java.time.OffsetDateTime.now().toString());
-
-                        // 数据将直接存储到数据库中
-                        log.debug("产品 {} 数据已准备处理 (数据将直接存储到数据库)",
-                            product.get("productCode") != null ? product.get("productCode").asText() : "unknown");
-
-                    } catch (Exception e) {
-                        log.error("处理产品 {} 数据失败: {}",
-                            product.get("productCode") != null ? product.get("productCode").asText() : "unknown",
-                            e.getMessage(), e);
-                    }
-                }
-
-                log.info("完成 {} 个产品保存到 product-data.jsonl", productDataList.size());
-            } else {
-                log.warn("dataList 为空或不是数组格式，无法保存产品信息");
-            }
-
-            // 保存完整的API结果到独立文件
+            // 完整的API结果追加到原始响应归档
             try {
                 Integer cat1Id = extractCatalogIdFromResult(result);
                 Integer cat2Id = null; // 这里可以根据需要从请求参数中提取
@@ -592,10 +653,10 @@ public class LcscApiService {
                     result, cat1Id, cat2Id, currentPage);
 
                 if (savedFile != null) {
-                    log.info("完整API结果已保存到独立文件: {}", savedFile);
+                    log.debug("完整API结果已归档: {}", savedFile);
                 }
             } catch (Exception e) {
-                log.error("保存完整API结果到文件失败: {}", e.getMessage(), e);
+                log.error("归档完整API结果失败: {}", e.getMessage(), e);
             }
 
             log.info("=== FINISHED PARSING QUERY LIST RESPONSE ===");
@@ -609,7 +670,7 @@ public class LcscApiService {
     /**
      * 解析单个产品数据（提取所有可用字段）
      */
-    private Map<String, Object> parseProductData(JsonNode product) {
+    Map<String, Object> parseProductData(JsonNode product) {
         Map<String, Object> productMap = new HashMap<>();
 
         // === 基本信息 ===
@@ -2,27 +2,40 @@ package com.lcsc.service.crawler;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.service.crawler.archive.ResultArchiveFormat;
+import com.lcsc.service.crawler.archive.ResultArchiveReader;
+import com.lcsc.service.crawler.archive.ResultArchiveReader.ArchivedResult;
+import com.lcsc.service.crawler.archive.ResultArchiveReader.IndexEntry;
+import com.lcsc.service.crawler.archive.ResultArchiveSegmentWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
-import java.io.BufferedWriter;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
- * 将完整的API结果直接保存到独立的JSON文件中。
- * 每次API调用的result对象将被完整保存为单独的文件。
+ * 完整API结果的追加式归档。
+ * 每个写入线程独占一个段写入器，按天分目录追加写压缩后的定长头记录帧，并同步写按分类/页码定位的索引文件，
+ * 写入路径上没有全局锁；空闲超时的写入器由后台关闭并注销。定期按保留天数和总容量上限清理最旧的段，原始结果可通过 {@link #replayDay}
+ * 顺序回放或 {@link #findLatestResult} 随机读取。文件格式见 {@link ResultArchiveFormat}。
  */
 @Service
 public class ProductResultFileWriter {
@@ -30,7 +43,12 @@ public class ProductResultFileWriter {
     private static final Logger logger = LoggerFactory.getLogger(ProductResultFileWriter.class);
 
     private final ObjectMapper objectMapper;
-    private final Lock writeLock = new ReentrantLock();
+
+    /**
+     * 线程独占的段写入器；所有写入器同时登记在 writers 中，供关闭和清理时识别活动段
+     */
+    private final ThreadLocal<ResultArchiveSegmentWriter> localWriter = new ThreadLocal<>();
+    private final Set<ResultArchiveSegmentWriter> writers = ConcurrentHashMap.newKeySet();
 
     @Value("${crawler.product-result.enabled:true}")
     private boolean exportEnabled;
@@ -41,6 +59,26 @@ public class ProductResultFileWriter {
     @Value("${crawler.storage.base-path:}")
     private String storageBasePath;
 
+    @Value("${crawler.product-result.codec:zstd}")
+    private String codecName;
+
+    @Value("${crawler.product-result.compression-level:3}")
+    private int compressionLevel;
+
+    @Value("${crawler.product-result.max-segment-bytes:268435456}")
+    private long maxSegmentBytes;
+
+    @Value("${crawler.product-result.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${crawler.product-result.max-total-bytes:21474836480}")
+    private long maxTotalBytes;
+
+    @Value("${crawler.product-result.writer-idle-timeout-ms:600000}")
+    private long writerIdleTimeoutMs;
+
+    private ResultArchiveFormat.Codec codec = ResultArchiveFormat.Codec.ZSTD;
+
     private Path resultDirectoryPath;
 
     public ProductResultFileWriter(ObjectMapper objectMapper) {
@@ -50,128 +88,293 @@ public class ProductResultFileWriter {
     @PostConstruct
     public void initializePath() {
         try {
+            this.codec = ResultArchiveFormat.Codec.parse(codecName);
             this.resultDirectoryPath = resolveResultDirectoryPath();
             if (resultDirectoryPath != null) {
                 Files.createDirectories(resultDirectoryPath);
-                logger.info("产品结果文件导出目录已初始化: {}", resultDirectoryPath);
+                logger.info("产品结果归档目录已初始化: {} (压缩: {}, 单段上限: {} 字节)",
+                        resultDirectoryPath, codec, maxSegmentBytes);
             }
         } catch (IOException e) {
             exportEnabled = false;
-            logger.error("初始化产品结果文件导出目录失败: {}", e.getMessage(), e);
+            logger.error("初始化产品结果归档目录失败: {}", e.getMessage(), e);
         }
     }
 
+    @PreDestroy
+    public void closeWriters() {
+        for (ResultArchiveSegmentWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("关闭归档段失败: {}, err={}", writer.getSegmentPath(), e.getMessage());
+            }
+        }
+        writers.clear();
+    }
+
     /**
-     * 将完整的API结果保存到独立文件
+     * 将完整的API结果追加到当前线程的归档段
      *
      * @param result 完整的API result对象
      * @param categoryLevel1Id 一级分类ID
      * @param categoryLevel2Id 二级分类ID
      * @param currentPage 当前页码
-     * @return 保存的文件路径，如果保存失败则返回null
+     * @return 记录所在的段文件，如果保存失败则返回null
      */
     public Path saveResultToFile(Object result, Integer categoryLevel1Id, Integer categoryLevel2Id, Integer currentPage) {
         if (!exportEnabled) {
-            logger.debug("产品结果文件导出已禁用，跳过保存");
+            logger.debug("产品结果归档已禁用，跳过保存");
             return null;
         }
 
         if (resultDirectoryPath == null) {
-            logger.warn("产品结果文件导出目录未初始化，跳过保存");
+            logger.warn("产品结果归档目录未初始化，跳过保存");
             return null;
         }
 
-        String timestamp = OffsetDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-        String fileName = generateFileName(categoryLevel1Id, categoryLevel2Id, currentPage, timestamp);
-        Path filePath = resultDirectoryPath.resolve(fileName);
+        ResultArchiveSegmentWriter writer = null;
+        try {
+            byte[] raw = result instanceof String
+                    ? ((String) result).getBytes(StandardCharsets.UTF_8)
+                    : objectMapper.writeValueAsBytes(result);
+            long savedAt = System.currentTimeMillis();
+            while (true) {
+                writer = currentWriter();
+                Path segment = writer.append(raw, categoryLevel1Id, categoryLevel2Id, currentPage, savedAt);
+                if (segment != null) {
+                    return segment;
+                }
+                // 写入器刚被空闲清理关闭，换用新的写入器
+            }
+        } catch (IOException e) {
+            logger.error("追加产品结果归档失败: {}", e.getMessage(), e);
+            // 写入失败的段可能残留半帧，丢弃当前写入器，下次写入时滚动到新段
+            if (writer != null) {
+                discardWriter(writer);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 随机读取指定分类/页码最近一次归档的结果（按索引定位，从最新的日期目录开始查找）
+     *
+     * @return 原始result节点，未找到时返回null
+     */
+    public JsonNode findLatestResult(Integer categoryLevel1Id, Integer currentPage) throws IOException {
+        if (resultDirectoryPath == null) {
+            return null;
+        }
+        List<Path> dayDirectories = listDayDirectories();
+        dayDirectories.sort(Comparator.reverseOrder());
+        for (Path dayDirectory : dayDirectories) {
+            IndexEntry latest = null;
+            for (Path segment : listSegments(dayDirectory)) {
+                for (IndexEntry entry : ResultArchiveReader.readIndex(segment)) {
+                    if (matches(entry.getCategoryLevel1Id(), categoryLevel1Id)
+                            && matches(entry.getCurrentPage(), currentPage)
+                            && (latest == null || entry.getSavedAtMillis() >= latest.getSavedAtMillis())) {
+                        latest = entry;
+                    }
+                }
+            }
+            if (latest != null) {
+                return objectMapper.readTree(ResultArchiveReader.read(latest).getPayload());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 顺序回放某一天归档的全部结果
+     *
+     * @return 回放的记录数
+     */
+    public long replayDay(LocalDate day, Consumer<ArchivedResult> consumer) throws IOException {
+        if (resultDirectoryPath == null) {
+            return 0;
+        }
+        Path dayDirectory = resultDirectoryPath.resolve(day.format(ResultArchiveSegmentWriter.DAY_FORMAT));
+        if (!Files.isDirectory(dayDirectory)) {
+            return 0;
+        }
+        long count = 0;
+        for (Path segment : listSegments(dayDirectory)) {
+            count += ResultArchiveReader.replay(segment, consumer);
+        }
+        return count;
+    }
+
+    /**
+     * 关闭空闲超时的段写入器
+     * 解析线程来自会回收空闲线程的线程池（公共ForkJoinPool、boundedElastic），线程退出后其写入器不会再被使用，
+     * 需要在这里关闭文件并注销，否则文件句柄泄漏且该段一直被视为活动段、无法被保留策略清理
+     */
+    @Scheduled(fixedDelayString = "${crawler.product-result.writer-idle-check-interval-ms:60000}")
+    public void closeIdleWriters() {
+        for (ResultArchiveSegmentWriter writer : writers) {
+            try {
+                if (writer.closeIfIdle(writerIdleTimeoutMs)) {
+                    writers.remove(writer);
+                    logger.debug("关闭空闲归档段: {}", writer.getSegmentPath());
+                }
+            } catch (IOException e) {
+                writers.remove(writer);
+                logger.warn("关闭空闲归档段失败: {}, err={}", writer.getSegmentPath(), e.getMessage());
+            }
+        }
+    }
 
-        writeLock.lock();
+    /**
+     * 归档保留策略：删除超过保留天数的日期目录，再按总容量上限从最旧的段开始删除（跳过正在写入的段）
+     */
+    @Scheduled(initialDelayString = "${crawler.product-result.retention-initial-delay-ms:300000}",
+            fixedDelayString = "${crawler.product-result.retention-interval-ms:3600000}")
+    public void enforceRetention() {
+        if (resultDirectoryPath == null || !Files.isDirectory(resultDirectoryPath)) {
+            return;
+        }
+        closeIdleWriters();
         try {
-            String jsonContent;
-            if (result instanceof String) {
-                // 如果已经是JSON字符串，直接使用
-                jsonContent = (String) result;
-            } else if (result instanceof JsonNode) {
-                // 如果是JsonNode，转换为格式化的JSON字符串
-                jsonContent = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result);
-            } else {
-                // 其他对象，转换为JSON
-                jsonContent = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result);
+            Set<Path> activeSegments = new HashSet<>();
+            for (ResultArchiveSegmentWriter writer : writers) {
+                Path segment = writer.getSegmentPath();
+                if (segment != null && !writer.isClosed()) {
+                    activeSegments.add(segment);
+                }
             }
 
-            // 添加元数据
-            String contentWithMetadata = addMetadata(jsonContent, categoryLevel1Id, categoryLevel2Id, currentPage);
+            LocalDate oldestKept = LocalDate.now().minusDays(Math.max(retentionDays, 1) - 1L);
+            List<Path> dayDirectories = listDayDirectories();
+            dayDirectories.sort(Comparator.naturalOrder());
+
+            int deletedSegments = 0;
+            List<Path> keptSegments = new ArrayList<>();
+            long totalBytes = 0;
+            for (Path dayDirectory : dayDirectories) {
+                boolean expired = retentionDays > 0
+                        && LocalDate.parse(dayDirectory.getFileName().toString(), ResultArchiveSegmentWriter.DAY_FORMAT)
+                        .isBefore(oldestKept);
+                for (Path segment : listSegments(dayDirectory)) {
+                    if (activeSegments.contains(segment)) {
+                        continue;
+                    }
+                    if (expired) {
+                        deleteSegment(segment);
+                        deletedSegments++;
+                    } else {
+                        keptSegments.add(segment);
+                        totalBytes += segmentBytes(segment);
+                    }
+                }
+            }
 
-            try (BufferedWriter writer = Files.newBufferedWriter(
-                    filePath,
-                    StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.WRITE,
-                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            // 同一天内按文件名中的创建时间排序，保证先删最旧的段
+            keptSegments.sort(Comparator.comparing((Path p) -> p.getParent().getFileName().toString())
+                    .thenComparingLong(ProductResultFileWriter::segmentSequence));
+            if (maxTotalBytes > 0) {
+                for (Path segment : keptSegments) {
+                    if (totalBytes <= maxTotalBytes) {
+                        break;
+                    }
+                    totalBytes -= segmentBytes(segment);
+                    deleteSegment(segment);
+                    deletedSegments++;
+                }
+            }
 
-                writer.write(contentWithMetadata);
-                writer.newLine();
+            for (Path dayDirectory : dayDirectories) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(dayDirectory)) {
+                    if (!stream.iterator().hasNext()) {
+                        Files.deleteIfExists(dayDirectory);
+                    }
+                }
+            }
 
-                logger.info("产品结果已保存到文件: {} (大小: {} 字节)", filePath, Files.size(filePath));
-                return filePath;
+            if (deletedSegments > 0) {
+                logger.info("产品结果归档清理完成: 删除 {} 个段, 剩余 {} 字节", deletedSegments, totalBytes);
             }
+        } catch (IOException e) {
+            logger.warn("产品结果归档清理失败: {}", e.getMessage());
+        }
+    }
 
+    private ResultArchiveSegmentWriter currentWriter() {
+        ResultArchiveSegmentWriter writer = localWriter.get();
+        if (writer == null || writer.isClosed()) {
+            writer = new ResultArchiveSegmentWriter(resultDirectoryPath, Thread.currentThread().getName(),
+                    codec, compressionLevel, maxSegmentBytes);
+            localWriter.set(writer);
+            writers.add(writer);
+        }
+        return writer;
+    }
+
+    private void discardWriter(ResultArchiveSegmentWriter writer) {
+        writers.remove(writer);
+        localWriter.remove();
+        try {
+            writer.close();
         } catch (IOException e) {
-            logger.error("保存产品结果文件失败: {}", e.getMessage(), e);
-            return null;
-        } finally {
-            writeLock.unlock();
+            logger.debug("关闭失败的归档段: {}", e.getMessage());
         }
     }
 
     /**
-     * 生成文件名
+     * 列出 yyyyMMdd 命名的日期目录（旧版的独立JSON文件不受归档清理影响）
      */
-    private String generateFileName(Integer categoryLevel1Id, Integer categoryLevel2Id, Integer currentPage, String timestamp) {
-        StringBuilder fileName = new StringBuilder();
-
-        if (categoryLevel1Id != null) {
-            fileName.append("cat1-").append(categoryLevel1Id);
-        }
-        if (categoryLevel2Id != null) {
-            fileName.append("-cat2-").append(categoryLevel2Id);
+    private List<Path> listDayDirectories() throws IOException {
+        List<Path> directories = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(resultDirectoryPath, Files::isDirectory)) {
+            for (Path directory : stream) {
+                try {
+                    LocalDate.parse(directory.getFileName().toString(), ResultArchiveSegmentWriter.DAY_FORMAT);
+                    directories.add(directory);
+                } catch (DateTimeParseException ignored) {
+                    // 非归档目录
+                }
+            }
         }
-        if (currentPage != null) {
-            fileName.append("-page-").append(currentPage);
+        return directories;
+    }
+
+    private List<Path> listSegments(Path dayDirectory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dayDirectory, "*" + ResultArchiveFormat.SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
         }
-        fileName.append("-").append(timestamp).append(".json");
+        return segments;
+    }
+
+    private long segmentBytes(Path segment) throws IOException {
+        Path index = ResultArchiveFormat.indexPathOf(segment);
+        return Files.size(segment) + (Files.exists(index) ? Files.size(index) : 0);
+    }
 
-        return fileName.toString();
+    private void deleteSegment(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+        Files.deleteIfExists(ResultArchiveFormat.indexPathOf(segment));
     }
 
     /**
-     * 添加元数据到JSON内容
+     * 段文件名 results-{线程}-{创建毫秒}.seg 中的创建序号
      */
-    private String addMetadata(String jsonContent, Integer categoryLevel1Id, Integer categoryLevel2Id, Integer currentPage) {
-        StringBuilder metadata = new StringBuilder();
-        metadata.append("{\n");
-        metadata.append("  \"metadata\": {\n");
-        metadata.append("    \"savedAt\": \"").append(OffsetDateTime.now().toString()).append("\",\n");
-        metadata.append("    \"categoryLevel1Id\": ").append(categoryLevel1Id != null ? categoryLevel1Id : "null").append(",\n");
-        metadata.append("    \"categoryLevel2Id\": ").append(categoryLevel2Id != null ? categoryLevel2Id : "null").append(",\n");
-        metadata.append("    \"currentPage\": ").append(currentPage != null ? currentPage : "null").append("\n");
-        metadata.append("  },\n");
-        metadata.append("  \"result\": ");
-
-        // 如果原始内容已经是JSON对象，我们需要移除外层的大括号并将内容嵌入
-        String trimmedContent = jsonContent.trim();
-        if (trimmedContent.startsWith("{")) {
-            trimmedContent = trimmedContent.substring(1);
-            if (trimmedContent.endsWith("}")) {
-                trimmedContent = trimmedContent.substring(0, trimmedContent.length() - 1);
-            }
-            // 移除开头可能的换行符
-            if (trimmedContent.startsWith("\n")) {
-                trimmedContent = trimmedContent.substring(1);
-            }
+    private static long segmentSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        int start = name.lastIndexOf('-') + 1;
+        int end = name.length() - ResultArchiveFormat.SEGMENT_SUFFIX.length();
+        try {
+            return Long.parseLong(name.substring(start, end));
+        } catch (RuntimeException e) {
+            return 0;
         }
+    }
 
-        return metadata.append(trimmedContent).toString();
+    private static boolean matches(Integer actual, Integer expected) {
+        return expected == null || expected.equals(actual);
     }
 
     /**
@@ -216,4 +419,4 @@ public class ProductResultFileWriter {
     public Path getResultDirectoryPath() {
         return resultDirectoryPath;
     }
-}
\ No newline at end of file
+}
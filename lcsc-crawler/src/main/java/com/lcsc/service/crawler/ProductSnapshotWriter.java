@@ -0,0 +1,364 @@
+package com.lcsc.service.crawler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lcsc.entity.Product;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产品列式快照写入器（Apache Arrow IPC 文件格式，ZSTD压缩）
+ * 面向分析侧全量重新导入：阶梯数量/价格为数值列，参数为 map&lt;string,string&gt; 列，
+ * pyarrow / pandas.read_feather / DuckDB 可直接读取。
+ * 按 BATCH_ROWS 行一个记录批次写出，内存占用与总行数无关；非线程安全，由导出线程顺序调用。
+ * 注意：Arrow 需要 --add-opens=java.base/java.nio=ALL-UNNAMED（jar清单中已声明）
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class ProductSnapshotWriter implements Closeable {
+
+    /**
+     * 每个记录批次的行数
+     */
+    private static final int BATCH_ROWS = 8192;
+
+    /**
+     * 阶梯价格级数（与products表一致）
+     */
+    private static final int LADDER_LEVELS = 6;
+
+    /**
+     * 阶梯价格精度，与 ladder_priceN_price decimal(10,4) 一致
+     */
+    private static final int PRICE_PRECISION = 10;
+    private static final int PRICE_SCALE = 4;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Schema SCHEMA = buildSchema();
+
+    private final FileChannel channel;
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final ArrowFileWriter writer;
+
+    private final IntVector id;
+    private final VarCharVector productCode;
+    private final VarCharVector brand;
+    private final VarCharVector model;
+    private final VarCharVector packageName;
+    private final VarCharVector briefDescription;
+    private final IntVector categoryLevel1Id;
+    private final IntVector categoryLevel2Id;
+    private final IntVector categoryLevel3Id;
+    private final VarCharVector categoryLevel1Name;
+    private final VarCharVector categoryLevel2Name;
+    private final VarCharVector categoryLevel3Name;
+    private final IntVector totalStockQuantity;
+    private final IntVector[] ladderQuantities = new IntVector[LADDER_LEVELS];
+    private final DecimalVector[] ladderPrices = new DecimalVector[LADDER_LEVELS];
+    private final MapVector parameters;
+    private final VarCharVector productImageUrl;
+    private final VarCharVector pdfUrl;
+    private final TimeStampMilliVector lastCrawledAt;
+
+    private int batchRows;
+    private int rowCount;
+
+    public ProductSnapshotWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        try {
+            this.allocator = new RootAllocator();
+            this.root = VectorSchemaRoot.create(SCHEMA, allocator);
+            this.writer = new ArrowFileWriter(root, null, channel, null, IpcOption.DEFAULT,
+                    CommonsCompressionFactory.INSTANCE, CompressionUtil.CodecType.ZSTD);
+        } catch (RuntimeException | Error e) {
+            channel.close();
+            throw e;
+        }
+
+        id = (IntVector) root.getVector("id");
+        productCode = (VarCharVector) root.getVector("product_code");
+        brand = (VarCharVector) root.getVector("brand");
+        model = (VarCharVector) root.getVector("model");
+        packageName = (VarCharVector) root.getVector("package_name");
+        briefDescription = (VarCharVector) root.getVector("brief_description");
+        categoryLevel1Id = (IntVector) root.getVector("category_level1_id");
+        categoryLevel2Id = (IntVector) root.getVector("category_level2_id");
+        categoryLevel3Id = (IntVector) root.getVector("category_level3_id");
+        categoryLevel1Name = (VarCharVector) root.getVector("category_level1_name");
+        categoryLevel2Name = (VarCharVector) root.getVector("category_level2_name");
+        categoryLevel3Name = (VarCharVector) root.getVector("category_level3_name");
+        totalStockQuantity = (IntVector) root.getVector("total_stock_quantity");
+        for (int i = 0; i < LADDER_LEVELS; i++) {
+            ladderQuantities[i] = (IntVector) root.getVector("ladder_price" + (i + 1) + "_quantity");
+            ladderPrices[i] = (DecimalVector) root.getVector("ladder_price" + (i + 1) + "_price");
+        }
+        parameters = (MapVector) root.getVector("parameters");
+        productImageUrl = (VarCharVector) root.getVector("product_image_url");
+        pdfUrl = (VarCharVector) root.getVector("pdf_url");
+        lastCrawledAt = (TimeStampMilliVector) root.getVector("last_crawled_at");
+
+        writer.start();
+        root.allocateNew();
+    }
+
+    /**
+     * 把产品转换为待写入的快照行（解析参数JSON，可在渲染线程并行执行）
+     */
+    public static SnapshotRow toRow(Product product) {
+        return new SnapshotRow(product, parseParameters(product));
+    }
+
+    /**
+     * 追加一行，累计满 BATCH_ROWS 行时写出一个记录批次
+     */
+    public void write(SnapshotRow row) throws IOException {
+        Product product = row.product;
+        int index = batchRows;
+
+        setInt(id, index, product.getId());
+        setString(productCode, index, product.getProductCode());
+        setString(brand, index, product.getBrand());
+        setString(model, index, product.getModel());
+        setString(packageName, index, product.getPackageName());
+        setString(briefDescription, index, product.getBriefDescription());
+        setInt(categoryLevel1Id, index, product.getCategoryLevel1Id());
+        setInt(categoryLevel2Id, index, product.getCategoryLevel2Id());
+        setInt(categoryLevel3Id, index, product.getCategoryLevel3Id());
+        setString(categoryLevel1Name, index, product.getCategoryLevel1Name());
+        setString(categoryLevel2Name, index, product.getCategoryLevel2Name());
+        setString(categoryLevel3Name, index, product.getCategoryLevel3Name());
+        setInt(totalStockQuantity, index, product.getTotalStockQuantity());
+        setInt(ladderQuantities[0], index, product.getLadderPrice1Quantity());
+        setInt(ladderQuantities[1], index, product.getLadderPrice2Quantity());
+        setInt(ladderQuantities[2], index, product.getLadderPrice3Quantity());
+        setInt(ladderQuantities[3], index, product.getLadderPrice4Quantity());
+        setInt(ladderQuantities[4], index, product.getLadderPrice5Quantity());
+        setInt(ladderQuantities[5], index, product.getLadderPrice6Quantity());
+        setPrice(ladderPrices[0], index, product.getLadderPrice1Price());
+        setPrice(ladderPrices[1], index, product.getLadderPrice2Price());
+        setPrice(ladderPrices[2], index, product.getLadderPrice3Price());
+        setPrice(ladderPrices[3], index, product.getLadderPrice4Price());
+        setPrice(ladderPrices[4], index, product.getLadderPrice5Price());
+        setPrice(ladderPrices[5], index, product.getLadderPrice6Price());
+        setParameters(index, row.parameters);
+        setString(productImageUrl, index, product.getProductImageUrlBig());
+        setString(pdfUrl, index, product.getPdfUrl());
+        setTimestamp(lastCrawledAt, index, product.getLastCrawledAt());
+
+        batchRows++;
+        rowCount++;
+        if (batchRows >= BATCH_ROWS) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * 写出剩余行并写入文件尾（schema与批次索引）
+     */
+    public void finish() throws IOException {
+        if (batchRows > 0) {
+            flushBatch();
+        }
+        writer.end();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.close();
+        } finally {
+            root.close();
+            allocator.close();
+            channel.close();
+        }
+    }
+
+    private void flushBatch() throws IOException {
+        root.setRowCount(batchRows);
+        writer.writeBatch();
+        batchRows = 0;
+        root.allocateNew();
+    }
+
+    private static void setInt(IntVector vector, int index, Integer value) {
+        if (value == null) {
+            vector.setNull(index);
+        } else {
+            vector.setSafe(index, value);
+        }
+    }
+
+    private static void setString(VarCharVector vector, int index, String value) {
+        if (value == null) {
+            vector.setNull(index);
+        } else {
+            vector.setSafe(index, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void setPrice(DecimalVector vector, int index, BigDecimal value) {
+        if (value == null) {
+            vector.setNull(index);
+        } else {
+            vector.setSafe(index, value.setScale(PRICE_SCALE, RoundingMode.HALF_UP));
+        }
+    }
+
+    private static void setTimestamp(TimeStampMilliVector vector, int index, LocalDateTime value) {
+        if (value == null) {
+            vector.setNull(index);
+        } else {
+            // 无时区时间戳：按本地时间原样存储
+            vector.setSafe(index, value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    private void setParameters(int index, List<String[]> entries) {
+        int offset = parameters.startNewValue(index);
+        StructVector struct = (StructVector) parameters.getDataVector();
+        VarCharVector keys = (VarCharVector) struct.getChild(MapVector.KEY_NAME);
+        VarCharVector values = (VarCharVector) struct.getChild(MapVector.VALUE_NAME);
+        for (int i = 0; i < entries.size(); i++) {
+            String[] entry = entries.get(i);
+            struct.setIndexDefined(offset + i);
+            keys.setSafe(offset + i, entry[0].getBytes(StandardCharsets.UTF_8));
+            setString(values, offset + i, entry[1]);
+        }
+        parameters.endValue(index, entries.size());
+    }
+
+    /**
+     * 解析产品参数为键值对
+     * 优先使用 detailed_parameters JSON（中文名/值优先，缺失时用英文），
+     * 没有JSON时回退解析 parameters_text（"参数名:参数值" 以空格分隔）
+     */
+    private static List<String[]> parseParameters(Product product) {
+        String json = product.getDetailedParameters();
+        if (json != null && json.length() > 2) {
+            try {
+                JsonNode node = OBJECT_MAPPER.readTree(json);
+                List<String[]> entries = new ArrayList<>(node.size());
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    JsonNode info = field.getValue();
+                    String name = firstNonEmpty(info.path("nameCn").asText(""), field.getKey());
+                    if (name == null) {
+                        // Arrow map 的键不可为空，无参数名的条目跳过
+                        continue;
+                    }
+                    String value = firstNonEmpty(info.path("valueCn").asText(""), info.path("valueEn").asText(""));
+                    entries.add(new String[] {name, value});
+                }
+                return entries;
+            } catch (Exception e) {
+                // JSON损坏时回退到参数文本
+            }
+        }
+
+        String text = product.getParametersText();
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String[]> entries = new ArrayList<>();
+        for (String param : text.trim().split("\\s+")) {
+            int colon = param.indexOf(':');
+            if (colon > 0) {
+                entries.add(new String[] {param.substring(0, colon).trim(), param.substring(colon + 1).trim()});
+            }
+        }
+        return entries;
+    }
+
+    private static String firstNonEmpty(String first, String second) {
+        return first != null && !first.isEmpty() ? first : (second != null && !second.isEmpty() ? second : null);
+    }
+
+    private static Schema buildSchema() {
+        ArrowType int32 = new ArrowType.Int(32, true);
+        ArrowType utf8 = ArrowType.Utf8.INSTANCE;
+        ArrowType price = new ArrowType.Decimal(PRICE_PRECISION, PRICE_SCALE, 128);
+
+        List<Field> fields = new ArrayList<>();
+        fields.add(Field.notNullable("id", int32));
+        fields.add(Field.nullable("product_code", utf8));
+        fields.add(Field.nullable("brand", utf8));
+        fields.add(Field.nullable("model", utf8));
+        fields.add(Field.nullable("package_name", utf8));
+        fields.add(Field.nullable("brief_description", utf8));
+        fields.add(Field.nullable("category_level1_id", int32));
+        fields.add(Field.nullable("category_level2_id", int32));
+        fields.add(Field.nullable("category_level3_id", int32));
+        fields.add(Field.nullable("category_level1_name", utf8));
+        fields.add(Field.nullable("category_level2_name", utf8));
+        fields.add(Field.nullable("category_level3_name", utf8));
+        fields.add(Field.nullable("total_stock_quantity", int32));
+        for (int i = 1; i <= LADDER_LEVELS; i++) {
+            fields.add(Field.nullable("ladder_price" + i + "_quantity", int32));
+        }
+        for (int i = 1; i <= LADDER_LEVELS; i++) {
+            fields.add(Field.nullable("ladder_price" + i + "_price", price));
+        }
+        Field entries = new Field(MapVector.DATA_VECTOR_NAME, FieldType.notNullable(ArrowType.Struct.INSTANCE), List.of(
+                new Field(MapVector.KEY_NAME, FieldType.notNullable(utf8), null),
+                new Field(MapVector.VALUE_NAME, FieldType.nullable(utf8), null)));
+        fields.add(new Field("parameters", FieldType.nullable(new ArrowType.Map(false)), List.of(entries)));
+        fields.add(Field.nullable("product_image_url", utf8));
+        fields.add(Field.nullable("pdf_url", utf8));
+        fields.add(Field.nullable("last_crawled_at", new ArrowType.Timestamp(TimeUnit.MILLISECOND, null)));
+        return new Schema(fields);
+    }
+
+    /**
+     * 待写入的快照行：产品 + 已解析的参数键值对
+     */
+    public static class SnapshotRow {
+        private final Product product;
+        private final List<String[]> parameters;
+
+        SnapshotRow(Product product, List<String[]> parameters) {
+            this.product = product;
+            this.parameters = parameters;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.lcsc.service.crawler;
+
+import com.lcsc.config.CrawlerConfig;
+import com.lcsc.entity.StorageProductAsset;
+import com.lcsc.mapper.StorageProductAssetMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 存储用量索引服务
+ * 下载服务每写入一个文件即累加按类型的文件数/字节数（Redis哈希 crawler:storage:usage）
+ * 和产品资源表（storage_product_assets），存储统计和资源浏览直接读索引，不再遍历目录。
+ * <p>
+ * 后台以最低优先级线程定期扫描一次存储目录校准索引：按扫描结果覆盖写入，并删除已不存在的产品。
+ * 扫描期间新下载的文件可能被重复计数，偏差在下一次校准时修正。
+ * 支持两种目录布局：{base}/{imageDir|pdfDir}/{产品编号}_xxx.ext 和旧版 {base}/{产品编号}/{images|pdfs}/xxx。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Service
+public class StorageIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageIndexService.class);
+
+    public static final String TYPE_IMAGE = "image";
+    public static final String TYPE_PDF = "pdf";
+
+    private static final String USAGE_KEY = "crawler:storage:usage";
+
+    /**
+     * 旧版按产品分目录布局下的子目录名
+     */
+    private static final String LEGACY_IMAGE_DIR = "images";
+    private static final String LEGACY_PDF_DIR = "pdfs";
+
+    /**
+     * 校准写入的批大小
+     */
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    /**
+     * 扫描节流：每扫描 SCAN_PAUSE_EVERY 个文件暂停 SCAN_PAUSE_MS 毫秒，降低对磁盘的压力
+     */
+    private static final int SCAN_PAUSE_EVERY = 2000;
+    private static final long SCAN_PAUSE_MS = 20;
+
+    @Autowired
+    private StorageProductAssetMapper assetMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private CrawlerConfig crawlerConfig;
+
+    @Value("${crawler.storage.base-path:#{systemProperties['user.dir']}/data}")
+    private String storageBasePath;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    private final ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "storage-reconcile");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * 记录一个新写入的文件（由下载服务在下载成功后调用）
+     *
+     * @param localPath 文件路径
+     * @param type      文件类型（image/pdf）
+     * @param sizeBytes 文件大小
+     */
+    public void recordFileAdded(String localPath, String type, long sizeBytes) {
+        boolean image = TYPE_IMAGE.equalsIgnoreCase(type);
+        boolean pdf = TYPE_PDF.equalsIgnoreCase(type);
+        if (!image && !pdf) {
+            return;
+        }
+        String kind = image ? TYPE_IMAGE : TYPE_PDF;
+
+        try {
+            stringRedisTemplate.opsForHash().increment(USAGE_KEY, kind + "Files", 1);
+            stringRedisTemplate.opsForHash().increment(USAGE_KEY, kind + "Bytes", sizeBytes);
+        } catch (Exception e) {
+            log.warn("更新存储用量计数失败: {}", e.getMessage());
+        }
+
+        String productCode = resolveProductCode(Paths.get(localPath));
+        if (productCode == null) {
+            return;
+        }
+        try {
+            assetMapper.increment(productCode, image ? 1 : 0, pdf ? 1 : 0,
+                image ? sizeBytes : 0, pdf ? sizeBytes : 0);
+        } catch (Exception e) {
+            log.warn("更新产品资源索引失败: productCode={}, err={}", productCode, e.getMessage());
+        }
+    }
+
+    /**
+     * 按类型的存储用量（fileCount/sizeBytes），以及最近一次校准信息
+     */
+    public Map<String, Object> getUsage() {
+        Map<Object, Object> raw = stringRedisTemplate.opsForHash().entries(USAGE_KEY);
+        if (raw.isEmpty()) {
+            // 从未建立过索引：触发一次后台校准，本次返回0
+            requestReconcile();
+        }
+
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("imageFiles", toLong(raw.get("imageFiles")));
+        usage.put("imageBytes", toLong(raw.get("imageBytes")));
+        usage.put("pdfFiles", toLong(raw.get("pdfFiles")));
+        usage.put("pdfBytes", toLong(raw.get("pdfBytes")));
+        usage.put("reconciledAt", raw.get("reconciledAt"));
+        usage.put("reconciling", reconciling.get());
+        return usage;
+    }
+
+    /**
+     * 按最近修改时间倒序分页的产品资源
+     */
+    public List<StorageProductAsset> getRecentAssets(int current, int size) {
+        long offset = (long) Math.max(current - 1, 0) * size;
+        return assetMapper.selectRecentPage(offset, size);
+    }
+
+    /**
+     * 已建立索引的产品数
+     */
+    public long getIndexedProductCount() {
+        Long count = assetMapper.selectCount(null);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * 列出产品的资源文件，目录布局与索引扫描一致：
+     * 平铺目录中文件名以产品编号开头的文件，以及旧版产品子目录中的文件
+     *
+     * @param productCode 产品编号
+     * @param type        文件类型（image/pdf）
+     */
+    public List<Path> listProductFiles(String productCode, String type) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!isSafeName(productCode)) {
+            return files;
+        }
+        Path flatDirectory = basePath().resolve(flatDirName(type));
+        if (Files.isDirectory(flatDirectory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(flatDirectory,
+                    file -> productCode.equals(productCodeFromFilename(file.getFileName().toString())))) {
+                stream.forEach(files::add);
+            }
+        }
+        Path legacyDirectory = basePath().resolve(productCode).resolve(legacyDirName(type));
+        if (Files.isDirectory(legacyDirectory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(legacyDirectory)) {
+                stream.forEach(files::add);
+            }
+        }
+        files.removeIf(file -> !Files.isRegularFile(file));
+        return files;
+    }
+
+    /**
+     * 定位产品的单个资源文件：先按平铺布局查找（文件名须属于该产品），再回退旧版产品子目录
+     *
+     * @return 文件路径；不存在或名称非法时返回null
+     */
+    public Path resolveProductFile(String productCode, String type, String filename) {
+        if (!isSafeName(productCode) || !isSafeName(filename)) {
+            return null;
+        }
+        if (productCode.equals(productCodeFromFilename(filename))) {
+            Path flatFile = basePath().resolve(flatDirName(type)).resolve(filename);
+            if (Files.isRegularFile(flatFile)) {
+                return flatFile;
+            }
+        }
+        Path legacyFile = basePath().resolve(productCode).resolve(legacyDirName(type)).resolve(filename);
+        return Files.isRegularFile(legacyFile) ? legacyFile : null;
+    }
+
+    /**
+     * 定时校准
+     */
+    @Scheduled(initialDelayString = "${crawler.storage.reconcile-initial-delay-ms:60000}",
+               fixedDelayString = "${crawler.storage.reconcile-interval-ms:21600000}")
+    public void scheduledReconcile() {
+        requestReconcile();
+    }
+
+    /**
+     * 提交一次后台校准（已有校准在执行时忽略）
+     *
+     * @return 是否已提交
+     */
+    public boolean requestReconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            reconcileExecutor.execute(() -> {
+                try {
+                    reconcile();
+                } catch (Exception e) {
+                    log.error("存储索引校准失败", e);
+                } finally {
+                    reconciling.set(false);
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            reconciling.set(false);
+            log.warn("提交存储索引校准失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconcileExecutor.shutdownNow();
+    }
+
+    /**
+     * 扫描存储目录并覆盖写入索引
+     */
+    private void reconcile() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        // 秒级精度，与datetime列一致，避免刚写入的行被误删
+        LocalDateTime scanStartedAt = LocalDateTime.now().withNano(0);
+        Path basePath = basePath();
+        if (!Files.isDirectory(basePath)) {
+            return;
+        }
+
+        ScanState state = new ScanState(scanStartedAt);
+        String imageDir = crawlerConfig.getStorage().getImageDir();
+        String pdfDir = crawlerConfig.getStorage().getPdfDir();
+
+        // 平铺布局
+        scanFlatDirectory(basePath.resolve(imageDir), TYPE_IMAGE, state);
+        scanFlatDirectory(basePath.resolve(pdfDir), TYPE_PDF, state);
+
+        // 旧版按产品分目录布局
+        Set<String> reserved = Set.of(imageDir, pdfDir,
+            crawlerConfig.getStorage().getDataDir(), crawlerConfig.getStorage().getExportDir());
+        try (DirectoryStream<Path> productDirs = Files.newDirectoryStream(basePath, Files::isDirectory)) {
+            for (Path productDir : productDirs) {
+                String productCode = productDir.getFileName().toString();
+                if (reserved.contains(productCode)) {
+                    continue;
+                }
+                scanProductDirectory(productDir.resolve(LEGACY_IMAGE_DIR), productCode, TYPE_IMAGE, state);
+                scanProductDirectory(productDir.resolve(LEGACY_PDF_DIR), productCode, TYPE_PDF, state);
+            }
+        } catch (IOException e) {
+            log.warn("扫描存储根目录失败: {}", e.getMessage());
+        }
+
+        // 覆盖写入并删除已不存在的产品
+        List<StorageProductAsset> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+        for (StorageProductAsset asset : state.assets.values()) {
+            batch.add(asset);
+            if (batch.size() >= WRITE_BATCH_SIZE) {
+                assetMapper.replaceBatch(batch);
+                batch = new ArrayList<>(WRITE_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            assetMapper.replaceBatch(batch);
+        }
+        int removed = assetMapper.deleteIndexedBefore(scanStartedAt);
+
+        Map<String, String> usage = new HashMap<>();
+        usage.put("imageFiles", String.valueOf(state.imageFiles));
+        usage.put("imageBytes", String.valueOf(state.imageBytes));
+        usage.put("pdfFiles", String.valueOf(state.pdfFiles));
+        usage.put("pdfBytes", String.valueOf(state.pdfBytes));
+        usage.put("reconciledAt", LocalDateTime.now().toString());
+        stringRedisTemplate.opsForHash().putAll(USAGE_KEY, usage);
+
+        log.info("存储索引校准完成: files={}, products={}, removed={}, 耗时={}ms",
+            state.scannedFiles, state.assets.size(), removed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 扫描平铺目录（文件名以产品编号开头）
+     */
+    private void scanFlatDirectory(Path directory, String type, ScanState state) throws InterruptedException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String productCode = productCodeFromFilename(file.getFileName().toString());
+                addFile(file, productCode, type, state);
+            }
+        } catch (IOException e) {
+            log.warn("扫描目录失败: {}, err={}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * 扫描旧版产品子目录
+     */
+    private void scanProductDirectory(Path directory, String productCode, String type, ScanState state)
+            throws InterruptedException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                addFile(file, productCode, type, state);
+            }
+        } catch (IOException e) {
+            log.warn("扫描目录失败: {}, err={}", directory, e.getMessage());
+        }
+    }
+
+    private void addFile(Path file, String productCode, String type, ScanState state) throws InterruptedException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            return;
+        }
+
+        long size = attributes.size();
+        boolean image = TYPE_IMAGE.equals(type);
+        if (image) {
+            state.imageFiles++;
+            state.imageBytes += size;
+        } else {
+            state.pdfFiles++;
+            state.pdfBytes += size;
+        }
+
+        if (productCode != null) {
+            StorageProductAsset asset = state.assets.computeIfAbsent(productCode, state::newAsset);
+            if (image) {
+                asset.setImageCount(asset.getImageCount() + 1);
+                asset.setImageBytes(asset.getImageBytes() + size);
+            } else {
+                asset.setPdfCount(asset.getPdfCount() + 1);
+                asset.setPdfBytes(asset.getPdfBytes() + size);
+            }
+            LocalDateTime modified = LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(),
+                ZoneId.systemDefault()).withNano(0);
+            if (asset.getLastModified() == null || modified.isAfter(asset.getLastModified())) {
+                asset.setLastModified(modified);
+            }
+        }
+
+        if (++state.scannedFiles % SCAN_PAUSE_EVERY == 0) {
+            Thread.sleep(SCAN_PAUSE_MS);
+        }
+    }
+
+    /**
+     * 根据文件路径解析产品编号
+     */
+    private String resolveProductCode(Path file) {
+        Path parent = file.getParent();
+        if (parent != null && parent.getFileName() != null) {
+            String parentName = parent.getFileName().toString();
+            Path productDir = parent.getParent();
+            boolean legacy = (LEGACY_IMAGE_DIR.equals(parentName) || LEGACY_PDF_DIR.equals(parentName))
+                && productDir != null && productDir.getFileName() != null
+                && !productDir.toAbsolutePath().normalize().equals(basePath());
+            if (legacy) {
+                return productDir.getFileName().toString();
+            }
+        }
+        return productCodeFromFilename(file.getFileName().toString());
+    }
+
+    /**
+     * 文件名中第一个'_'或'.'之前的部分（C12345_front.jpg、C12345.pdf -> C12345）
+     */
+    private String productCodeFromFilename(String filename) {
+        int end = filename.length();
+        int underscore = filename.indexOf('_');
+        int dot = filename.indexOf('.');
+        if (underscore > 0) {
+            end = underscore;
+        }
+        if (dot > 0 && dot < end) {
+            end = dot;
+        }
+        return end > 0 ? filename.substring(0, end) : null;
+    }
+
+    private String flatDirName(String type) {
+        return TYPE_IMAGE.equalsIgnoreCase(type)
+            ? crawlerConfig.getStorage().getImageDir() : crawlerConfig.getStorage().getPdfDir();
+    }
+
+    private static String legacyDirName(String type) {
+        return TYPE_IMAGE.equalsIgnoreCase(type) ? LEGACY_IMAGE_DIR : LEGACY_PDF_DIR;
+    }
+
+    /**
+     * 单级文件/目录名（不含路径分隔符，且不是 . 或 ..）
+     */
+    private static boolean isSafeName(String name) {
+        return name != null && !name.isEmpty() && !name.contains("/") && !name.contains("\\")
+            && !name.equals(".") && !name.equals("..");
+    }
+
+    private Path basePath() {
+        return Paths.get(storageBasePath).toAbsolutePath().normalize();
+    }
+
+    private static long toLong(Object value) {
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * 单次扫描的累计状态
+     */
+    private static class ScanState {
+        private final LocalDateTime scanStartedAt;
+        private final Map<String, StorageProductAsset> assets = new HashMap<>();
+        private long scannedFiles;
+        private long imageFiles;
+        private long imageBytes;
+        private long pdfFiles;
+        private long pdfBytes;
+
+        ScanState(LocalDateTime scanStartedAt) {
+            this.scanStartedAt = scanStartedAt;
+        }
+
+        StorageProductAsset newAsset(String productCode) {
+            StorageProductAsset asset = new StorageProductAsset();
+            asset.setProductCode(productCode);
+            asset.setImageCount(0);
+            asset.setPdfCount(0);
+            asset.setImageBytes(0L);
+            asset.setPdfBytes(0L);
+            asset.setIndexedAt(scanStartedAt);
+            return asset;
+        }
+    }
+}
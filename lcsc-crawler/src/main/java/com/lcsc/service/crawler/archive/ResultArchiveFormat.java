@@ -0,0 +1,146 @@
+package com.lcsc.service.crawler.archive;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 原始响应归档的文件格式定义
+ * <p>
+ * 段文件（.seg）：8字节文件头（魔数 + 版本），之后是连续的记录帧：
+ * <pre>
+ * int  帧长度（不含本字段）
+ * byte 压缩编码（0=none, 1=gzip, 2=zstd）
+ * int  一级分类ID（-1表示空）
+ * int  二级分类ID（-1表示空）
+ * int  页码（-1表示空）
+ * long 保存时间（epoch毫秒）
+ * int  解压后长度
+ * int  压缩数据CRC32
+ * byte[] 压缩数据
+ * </pre>
+ * 索引文件（.idx）与段文件同名，每条记录一个定长32字节条目：
+ * 一级分类ID、二级分类ID、页码、保存时间、帧偏移、帧总长度。
+ * 索引条目在帧写出之后追加，因此索引只会比段文件少，不会指向不存在的数据；索引缺失时可扫描段文件重建。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public final class ResultArchiveFormat {
+
+    /**
+     * 段文件魔数 "LRA1"
+     */
+    static final int SEGMENT_MAGIC = 0x4C524131;
+    static final int FORMAT_VERSION = 1;
+    static final int SEGMENT_HEADER_BYTES = 8;
+
+    /**
+     * 帧长度字段之后的固定头部长度
+     */
+    static final int RECORD_FIXED_BYTES = 1 + 4 + 4 + 4 + 8 + 4 + 4;
+    static final int RECORD_HEADER_BYTES = 4 + RECORD_FIXED_BYTES;
+
+    static final int INDEX_ENTRY_BYTES = 32;
+
+    static final int NULL_ID = -1;
+
+    public static final String SEGMENT_SUFFIX = ".seg";
+    public static final String INDEX_SUFFIX = ".idx";
+
+    private ResultArchiveFormat() {
+    }
+
+    /**
+     * 记录压缩编码
+     */
+    public enum Codec {
+        NONE(0),
+        GZIP(1),
+        ZSTD(2);
+
+        private final byte id;
+
+        Codec(int id) {
+            this.id = (byte) id;
+        }
+
+        byte id() {
+            return id;
+        }
+
+        static Codec fromId(byte id) {
+            for (Codec codec : values()) {
+                if (codec.id == id) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException("未知的归档压缩编码: " + id);
+        }
+
+        /**
+         * 按配置名解析（不区分大小写），无法识别时回退为ZSTD
+         */
+        public static Codec parse(String name) {
+            if (name != null) {
+                for (Codec codec : values()) {
+                    if (codec.name().equalsIgnoreCase(name.trim())) {
+                        return codec;
+                    }
+                }
+            }
+            return ZSTD;
+        }
+
+        byte[] compress(byte[] raw, int level) throws IOException {
+            switch (this) {
+                case ZSTD:
+                    return Zstd.compress(raw, level);
+                case GZIP:
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                        gzip.write(raw);
+                    }
+                    return buffer.toByteArray();
+                default:
+                    return raw;
+            }
+        }
+
+        byte[] decompress(byte[] payload, int rawLength) throws IOException {
+            switch (this) {
+                case ZSTD:
+                    return Zstd.decompress(payload, rawLength);
+                case GZIP:
+                    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+                        return in.readAllBytes();
+                    }
+                default:
+                    return payload;
+            }
+        }
+    }
+
+    static int encodeId(Integer id) {
+        return id != null ? id : NULL_ID;
+    }
+
+    static Integer decodeId(int id) {
+        return id == NULL_ID ? null : id;
+    }
+
+    /**
+     * 段文件对应的索引文件
+     */
+    public static Path indexPathOf(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        String base = name.endsWith(SEGMENT_SUFFIX) ? name.substring(0, name.length() - SEGMENT_SUFFIX.length()) : name;
+        return segmentPath.resolveSibling(base + INDEX_SUFFIX);
+    }
+}
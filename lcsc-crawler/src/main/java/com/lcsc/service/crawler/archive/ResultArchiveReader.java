@@ -0,0 +1,235 @@
+package com.lcsc.service.crawler.archive;
+
+import com.lcsc.service.crawler.archive.ResultArchiveFormat.Codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 原始响应归档读取工具
+ * 支持按索引条目随机读取单条记录，以及顺序回放整个段文件。
+ * 段文件末尾可能存在进程中断留下的不完整帧，回放遇到长度越界或CRC不符的帧即停止。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public final class ResultArchiveReader {
+
+    private ResultArchiveReader() {
+    }
+
+    /**
+     * 索引条目
+     */
+    public static final class IndexEntry {
+        private final Path segmentPath;
+        private final Integer categoryLevel1Id;
+        private final Integer categoryLevel2Id;
+        private final Integer currentPage;
+        private final long savedAtMillis;
+        private final long offset;
+        private final int length;
+
+        IndexEntry(Path segmentPath, Integer categoryLevel1Id, Integer categoryLevel2Id, Integer currentPage,
+                   long savedAtMillis, long offset, int length) {
+            this.segmentPath = segmentPath;
+            this.categoryLevel1Id = categoryLevel1Id;
+            this.categoryLevel2Id = categoryLevel2Id;
+            this.currentPage = currentPage;
+            this.savedAtMillis = savedAtMillis;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public Path getSegmentPath() {
+            return segmentPath;
+        }
+
+        public Integer getCategoryLevel1Id() {
+            return categoryLevel1Id;
+        }
+
+        public Integer getCategoryLevel2Id() {
+            return categoryLevel2Id;
+        }
+
+        public Integer getCurrentPage() {
+            return currentPage;
+        }
+
+        public long getSavedAtMillis() {
+            return savedAtMillis;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * 解压后的归档记录
+     */
+    public static final class ArchivedResult {
+        private final Integer categoryLevel1Id;
+        private final Integer categoryLevel2Id;
+        private final Integer currentPage;
+        private final long savedAtMillis;
+        private final byte[] payload;
+
+        ArchivedResult(Integer categoryLevel1Id, Integer categoryLevel2Id, Integer currentPage,
+                       long savedAtMillis, byte[] payload) {
+            this.categoryLevel1Id = categoryLevel1Id;
+            this.categoryLevel2Id = categoryLevel2Id;
+            this.currentPage = currentPage;
+            this.savedAtMillis = savedAtMillis;
+            this.payload = payload;
+        }
+
+        public Integer getCategoryLevel1Id() {
+            return categoryLevel1Id;
+        }
+
+        public Integer getCategoryLevel2Id() {
+            return categoryLevel2Id;
+        }
+
+        public Integer getCurrentPage() {
+            return currentPage;
+        }
+
+        public long getSavedAtMillis() {
+            return savedAtMillis;
+        }
+
+        /**
+         * 原始result JSON（UTF-8）
+         */
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * 读取段文件的索引；末尾不完整的条目被忽略
+     */
+    public static List<IndexEntry> readIndex(Path segmentPath) throws IOException {
+        Path indexPath = ResultArchiveFormat.indexPathOf(segmentPath);
+        List<IndexEntry> entries = new ArrayList<>();
+        if (!Files.exists(indexPath)) {
+            return entries;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        while (buffer.remaining() >= ResultArchiveFormat.INDEX_ENTRY_BYTES) {
+            int cat1 = buffer.getInt();
+            int cat2 = buffer.getInt();
+            int page = buffer.getInt();
+            long savedAt = buffer.getLong();
+            long offset = buffer.getLong();
+            int length = buffer.getInt();
+            entries.add(new IndexEntry(segmentPath, ResultArchiveFormat.decodeId(cat1),
+                    ResultArchiveFormat.decodeId(cat2), ResultArchiveFormat.decodeId(page), savedAt, offset, length));
+        }
+        return entries;
+    }
+
+    /**
+     * 按索引条目随机读取一条记录
+     */
+    public static ArchivedResult read(IndexEntry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(entry.getSegmentPath(), StandardOpenOption.READ)) {
+            ByteBuffer frame = ByteBuffer.allocate(entry.getLength());
+            ArchivedResult result = readFully(channel, frame, entry.getOffset()) ? decodeFrame(frame.flip()) : null;
+            if (result == null) {
+                throw new IOException("归档记录已损坏: " + entry.getSegmentPath() + "@" + entry.getOffset());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 顺序回放段文件中的全部完整记录，不依赖索引文件
+     *
+     * @return 回放的记录数
+     */
+    public static long replay(Path segmentPath, Consumer<ArchivedResult> consumer) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(ResultArchiveFormat.SEGMENT_HEADER_BYTES);
+            if (size < ResultArchiveFormat.SEGMENT_HEADER_BYTES || !readFully(channel, header, 0)
+                    || header.flip().getInt() != ResultArchiveFormat.SEGMENT_MAGIC) {
+                throw new IOException("不是有效的归档段文件: " + segmentPath);
+            }
+
+            long position = ResultArchiveFormat.SEGMENT_HEADER_BYTES;
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            while (position + ResultArchiveFormat.RECORD_HEADER_BYTES <= size) {
+                lengthBuffer.clear();
+                readFully(channel, lengthBuffer, position);
+                int frameLength = lengthBuffer.flip().getInt();
+                long total = 4L + frameLength;
+                if (frameLength < ResultArchiveFormat.RECORD_FIXED_BYTES || position + total > size) {
+                    break;
+                }
+                ByteBuffer frame = ByteBuffer.allocate((int) total);
+                readFully(channel, frame, position);
+                ArchivedResult result = decodeFrame(frame.flip());
+                if (result == null) {
+                    break;
+                }
+                consumer.accept(result);
+                count++;
+                position += total;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 解码一个完整帧，CRC不符时返回null
+     */
+    private static ArchivedResult decodeFrame(ByteBuffer frame) throws IOException {
+        int frameLength = frame.getInt();
+        Codec codec = Codec.fromId(frame.get());
+        int cat1 = frame.getInt();
+        int cat2 = frame.getInt();
+        int page = frame.getInt();
+        long savedAt = frame.getLong();
+        int rawLength = frame.getInt();
+        int expectedCrc = frame.getInt();
+
+        byte[] payload = new byte[frameLength - ResultArchiveFormat.RECORD_FIXED_BYTES];
+        frame.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        return new ArchivedResult(ResultArchiveFormat.decodeId(cat1), ResultArchiveFormat.decodeId(cat2),
+                ResultArchiveFormat.decodeId(page), savedAt, codec.decompress(payload, rawLength));
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,226 @@
+package com.lcsc.service.crawler.archive;
+
+import com.lcsc.service.crawler.archive.ResultArchiveFormat.Codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * 原始响应归档的段写入器
+ * 每个写入线程独占一个实例，只追加写自己的段文件和索引文件，写入路径上没有锁；
+ * 段文件按天分目录（{root}/yyyyMMdd/），日期变化或超过单段大小上限时滚动到新段。
+ * 非线程安全：除 {@link #close}/{@link #closeIfIdle} 外只允许所属线程调用。
+ * 写入与关闭通过状态位 CAS 互斥（IDLE -> WRITING / IDLE -> CLOSED），所属线程不会被阻塞，
+ * 写入器被其他线程关闭后 {@link #append} 返回null，由调用方换用新的写入器。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+public class ResultArchiveSegmentWriter implements Closeable {
+
+    public static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_WRITING = 1;
+    private static final int STATE_CLOSED = 2;
+
+    private final Path rootDirectory;
+    private final String writerTag;
+    private final Codec codec;
+    private final int compressionLevel;
+    private final long maxSegmentBytes;
+
+    private final ByteBuffer recordHeader = ByteBuffer.allocate(ResultArchiveFormat.RECORD_HEADER_BYTES);
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(ResultArchiveFormat.INDEX_ENTRY_BYTES);
+    private final ByteBuffer[] frame = new ByteBuffer[2];
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel segmentChannel;
+    private FileChannel indexChannel;
+    private LocalDate segmentDay;
+    private long position;
+
+    private final AtomicInteger state = new AtomicInteger(STATE_IDLE);
+    private volatile long lastWriteMillis = System.currentTimeMillis();
+
+    private volatile Path segmentPath;
+
+    public ResultArchiveSegmentWriter(Path rootDirectory, String writerTag, Codec codec,
+                                      int compressionLevel, long maxSegmentBytes) {
+        this.rootDirectory = rootDirectory;
+        this.writerTag = sanitize(writerTag);
+        this.codec = codec;
+        this.compressionLevel = compressionLevel;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @return 记录所在的段文件；写入器已关闭时返回null
+     */
+    public Path append(byte[] raw, Integer categoryLevel1Id, Integer categoryLevel2Id,
+                       Integer currentPage, long savedAtMillis) throws IOException {
+        if (!state.compareAndSet(STATE_IDLE, STATE_WRITING)) {
+            return null;
+        }
+        try {
+            return appendRecord(raw, categoryLevel1Id, categoryLevel2Id, currentPage, savedAtMillis);
+        } finally {
+            lastWriteMillis = System.currentTimeMillis();
+            state.compareAndSet(STATE_WRITING, STATE_IDLE);
+        }
+    }
+
+    private Path appendRecord(byte[] raw, Integer categoryLevel1Id, Integer categoryLevel2Id,
+                              Integer currentPage, long savedAtMillis) throws IOException {
+        LocalDate today = LocalDate.now();
+        if (segmentChannel == null || !today.equals(segmentDay) || position >= maxSegmentBytes) {
+            rotate(today);
+        }
+
+        byte[] payload = codec.compress(raw, compressionLevel);
+        crc.reset();
+        crc.update(payload);
+
+        int cat1 = ResultArchiveFormat.encodeId(categoryLevel1Id);
+        int cat2 = ResultArchiveFormat.encodeId(categoryLevel2Id);
+        int page = ResultArchiveFormat.encodeId(currentPage);
+
+        recordHeader.clear();
+        recordHeader.putInt(ResultArchiveFormat.RECORD_FIXED_BYTES + payload.length)
+                .put(codec.id())
+                .putInt(cat1)
+                .putInt(cat2)
+                .putInt(page)
+                .putLong(savedAtMillis)
+                .putInt(raw.length)
+                .putInt((int) crc.getValue())
+                .flip();
+        frame[0] = recordHeader;
+        frame[1] = ByteBuffer.wrap(payload);
+
+        long recordOffset = position;
+        long frameLength = ResultArchiveFormat.RECORD_HEADER_BYTES + payload.length;
+        while (frame[1].hasRemaining()) {
+            segmentChannel.write(frame);
+        }
+        position += frameLength;
+
+        indexEntry.clear();
+        indexEntry.putInt(cat1)
+                .putInt(cat2)
+                .putInt(page)
+                .putLong(savedAtMillis)
+                .putLong(recordOffset)
+                .putInt((int) frameLength)
+                .flip();
+        while (indexEntry.hasRemaining()) {
+            indexChannel.write(indexEntry);
+        }
+        return segmentPath;
+    }
+
+    /**
+     * 当前正在写入的段文件（尚未写入时为null）
+     */
+    public Path getSegmentPath() {
+        return segmentPath;
+    }
+
+    public boolean isClosed() {
+        return state.get() == STATE_CLOSED;
+    }
+
+    /**
+     * 超过空闲时长且当前没有写入时关闭（可由其他线程调用）
+     *
+     * @return 是否已关闭
+     */
+    public boolean closeIfIdle(long idleTimeoutMillis) throws IOException {
+        if (System.currentTimeMillis() - lastWriteMillis < idleTimeoutMillis
+                || !state.compareAndSet(STATE_IDLE, STATE_CLOSED)) {
+            return false;
+        }
+        closeChannels();
+        return true;
+    }
+
+    /**
+     * 关闭写入器（可由其他线程调用）
+     * 等待正在进行的写入完成后再从 IDLE 切换到 CLOSED，保证段文件末尾的帧和索引条目完整；已关闭时直接返回
+     */
+    @Override
+    public void close() throws IOException {
+        while (!state.compareAndSet(STATE_IDLE, STATE_CLOSED)) {
+            if (state.get() == STATE_CLOSED) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        closeChannels();
+    }
+
+    private void rotate(LocalDate day) throws IOException {
+        closeChannels();
+
+        Path dayDirectory = rootDirectory.resolve(day.format(DAY_FORMAT));
+        Files.createDirectories(dayDirectory);
+
+        long sequence = System.currentTimeMillis();
+        while (true) {
+            Path candidate = dayDirectory.resolve("results-" + writerTag + "-" + sequence + ResultArchiveFormat.SEGMENT_SUFFIX);
+            try {
+                segmentChannel = FileChannel.open(candidate, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                segmentPath = candidate;
+                break;
+            } catch (FileAlreadyExistsException e) {
+                sequence++;
+            }
+        }
+        indexChannel = FileChannel.open(ResultArchiveFormat.indexPathOf(segmentPath),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(ResultArchiveFormat.SEGMENT_HEADER_BYTES);
+        header.putInt(ResultArchiveFormat.SEGMENT_MAGIC).putInt(ResultArchiveFormat.FORMAT_VERSION).flip();
+        while (header.hasRemaining()) {
+            segmentChannel.write(header);
+        }
+        position = ResultArchiveFormat.SEGMENT_HEADER_BYTES;
+        segmentDay = day;
+    }
+
+    private void closeChannels() throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : new FileChannel[]{segmentChannel, indexChannel}) {
+            if (channel == null) {
+                continue;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        segmentChannel = null;
+        indexChannel = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static String sanitize(String tag) {
+        String cleaned = tag == null ? "" : tag.replaceAll("[^A-Za-z0-9_-]", "_");
+        return cleaned.isEmpty() ? "writer" : cleaned;
+    }
+}
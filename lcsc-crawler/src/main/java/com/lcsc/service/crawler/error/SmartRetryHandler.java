@@ -1,12 +1,19 @@
 package com.lcsc.service.crawler.error;
 
+import com.lcsc.service.crawler.monitoring.CrawlerMeters;
+import com.lcsc.service.crawler.monitoring.TaskPhaseTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
@@ -22,6 +29,9 @@ import java.util.function.Supplier;
 public class SmartRetryHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(SmartRetryHandler.class);
+
+    @Autowired(required = false)
+    private CrawlerMeters crawlerMeters;
     
     /**
      * 执行带智能重试的操作
@@ -36,11 +46,90 @@ public class SmartRetryHandler {
             String operationName,
             RetryContext context) {
         
+        // 把调用线程的任务追踪上下文带到异步线程
+        TaskPhaseTracer.TaskTrace trace = TaskPhaseTracer.current();
         return CompletableFuture.supplyAsync(() -> {
-            return executeWithRetryInternal(operation, operationName, context, 0);
+            TaskPhaseTracer.TaskTrace previous = TaskPhaseTracer.attach(trace);
+            try {
+                return executeWithRetryInternal(operation, operationName, context, 0);
+            } finally {
+                TaskPhaseTracer.detach(previous);
+            }
         });
     }
     
+    /**
+     * 非阻塞版本的智能重试
+     * 重试策略与 {@link #executeWithSmartRetry} 相同，但退避用 Mono.delay 延迟重新订阅，
+     * 等待期间不占用任何线程
+     *
+     * @param operation 每次尝试都会重新调用，返回新的请求 Mono
+     * @param operationName 操作名称（用于日志）
+     * @param context 重试上下文
+     * @return CompletableFuture包装的结果
+     */
+    public <T> CompletableFuture<T> executeWithSmartRetryReactive(
+            Supplier<Mono<T>> operation,
+            String operationName,
+            RetryContext context) {
+
+        TaskPhaseTracer.TaskTrace trace = TaskPhaseTracer.current();
+        return attemptReactive(operation, operationName, context, 0, trace).toFuture();
+    }
+
+    private <T> Mono<T> attemptReactive(
+            Supplier<Mono<T>> operation,
+            String operationName,
+            RetryContext context,
+            int attemptNumber,
+            TaskPhaseTracer.TaskTrace trace) {
+
+        return Mono.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            logger.debug("执行操作 [{}]，第 {} 次尝试", operationName, attemptNumber + 1);
+
+            return operation.get()
+                .doOnSuccess(result -> {
+                    logger.info("操作 [{}] 执行成功，耗时 {}ms，尝试次数: {}",
+                        operationName, System.currentTimeMillis() - startTime, attemptNumber + 1);
+                    context.reset();
+                })
+                .onErrorResume(error -> {
+                    // WebClient 把连接/读超时包装在 WebClientRequestException 中，按原始异常分类
+                    Throwable cause = error instanceof WebClientRequestException && error.getCause() != null
+                        ? error.getCause() : error;
+                    long duration = System.currentTimeMillis() - startTime;
+                    HttpStatus statusCode = extractHttpStatus(cause);
+                    CrawlerErrorType errorType = CrawlerErrorType.classifyError(cause,
+                        statusCode != null ? statusCode.value() : null);
+
+                    context.recordAttempt(errorType, duration);
+                    if (crawlerMeters != null) {
+                        crawlerMeters.recordRetry(errorType);
+                    }
+
+                    logger.warn("操作 [{}] 第 {} 次尝试失败: {} - {}, 耗时: {}ms",
+                        operationName, attemptNumber + 1, errorType.getDescription(),
+                        cause.getMessage(), duration);
+
+                    if (!shouldRetry(errorType, attemptNumber, context)) {
+                        logger.error("操作 [{}] 重试次数耗尽或不可重试，最终失败: {}",
+                            operationName, errorType.getDescription());
+                        return Mono.error(new CrawlerRetryExhaustedException(
+                            operationName, errorType, attemptNumber + 1, cause));
+                    }
+
+                    long delay = calculateRetryDelay(errorType, attemptNumber, context);
+                    logger.info("操作 [{}] 将在 {}ms 后进行第 {} 次重试",
+                        operationName, delay, attemptNumber + 2);
+                    TaskPhaseTracer.record(trace, TaskPhaseTracer.Phase.RETRY_BACKOFF, delay * 1_000_000L);
+
+                    return Mono.delay(Duration.ofMillis(delay))
+                        .then(attemptReactive(operation, operationName, context, attemptNumber + 1, trace));
+                });
+        });
+    }
+
     /**
      * 内部重试执行逻辑
      */
@@ -91,6 +180,9 @@ public class SmartRetryHandler {
         
         // 更新重试上下文
         context.recordAttempt(errorType, duration);
+        if (crawlerMeters != null) {
+            crawlerMeters.recordRetry(errorType);
+        }
         
         logger.warn("操作 [{}] 第 {} 次尝试失败: {} - {}, 耗时: {}ms", 
             operationName, attemptNumber + 1, errorType.getDescription(), 
@@ -111,7 +203,9 @@ public class SmartRetryHandler {
         
         // 等待后重试
         try {
+            long backoffStart = System.nanoTime();
             Thread.sleep(delay);
+            TaskPhaseTracer.record(TaskPhaseTracer.Phase.RETRY_BACKOFF, System.nanoTime() - backoffStart);
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
             throw new RuntimeException("重试被中断", ie);
@@ -206,13 +300,16 @@ public class SmartRetryHandler {
     /**
      * 从异常中提取HTTP状态码
      */
-    private HttpStatus extractHttpStatus(Exception error) {
+    private HttpStatus extractHttpStatus(Throwable error) {
         if (error instanceof HttpClientErrorException) {
             HttpClientErrorException clientError = (HttpClientErrorException) error;
             return HttpStatus.valueOf(clientError.getStatusCode().value());
         } else if (error instanceof HttpServerErrorException) {
             HttpServerErrorException serverError = (HttpServerErrorException) error;
             return HttpStatus.valueOf(serverError.getStatusCode().value());
+        } else if (error instanceof WebClientResponseException) {
+            WebClientResponseException responseError = (WebClientResponseException) error;
+            return HttpStatus.resolve(responseError.getStatusCode().value());
         }
         return null;
     }
@@ -0,0 +1,202 @@
+package com.lcsc.service.crawler.monitoring;
+
+import com.lcsc.service.crawler.error.CrawlerErrorType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 爬虫指标入口（Micrometer）
+ * 统一定义爬取链路的计时器和计数器，经 /actuator/prometheus 暴露：
+ * <ul>
+ *   <li>crawler.api.request：每个API端点的请求耗时（tag: endpoint, outcome）</li>
+ *   <li>crawler.stage：解析/转换/入库/下载等阶段耗时（tag: stage）</li>
+ *   <li>crawler.retry：按 {@link CrawlerErrorType} 统计的失败重试次数（tag: error_type）</li>
+ * </ul>
+ * 计时器实例预先创建并缓存，热路径上不做注册表查找。百分位/直方图在 management.metrics.distribution 中配置。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+public class CrawlerMeters {
+
+    public static final String API_TIMER = "crawler.api.request";
+    public static final String STAGE_TIMER = "crawler.stage";
+    public static final String RETRY_COUNTER = "crawler.retry";
+
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_CONVERT = "convert";
+    public static final String STAGE_DB_UPSERT = "db_upsert";
+    public static final String STAGE_DOWNLOAD = "download";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> apiSuccessTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> apiFailureTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<CrawlerErrorType, Counter> retryCounters = new EnumMap<>(CrawlerErrorType.class);
+
+    private final Counter productsProcessed;
+    private final Counter categoriesProcessed;
+
+    public CrawlerMeters(MeterRegistry registry) {
+        this.registry = registry;
+        for (CrawlerErrorType type : CrawlerErrorType.values()) {
+            retryCounters.put(type, Counter.builder(RETRY_COUNTER)
+                .description("按错误类型统计的失败尝试次数")
+                .tag("error_type", type.name())
+                .register(registry));
+        }
+        for (String stage : new String[]{STAGE_PARSE, STAGE_CONVERT, STAGE_DB_UPSERT, STAGE_DOWNLOAD}) {
+            stageTimer(stage);
+        }
+        this.productsProcessed = Counter.builder("crawler.products.processed")
+            .description("已处理产品数")
+            .register(registry);
+        this.categoriesProcessed = Counter.builder("crawler.categories.processed")
+            .description("已处理分类数")
+            .register(registry);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 记录一次API请求耗时
+     */
+    public void recordApi(String endpoint, long durationNanos, boolean success) {
+        Map<String, Timer> timers = success ? apiSuccessTimers : apiFailureTimers;
+        Timer timer = timers.computeIfAbsent(endpoint, e -> Timer.builder(API_TIMER)
+            .description("立创API请求耗时")
+            .tag("endpoint", e)
+            .tag("outcome", success ? "success" : "failure")
+            .register(registry));
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 对API调用计时（异常也会记录为failure后抛出），同时计入当前任务的HTTP阶段
+     */
+    public <T> T timeApi(String endpoint, Supplier<T> call) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            long duration = System.nanoTime() - start;
+            recordApi(endpoint, duration, success);
+            TaskPhaseTracer.record(TaskPhaseTracer.Phase.HTTP, duration);
+        }
+    }
+
+    /**
+     * 非阻塞API调用计时：每次订阅（含重试）单独计时，HTTP阶段记到调用方传入的任务上
+     */
+    public <T> Mono<T> timeApi(String endpoint, Mono<T> call, TaskPhaseTracer.TaskTrace trace) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                .doOnSuccess(result -> recordApiCall(endpoint, start, true, trace))
+                .doOnError(error -> recordApiCall(endpoint, start, false, trace));
+        });
+    }
+
+    private void recordApiCall(String endpoint, long start, boolean success, TaskPhaseTracer.TaskTrace trace) {
+        long duration = System.nanoTime() - start;
+        recordApi(endpoint, duration, success);
+        TaskPhaseTracer.record(trace, TaskPhaseTracer.Phase.HTTP, duration);
+    }
+
+    /**
+     * 阶段计时器
+     */
+    public Timer stageTimer(String stage) {
+        return stageTimers.computeIfAbsent(stage, s -> Timer.builder(STAGE_TIMER)
+            .description("爬取链路各阶段耗时")
+            .tag("stage", s)
+            .register(registry));
+    }
+
+    /**
+     * 记录阶段耗时
+     */
+    public void recordStage(String stage, long durationNanos) {
+        stageTimer(stage).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次失败尝试（按错误类型）
+     */
+    public void recordRetry(CrawlerErrorType errorType) {
+        Counter counter = retryCounters.get(errorType);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    public void recordProductsProcessed(int count) {
+        productsProcessed.increment(count);
+    }
+
+    public void recordCategoryProcessed() {
+        categoriesProcessed.increment();
+    }
+
+    public double getProductsProcessed() {
+        return productsProcessed.count();
+    }
+
+    public double getCategoriesProcessed() {
+        return categoriesProcessed.count();
+    }
+
+    /**
+     * 所有端点成功/失败请求数
+     */
+    public long getApiCallCount(boolean success) {
+        long total = 0;
+        for (Timer timer : (success ? apiSuccessTimers : apiFailureTimers).values()) {
+            total += timer.count();
+        }
+        return total;
+    }
+
+    /**
+     * 所有端点请求总耗时（毫秒）
+     */
+    public double getApiTotalTimeMs() {
+        double total = 0;
+        for (Timer timer : apiSuccessTimers.values()) {
+            total += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        for (Timer timer : apiFailureTimers.values()) {
+            total += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        return total;
+    }
+
+    /**
+     * 各错误类型失败次数（只包含非零项）
+     */
+    public Map<String, Integer> getRetryCounts() {
+        Map<String, Integer> counts = new ConcurrentHashMap<>();
+        retryCounters.forEach((type, counter) -> {
+            if (counter.count() > 0) {
+                counts.put(type.name(), (int) counter.count());
+            }
+        });
+        return counts;
+    }
+}
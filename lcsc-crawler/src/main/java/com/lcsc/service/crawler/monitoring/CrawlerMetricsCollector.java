@@ -8,19 +8,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 爬虫指标收集器
  * 收集各种业务和系统指标，提供性能监控和分析能力
+ * 计数与耗时统一记录在Micrometer（{@link CrawlerMeters}）中，经 /actuator/prometheus 暴露，本类只负责报表和健康检查
  * 
  * @author lcsc-crawler
  * @since 2025-09-06
@@ -30,6 +31,8 @@ public class CrawlerMetricsCollector {
     
     private static final Logger logger = LoggerFactory.getLogger(CrawlerMetricsCollector.class);
     
+    private static final String ERROR_COUNTER = "crawler.errors";
+    
     @Autowired
     private DynamicRateLimiter rateLimiter;
     
@@ -39,19 +42,24 @@ public class CrawlerMetricsCollector {
     @Autowired
     private BatchDataProcessor batchDataProcessor;
     
-    // 业务指标计数器
-    private final AtomicLong totalApiCalls = new AtomicLong(0);
-    private final AtomicLong successfulApiCalls = new AtomicLong(0);
-    private final AtomicLong failedApiCalls = new AtomicLong(0);
-    private final AtomicLong totalProductsProcessed = new AtomicLong(0);
-    private final AtomicLong totalCategoriesProcessed = new AtomicLong(0);
-    private final AtomicLong totalErrors = new AtomicLong(0);
+    @Autowired
+    private CrawlerMeters crawlerMeters;
     
-    // 性能指标
-    private final ConcurrentHashMap<String, Long> apiResponseTimes = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, AtomicInteger> errorCounts = new ConcurrentHashMap<>();
+    // 错误计数器缓存：type|operation -> Counter
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    
+    // 性能历史（每分钟一个样本）
     private final List<MetricSnapshot> performanceHistory = new ArrayList<>();
     
+    // 重置基线：Micrometer计数器单调递增（Prometheus按速率计算），重置只移动本类报表的基线
+    private volatile long baseSuccessfulCalls = 0;
+    private volatile long baseFailedCalls = 0;
+    private volatile double baseApiTimeMs = 0;
+    private volatile double baseProducts = 0;
+    private volatile double baseCategories = 0;
+    private volatile double baseErrors = 0;
+    private volatile long lastMinuteApiCalls = 0;
+    
     // 实时统计
     private volatile LocalDateTime lastResetTime = LocalDateTime.now();
     private volatile double currentThroughput = 0.0;
@@ -59,28 +67,10 @@ public class CrawlerMetricsCollector {
     private volatile double errorRate = 0.0;
     
     /**
-     * 记录API调用指标
+     * 记录API调用指标（写入 crawler.api.request 计时器）
      */
     public void recordApiCall(String endpoint, long responseTime, boolean success) {
-        totalApiCalls.incrementAndGet();
-        
-        if (success) {
-            successfulApiCalls.incrementAndGet();
-        } else {
-            failedApiCalls.incrementAndGet();
-            totalErrors.incrementAndGet();
-        }
-        
-        // 记录响应时间
-        apiResponseTimes.put(endpoint + "_" + System.currentTimeMillis(), responseTime);
-        
-        // 清理旧的响应时间记录（保留最近5分钟）
-        long fiveMinutesAgo = System.currentTimeMillis() - 300000;
-        apiResponseTimes.entrySet().removeIf(entry -> {
-            String key = entry.getKey();
-            long timestamp = Long.parseLong(key.substring(key.lastIndexOf('_') + 1));
-            return timestamp < fiveMinutesAgo;
-        });
+        crawlerMeters.recordApi(endpoint, TimeUnit.MILLISECONDS.toNanos(responseTime), success);
         
         logger.debug("API调用记录: endpoint={}, responseTime={}ms, success={}", 
             endpoint, responseTime, success);
@@ -90,7 +80,7 @@ public class CrawlerMetricsCollector {
      * 记录产品处理指标
      */
     public void recordProductsProcessed(int count, String category) {
-        totalProductsProcessed.addAndGet(count);
+        crawlerMeters.recordProductsProcessed(count);
         
         logger.debug("产品处理记录: count={}, category={}", count, category);
     }
@@ -99,19 +89,20 @@ public class CrawlerMetricsCollector {
      * 记录分类处理指标
      */
     public void recordCategoryProcessed(String categoryName) {
-        totalCategoriesProcessed.incrementAndGet();
+        crawlerMeters.recordCategoryProcessed();
         
         logger.debug("分类处理记录: category={}", categoryName);
     }
     
     /**
-     * 记录错误指标
+     * 记录错误指标（crawler.errors，tag: type, operation）
      */
     public void recordError(String errorType, String operation) {
-        totalErrors.incrementAndGet();
-        
-        String key = errorType + "_" + operation;
-        errorCounts.computeIfAbsent(key, k -> new AtomicInteger(0)).incrementAndGet();
+        errorCounters.computeIfAbsent(errorType + "|" + operation, k -> Counter.builder(ERROR_COUNTER)
+            .tag("type", errorType)
+            .tag("operation", operation)
+            .register(crawlerMeters.getRegistry()))
+            .increment();
         
         logger.debug("错误记录: type={}, operation={}", errorType, operation);
     }
@@ -130,14 +121,17 @@ public class CrawlerMetricsCollector {
         MemoryOptimizer.MemoryOptimizerStats memoryStats = memoryOptimizer.getStats();
         BatchDataProcessor.BatchProcessorStats batchStats = batchDataProcessor.getStats();
         
+        long successfulCalls = crawlerMeters.getApiCallCount(true) - baseSuccessfulCalls;
+        long failedCalls = crawlerMeters.getApiCallCount(false) - baseFailedCalls;
+        
         return new CrawlerMetrics(
             // 业务指标
-            totalApiCalls.get(),
-            successfulApiCalls.get(),
-            failedApiCalls.get(),
-            totalProductsProcessed.get(),
-            totalCategoriesProcessed.get(),
-            totalErrors.get(),
+            successfulCalls + failedCalls,
+            successfulCalls,
+            failedCalls,
+            (long) (crawlerMeters.getProductsProcessed() - baseProducts),
+            (long) (crawlerMeters.getCategoriesProcessed() - baseCategories),
+            failedCalls + (long) (totalRecordedErrors() - baseErrors),
             
             // 性能指标
             currentThroughput,
@@ -157,44 +151,34 @@ public class CrawlerMetricsCollector {
     
     /**
      * 计算实时性能指标
+     * 平均响应时间和错误率取自计时器累计值（自上次重置起），吞吐量取最近一分钟的调用增量
      */
     private void calculateRealTimeMetrics() {
-        long currentTime = System.currentTimeMillis();
-        long fiveMinutesAgo = currentTime - 300000;
-        
-        // 计算5分钟内的平均响应时间
-        List<Long> recentResponseTimes = apiResponseTimes.entrySet().stream()
-            .filter(entry -> {
-                String key = entry.getKey();
-                long timestamp = Long.parseLong(key.substring(key.lastIndexOf('_') + 1));
-                return timestamp >= fiveMinutesAgo;
-            })
-            .map(Map.Entry::getValue)
-            .collect(Collectors.toList());
+        long successfulCalls = crawlerMeters.getApiCallCount(true) - baseSuccessfulCalls;
+        long failedCalls = crawlerMeters.getApiCallCount(false) - baseFailedCalls;
+        long totalCalls = successfulCalls + failedCalls;
         
-        if (!recentResponseTimes.isEmpty()) {
-            averageResponseTime = recentResponseTimes.stream()
-                .mapToLong(Long::longValue)
-                .average()
-                .orElse(0.0);
-        }
-        
-        // 计算吞吐量（每分钟处理的API调用数）
-        long recentApiCalls = apiResponseTimes.entrySet().stream()
-            .filter(entry -> {
-                String key = entry.getKey();
-                long timestamp = Long.parseLong(key.substring(key.lastIndexOf('_') + 1));
-                return timestamp >= currentTime - 60000; // 最近1分钟
-            })
-            .count();
-        
-        currentThroughput = recentApiCalls; // 每分钟调用数
-        
-        // 计算错误率
-        long totalCalls = totalApiCalls.get();
         if (totalCalls > 0) {
-            errorRate = (double) failedApiCalls.get() / totalCalls * 100;
+            averageResponseTime = (crawlerMeters.getApiTotalTimeMs() - baseApiTimeMs) / totalCalls;
+            errorRate = (double) failedCalls / totalCalls * 100;
+        }
+    }
+    
+    /**
+     * 计算最近一分钟的吞吐量（每分钟API调用数）
+     */
+    private void updateThroughput() {
+        long apiCalls = crawlerMeters.getApiCallCount(true) + crawlerMeters.getApiCallCount(false);
+        currentThroughput = Math.max(0, apiCalls - lastMinuteApiCalls);
+        lastMinuteApiCalls = apiCalls;
+    }
+    
+    private double totalRecordedErrors() {
+        double total = 0;
+        for (Counter counter : crawlerMeters.getRegistry().find(ERROR_COUNTER).counters()) {
+            total += counter.count();
         }
+        return total;
     }
     
     /**
@@ -208,11 +192,14 @@ public class CrawlerMetricsCollector {
      * 获取错误统计
      */
     public Map<String, Integer> getErrorStatistics() {
-        return errorCounts.entrySet().stream()
-            .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                entry -> entry.getValue().get()
-            ));
+        Map<String, Integer> stats = new HashMap<>();
+        for (Counter counter : crawlerMeters.getRegistry().find(ERROR_COUNTER).counters()) {
+            String key = counter.getId().getTag("type") + "_" + counter.getId().getTag("operation");
+            stats.put(key, (int) counter.count());
+        }
+        // 按错误类型统计的失败尝试（SmartRetryHandler）
+        crawlerMeters.getRetryCounts().forEach((type, count) -> stats.put("RETRY_" + type, count));
+        return stats;
     }
     
     /**
@@ -228,6 +215,8 @@ public class CrawlerMetricsCollector {
     @Scheduled(fixedRate = 60000) // 每分钟收集一次
     public void collectPerformanceSnapshot() {
         try {
+            updateThroughput();
+            calculateRealTimeMetrics();
             MetricSnapshot snapshot = new MetricSnapshot(
                 LocalDateTime.now(),
                 currentThroughput,
@@ -305,15 +294,15 @@ public class CrawlerMetricsCollector {
      * 重置统计数据
      */
     public void resetMetrics() {
-        totalApiCalls.set(0);
-        successfulApiCalls.set(0);
-        failedApiCalls.set(0);
-        totalProductsProcessed.set(0);
-        totalCategoriesProcessed.set(0);
-        totalErrors.set(0);
+        baseSuccessfulCalls = crawlerMeters.getApiCallCount(true);
+        baseFailedCalls = crawlerMeters.getApiCallCount(false);
+        baseApiTimeMs = crawlerMeters.getApiTotalTimeMs();
+        baseProducts = crawlerMeters.getProductsProcessed();
+        baseCategories = crawlerMeters.getCategoriesProcessed();
+        baseErrors = totalRecordedErrors();
+        averageResponseTime = 0.0;
+        errorRate = 0.0;
         
-        apiResponseTimes.clear();
-        errorCounts.clear();
         performanceHistory.clear();
         
         lastResetTime = LocalDateTime.now();
@@ -0,0 +1,92 @@
+package com.lcsc.service.crawler.monitoring;
+
+import com.lcsc.service.TaskLogPipeline;
+import com.lcsc.service.crawler.DownloadQueueService;
+import com.lcsc.service.crawler.FileDownloadService;
+import com.lcsc.service.crawler.data.BatchDataProcessor;
+import com.lcsc.service.crawler.v3.CategoryProgressWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 爬虫队列深度指标
+ * 在抓取（scrape）时读取各队列/缓冲区的当前长度，不在业务路径上做任何额外操作：
+ * crawler.queue.size（tag: queue = pending/processing/download_pending/download_failed/download_local）、
+ * crawler.buffer.size（tag: buffer = batch_processor/task_log/category_progress）。
+ * 数据库连接池（hikaricp.*）和Redis命令耗时（lettuce.*）由Spring Boot自动绑定。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+public class CrawlerQueueMetrics implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrawlerQueueMetrics.class);
+
+    // 与 CrawlerTaskQueueService 中的队列键一致
+    private static final String QUEUE_PENDING = "crawler:queue:pending";
+    private static final String QUEUE_PROCESSING = "crawler:queue:processing";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private DownloadQueueService downloadQueueService;
+
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private BatchDataProcessor batchDataProcessor;
+
+    @Autowired
+    private TaskLogPipeline taskLogPipeline;
+
+    @Autowired
+    private CategoryProgressWriter categoryProgressWriter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        queueGauge(registry, "pending", () -> redisTemplate.opsForZSet().size(QUEUE_PENDING));
+        queueGauge(registry, "processing", () -> redisTemplate.opsForSet().size(QUEUE_PROCESSING));
+        queueGauge(registry, "download_pending", downloadQueueService::getPendingQueueSize);
+        queueGauge(registry, "download_failed", downloadQueueService::getFailedQueueSize);
+        queueGauge(registry, "download_local", fileDownloadService::getPendingTaskCount);
+
+        bufferGauge(registry, "batch_processor", () -> batchDataProcessor.getStats().getCurrentQueueSize());
+        bufferGauge(registry, "task_log", taskLogPipeline::getBufferSize);
+        bufferGauge(registry, "category_progress", categoryProgressWriter::getPendingCount);
+    }
+
+    private void queueGauge(MeterRegistry registry, String queue, Supplier<Number> size) {
+        Gauge.builder("crawler.queue.size", () -> safeRead(queue, size))
+            .description("爬虫队列当前长度")
+            .tag("queue", queue)
+            .register(registry);
+    }
+
+    private void bufferGauge(MeterRegistry registry, String buffer, Supplier<Number> size) {
+        Gauge.builder("crawler.buffer.size", () -> safeRead(buffer, size))
+            .description("写入缓冲区当前长度")
+            .tag("buffer", buffer)
+            .register(registry);
+    }
+
+    private double safeRead(String name, Supplier<Number> size) {
+        try {
+            Number value = size.get();
+            return value != null ? value.doubleValue() : 0;
+        } catch (Exception e) {
+            logger.debug("读取队列长度失败: {}, err={}", name, e.getMessage());
+            return Double.NaN;
+        }
+    }
+}
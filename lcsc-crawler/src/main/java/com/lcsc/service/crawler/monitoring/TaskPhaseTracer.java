@@ -0,0 +1,220 @@
+package com.lcsc.service.crawler.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 任务阶段耗时追踪器
+ * 按任务累计各阶段（限流等待、重试退避、HTTP、解析、转换、入库、进度写入、节流休眠）的耗时和次数，
+ * 任务结束时生成汇总写入任务哈希（crawler:task:{taskId} 的 phaseBreakdown 字段），并维护最慢任务排行。
+ * <p>
+ * 热路径只有 {@link #record} 一个静态调用：取线程绑定的当前任务，对固定数组做原子累加，不分配对象；
+ * 没有绑定任务的线程（如下载线程）调用时直接返回。异步执行的代码需用 {@link #attach}/{@link #detach} 传递任务上下文。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+public class TaskPhaseTracer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskPhaseTracer.class);
+
+    private static final String TASK_PREFIX = "crawler:task:";
+    private static final String SLOWEST_KEY = "crawler:trace:slowest";
+    private static final String SUMMARY_KEY = "crawler:trace:summaries";
+    private static final String BREAKDOWN_FIELD = "phaseBreakdown";
+
+    /**
+     * 最慢任务排行保留条数
+     */
+    private static final int MAX_RANKED_TASKS = 500;
+
+    private static final ThreadLocal<TaskTrace> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 任务阶段
+     */
+    public enum Phase {
+        RATE_LIMIT_WAIT,
+        RETRY_BACKOFF,
+        HTTP,
+        PARSE,
+        CONVERT,
+        DB,
+        PROGRESS,
+        THROTTLE_SLEEP
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 单个任务的阶段累计
+     */
+    public static final class TaskTrace {
+        private final String taskId;
+        private final long startNanos;
+        private final AtomicLongArray nanos = new AtomicLongArray(PHASES.length);
+        private final AtomicLongArray counts = new AtomicLongArray(PHASES.length);
+
+        private TaskTrace(String taskId) {
+            this.taskId = taskId;
+            this.startNanos = System.nanoTime();
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+    }
+
+    /**
+     * 开始追踪任务，并绑定到当前线程
+     */
+    public TaskTrace begin(String taskId) {
+        TaskTrace trace = new TaskTrace(taskId);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * 当前线程绑定的任务（可能为null）
+     */
+    public static TaskTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 在异步线程上绑定任务上下文，返回之前绑定的上下文供 {@link #detach} 恢复
+     */
+    public static TaskTrace attach(TaskTrace trace) {
+        TaskTrace previous = CURRENT.get();
+        if (trace != null) {
+            CURRENT.set(trace);
+        }
+        return previous;
+    }
+
+    /**
+     * 恢复异步线程之前的上下文
+     */
+    public static void detach(TaskTrace previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 记录当前任务某阶段的一次耗时
+     */
+    public static void record(Phase phase, long durationNanos) {
+        record(CURRENT.get(), phase, durationNanos);
+    }
+
+    /**
+     * 记录指定任务某阶段的一次耗时（非阻塞调用链上没有线程绑定，由调用方显式传入）
+     */
+    public static void record(TaskTrace trace, Phase phase, long durationNanos) {
+        if (trace != null) {
+            int i = phase.ordinal();
+            trace.nanos.addAndGet(i, durationNanos);
+            trace.counts.incrementAndGet(i);
+        }
+    }
+
+    /**
+     * 结束追踪：生成汇总、写入任务哈希和最慢任务排行，并解除线程绑定
+     */
+    public Map<String, Object> finish(TaskTrace trace, boolean success) {
+        CURRENT.remove();
+        if (trace == null) {
+            return null;
+        }
+
+        long totalNanos = System.nanoTime() - trace.startNanos;
+        long tracedNanos = 0;
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            long count = trace.counts.get(phase.ordinal());
+            if (count == 0) {
+                continue;
+            }
+            long phaseNanos = trace.nanos.get(phase.ordinal());
+            tracedNanos += phaseNanos;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("ms", TimeUnit.NANOSECONDS.toMillis(phaseNanos));
+            item.put("count", count);
+            phases.put(phase.name(), item);
+        }
+
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(totalNanos);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("taskId", trace.taskId);
+        summary.put("success", success);
+        summary.put("totalMs", totalMs);
+        summary.put("otherMs", TimeUnit.NANOSECONDS.toMillis(Math.max(0, totalNanos - tracedNanos)));
+        summary.put("phases", phases);
+        summary.put("finishedAt", LocalDateTime.now().toString());
+
+        try {
+            redisTemplate.opsForHash().put(TASK_PREFIX + trace.taskId, BREAKDOWN_FIELD, summary);
+            redisTemplate.opsForHash().put(SUMMARY_KEY, trace.taskId, summary);
+            redisTemplate.opsForZSet().add(SLOWEST_KEY, trace.taskId, totalMs);
+            trimRanking();
+        } catch (Exception e) {
+            logger.warn("保存任务阶段耗时失败: taskId={}, err={}", trace.taskId, e.getMessage());
+        }
+
+        logger.debug("任务阶段耗时: {}", summary);
+        return summary;
+    }
+
+    /**
+     * 最慢任务排行（按总耗时倒序）
+     */
+    public List<Object> getSlowestTasks(int limit) {
+        List<Object> result = new ArrayList<>();
+        Set<Object> taskIds = redisTemplate.opsForZSet().reverseRange(SLOWEST_KEY, 0, Math.max(limit, 1) - 1);
+        if (taskIds == null || taskIds.isEmpty()) {
+            return result;
+        }
+        List<Object> summaries = redisTemplate.opsForHash().multiGet(SUMMARY_KEY, new ArrayList<>(taskIds));
+        for (Object summary : summaries) {
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 只保留耗时最长的 MAX_RANKED_TASKS 个任务
+     */
+    private void trimRanking() {
+        Long size = redisTemplate.opsForZSet().size(SLOWEST_KEY);
+        if (size == null || size <= MAX_RANKED_TASKS) {
+            return;
+        }
+        long evictCount = size - MAX_RANKED_TASKS;
+        Set<Object> evicted = redisTemplate.opsForZSet().range(SLOWEST_KEY, 0, evictCount - 1);
+        if (evicted != null && !evicted.isEmpty()) {
+            redisTemplate.opsForHash().delete(SUMMARY_KEY, evicted.toArray());
+        }
+        redisTemplate.opsForZSet().removeRange(SLOWEST_KEY, 0, evictCount - 1);
+    }
+}
@@ -1,10 +1,18 @@
 package com.lcsc.service.crawler.network;
 
+import com.lcsc.service.crawler.monitoring.TaskPhaseTracer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -22,15 +30,28 @@ public class DynamicRateLimiter {
     private static final Logger logger = LoggerFactory.getLogger(DynamicRateLimiter.class);
     
     // 配置常量
-    private static final long MIN_INTERVAL = 3000;        // 最小间隔3秒
     private static final long MAX_INTERVAL = 60000;       // 最大间隔60秒
-    private static final long DEFAULT_INTERVAL = 5000;    // 默认间隔5秒
     private static final int MAX_CONSECUTIVE_ERRORS = 5;   // 最大连续错误数
     private static final double SUCCESS_DECREASE_FACTOR = 0.95; // 成功时减少因子
     private static final double ERROR_INCREASE_FACTOR = 2.0;    // 错误时增加因子
     
     // 各API端点的独立控制
     private final ConcurrentHashMap<String, EndpointRateLimit> endpointLimits = new ConcurrentHashMap<>();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 最小间隔（默认3秒；对接本地模拟器压测时可调为0）
+     */
+    @Value("${crawler.rate-limit.min-interval-ms:3000}")
+    private long minInterval = 3000;
+
+    /**
+     * 端点首次请求时的初始间隔（默认5秒）
+     */
+    @Value("${crawler.rate-limit.initial-interval-ms:5000}")
+    private long initialInterval = 5000;
     
     /**
      * 单个API端点的频率控制状态
@@ -43,8 +64,8 @@ public class DynamicRateLimiter {
         private final AtomicLong successfulRequests;
         private volatile long lastAdjustTime;
         
-        public EndpointRateLimit() {
-            this.currentInterval = DEFAULT_INTERVAL;
+        public EndpointRateLimit(long initialInterval) {
+            this.currentInterval = initialInterval;
             this.lastRequestTime = 0;
             this.consecutiveErrors = new AtomicInteger(0);
             this.totalRequests = new AtomicLong(0);
@@ -57,7 +78,18 @@ public class DynamicRateLimiter {
      * 获取指定端点的频率控制器
      */
     private EndpointRateLimit getEndpointLimit(String endpoint) {
-        return endpointLimits.computeIfAbsent(endpoint, k -> new EndpointRateLimit());
+        return endpointLimits.computeIfAbsent(endpoint, k -> {
+            EndpointRateLimit limit = new EndpointRateLimit(initialInterval);
+            if (meterRegistry != null) {
+                // 当前请求间隔（毫秒），端点首次出现时注册
+                Gauge.builder("crawler.ratelimiter.interval", limit, l -> l.currentInterval)
+                    .description("动态频率控制当前请求间隔")
+                    .tag("endpoint", k)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            }
+            return limit;
+        });
     }
     
     /**
@@ -76,7 +108,9 @@ public class DynamicRateLimiter {
             long waitTime = limit.currentInterval - elapsed;
             try {
                 logger.debug("端点 {} 等待 {}ms 后发起请求", endpoint, waitTime);
+                long waitStart = System.nanoTime();
                 Thread.sleep(waitTime);
+                TaskPhaseTracer.record(TaskPhaseTracer.Phase.RATE_LIMIT_WAIT, System.nanoTime() - waitStart);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 logger.warn("等待被中断: {}", e.getMessage());
@@ -91,6 +125,59 @@ public class DynamicRateLimiter {
             endpoint, limit.currentInterval, limit.totalRequests.get());
     }
     
+    /**
+     * 预约下一次请求的时间片，返回需要等待的毫秒数（不阻塞）
+     * 并发请求依次排在上一个时间片之后，保证同一端点的实际间隔不小于当前间隔
+     *
+     * @param endpoint API端点
+     * @return 距离预约时间片的等待毫秒数，0表示可立即发起
+     */
+    public long reserveNextRequest(String endpoint) {
+        EndpointRateLimit limit = getEndpointLimit(endpoint);
+        synchronized (limit) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(now, limit.lastRequestTime + limit.currentInterval);
+            limit.lastRequestTime = slot;
+            limit.totalRequests.incrementAndGet();
+            return slot - now;
+        }
+    }
+
+    /**
+     * 非阻塞频率控制：预约时间片后用 Mono.delay 延迟订阅请求，响应后按结果调整间隔
+     * 每次（重新）订阅都会重新预约，等待期间不占用线程
+     *
+     * @param endpoint API端点
+     * @param request  实际请求
+     * @param trace    发起请求的任务（用于记录限速等待耗时，可为null）
+     */
+    public <T> Mono<T> throttle(String endpoint, Mono<T> request, TaskPhaseTracer.TaskTrace trace) {
+        return Mono.defer(() -> {
+            long waitTime = reserveNextRequest(endpoint);
+            Mono<T> call = Mono.defer(() -> {
+                long startTime = System.currentTimeMillis();
+                return request
+                    .doOnSuccess(result -> adjustInterval(endpoint, true, HttpStatus.OK,
+                        System.currentTimeMillis() - startTime))
+                    .doOnError(error -> adjustInterval(endpoint, false, statusOf(error),
+                        System.currentTimeMillis() - startTime));
+            });
+            if (waitTime <= 0) {
+                return call;
+            }
+            logger.debug("端点 {} 延迟 {}ms 后发起请求", endpoint, waitTime);
+            TaskPhaseTracer.record(trace, TaskPhaseTracer.Phase.RATE_LIMIT_WAIT, waitTime * 1_000_000L);
+            return Mono.delay(Duration.ofMillis(waitTime)).then(call);
+        });
+    }
+
+    private static HttpStatus statusOf(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            return HttpStatus.resolve(((WebClientResponseException) error).getStatusCode().value());
+        }
+        return null;
+    }
+
     /**
      * 根据响应情况调整间隔
      * 
@@ -111,7 +198,7 @@ public class DynamicRateLimiter {
             // 如果响应时间正常，适度减少间隔
             if (responseTime < 3000) { // 3秒以内认为正常
                 long oldInterval = limit.currentInterval;
-                limit.currentInterval = Math.max(MIN_INTERVAL, 
+                limit.currentInterval = Math.max(minInterval, 
                     (long) (limit.currentInterval * SUCCESS_DECREASE_FACTOR));
                 
                 if (oldInterval != limit.currentInterval) {
@@ -208,7 +295,7 @@ public class DynamicRateLimiter {
      */
     public void resetStats(String endpoint) {
         EndpointRateLimit limit = getEndpointLimit(endpoint);
-        limit.currentInterval = DEFAULT_INTERVAL;
+        limit.currentInterval = initialInterval;
         limit.consecutiveErrors.set(0);
         limit.totalRequests.set(0);
         limit.successfulRequests.set(0);
@@ -224,9 +311,9 @@ public class DynamicRateLimiter {
      * @param interval 间隔时间（毫秒）
      */
     public void forceSetInterval(String endpoint, long interval) {
-        if (interval < MIN_INTERVAL || interval > MAX_INTERVAL) {
+        if (interval < minInterval || interval > MAX_INTERVAL) {
             throw new IllegalArgumentException(
-                String.format("间隔时间必须在 %d-%d ms 之间", MIN_INTERVAL, MAX_INTERVAL));
+                String.format("间隔时间必须在 %d-%d ms 之间", minInterval, MAX_INTERVAL));
         }
         
         EndpointRateLimit limit = getEndpointLimit(endpoint);
@@ -22,7 +22,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -38,6 +40,8 @@ import com.lcsc.service.CategoryLevel3CodeService;
 import com.lcsc.service.ProductService;
 import com.lcsc.service.crawler.FileDownloadService;
 import com.lcsc.service.crawler.LcscApiService;
+import com.lcsc.service.crawler.monitoring.CrawlerMeters;
+import com.lcsc.service.crawler.monitoring.TaskPhaseTracer;
 
 import jakarta.annotation.PreDestroy;
 
@@ -86,6 +90,18 @@ public class CategoryCrawlerWorkerPool {
     @Autowired
     private TaskSplitService taskSplitService;
 
+    @Autowired
+    private CrawlerProgressAggregator progressAggregator;
+
+    @Autowired
+    private CategoryProgressWriter progressWriter;
+
+    @Autowired
+    private CrawlerMeters crawlerMeters;
+
+    @Autowired
+    private TaskPhaseTracer phaseTracer;
+
     @Value("${crawler.storage.base-path}")
     private String storageBasePath;
 
@@ -104,6 +120,12 @@ public class CategoryCrawlerWorkerPool {
     @Value("${crawler.split.max-depth:3}")
     private int maxSplitDepth;
 
+    /**
+     * 每页之间的固定间隔（毫秒），对接本地模拟器压测时可调为0
+     */
+    @Value("${crawler.page-delay-ms:500}")
+    private long pageDelayMs = 500;
+
     private ExecutorService executorService;
     private volatile boolean isRunning = false;
     private int workerThreadCount = 3; // 默认3个线程，可配置
@@ -253,9 +275,15 @@ public class CategoryCrawlerWorkerPool {
                     continue;
                 }
 
-                // 2. 执行任务
+                // 2. 执行任务（按阶段记录耗时）
                 log.info("Worker-{} 开始执行任务: {}", workerId, taskId);
-                boolean success = executeCategoryTask(taskId, workerId);
+                TaskPhaseTracer.TaskTrace trace = phaseTracer.begin(taskId);
+                boolean success = false;
+                try {
+                    success = executeCategoryTask(taskId, workerId);
+                } finally {
+                    phaseTracer.finish(trace, success);
+                }
 
                 // 3. 完成任务
                 queueService.completeTask(taskId, success, success ? null : "执行失败");
@@ -571,21 +599,9 @@ public class CategoryCrawlerWorkerPool {
             int savedCount = processAndSavePageData(categoryLevel1Id, categoryLevel2Id, categoryLevel3IdForProduct,
                 level1Name, level2Name, catalogName, firstPage, workerId);
 
-            // 保存第一页的完整原始API响应
-            String firstPageRawResponse = (String) firstPage.get("rawResponse");
-            log.info("Worker-{} 第一页原始响应: 存在={}, 长度={}, 空检查={}",
-                workerId,
-                firstPageRawResponse != null,
-                firstPageRawResponse != null ? firstPageRawResponse.length() : 0,
-                firstPageRawResponse == null || firstPageRawResponse.isBlank());
-
-            if (firstPageRawResponse != null && !firstPageRawResponse.isBlank()) {
-                log.info("Worker-{} 已获取第一页原始API响应，长度: {} (数据将直接存储到数据库)", workerId, firstPageRawResponse.length());
-            } else {
-                log.warn("Worker-{} 第一页原始API响应为空或null，跳过处理", workerId);
-            }
-
-            updateProgress(taskId, categoryId, 1, totalPages, savedCount, totalProducts, workerId);
+            updateProgress(taskId, categoryLevel, categoryId, 1, totalPages, savedCount, totalProducts, workerId);
+            publishProgress(taskId, categoryId, catalogName, categoryLevel, 1, totalPages,
+                savedCount, totalProducts, workerId);
 
             int totalSaved = savedCount;
 
@@ -595,17 +611,20 @@ public class CategoryCrawlerWorkerPool {
                 if (!isRunning) {
                     log.warn("Worker-{} 检测到停止信号，中断爬取: {}", workerId, catalogName);
                     // 停止时，如果已经爬取了部分数据，标记为已完成；否则标记为失败
+                    progressWriter.complete(categoryLevel, categoryId);
                     if (totalSaved > 0) {
                         if (level2Category != null) {
                             level2Category.setCrawlStatus("COMPLETED");
                             level2Category.setCrawlProgress(100);
                             level2Category.setCrawledProducts(totalSaved);
+                            level2Category.setCurrentPage(page - 1);
                             level2Category.setLastCrawlTime(LocalDateTime.now());
                             categoryMapper.updateById(level2Category);
                         } else if (level3Category != null) {
                             level3Category.setCrawlStatus("COMPLETED");
                             level3Category.setCrawlProgress(100);
                             level3Category.setCrawledProducts(totalSaved);
+                            level3Category.setCurrentPage(page - 1);
                             level3Category.setLastCrawlTime(LocalDateTime.now());
                             level3Service.updateById(level3Category);
                             // 同步更新父二级分类状态
@@ -613,6 +632,7 @@ public class CategoryCrawlerWorkerPool {
                                 updateParentLevel2StatusIfNeeded(categoryLevel2Id, workerId);
                             }
                         }
+                        progressAggregator.finish(taskId, categoryId, "COMPLETED");
                         log.info("Worker-{} 已停止，但已爬取 {} 个产品，标记分类为已完成", workerId, totalSaved);
                         return true;  // 返回true，因为已有数据
                     } else {
@@ -629,6 +649,7 @@ public class CategoryCrawlerWorkerPool {
                                 updateParentLevel2StatusIfNeeded(categoryLevel2Id, workerId);
                             }
                         }
+                        progressAggregator.finish(taskId, categoryId, "STOPPED");
                         log.info("Worker-{} 已停止，未爬取任何产品，标记分类为已停止", workerId);
                         return false;
                     }
@@ -640,53 +661,36 @@ public class CategoryCrawlerWorkerPool {
                 savedCount = processAndSavePageData(categoryLevel1Id, categoryLevel2Id, categoryLevel3IdForProduct,
                     level1Name, level2Name, catalogName, pageData, workerId);
 
-                // 保存完整的原始API响应
-                String rawResponse = (String) pageData.get("rawResponse");
-                log.info("Worker-{} 检查原始响应: rawResponse存在={}, 长度={}, 空检查={}",
-                    workerId,
-                    rawResponse != null,
-                    rawResponse != null ? rawResponse.length() : 0,
-                    rawResponse == null || rawResponse.isBlank());
-
-                if (rawResponse != null && !rawResponse.isBlank()) {
-                    log.info("Worker-{} 已获取原始API响应，长度: {} (数据将直接存储到数据库)", workerId, rawResponse.length());
-                } else {
-                    log.warn("Worker-{} 原始API响应为空或null，跳过处理", workerId);
-                }
-
                 totalSaved += savedCount;
 
-                updateProgress(taskId, categoryId, page, totalPages, totalSaved, totalProducts, workerId);
-
-                // 推送进度
-                int progress = (page * 100) / totalPages;
-                broadcastWebSocket("PROGRESS_UPDATE", Map.of(
-                    "catalogId", categoryId,
-                    "catalogName", catalogName,
-                    "currentPage", page,
-                    "totalPages", totalPages,
-                    "progress", progress,
-                    "crawledProducts", totalSaved,
-                    "totalProducts", totalProducts,
-                    "categoryLevel", categoryLevel,
-                    "workerId", workerId
-                ));
+                updateProgress(taskId, categoryLevel, categoryId, page, totalPages, totalSaved, totalProducts, workerId);
+
+                // 推送进度（由聚合器合并后按帧推送）
+                publishProgress(taskId, categoryId, catalogName, categoryLevel, page, totalPages,
+                    totalSaved, totalProducts, workerId);
 
                 // 延迟，避免请求过快
-                Thread.sleep(500);
+                if (pageDelayMs > 0) {
+                    long sleepStart = System.nanoTime();
+                    Thread.sleep(pageDelayMs);
+                    TaskPhaseTracer.record(TaskPhaseTracer.Phase.THROTTLE_SLEEP, System.nanoTime() - sleepStart);
+                }
             }
 
-            // 8. 完成
+            // 8. 完成（丢弃未写回的页面进度，由下面的最终状态覆盖）
+            progressWriter.complete(categoryLevel, categoryId);
             if (level2Category != null) {
                 level2Category.setCrawlStatus("COMPLETED");
                 level2Category.setCrawlProgress(100);
                 level2Category.setCrawledProducts(totalSaved);
+                level2Category.setCurrentPage(totalPages);
                 level2Category.setLastCrawlTime(LocalDateTime.now());
                 categoryMapper.updateById(level2Category);
             } else if (level3Category != null) {
                 level3Category.setCrawlStatus("COMPLETED");
                 level3Category.setCrawlProgress(100);
                 level3Category.setCrawledProducts(totalSaved);
+                level3Category.setCurrentPage(totalPages);
                 level3Category.setLastCrawlTime(LocalDateTime.now());
                 level3Service.updateById(level3Category);
 
@@ -697,6 +701,7 @@ public class CategoryCrawlerWorkerPool {
             }
 
             // 9. 推送完成事件
+            progressAggregator.finish(taskId, categoryId, "COMPLETED");
             broadcastWebSocket("TASK_COMPLETE", Map.of(
                 "taskId", taskId,
                 "catalogId", categoryId,
@@ -717,6 +722,9 @@ public class CategoryCrawlerWorkerPool {
             // 推送失败事件
             try {
                 Map<Object, Object> taskMap = queueService.getTaskDetails(taskId);
+                Object failedCategoryId = taskMap.get("categoryId");
+                progressAggregator.finish(taskId,
+                    failedCategoryId != null ? Integer.valueOf(failedCategoryId.toString()) : null, "FAILED");
                 broadcastWebSocket("TASK_FAILED", Map.of(
                     "taskId", taskId,
                     "catalogId", taskMap.get("catalogId"),
@@ -745,9 +753,16 @@ public class CategoryCrawlerWorkerPool {
         int savedCount = 0;
         for (Map<String, Object> productData : products) {
             try {
+                long convertStart = System.nanoTime();
                 Product product = convertToProduct(productData, categoryLevel1Id, categoryLevel2Id, categoryLevel3Id,
                     level1Name, level2Name, catalogName);
+                long upsertStart = System.nanoTime();
+                crawlerMeters.recordStage(CrawlerMeters.STAGE_CONVERT, upsertStart - convertStart);
+                TaskPhaseTracer.record(TaskPhaseTracer.Phase.CONVERT, upsertStart - convertStart);
                 boolean saved = productService.saveOrUpdateProduct(product);
+                long upsertNanos = System.nanoTime() - upsertStart;
+                crawlerMeters.recordStage(CrawlerMeters.STAGE_DB_UPSERT, upsertNanos);
+                TaskPhaseTracer.record(TaskPhaseTracer.Phase.DB, upsertNanos);
                 if (saved) {
                     savedCount++;
                 }
@@ -762,18 +777,19 @@ public class CategoryCrawlerWorkerPool {
 
     /**
      * 更新进度
+     * Redis进度在一次管道往返中写入；数据库进度列只记录到内存，由 {@link CategoryProgressWriter} 定时批量局部更新
      */
-    private void updateProgress(String taskId, Integer catalogId,
+    private void updateProgress(String taskId, String categoryLevel, Integer catalogId,
                                 int currentPage, int totalPages,
                                 int crawledProducts, int totalProducts,
                                 int workerId) {
+        long progressStart = System.nanoTime();
+        int progress = totalPages > 0 ? (currentPage * 100) / totalPages : 0;
         try {
-            // Redis任务进度
-            redisTemplate.opsForHash().put("crawler:task:" + taskId, "currentPage", currentPage);
-            redisTemplate.opsForHash().put("crawler:task:" + taskId, "crawledProducts", crawledProducts);
-
-            // Redis进度详情
-            int progress = totalPages > 0 ? (currentPage * 100) / totalPages : 0;
+            Map<String, Object> taskProgress = Map.of(
+                "currentPage", currentPage,
+                "crawledProducts", crawledProducts
+            );
             Map<String, Object> progressMap = Map.of(
                 "currentPage", currentPage,
                 "totalPages", totalPages,
@@ -783,19 +799,25 @@ public class CategoryCrawlerWorkerPool {
                 "lastUpdateTime", LocalDateTime.now().toString(),
                 "workerId", workerId
             );
-            redisTemplate.opsForHash().putAll(PROGRESS_PREFIX + catalogId, progressMap);
-
-            // 数据库
-            CategoryLevel2Code category = categoryMapper.selectById(catalogId);
-            if (category != null) {
-                category.setCurrentPage(currentPage);
-                category.setCrawledProducts(crawledProducts);
-                category.setCrawlProgress(progress);
-                categoryMapper.updateById(category);
-            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    // Redis任务进度
+                    ops.opsForHash().putAll("crawler:task:" + taskId, taskProgress);
+                    // Redis进度详情
+                    ops.opsForHash().putAll(PROGRESS_PREFIX + catalogId, progressMap);
+                    return null;
+                }
+            });
         } catch (Exception e) {
             log.error("更新进度失败: taskId={}, catalogId={}", taskId, catalogId, e);
         }
+
+        // 数据库（按分类级别写入对应表，批量延迟写回）
+        progressWriter.record(categoryLevel, catalogId, currentPage, crawledProducts, totalProducts, progress);
+        TaskPhaseTracer.record(TaskPhaseTracer.Phase.PROGRESS, System.nanoTime() - progressStart);
     }
 
     /**
@@ -803,8 +825,8 @@ public class CategoryCrawlerWorkerPool {
      * @param level2Name 二级分类名称（对于三级分类任务，需要从数据库查询获取）
      * @param catalogName 当前任务的分类名称（二级任务=二级名称，三级任务=三级名称）
      */
-    private Product convertToProduct(Map<String, Object> productData, Integer categoryLevel1Id, Integer categoryLevel2Id, Integer categoryLevel3Id,
-                                     String level1Name, String level2Name, String catalogName) {
+    Product convertToProduct(Map<String, Object> productData, Integer categoryLevel1Id, Integer categoryLevel2Id, Integer categoryLevel3Id,
+                             String level1Name, String level2Name, String catalogName) {
         Product product = new Product();
 
         product.setProductCode((String) productData.get("productCode"));
@@ -927,6 +949,25 @@ public class CategoryCrawlerWorkerPool {
         return product;
     }
 
+    /**
+     * 提交分类进度到聚合器
+     */
+    private void publishProgress(String taskId, Integer catalogId, String catalogName, String categoryLevel,
+                                 int currentPage, int totalPages, int crawledProducts, int totalProducts,
+                                 int workerId) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("catalogName", catalogName);
+        fields.put("categoryLevel", categoryLevel);
+        fields.put("currentPage", currentPage);
+        fields.put("totalPages", totalPages);
+        fields.put("progress", totalPages > 0 ? (currentPage * 100) / totalPages : 0);
+        fields.put("crawledProducts", crawledProducts);
+        fields.put("totalProducts", totalProducts);
+        fields.put("workerId", workerId);
+        fields.put("status", "RUNNING");
+        progressAggregator.update(taskId, catalogId, fields);
+    }
+
     /**
      * 推送WebSocket消息
      */
@@ -0,0 +1,151 @@
+package com.lcsc.service.crawler.v3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.lcsc.dto.CategoryProgressUpdate;
+import com.lcsc.mapper.CategoryLevel2CodeMapper;
+import com.lcsc.mapper.CategoryLevel3CodeMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 分类进度写回器
+ * Worker每页只在内存中记录最新进度（同一分类多次更新只保留最后一次），
+ * 定时按表批量执行一条局部UPDATE写入 current_page/crawled_products/total_products/crawl_progress；
+ * 任务结束时由Worker调用 {@link #complete} 丢弃未写入的进度，最终状态由完成逻辑写入。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+public class CategoryProgressWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryProgressWriter.class);
+
+    private static final String LEVEL2 = "level2";
+    private static final String LEVEL3 = "level3";
+
+    /**
+     * 单条UPDATE最多包含的分类数
+     */
+    private static final int MAX_BATCH = 200;
+
+    @Autowired
+    private CategoryLevel2CodeMapper level2Mapper;
+
+    @Autowired
+    private CategoryLevel3CodeMapper level3Mapper;
+
+    private final Map<Integer, CategoryProgressUpdate> pendingLevel2 = new ConcurrentHashMap<>();
+    private final Map<Integer, CategoryProgressUpdate> pendingLevel3 = new ConcurrentHashMap<>();
+
+    /**
+     * 写回锁：保证任务完成后不会再有旧进度覆盖最终状态
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * 记录进度（只更新内存，不访问数据库）
+     */
+    public void record(String categoryLevel, Integer categoryId, int currentPage, int crawledProducts,
+                       int totalProducts, int progress) {
+        Map<Integer, CategoryProgressUpdate> pending = pendingFor(categoryLevel);
+        if (pending == null || categoryId == null) {
+            return;
+        }
+        pending.put(categoryId, new CategoryProgressUpdate(categoryId, currentPage, crawledProducts,
+            totalProducts, progress));
+    }
+
+    /**
+     * 任务结束：丢弃该分类未写入的进度
+     * 等待进行中的写回结束后返回，之后调用方写入的最终状态不会被旧进度覆盖
+     */
+    public void complete(String categoryLevel, Integer categoryId) {
+        Map<Integer, CategoryProgressUpdate> pending = pendingFor(categoryLevel);
+        if (pending == null || categoryId == null) {
+            return;
+        }
+        synchronized (flushLock) {
+            pending.remove(categoryId);
+        }
+    }
+
+    /**
+     * 定时批量写回
+     */
+    @Scheduled(fixedDelayString = "${crawler.progress.db-flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushTable(LEVEL2, pendingLevel2);
+            flushTable(LEVEL3, pendingLevel3);
+        }
+    }
+
+    /**
+     * 待写回的分类数
+     */
+    public int getPendingCount() {
+        return pendingLevel2.size() + pendingLevel3.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void flushTable(String categoryLevel, Map<Integer, CategoryProgressUpdate> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<CategoryProgressUpdate> batch = new ArrayList<>(Math.min(pending.size(), MAX_BATCH));
+        for (Integer categoryId : new ArrayList<>(pending.keySet())) {
+            CategoryProgressUpdate update = pending.remove(categoryId);
+            if (update == null) {
+                continue;
+            }
+            batch.add(update);
+            if (batch.size() >= MAX_BATCH) {
+                writeBatch(categoryLevel, batch);
+                batch = new ArrayList<>(MAX_BATCH);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(categoryLevel, batch);
+        }
+    }
+
+    private void writeBatch(String categoryLevel, List<CategoryProgressUpdate> batch) {
+        try {
+            if (LEVEL2.equals(categoryLevel)) {
+                level2Mapper.updateProgressBatch(batch);
+            } else {
+                level3Mapper.updateProgressBatch(batch);
+            }
+            log.debug("批量写回分类进度: level={}, count={}", categoryLevel, batch.size());
+        } catch (Exception e) {
+            // 进度只是展示用，写回失败不重试，下一次页面进度会覆盖
+            log.warn("批量写回分类进度失败: level={}, count={}, err={}", categoryLevel, batch.size(), e.getMessage());
+        }
+    }
+
+    private Map<Integer, CategoryProgressUpdate> pendingFor(String categoryLevel) {
+        if (LEVEL2.equals(categoryLevel)) {
+            return pendingLevel2;
+        }
+        if (LEVEL3.equals(categoryLevel)) {
+            return pendingLevel3;
+        }
+        return null;
+    }
+}
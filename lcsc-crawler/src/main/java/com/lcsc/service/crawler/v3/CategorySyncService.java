@@ -7,20 +7,25 @@ import com.lcsc.entity.CategoryLevel3Code;
 import com.lcsc.mapper.CategoryLevel1CodeMapper;
 import com.lcsc.mapper.CategoryLevel2CodeMapper;
 import com.lcsc.mapper.CategoryLevel3CodeMapper;
+import com.lcsc.service.CategoryDictionaryService;
 import com.lcsc.service.crawler.LcscApiService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 分类同步服务V3
@@ -49,13 +54,25 @@ public class CategorySyncService {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private CategoryDictionaryService categoryDictionaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private static final String REDIS_STATE_KEY = "crawler:state";
 
     /**
-     * 爬取并同步分类信息（覆盖模式）
-     * 这是用户使用系统的第一步操作
+     * 分类同步单条批量语句的最大行数
+     */
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    /**
+     * 爬取并同步分类信息（差异同步）
+     * 这是用户使用系统的第一步操作。
+     * 现有三级分类表各查询一次，与API分类树在内存中比对出新增/变更/孤立分类，
+     * 新增和变更按层级批量写入并在同一事务内提交；没有任何变化时不刷新分类字典和名称映射。
      */
-    @Transactional(rollbackFor = Exception.class)
     public CompletableFuture<Map<String, Object>> crawlAndSyncCategories() {
         return CompletableFuture.supplyAsync(() -> {
             try {
@@ -79,228 +96,60 @@ public class CategorySyncService {
                     throw new RuntimeException("API返回的分类列表为空");
                 }
 
-                // 3. 使用UPSERT模式，保持ID稳定（不再删除旧数据）
-                log.info("步骤3: 使用UPSERT模式同步分类（保持ID稳定）");
+                // 3. 比对并批量写入（保持ID稳定，不删除孤立分类）
+                log.info("步骤3: 比对分类差异并批量写入");
+                SyncSummary summary = transactionTemplate.execute(status -> applyCatalogTree(catalogList));
 
-                int level1Count = 0;
-                int level2Count = 0;
-                int level3Count = 0;  // 新增三级分类计数
-                int level1Updated = 0;
-                int level2Updated = 0;
-                int level3Updated = 0;
-
-                // 4. UPSERT新数据（基于catalog_id判断是否存在）
-                log.info("步骤4: 开始同步分类数据");
-
-                for (Map<String, Object> level1Data : catalogList) {
-                    // 获取分类名称,如果为空则跳过
-                    String catalogName = (String) level1Data.get("catalogNameEn");
-                    if (catalogName == null || catalogName.trim().isEmpty()) {
-                        log.warn("跳过空分类名称,catalogId: {}", level1Data.get("catalogId"));
-                        continue;
-                    }
-
-                    // UPSERT一级分类（基于catalog_id查询是否存在）
-                    String level1CatalogId = String.valueOf(level1Data.get("catalogId"));
-                    CategoryLevel1Code level1 = level1Mapper.selectOne(
-                        new QueryWrapper<CategoryLevel1Code>().eq("catalog_id", level1CatalogId)
-                    );
-
-                    boolean isLevel1New = (level1 == null);
-                    if (isLevel1New) {
-                        level1 = new CategoryLevel1Code();
-                        level1.setCatalogId(level1CatalogId);
-                        level1.setCreatedAt(LocalDateTime.now());
-                        level1.setIsCustomized(0); // 新分类，未被修改过
-                    }
-
-                    // P0-5: 分类名称持久化逻辑
-                    // 总是更新source_name为API返回的名称
-                    level1.setSourceName(catalogName);
-
-                    // 根据is_customized决定是否更新显示名称
-                    if (level1.getIsCustomized() == null || level1.getIsCustomized() == 0) {
-                        // 未被用户修改过，使用API名称
-                        level1.setCategoryLevel1Name(catalogName);
-                    } else {
-                        // 已被用户修改过，保持custom_name，显示名称不变
-                        if (level1.getCustomName() != null && !level1.getCustomName().isEmpty()) {
-                            level1.setCategoryLevel1Name(level1.getCustomName());
-                        }
-                        log.debug("保持用户自定义名称: {} (源名称: {})",
-                            level1.getCategoryLevel1Name(), catalogName);
-                    }
-
-                    level1.setUpdatedAt(LocalDateTime.now());
-
-                    if (isLevel1New) {
-                        level1Mapper.insert(level1);
-                        level1Count++;
-                        log.debug("插入一级分类: {} (ID: {}, catalogId: {})",
-                            level1.getCategoryLevel1Name(), level1.getId(), level1CatalogId);
-                    } else {
-                        level1Mapper.updateById(level1);
-                        level1Updated++;
-                        log.debug("更新一级分类: {} (ID: {}, catalogId: {})",
-                            level1.getCategoryLevel1Name(), level1.getId(), level1CatalogId);
-                    }
-
-                    // 创建二级分类
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> children =
-                        (List<Map<String, Object>>) level1Data.get("childCatelogs");
-
-                    if (children != null && !children.isEmpty()) {
-                        for (Map<String, Object> level2Data : children) {
-                            // 获取二级分类名称,如果为空则跳过
-                            String level2CatalogName = (String) level2Data.get("catalogNameEn");
-                            if (level2CatalogName == null || level2CatalogName.trim().isEmpty()) {
-                                log.warn("跳过空二级分类名称,catalogId: {}", level2Data.get("catalogId"));
-                                continue;
-                            }
-
-                            // UPSERT二级分类（基于catalog_id查询是否存在）
-                            String level2CatalogId = String.valueOf(level2Data.get("catalogId"));
-                            CategoryLevel2Code level2 = level2Mapper.selectOne(
-                                new QueryWrapper<CategoryLevel2Code>().eq("catalog_id", level2CatalogId)
-                            );
-
-                            boolean isLevel2New = (level2 == null);
-                            if (isLevel2New) {
-                                level2 = new CategoryLevel2Code();
-                                level2.setCatalogId(level2CatalogId);
-                                level2.setCrawlStatus("NOT_STARTED");
-                                level2.setCrawlProgress(0);
-                                level2.setCreatedAt(LocalDateTime.now());
-                                level2.setIsCustomized(0); // 新分类，未被修改过
-                            }
-
-                            // P0-5: 分类名称持久化逻辑
-                            // 总是更新source_name为API返回的名称
-                            level2.setSourceName(level2CatalogName);
-
-                            // 根据is_customized决定是否更新显示名称
-                            if (level2.getIsCustomized() == null || level2.getIsCustomized() == 0) {
-                                // 未被用户修改过，使用API名称
-                                level2.setCategoryLevel2Name(level2CatalogName);
-                            } else {
-                                // 已被用户修改过，保持custom_name，显示名称不变
-                                if (level2.getCustomName() != null && !level2.getCustomName().isEmpty()) {
-                                    level2.setCategoryLevel2Name(level2.getCustomName());
-                                }
-                                log.debug("  保持用户自定义名称: {} (源名称: {})",
-                                    level2.getCategoryLevel2Name(), level2CatalogName);
-                            }
-
-                            level2.setCategoryLevel1Id(level1.getId());
-                            level2.setUpdatedAt(LocalDateTime.now());
-
-                            if (isLevel2New) {
-                                level2Mapper.insert(level2);
-                                level2Count++;
-                                log.debug("  插入二级分类: {} (ID: {}, catalogId: {})",
-                                    level2.getCategoryLevel2Name(), level2.getId(), level2CatalogId);
-                            } else {
-                                level2Mapper.updateById(level2);
-                                level2Updated++;
-                                log.debug("  更新二级分类: {} (ID: {}, catalogId: {})",
-                                    level2.getCategoryLevel2Name(), level2.getId(), level2CatalogId);
-                            }
-
-                            // 🔑 关键：处理三级分类
-                            @SuppressWarnings("unchecked")
-                            List<Map<String, Object>> level3Children =
-                                (List<Map<String, Object>>) level2Data.get("childCatelogs");
-
-                            if (level3Children != null && !level3Children.isEmpty()) {
-                                for (Map<String, Object> level3Data : level3Children) {
-                                    // 获取三级分类名称，如果为空则跳过
-                                    String level3CatalogName = (String) level3Data.get("catalogNameEn");
-                                    if (level3CatalogName == null || level3CatalogName.trim().isEmpty()) {
-                                        log.warn("    跳过空三级分类名称,catalogId: {}", level3Data.get("catalogId"));
-                                        continue;
-                                    }
-
-                                    // UPSERT三级分类（基于catalog_id查询是否存在）
-                                    String level3CatalogId = String.valueOf(level3Data.get("catalogId"));
-                                    CategoryLevel3Code level3 = level3Mapper.selectOne(
-                                        new QueryWrapper<CategoryLevel3Code>().eq("catalog_id", level3CatalogId)
-                                    );
-
-                                    boolean isLevel3New = (level3 == null);
-                                    if (isLevel3New) {
-                                        level3 = new CategoryLevel3Code();
-                                        level3.setCatalogId(level3CatalogId);
-                                        level3.setCrawlStatus("NOT_STARTED");
-                                        level3.setCrawlProgress(0);
-                                        level3.setCreatedAt(LocalDateTime.now());
-                                        level3.setIsCustomized(0); // 新分类，未被修改过
-                                    }
-
-                                    // P0-5: 分类名称持久化逻辑
-                                    // 总是更新source_name为API返回的名称
-                                    level3.setSourceName(level3CatalogName);
-
-                                    // 根据is_customized决定是否更新显示名称
-                                    if (level3.getIsCustomized() == null || level3.getIsCustomized() == 0) {
-                                        // 未被用户修改过，使用API名称
-                                        level3.setCategoryLevel3Name(level3CatalogName);
-                                    } else {
-                                        // 已被用户修改过，保持custom_name，显示名称不变
-                                        if (level3.getCustomName() != null && !level3.getCustomName().isEmpty()) {
-                                            level3.setCategoryLevel3Name(level3.getCustomName());
-                                        }
-                                        log.debug("    保持用户自定义名称: {} (源名称: {})",
-                                            level3.getCategoryLevel3Name(), level3CatalogName);
-                                    }
-
-                                    level3.setCategoryLevel1Id(level1.getId());
-                                    level3.setCategoryLevel2Id(level2.getId());
-                                    level3.setUpdatedAt(LocalDateTime.now());
-
-                                    if (isLevel3New) {
-                                        level3Mapper.insert(level3);
-                                        level3Count++;
-                                        log.debug("    插入三级分类: {} (ID: {}, catalogId: {})",
-                                            level3.getCategoryLevel3Name(), level3.getId(), level3CatalogId);
-                                    } else {
-                                        level3Mapper.updateById(level3);
-                                        level3Updated++;
-                                        log.debug("    更新三级分类: {} (ID: {}, catalogId: {})",
-                                            level3.getCategoryLevel3Name(), level3.getId(), level3CatalogId);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-
-                // 5. 更新Redis状态
-                log.info("步骤5: 更新Redis状态");
+                // 4. 更新Redis状态
+                log.info("步骤4: 更新Redis状态");
                 redisTemplate.opsForHash().put(REDIS_STATE_KEY, "categoriesSynced", true);
 
                 log.info("========== 分类同步完成 ==========");
-                log.info("一级分类: 新增={} 个, 更新={} 个", level1Count, level1Updated);
-                log.info("二级分类: 新增={} 个, 更新={} 个", level2Count, level2Updated);
-                log.info("三级分类: 新增={} 个, 更新={} 个", level3Count, level3Updated);
+                log.info("一级分类: 新增={} 个, 更新={} 个, 未变={} 个, 孤立={} 个",
+                    summary.level1Inserted, summary.level1Updated, summary.level1Unchanged, summary.level1Orphans);
+                log.info("二级分类: 新增={} 个, 更新={} 个, 未变={} 个, 孤立={} 个",
+                    summary.level2Inserted, summary.level2Updated, summary.level2Unchanged, summary.level2Orphans);
+                log.info("三级分类: 新增={} 个, 更新={} 个, 未变={} 个, 孤立={} 个",
+                    summary.level3Inserted, summary.level3Updated, summary.level3Unchanged, summary.level3Orphans);
+
+                boolean changed = summary.hasChanges();
+                if (changed) {
+                    // 分类有变化时，刷新内存分类字典，产品列表/导出随即使用新名称
+                    try {
+                        categoryDictionaryService.refresh();
+                    } catch (Exception e) {
+                        log.warn("刷新分类字典失败: {}", e.getMessage());
+                    }
+                } else {
+                    log.info("分类无变化，跳过分类字典刷新");
+                }
 
-                // 同步完成后，刷新 Redis 中的分类名称映射，便于后续下载/处理快速读取
+                // 分类有变化或映射缺失时，刷新 Redis 中的分类名称映射，便于后续下载/处理快速读取
                 try {
-                    refreshCategoryNameMappings();
+                    if (changed || !Boolean.TRUE.equals(redisTemplate.hasKey("crawler:category:names:l1"))) {
+                        refreshCategoryNameMappings();
+                    }
                 } catch (Exception e) {
                     log.warn("刷新分类名称映射到Redis失败: {}", e.getMessage());
                 }
 
-                return Map.of(
-                    "success", true,
-                    "level1Count", level1Count,
-                    "level2Count", level2Count,
-                    "level3Count", level3Count,
-                    "level1Updated", level1Updated,
-                    "level2Updated", level2Updated,
-                    "level3Updated", level3Updated,
-                    "message", "分类同步成功"
-                );
+                Map<String, Object> result = new HashMap<>();
+                result.put("success", true);
+                result.put("changed", changed);
+                result.put("level1Count", summary.level1Inserted);
+                result.put("level2Count", summary.level2Inserted);
+                result.put("level3Count", summary.level3Inserted);
+                result.put("level1Updated", summary.level1Updated);
+                result.put("level2Updated", summary.level2Updated);
+                result.put("level3Updated", summary.level3Updated);
+                result.put("level1Unchanged", summary.level1Unchanged);
+                result.put("level2Unchanged", summary.level2Unchanged);
+                result.put("level3Unchanged", summary.level3Unchanged);
+                result.put("level1Orphans", summary.level1Orphans);
+                result.put("level2Orphans", summary.level2Orphans);
+                result.put("level3Orphans", summary.level3Orphans);
+                result.put("message", changed ? "分类同步成功" : "分类同步成功（无变化）");
+                return result;
 
             } catch (Exception e) {
                 log.error("分类同步失败", e);
@@ -313,6 +162,281 @@ public class CategorySyncService {
         });
     }
 
+    /**
+     * 按层级比对并写入分类树（在事务内调用）
+     * 上级分类先写入，新增分类的ID回查后供下级使用
+     */
+    private SyncSummary applyCatalogTree(List<Map<String, Object>> catalogList) {
+        SyncSummary summary = new SyncSummary();
+
+        Map<String, CategoryLevel1Code> existingLevel1 = new HashMap<>();
+        for (CategoryLevel1Code category : level1Mapper.selectList(null)) {
+            existingLevel1.put(category.getCatalogId(), category);
+        }
+        Map<String, CategoryLevel2Code> existingLevel2 = new HashMap<>();
+        for (CategoryLevel2Code category : level2Mapper.selectList(null)) {
+            existingLevel2.put(category.getCatalogId(), category);
+        }
+        Map<String, CategoryLevel3Code> existingLevel3 = new HashMap<>();
+        for (CategoryLevel3Code category : level3Mapper.selectList(null)) {
+            existingLevel3.put(category.getCatalogId(), category);
+        }
+
+        // 解析API分类树（按catalogId去重，后出现的覆盖先出现的）
+        Map<String, String> level1Names = new LinkedHashMap<>();
+        Map<String, CatalogNode> level2Nodes = new LinkedHashMap<>();
+        Map<String, CatalogNode> level3Nodes = new LinkedHashMap<>();
+        for (Map<String, Object> level1Data : catalogList) {
+            String level1Name = catalogName(level1Data);
+            if (level1Name == null) {
+                log.warn("跳过空分类名称,catalogId: {}", level1Data.get("catalogId"));
+                continue;
+            }
+            String level1CatalogId = String.valueOf(level1Data.get("catalogId"));
+            level1Names.put(level1CatalogId, level1Name);
+
+            for (Map<String, Object> level2Data : children(level1Data)) {
+                String level2Name = catalogName(level2Data);
+                if (level2Name == null) {
+                    log.warn("跳过空二级分类名称,catalogId: {}", level2Data.get("catalogId"));
+                    continue;
+                }
+                String level2CatalogId = String.valueOf(level2Data.get("catalogId"));
+                level2Nodes.put(level2CatalogId, new CatalogNode(level2Name, level1CatalogId, null));
+
+                for (Map<String, Object> level3Data : children(level2Data)) {
+                    String level3Name = catalogName(level3Data);
+                    if (level3Name == null) {
+                        log.warn("    跳过空三级分类名称,catalogId: {}", level3Data.get("catalogId"));
+                        continue;
+                    }
+                    String level3CatalogId = String.valueOf(level3Data.get("catalogId"));
+                    level3Nodes.put(level3CatalogId, new CatalogNode(level3Name, level1CatalogId, level2CatalogId));
+                }
+            }
+        }
+
+        // 一级分类
+        List<CategoryLevel1Code> level1Inserts = new ArrayList<>();
+        List<CategoryLevel1Code> level1Updates = new ArrayList<>();
+        for (Map.Entry<String, String> entry : level1Names.entrySet()) {
+            String sourceName = entry.getValue();
+            CategoryLevel1Code current = existingLevel1.get(entry.getKey());
+            if (current == null) {
+                CategoryLevel1Code category = new CategoryLevel1Code();
+                category.setCatalogId(entry.getKey());
+                category.setSourceName(sourceName);
+                category.setCategoryLevel1Name(sourceName);
+                level1Inserts.add(category);
+                continue;
+            }
+            String displayName = displayName(current.getIsCustomized(), current.getCustomName(),
+                current.getCategoryLevel1Name(), sourceName);
+            if (Objects.equals(sourceName, current.getSourceName())
+                    && Objects.equals(displayName, current.getCategoryLevel1Name())) {
+                summary.level1Unchanged++;
+                continue;
+            }
+            current.setSourceName(sourceName);
+            current.setCategoryLevel1Name(displayName);
+            level1Updates.add(current);
+        }
+        forEachChunk(level1Inserts, level1Mapper::insertBatch);
+        forEachChunk(level1Updates, level1Mapper::updateSyncBatch);
+        summary.level1Inserted = level1Inserts.size();
+        summary.level1Updated = level1Updates.size();
+        summary.level1Orphans = countOrphans(existingLevel1.keySet(), level1Names.keySet());
+        if (!level1Inserts.isEmpty()) {
+            for (CategoryLevel1Code category : selectInserted(level1Inserts, CategoryLevel1Code::getCatalogId,
+                    ids -> level1Mapper.selectList(new QueryWrapper<CategoryLevel1Code>().in("catalog_id", ids)))) {
+                existingLevel1.put(category.getCatalogId(), category);
+            }
+        }
+
+        // 二级分类
+        List<CategoryLevel2Code> level2Inserts = new ArrayList<>();
+        List<CategoryLevel2Code> level2Updates = new ArrayList<>();
+        for (Map.Entry<String, CatalogNode> entry : level2Nodes.entrySet()) {
+            CatalogNode node = entry.getValue();
+            Integer level1Id = idOf(existingLevel1.get(node.level1CatalogId), CategoryLevel1Code::getId);
+            CategoryLevel2Code current = existingLevel2.get(entry.getKey());
+            if (current == null) {
+                CategoryLevel2Code category = new CategoryLevel2Code();
+                category.setCatalogId(entry.getKey());
+                category.setSourceName(node.name);
+                category.setCategoryLevel2Name(node.name);
+                category.setCategoryLevel1Id(level1Id);
+                level2Inserts.add(category);
+                continue;
+            }
+            String displayName = displayName(current.getIsCustomized(), current.getCustomName(),
+                current.getCategoryLevel2Name(), node.name);
+            if (Objects.equals(node.name, current.getSourceName())
+                    && Objects.equals(displayName, current.getCategoryLevel2Name())
+                    && Objects.equals(level1Id, current.getCategoryLevel1Id())) {
+                summary.level2Unchanged++;
+                continue;
+            }
+            current.setSourceName(node.name);
+            current.setCategoryLevel2Name(displayName);
+            current.setCategoryLevel1Id(level1Id);
+            level2Updates.add(current);
+        }
+        forEachChunk(level2Inserts, level2Mapper::insertBatch);
+        forEachChunk(level2Updates, level2Mapper::updateSyncBatch);
+        summary.level2Inserted = level2Inserts.size();
+        summary.level2Updated = level2Updates.size();
+        summary.level2Orphans = countOrphans(existingLevel2.keySet(), level2Nodes.keySet());
+        if (!level2Inserts.isEmpty()) {
+            for (CategoryLevel2Code category : selectInserted(level2Inserts, CategoryLevel2Code::getCatalogId,
+                    ids -> level2Mapper.selectList(new QueryWrapper<CategoryLevel2Code>().in("catalog_id", ids)))) {
+                existingLevel2.put(category.getCatalogId(), category);
+            }
+        }
+
+        // 三级分类
+        List<CategoryLevel3Code> level3Inserts = new ArrayList<>();
+        List<CategoryLevel3Code> level3Updates = new ArrayList<>();
+        for (Map.Entry<String, CatalogNode> entry : level3Nodes.entrySet()) {
+            CatalogNode node = entry.getValue();
+            Integer level1Id = idOf(existingLevel1.get(node.level1CatalogId), CategoryLevel1Code::getId);
+            Integer level2Id = idOf(existingLevel2.get(node.level2CatalogId), CategoryLevel2Code::getId);
+            CategoryLevel3Code current = existingLevel3.get(entry.getKey());
+            if (current == null) {
+                CategoryLevel3Code category = new CategoryLevel3Code();
+                category.setCatalogId(entry.getKey());
+                category.setSourceName(node.name);
+                category.setCategoryLevel3Name(node.name);
+                category.setCategoryLevel1Id(level1Id);
+                category.setCategoryLevel2Id(level2Id);
+                level3Inserts.add(category);
+                continue;
+            }
+            String displayName = displayName(current.getIsCustomized(), current.getCustomName(),
+                current.getCategoryLevel3Name(), node.name);
+            if (Objects.equals(node.name, current.getSourceName())
+                    && Objects.equals(displayName, current.getCategoryLevel3Name())
+                    && Objects.equals(level1Id, current.getCategoryLevel1Id())
+                    && Objects.equals(level2Id, current.getCategoryLevel2Id())) {
+                summary.level3Unchanged++;
+                continue;
+            }
+            current.setSourceName(node.name);
+            current.setCategoryLevel3Name(displayName);
+            current.setCategoryLevel1Id(level1Id);
+            current.setCategoryLevel2Id(level2Id);
+            level3Updates.add(current);
+        }
+        forEachChunk(level3Inserts, level3Mapper::insertBatch);
+        forEachChunk(level3Updates, level3Mapper::updateSyncBatch);
+        summary.level3Inserted = level3Inserts.size();
+        summary.level3Updated = level3Updates.size();
+        summary.level3Orphans = countOrphans(existingLevel3.keySet(), level3Nodes.keySet());
+
+        return summary;
+    }
+
+    /**
+     * 显示名称：未被用户修改过时使用API名称，否则保持自定义名称
+     */
+    private String displayName(Integer isCustomized, String customName, String currentName, String sourceName) {
+        if (isCustomized == null || isCustomized == 0) {
+            return sourceName;
+        }
+        if (customName != null && !customName.isEmpty()) {
+            return customName;
+        }
+        return currentName;
+    }
+
+    private String catalogName(Map<String, Object> data) {
+        String name = (String) data.get("catalogNameEn");
+        return name == null || name.trim().isEmpty() ? null : name;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> children(Map<String, Object> data) {
+        List<Map<String, Object>> children = (List<Map<String, Object>>) data.get("childCatelogs");
+        return children != null ? children : List.of();
+    }
+
+    private <T> Integer idOf(T category, Function<T, Integer> idGetter) {
+        return category != null ? idGetter.apply(category) : null;
+    }
+
+    private int countOrphans(Set<String> existingCatalogIds, Set<String> apiCatalogIds) {
+        int orphans = 0;
+        for (String catalogId : existingCatalogIds) {
+            if (!apiCatalogIds.contains(catalogId)) {
+                orphans++;
+            }
+        }
+        return orphans;
+    }
+
+    /**
+     * 分块执行批量语句，避免单条SQL过长
+     */
+    private <T> void forEachChunk(List<T> items, Consumer<List<T>> writer) {
+        for (int from = 0; from < items.size(); from += SYNC_BATCH_SIZE) {
+            writer.accept(items.subList(from, Math.min(from + SYNC_BATCH_SIZE, items.size())));
+        }
+    }
+
+    /**
+     * 按catalogId分块回查新增分类（取得自增ID）
+     */
+    private <T> List<T> selectInserted(List<T> inserted, Function<T, String> catalogIdGetter,
+                                       Function<List<String>, List<T>> selector) {
+        List<T> result = new ArrayList<>(inserted.size());
+        for (int from = 0; from < inserted.size(); from += SYNC_BATCH_SIZE) {
+            List<String> catalogIds = new ArrayList<>();
+            for (T item : inserted.subList(from, Math.min(from + SYNC_BATCH_SIZE, inserted.size()))) {
+                catalogIds.add(catalogIdGetter.apply(item));
+            }
+            result.addAll(selector.apply(catalogIds));
+        }
+        return result;
+    }
+
+    /**
+     * API分类树中的二/三级分类节点
+     */
+    private static class CatalogNode {
+        private final String name;
+        private final String level1CatalogId;
+        private final String level2CatalogId;
+
+        CatalogNode(String name, String level1CatalogId, String level2CatalogId) {
+            this.name = name;
+            this.level1CatalogId = level1CatalogId;
+            this.level2CatalogId = level2CatalogId;
+        }
+    }
+
+    /**
+     * 同步变化汇总
+     */
+    private static class SyncSummary {
+        private int level1Inserted;
+        private int level1Updated;
+        private int level1Unchanged;
+        private int level1Orphans;
+        private int level2Inserted;
+        private int level2Updated;
+        private int level2Unchanged;
+        private int level2Orphans;
+        private int level3Inserted;
+        private int level3Updated;
+        private int level3Unchanged;
+        private int level3Orphans;
+
+        boolean hasChanges() {
+            return level1Inserted + level1Updated + level2Inserted + level2Updated
+                + level3Inserted + level3Updated > 0;
+        }
+    }
+
     /**
      * 刷新 Redis 中的分类名称映射
      * - crawler:category:names:l1: { level1Id -> level1Name }
@@ -0,0 +1,199 @@
+package com.lcsc.service.crawler.v3;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.lcsc.controller.CrawlerWebSocketController;
+
+/**
+ * 爬虫进度聚合器
+ * Worker每页只在内存中更新任务进度，由定时任务按固定间隔（默认250ms）合并成一帧，
+ * 只把自上一帧以来变化的字段推送到 /topic/crawler/progress；客户端订阅 /app/crawler/progress 获取全量快照，
+ * 再按帧序号 seq 应用增量。原 /topic/crawler/v3 的 PROGRESS_UPDATE 消息作为兼容视图，每帧每个任务最多发送一次。
+ * <p>
+ * 进度按任务ID聚合：拆分出的品牌/维度子任务与父任务共用分类ID并行执行，按分类聚合会相互覆盖；
+ * 分类ID作为 catalogId 字段随进度一起推送。
+ *
+ * @author lcsc-crawler
+ * @since 2026-10-18
+ */
+@Component
+public class CrawlerProgressAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlerProgressAggregator.class);
+
+    public static final String PROGRESS_TOPIC = "/topic/crawler/progress";
+    private static final String LEGACY_TOPIC = "/topic/crawler/v3";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * 任务ID -> 进度状态
+     */
+    private final Map<String, ProgressEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 自上一帧以来有变化的任务
+     */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong frameSeq = new AtomicLong();
+    private final AtomicLong updatesReceived = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+
+    /**
+     * 更新任务进度（合并到内存状态，不直接推送）
+     */
+    public void update(String taskId, Integer catalogId, Map<String, Object> fields) {
+        if (taskId == null || fields == null || fields.isEmpty()) {
+            return;
+        }
+        ProgressEntry entry = entries.computeIfAbsent(taskId, k -> new ProgressEntry());
+        synchronized (entry) {
+            entry.current.putAll(fields);
+            entry.current.put("taskId", taskId);
+            entry.current.put("catalogId", catalogId);
+            entry.finished = false;
+        }
+        updatesReceived.incrementAndGet();
+        dirty.add(taskId);
+    }
+
+    /**
+     * 标记任务结束，最终状态随下一帧推送后从快照中移除
+     */
+    public void finish(String taskId, Integer catalogId, String status) {
+        if (taskId == null) {
+            return;
+        }
+        ProgressEntry entry = entries.computeIfAbsent(taskId, k -> new ProgressEntry());
+        synchronized (entry) {
+            entry.current.put("taskId", taskId);
+            entry.current.putIfAbsent("catalogId", catalogId);
+            entry.current.put("status", status);
+            entry.finished = true;
+        }
+        dirty.add(taskId);
+    }
+
+    /**
+     * 按帧间隔合并推送增量
+     */
+    @Scheduled(fixedDelayString = "${crawler.progress.frame-interval-ms:250}")
+    public void flushFrame() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, Object>> updates = new LinkedHashMap<>();
+        List<String> removed = new ArrayList<>();
+        List<Map<String, Object>> legacy = new ArrayList<>();
+
+        for (String taskId : new ArrayList<>(dirty)) {
+            dirty.remove(taskId);
+            ProgressEntry entry = entries.get(taskId);
+            if (entry == null) {
+                continue;
+            }
+            synchronized (entry) {
+                Map<String, Object> delta = new HashMap<>();
+                for (Map.Entry<String, Object> field : entry.current.entrySet()) {
+                    if (!Objects.equals(field.getValue(), entry.lastSent.get(field.getKey()))) {
+                        delta.put(field.getKey(), field.getValue());
+                    }
+                }
+                entry.lastSent.putAll(delta);
+                if (!delta.isEmpty()) {
+                    updates.put(taskId, delta);
+                }
+                if (entry.finished) {
+                    entries.remove(taskId, entry);
+                    removed.add(taskId);
+                } else if (!delta.isEmpty()) {
+                    legacy.add(new HashMap<>(entry.current));
+                }
+            }
+        }
+
+        if (updates.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Object> frame = new HashMap<>();
+            frame.put("type", "PROGRESS_DELTA");
+            frame.put("seq", frameSeq.incrementAndGet());
+            frame.put("timestamp", LocalDateTime.now());
+            frame.put("updates", updates);
+            frame.put("removed", removed);
+            messagingTemplate.convertAndSend(PROGRESS_TOPIC, frame);
+            framesSent.incrementAndGet();
+
+            // 兼容视图：旧前端仍订阅 /topic/crawler/v3 的 PROGRESS_UPDATE
+            for (Map<String, Object> data : legacy) {
+                messagingTemplate.convertAndSend(LEGACY_TOPIC, CrawlerWebSocketController.CrawlerMessage.builder()
+                    .type("PROGRESS_UPDATE")
+                    .message("PROGRESS_UPDATE")
+                    .timestamp(LocalDateTime.now())
+                    .data(data)
+                    .build());
+            }
+        } catch (Exception e) {
+            log.error("推送进度帧失败", e);
+        }
+    }
+
+    /**
+     * 获取全量快照（新订阅客户端使用），seq为快照对应的最新帧序号
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Map<String, Object>> tasks = new LinkedHashMap<>();
+        long seq = frameSeq.get();
+        entries.forEach((taskId, entry) -> {
+            synchronized (entry) {
+                tasks.put(taskId, new HashMap<>(entry.current));
+            }
+        });
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("type", "PROGRESS_SNAPSHOT");
+        snapshot.put("seq", seq);
+        snapshot.put("timestamp", LocalDateTime.now());
+        snapshot.put("tasks", tasks);
+        return snapshot;
+    }
+
+    /**
+     * 聚合统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeEntries", entries.size());
+        stats.put("updatesReceived", updatesReceived.get());
+        stats.put("framesSent", framesSent.get());
+        stats.put("lastSeq", frameSeq.get());
+        return stats;
+    }
+
+    private static class ProgressEntry {
+        private final Map<String, Object> current = new HashMap<>();
+        private final Map<String, Object> lastSent = new HashMap<>();
+        private boolean finished;
+    }
+}
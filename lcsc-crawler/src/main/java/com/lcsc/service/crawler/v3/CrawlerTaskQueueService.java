@@ -6,6 +6,7 @@ import com.lcsc.entity.CategoryLevel3Code;
 import com.lcsc.mapper.CategoryLevel1CodeMapper;
 import com.lcsc.mapper.CategoryLevel2CodeMapper;
 import com.lcsc.service.CategoryLevel3CodeService;
+import com.lcsc.service.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -55,6 +56,9 @@ public class CrawlerTaskQueueService {
     @Autowired
     private CategoryLevel3CodeService level3Service;
 
+    @Autowired
+    private ProductService productService;
+
     /**
      * 创建单个分类爬取任务（智能识别二级或三级分类）
      * @param categoryId 分类ID（可能是二级或三级分类的ID）
@@ -390,6 +394,9 @@ public class CrawlerTaskQueueService {
                 }
             }
 
+            // 7. 任务期间产品数据可能已变化（失败任务也可能写入了部分页），使品牌列表/统计缓存失效
+            productService.invalidateAggregateCache();
+
             log.info("任务完成: taskId={}, catalogId={}, level={}, success={}",
                 taskId, catalogId, categoryLevel, success);
 
@@ -167,6 +167,13 @@ CREATE TABLE `products` (
   UNIQUE KEY `product_code` (`product_code`),
   KEY `idx_category_level2` (`category_level2_id`),
   KEY `idx_category_level3` (`category_level3_id`),
+  KEY `idx_last_crawled_id` (`last_crawled_at`,`id`),
+  KEY `idx_cat1_crawled_id` (`category_level1_id`,`last_crawled_at`,`id`),
+  KEY `idx_cat2_crawled_id` (`category_level2_id`,`last_crawled_at`,`id`),
+  KEY `idx_brand` (`brand`),
+  KEY `idx_model` (`model`),
+  KEY `idx_package_name` (`package_name`),
+  FULLTEXT KEY `ft_product_search` (`model`,`brand`,`package_name`,`parameters_text`) WITH PARSER ngram,
   KEY `idx_category_level1_name` (`category_level1_name`),
   KEY `idx_category_level2_name` (`category_level2_name`),
   KEY `idx_ladder_price1_quantity` (`ladder_price1_quantity`),
@@ -174,6 +181,31 @@ CREATE TABLE `products` (
   KEY `idx_ladder_price3_quantity` (`ladder_price3_quantity`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='产品表';
 
+-- 产品数值参数表（参数检索的范围过滤，随产品入库增量维护）
+DROP TABLE IF EXISTS `product_param_values`;
+CREATE TABLE `product_param_values` (
+  `product_id` int NOT NULL COMMENT '产品ID',
+  `param_name` varchar(100) NOT NULL COMMENT '参数英文名（paramNameEn）',
+  `numeric_value` double NOT NULL COMMENT '换算为基本单位后的数值',
+  `unit` varchar(20) DEFAULT NULL COMMENT '基本单位（如Ω、F、V、Hz）',
+  PRIMARY KEY (`product_id`,`param_name`),
+  KEY `idx_param_value` (`param_name`,`numeric_value`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='产品数值参数表';
+
+-- 产品存储资源索引（下载服务增量维护，后台扫描校准）
+DROP TABLE IF EXISTS `storage_product_assets`;
+CREATE TABLE `storage_product_assets` (
+  `product_code` varchar(50) NOT NULL COMMENT '产品编号',
+  `image_count` int NOT NULL DEFAULT '0' COMMENT '图片文件数',
+  `pdf_count` int NOT NULL DEFAULT '0' COMMENT 'PDF文件数',
+  `image_bytes` bigint NOT NULL DEFAULT '0' COMMENT '图片总字节数',
+  `pdf_bytes` bigint NOT NULL DEFAULT '0' COMMENT 'PDF总字节数',
+  `last_modified` datetime DEFAULT NULL COMMENT '最近文件修改时间',
+  `indexed_at` datetime NOT NULL COMMENT '最近写入索引时间',
+  PRIMARY KEY (`product_code`),
+  KEY `idx_last_modified` (`last_modified`,`product_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='产品存储资源索引表';
+
 -- 店铺表
 DROP TABLE IF EXISTS `shops`;
 CREATE TABLE `shops` (